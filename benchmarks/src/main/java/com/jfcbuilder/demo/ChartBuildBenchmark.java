@@ -0,0 +1,79 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jfree.chart.JFreeChart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end benchmarks of the {@link com.jfcbuilder.builders.ChartBuilder} pipelines used by
+ * {@link JFreeChartBuilderDemo}, over the demo's own data sets. Lives in the demo package to reach
+ * the package-private chart factory methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class ChartBuildBenchmark {
+
+  @Benchmark
+  public JFreeChart simpleTimeSeriesWithAnnotations() {
+    return JFreeChartBuilderDemo.simpleTimeSeriesWithAnnotations();
+  }
+
+  @Benchmark
+  public JFreeChart multiDailyTimeSeries() {
+    return JFreeChartBuilderDemo.multiDailyTimeSeries();
+  }
+
+  @Benchmark
+  public JFreeChart multiPlotMinuteTimeSeries() {
+    return JFreeChartBuilderDemo.multiPlotMinuteTimeSeries();
+  }
+
+  @Benchmark
+  public JFreeChart stockChartDailyWithGapsAndAnnotations() {
+    return JFreeChartBuilderDemo.stockChartDailyWithGapsAndAnnotations();
+  }
+
+  @Benchmark
+  public JFreeChart dailyStockChart() {
+    return JFreeChartBuilderDemo.getDailyStockChartBuilder().build();
+  }
+
+  @Benchmark
+  public JFreeChart stockChartDailyNoGaps() {
+    return JFreeChartBuilderDemo.stockChartDailyNoGaps();
+  }
+
+}
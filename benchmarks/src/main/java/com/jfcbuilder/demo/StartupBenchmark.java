@@ -0,0 +1,69 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.XYPlot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cold start benchmarks of {@link JFreeChartBuilderDemo}: each measurement runs once in a fresh JVM
+ * so it includes loading the demo class and computing the data the chart needs, the way the first
+ * chart is shown after launching the app. A JFreeChart is created during setup, as the window would
+ * be, so that the JFreeChart class loading isn't counted.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 20, jvmArgsAppend = { "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+  @Setup
+  public void setup() {
+    new JFreeChart(new XYPlot());
+  }
+
+  @Benchmark
+  public JFreeChart firstChart() {
+    JFreeChartBuilderDemo.precomputeDemoData();
+    return JFreeChartBuilderDemo.simpleTimeSeriesWithAnnotations();
+  }
+
+  @Benchmark
+  public JFreeChart firstStockChart() {
+    JFreeChartBuilderDemo.precomputeDemoData();
+    return JFreeChartBuilderDemo.stockChartDailyNoGaps();
+  }
+
+}
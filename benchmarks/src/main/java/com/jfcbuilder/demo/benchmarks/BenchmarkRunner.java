@@ -0,0 +1,93 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.benchmarks;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks JAR. Accepts the regular JMH command line options but defaults to
+ * running with the GC (allocation) profiler and writing JSON results to a time-stamped file so that
+ * separate runs can be compared. Everything runs locally with no network access.
+ */
+public class BenchmarkRunner {
+
+  private static final DateTimeFormatter RESULT_FILE_TIMESTAMP = DateTimeFormatter
+      .ofPattern("yyyyMMdd-HHmmss");
+
+  /**
+   * Hidden constructor
+   */
+  private BenchmarkRunner() {
+    // Explicitly do nothing
+  }
+
+  /**
+   * Main entry point to the benchmarks.
+   * 
+   * @param args JMH command line options, for example a benchmark name regex or -p size=1000
+   * @throws CommandLineOptionException If the command line options are invalid
+   * @throws IOException If the help text cannot be written
+   * @throws RunnerException If a benchmark fails to run
+   */
+  public static void main(String[] args)
+      throws CommandLineOptionException, IOException, RunnerException {
+
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+
+    if (cmdOptions.shouldHelp()) {
+      cmdOptions.showHelp();
+      return;
+    }
+
+    if (cmdOptions.shouldList()) {
+      new Runner(cmdOptions).list();
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+
+    if (cmdOptions.getProfilers().isEmpty()) {
+      options.addProfiler(GCProfiler.class);
+    }
+
+    if (!cmdOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+
+    if (!cmdOptions.getResult().hasValue()) {
+      options.result("jmh-result-" + RESULT_FILE_TIMESTAMP.format(LocalDateTime.now()) + ".json");
+    }
+
+    new Runner(options.build()).run();
+  }
+
+}
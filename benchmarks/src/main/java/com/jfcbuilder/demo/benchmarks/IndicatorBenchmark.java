@@ -0,0 +1,154 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.benchmarks;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jfcbuilder.demo.data.providers.AscendingDateTimeGenerator;
+import com.jfcbuilder.demo.data.providers.RandomDohlcvGenerator;
+import com.jfcbuilder.demo.data.providers.numeric.IndicatorGraph;
+import com.jfcbuilder.demo.data.providers.numeric.RollingExtremum;
+import com.jfcbuilder.demo.data.providers.numeric.Sinusoid;
+import com.jfcbuilder.demo.data.providers.numeric.Sinusoid.SinusoidParams;
+import com.jfcbuilder.demo.data.providers.numeric.Sma;
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator;
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator.StochData;
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Benchmarks of the indicator calculations for series sizes from 1k to 10M values and a short and
+ * a long indicator period.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g", "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class IndicatorBenchmark {
+
+  private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+  private static final int D = 3;
+
+  private static final int NUM_OVERLAYS = 20;
+
+  @Param({ "1000", "100000", "1000000", "10000000" })
+  private int size;
+
+  @Param({ "14", "200" })
+  private int period;
+
+  private DohlcvSeries dohlcv;
+
+  @Setup
+  public void setup() {
+    long[] dates = AscendingDateTimeGenerator.get().getDateTimes(START_DATE,
+        START_DATE.plus(size, ChronoUnit.MINUTES), ChronoUnit.MINUTES, Collections.emptySet());
+    dohlcv = RandomDohlcvGenerator.get().getDohlcv(dates);
+  }
+
+  @Benchmark
+  public double[] sma() {
+    return Sma.calculate(period, dohlcv.closes());
+  }
+
+  @Benchmark
+  public double[] rollingMax() {
+    return RollingExtremum.calculateMax(period, dohlcv.highs());
+  }
+
+  @Benchmark
+  public StochData stochastic() {
+    return StochasticOscillator.calculate(period, D, dohlcv.highs(), dohlcv.lows(),
+        dohlcv.closes());
+  }
+
+  @Benchmark
+  public double[][] overlays() {
+
+    double[][] smas = new double[NUM_OVERLAYS][];
+
+    for (int n = 0; n < NUM_OVERLAYS; n++) {
+      smas[n] = Sma.calculate(period + n, dohlcv.closes());
+    }
+
+    return smas;
+  }
+
+  @Benchmark
+  public double[][] overlaysGraph() {
+
+    IndicatorGraph graph = IndicatorGraph.get(dohlcv);
+
+    double[][] smas = new double[NUM_OVERLAYS][];
+
+    for (int n = 0; n < NUM_OVERLAYS; n++) {
+      smas[n] = graph.sma(IndicatorGraph.Column.CLOSE, period + n);
+    }
+
+    return smas;
+  }
+
+  @Benchmark
+  public double[] sinusoidTrig() {
+
+    SinusoidParams lf = new SinusoidParams(100.0, 1.0 / period, 200.0);
+    SinusoidParams hf = new SinusoidParams(70.0, 3.0 / period, 140.0);
+
+    double[] values = new double[size];
+
+    for (int n = 0; n < size; n++) {
+      values[n] = Sinusoid.getCosineValue(lf, n) + Sinusoid.getSineValue(hf, n);
+    }
+
+    return values;
+  }
+
+  @Benchmark
+  public double[] sinusoidRecurrence() {
+
+    SinusoidParams lf = new SinusoidParams(100.0, 1.0 / period, 200.0);
+    SinusoidParams hf = new SinusoidParams(70.0, 3.0 / period, 140.0);
+
+    double[] values = new double[size];
+
+    Sinusoid.fillSum(new SinusoidParams[] { lf }, new SinusoidParams[] { hf }, 0, values, 0, size);
+
+    return values;
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.benchmarks;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jfcbuilder.demo.data.providers.AscendingDateTimeGenerator;
+import com.jfcbuilder.demo.data.providers.DohlcvResampler;
+import com.jfcbuilder.demo.data.providers.RandomDohlcvGenerator;
+import com.jfcbuilder.demo.data.providers.numeric.Sinusoid;
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Benchmarks of the data providers for series sizes from 1k to 10M values. Divide the GC
+ * profiler's gc.alloc.rate.norm (bytes per operation) by the size to get the allocation per bar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g", "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class ProviderBenchmark {
+
+  private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+  private static final Set<DayOfWeek> WEEKENDS = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+  @Param({ "1000", "100000", "1000000", "10000000" })
+  private int size;
+
+  private long[] dates;
+  private LocalDateTime endDate;
+  private DohlcvSeries minuteDohlcv;
+
+  @Setup
+  public void setup() {
+    endDate = START_DATE.plus(size, ChronoUnit.MINUTES);
+    dates = AscendingDateTimeGenerator.get().getDateTimes(START_DATE, endDate, ChronoUnit.MINUTES,
+        Collections.emptySet());
+    minuteDohlcv = RandomDohlcvGenerator.get().getDohlcv(dates);
+  }
+
+  @Benchmark
+  public DohlcvSeries randomDohlcv() {
+    return RandomDohlcvGenerator.get().getDohlcv(dates);
+  }
+
+  @Benchmark
+  public double[] sinusoidRandSeries() {
+    return Sinusoid.getRandSeries(60.0, size);
+  }
+
+  @Benchmark
+  public long[] ascendingDateTimes() {
+    return AscendingDateTimeGenerator.get().getDateTimes(START_DATE, endDate, ChronoUnit.MINUTES,
+        Collections.emptySet());
+  }
+
+  @Benchmark
+  public long[] ascendingDateTimesSkipWeekends() {
+    return AscendingDateTimeGenerator.get().getDateTimes(START_DATE, endDate, ChronoUnit.MINUTES,
+        WEEKENDS);
+  }
+
+  @Benchmark
+  public DohlcvSeries resampleHourly() {
+    return DohlcvResampler.get(1, ChronoUnit.HOURS, WEEKENDS).resample(minuteDohlcv);
+  }
+
+  @Benchmark
+  public DohlcvSeries resampleWeekly() {
+    return DohlcvResampler.get(1, ChronoUnit.WEEKS, WEEKENDS).resample(minuteDohlcv);
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.benchmarks;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jfcbuilder.demo.data.providers.AscendingDateTimeGenerator;
+import com.jfcbuilder.demo.data.providers.RandomDohlcvGenerator;
+import com.jfcbuilder.demo.data.providers.numeric.DohlcvRangeIndex;
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Benchmarks of range statistics (high, low and VWAP) over the last quarter of a series, the way a
+ * zoomed chart would autoscale, answered by a {@link DohlcvRangeIndex} versus rescanning the range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g", "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class RangeIndexBenchmark {
+
+  private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+  @Param({ "1000", "100000", "1000000", "10000000" })
+  private int size;
+
+  private DohlcvSeries dohlcv;
+  private DohlcvRangeIndex index;
+  private int startIndex;
+  private int endIndex;
+
+  @Setup
+  public void setup() {
+    long[] dates = AscendingDateTimeGenerator.get().getDateTimes(START_DATE,
+        START_DATE.plus(size, ChronoUnit.MINUTES), ChronoUnit.MINUTES, Collections.emptySet());
+    dohlcv = RandomDohlcvGenerator.get().getDohlcv(dates);
+    index = DohlcvRangeIndex.get(dohlcv);
+    endIndex = dohlcv.dates().length - 1;
+    startIndex = (int) (endIndex * 0.75);
+  }
+
+  @Benchmark
+  public DohlcvRangeIndex build() {
+    return DohlcvRangeIndex.get(dohlcv);
+  }
+
+  @Benchmark
+  public double indexQuery() {
+    return index.getHigh(startIndex, endIndex) - index.getLow(startIndex, endIndex)
+        + index.getVwap(startIndex, endIndex);
+  }
+
+  @Benchmark
+  public double scanQuery() {
+
+    final double[] highs = dohlcv.highs();
+    final double[] lows = dohlcv.lows();
+    final double[] closes = dohlcv.closes();
+    final double[] volumes = dohlcv.volumes();
+
+    double high = Double.NEGATIVE_INFINITY;
+    double low = Double.POSITIVE_INFINITY;
+    double priceVolume = 0.0;
+    double volume = 0.0;
+
+    for (int n = startIndex; n <= endIndex; n++) {
+      high = Math.max(high, highs[n]);
+      low = Math.min(low, lows[n]);
+      priceVolume += (highs[n] + lows[n] + closes[n]) / 3.0 * volumes[n];
+      volume += volumes[n];
+    }
+
+    return high - low + priceVolume / volume;
+  }
+
+}
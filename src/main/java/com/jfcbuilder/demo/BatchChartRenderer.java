@@ -0,0 +1,389 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+
+import com.jfcbuilder.demo.metrics.PipelineMetrics;
+import com.jfcbuilder.demo.metrics.PipelineStage;
+
+/**
+ * Headless batch renderer that builds and renders charts to image files on a bounded pool of worker
+ * threads. Each chart is written as PNG and, when a JFreeSVG library is on the classpath, as SVG.
+ * Per-chart build and render times plus the total throughput are reported once all charts are
+ * done.
+ * <p>
+ * Run with {@code -Djava.awt.headless=true} (which {@link #main(String[])} also sets) on machines
+ * without a display.
+ */
+public class BatchChartRenderer {
+
+  private static final int DEFAULT_WIDTH = 800;
+  private static final int DEFAULT_HEIGHT = 600;
+
+  // JFreeSVG has shipped its Graphics2D under these names over time.
+  private static final String[] SVG_GRAPHICS_CLASSES = { "org.jfree.svg.SVGGraphics2D",
+      "org.jfree.graphics2d.svg.SVGGraphics2D" };
+
+  /**
+   * Definition of one chart to render.
+   */
+  public static class ChartDefinition {
+
+    private final String name;
+    private final Supplier<JFreeChart> chartSupplier;
+    private final int width;
+    private final int height;
+
+    /**
+     * Constructor
+     * 
+     * @param name The name of the chart, used for the output file names
+     * @param chartSupplier Builds the chart. Called on a worker thread.
+     * @param width The image width in pixels
+     * @param height The image height in pixels
+     * @throws IllegalArgumentException If width or height are smaller than one (1).
+     */
+    public ChartDefinition(String name, Supplier<JFreeChart> chartSupplier, int width, int height)
+        throws IllegalArgumentException {
+
+      Objects.requireNonNull(name, "Name cannot be null");
+      Objects.requireNonNull(chartSupplier, "Chart supplier cannot be null");
+
+      if (width < 1 || height < 1) {
+        throw new IllegalArgumentException("Width and height must be greater than zero");
+      }
+
+      this.name = name;
+      this.chartSupplier = chartSupplier;
+      this.width = width;
+      this.height = height;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Supplier<JFreeChart> getChartSupplier() {
+      return chartSupplier;
+    }
+
+    public int getWidth() {
+      return width;
+    }
+
+    public int getHeight() {
+      return height;
+    }
+  }
+
+  /**
+   * Outcome of rendering one chart.
+   */
+  public static class RenderResult {
+
+    private final String name;
+    private final List<Path> files;
+    private final long buildNanos;
+    private final long renderNanos;
+
+    private RenderResult(String name, List<Path> files, long buildNanos, long renderNanos) {
+      this.name = name;
+      this.files = files;
+      this.buildNanos = buildNanos;
+      this.renderNanos = renderNanos;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public List<Path> getFiles() {
+      return files;
+    }
+
+    public long getBuildNanos() {
+      return buildNanos;
+    }
+
+    public long getRenderNanos() {
+      return renderNanos;
+    }
+  }
+
+  private final int numThreads;
+  private final Constructor<?> svgGraphicsConstructor;
+
+  /**
+   * Hidden constructor
+   */
+  private BatchChartRenderer(int numThreads) {
+    this.numThreads = numThreads;
+    this.svgGraphicsConstructor = findSvgGraphicsConstructor();
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param numThreads The number of worker threads
+   * @return New instance of this class
+   * @throws IllegalArgumentException If numThreads is smaller than one (1).
+   */
+  public static BatchChartRenderer get(int numThreads) throws IllegalArgumentException {
+
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("Number of threads must be greater than zero");
+    }
+
+    return new BatchChartRenderer(numThreads);
+  }
+
+  /**
+   * Tells whether charts are also written as SVG.
+   * 
+   * @return True if a JFreeSVG library was found on the classpath.
+   */
+  public boolean isSvgAvailable() {
+    return svgGraphicsConstructor != null;
+  }
+
+  /**
+   * Builds and renders all charts and writes their files.
+   * 
+   * @param charts The definitions of the charts to render
+   * @param outputDir The directory receiving the files. Created if missing.
+   * @return The results in the same order as the definitions
+   * @throws IOException If the output directory cannot be created or a file cannot be written.
+   * @throws InterruptedException If interrupted while waiting for the workers.
+   */
+  public List<RenderResult> render(List<ChartDefinition> charts, Path outputDir)
+      throws IOException, InterruptedException {
+
+    Objects.requireNonNull(charts, "Charts cannot be null");
+    Objects.requireNonNull(outputDir, "Output directory cannot be null");
+
+    Files.createDirectories(outputDir);
+
+    List<Callable<RenderResult>> tasks = new ArrayList<>(charts.size());
+
+    for (int n = 0; n < charts.size(); n++) {
+      final ChartDefinition chart = charts.get(n);
+      final String baseName = String.format("%05d-%s", n, toFileName(chart.getName()));
+      tasks.add(() -> render(chart, outputDir, baseName));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+    try {
+
+      List<RenderResult> results = new ArrayList<>(charts.size());
+
+      for (Future<RenderResult> future : executor.invokeAll(tasks)) {
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+          }
+          throw new IllegalStateException("Chart rendering failed", e.getCause());
+        }
+      }
+
+      return results;
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private RenderResult render(ChartDefinition definition, Path outputDir, String baseName)
+      throws IOException {
+
+    final long buildStart = System.nanoTime();
+
+    JFreeChart chart = definition.getChartSupplier().get();
+
+    final long renderStart = System.nanoTime();
+
+    List<Path> files = PipelineMetrics.time(PipelineStage.RENDER, "BatchChartRenderer",
+        () -> write(chart, definition, outputDir, baseName));
+
+    final long renderEnd = System.nanoTime();
+
+    return new RenderResult(definition.getName(), files, renderStart - buildStart,
+        renderEnd - renderStart);
+  }
+
+  private List<Path> write(JFreeChart chart, ChartDefinition definition, Path outputDir,
+      String baseName) throws IOException {
+
+    List<Path> files = new ArrayList<>(2);
+
+    Path pngFile = outputDir.resolve(baseName + ".png");
+    BufferedImage image = chart.createBufferedImage(definition.getWidth(), definition.getHeight());
+
+    try (OutputStream out = Files.newOutputStream(pngFile)) {
+      ChartUtils.writeBufferedImageAsPNG(out, image);
+    }
+
+    files.add(pngFile);
+
+    if (svgGraphicsConstructor != null) {
+      Path svgFile = outputDir.resolve(baseName + ".svg");
+      Files.write(svgFile, toSvg(chart, definition.getWidth(), definition.getHeight())
+          .getBytes(StandardCharsets.UTF_8));
+      files.add(svgFile);
+    }
+
+    return files;
+  }
+
+  private String toSvg(JFreeChart chart, int width, int height) throws IOException {
+
+    try {
+      Class<?> paramType = svgGraphicsConstructor.getParameterTypes()[0];
+      Graphics2D g2 = (Graphics2D) (paramType == double.class
+          ? svgGraphicsConstructor.newInstance((double) width, (double) height)
+          : svgGraphicsConstructor.newInstance(width, height));
+      chart.draw(g2, new Rectangle2D.Double(0, 0, width, height));
+      return (String) g2.getClass().getMethod("getSVGDocument").invoke(g2);
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("Failed to render SVG", e);
+    }
+  }
+
+  private static Constructor<?> findSvgGraphicsConstructor() {
+
+    for (String className : SVG_GRAPHICS_CLASSES) {
+
+      Class<?> svgClass;
+
+      try {
+        svgClass = Class.forName(className);
+      } catch (ClassNotFoundException e) {
+        continue;
+      }
+
+      for (Class<?> paramType : new Class<?>[] { double.class, int.class }) {
+        try {
+          return svgClass.getConstructor(paramType, paramType);
+        } catch (NoSuchMethodException e) {
+          // Try the next signature
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private static String toFileName(String name) {
+    return name.replaceAll("[^A-Za-z0-9._-]+", "-");
+  }
+
+  /**
+   * Prints the per-chart timings and the total throughput of a batch.
+   * 
+   * @param results The results of a batch
+   * @param elapsedNanos The wall-clock time taken by the batch
+   */
+  public static void printReport(List<RenderResult> results, long elapsedNanos) {
+
+    long totalBuildNanos = 0;
+    long totalRenderNanos = 0;
+
+    for (RenderResult result : results) {
+      totalBuildNanos += result.getBuildNanos();
+      totalRenderNanos += result.getRenderNanos();
+      System.out.println(String.format("%-70s build %8.2f ms  render %8.2f ms", result.getName(),
+          result.getBuildNanos() / 1e6, result.getRenderNanos() / 1e6));
+    }
+
+    final int numCharts = results.size();
+    final double elapsedSeconds = elapsedNanos / 1e9;
+
+    System.out.println(String.format(
+        "%d charts in %.3f s: %.1f charts/s (avg build %.2f ms, avg render %.2f ms per chart)",
+        numCharts, elapsedSeconds, numCharts / elapsedSeconds,
+        numCharts == 0 ? 0.0 : totalBuildNanos / 1e6 / numCharts,
+        numCharts == 0 ? 0.0 : totalRenderNanos / 1e6 / numCharts));
+  }
+
+  /**
+   * Renders the demonstration charts headlessly.
+   * 
+   * @param args Optional: output directory (default "charts"), number of copies of the demo chart
+   *        set (default 1), and number of worker threads (default number of processors).
+   * @throws IOException If the charts cannot be written
+   * @throws InterruptedException If interrupted while waiting for the workers
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+
+    System.setProperty("java.awt.headless", "true");
+
+    final Path outputDir = Paths.get(args.length > 0 ? args[0] : "charts");
+    final int numCopies = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+    final int numThreads = args.length > 2 ? Integer.parseInt(args[2])
+        : Runtime.getRuntime().availableProcessors();
+
+    List<ChartDefinition> charts = new ArrayList<>();
+
+    for (int n = 0; n < numCopies; n++) {
+      for (JFreeChartBuilderDemo.DemoChart demoChart : JFreeChartBuilderDemo.getDemoCharts()) {
+        charts.add(new ChartDefinition(demoChart.getTitle(), demoChart.getSupplier(),
+            DEFAULT_WIDTH, DEFAULT_HEIGHT));
+      }
+    }
+
+    BatchChartRenderer renderer = BatchChartRenderer.get(numThreads);
+
+    System.out.println(String.format("Rendering %d charts on %d threads to %s (SVG %s)",
+        charts.size(), numThreads, outputDir.toAbsolutePath(),
+        renderer.isSvgAvailable() ? "enabled" : "unavailable"));
+
+    final long start = System.nanoTime();
+
+    List<RenderResult> results = renderer.render(charts, outputDir);
+
+    printReport(results, System.nanoTime() - start);
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jfree.chart.JFreeChart;
+
+/**
+ * Size-bounded least-recently-used cache of built charts, keyed by name. Once the cache is full the
+ * least recently viewed chart is dropped. Charts are also only softly referenced so the garbage
+ * collector can reclaim them, along with their datasets, when memory runs low. Dropped charts are
+ * simply rebuilt the next time they are needed.
+ * <p>
+ * Not thread-safe. The demo window only uses it from the Swing event dispatch thread.
+ */
+public class ChartCache {
+
+  private final Map<String, SoftReference<JFreeChart>> charts;
+
+  /**
+   * Constructor
+   * 
+   * @param maxCharts The maximum number of charts to keep
+   * @throws IllegalArgumentException If maxCharts is smaller than one (1).
+   */
+  public ChartCache(int maxCharts) throws IllegalArgumentException {
+
+    if (maxCharts < 1) {
+      throw new IllegalArgumentException("Maximum number of charts must be greater than zero");
+    }
+
+    // Access order makes the eldest entry the least recently viewed one.
+    charts = new LinkedHashMap<String, SoftReference<JFreeChart>>(16, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, SoftReference<JFreeChart>> eldest) {
+        return size() > maxCharts;
+      }
+    };
+  }
+
+  /**
+   * Gets a cached chart and marks it as the most recently viewed one.
+   * 
+   * @param name The name of the chart
+   * @return The chart, or null if it isn't cached or has been reclaimed.
+   */
+  public JFreeChart get(String name) {
+
+    SoftReference<JFreeChart> reference = charts.get(name);
+
+    if (reference == null) {
+      return null;
+    }
+
+    JFreeChart chart = reference.get();
+
+    if (chart == null) {
+      charts.remove(name);
+    }
+
+    return chart;
+  }
+
+  /**
+   * Adds a chart as the most recently viewed one, dropping the least recently viewed chart if the
+   * cache is full.
+   * 
+   * @param name The name of the chart
+   * @param chart The chart
+   */
+  public void put(String name, JFreeChart chart) {
+    charts.put(name, new SoftReference<>(chart));
+  }
+
+}
@@ -20,26 +20,49 @@
 
 package com.jfcbuilder.demo;
 
+import java.awt.CardLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.HeadlessException;
 import java.awt.Stroke;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.swing.ButtonGroup;
+import javax.swing.JComponent;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
+import javax.swing.JPanel;
 import javax.swing.JRadioButtonMenuItem;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -48,22 +71,30 @@ import org.jfree.chart.ui.TextAnchor;
 import com.jfcbuilder.builders.BuilderConstants;
 import com.jfcbuilder.builders.ChartBuilder;
 import com.jfcbuilder.builders.LineBuilder;
-import com.jfcbuilder.builders.OhlcPlotBuilder;
-import com.jfcbuilder.builders.OhlcSeriesBuilder;
-import com.jfcbuilder.builders.VolumeXYPlotBuilder;
-import com.jfcbuilder.builders.VolumeXYTimeSeriesBuilder;
 import com.jfcbuilder.builders.XYArrowBuilder;
 import com.jfcbuilder.builders.XYTextBuilder;
 import com.jfcbuilder.builders.XYTimeSeriesBuilder;
 import com.jfcbuilder.builders.XYTimeSeriesPlotBuilder;
+import com.jfcbuilder.demo.ParallelChartBuilder.BuiltChart;
 import com.jfcbuilder.demo.data.providers.AscendingDateTimeGenerator;
 import com.jfcbuilder.demo.data.providers.IDateTimeSeriesProvider;
 import com.jfcbuilder.demo.data.providers.IDohlcvProvider;
 import com.jfcbuilder.demo.data.providers.RandomDohlcvGenerator;
+import com.jfcbuilder.demo.data.providers.numeric.IndicatorGraph;
+import com.jfcbuilder.demo.data.providers.numeric.IndicatorGraph.Column;
 import com.jfcbuilder.demo.data.providers.numeric.Sinusoid;
-import com.jfcbuilder.demo.data.providers.numeric.Sma;
-import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator;
 import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator.StochData;
+import com.jfcbuilder.demo.data.sampling.Downsampler;
+import com.jfcbuilder.demo.data.sampling.Downsampler.SampledSeries;
+import com.jfcbuilder.demo.data.sampling.TimeAxisAligner;
+import com.jfcbuilder.demo.data.sampling.TimeAxisAligner.AlignedAxis;
+import com.jfcbuilder.demo.data.sampling.TimeAxisAligner.Fill;
+import com.jfcbuilder.demo.metrics.PipelineMetrics;
+import com.jfcbuilder.demo.metrics.PipelineStage;
+import com.jfcbuilder.demo.service.ChartService;
+import com.jfcbuilder.demo.service.ChartServiceLoadTest;
+import com.jfcbuilder.demo.tiles.IRangeChartProvider;
+import com.jfcbuilder.demo.tiles.TiledChartPanel;
 import com.jfcbuilder.types.DohlcvSeries;
 
 /**
@@ -82,7 +113,95 @@ public class JFreeChartBuilderDemo {
   private static final Color DARK_GREEN = new Color(0, 100, 0);
   private static final Color DARK_RED = new Color(100, 0, 0);
 
-  // Prepare the application data to be plotted ...
+  private static final String RENDER_COMMAND = "render";
+  private static final String LIVE_COMMAND = "live";
+  private static final String SERVE_COMMAND = "serve";
+  private static final String LOAD_TEST_COMMAND = "loadtest";
+  private static final String SOAK_COMMAND = "soak";
+
+  private static final int MAX_CACHED_CHARTS = 3;
+
+  private static final Logger LOGGER = Logger.getLogger(JFreeChartBuilderDemo.class.getName());
+
+  private static final String BUILD_THREADS_PROPERTY = "jfcbuilder.buildThreads";
+
+  private static final int CHART_WIDTH = 800;
+  private static final int CHART_HEIGHT = 600;
+
+  private static final String SIMPLE_TIME_SERIES_TITLE = "Simple Time Series With Annotations";
+  private static final String MULTI_DAILY_TITLE = "Multi Daily Time Series";
+  private static final String MULTI_PLOT_MINUTE_TITLE = "Multi Plot Minute Time Series";
+  private static final String STOCK_CHART_GAPS_TITLE =
+      "Stock Chart Time Series With Weekend Gaps, Lines, and Annotations";
+  private static final String STOCK_CHART_NO_GAPS_TITLE =
+      "Stock Chart Time Series No Gaps for Weekends";
+  private static final String ALIGNED_CALENDARS_TITLE =
+      "Weekday Closes Aligned With Every Day Values";
+  private static final String LONG_MINUTE_TITLE =
+      "Long Minute Time Series With Tiled Pan and Zoom";
+
+  /**
+   * A demonstration chart's title together with the means to build it.
+   */
+  public static class DemoChart {
+
+    private final String title;
+    private final Supplier<JFreeChart> supplier;
+    private final IRangeChartProvider rangeProvider;
+
+    /**
+     * Constructor
+     * 
+     * @param title The chart title, also used as its menu item text
+     * @param supplier Builds the chart
+     */
+    public DemoChart(String title, Supplier<JFreeChart> supplier) {
+
+      Objects.requireNonNull(title, "Title cannot be null");
+      Objects.requireNonNull(supplier, "Supplier cannot be null");
+
+      this.title = title;
+      this.supplier = supplier;
+      this.rangeProvider = null;
+    }
+
+    /**
+     * Constructor for a chart shown in a {@link TiledChartPanel}. The supplier builds the chart of
+     * the whole series.
+     * 
+     * @param title The chart title, also used as its menu item text
+     * @param rangeProvider Builds the chart of index ranges of the series
+     */
+    public DemoChart(String title, IRangeChartProvider rangeProvider) {
+
+      Objects.requireNonNull(title, "Title cannot be null");
+      Objects.requireNonNull(rangeProvider, "Range provider cannot be null");
+
+      this.title = title;
+      this.supplier = () -> rangeProvider.getChart(0, rangeProvider.size() - 1, CHART_WIDTH);
+      this.rangeProvider = rangeProvider;
+    }
+
+    public String getTitle() {
+      return title;
+    }
+
+    public Supplier<JFreeChart> getSupplier() {
+      return supplier;
+    }
+
+    /**
+     * Gets the provider of charts of index ranges, for panning and zooming in a tiled viewer.
+     * 
+     * @return The provider, or null if the chart is shown as a whole.
+     */
+    public IRangeChartProvider getRangeProvider() {
+      return rangeProvider;
+    }
+  }
+
+  // Prepare the application data to be plotted. Each value is computed on first use, or ahead of
+  // time in parallel by precomputeDemoData(), so a chart only waits for its own inputs ...
 
   private static final LocalDateTime endDate = LocalDateTime.now();
   private static final LocalDateTime startDate = endDate.minus(18, ChronoUnit.MONTHS);
@@ -91,74 +210,149 @@ public class JFreeChartBuilderDemo {
 
   private static IDateTimeSeriesProvider timeProvider = AscendingDateTimeGenerator.get();
 
-  private static final long[] ohlcvDates = timeProvider.getDateTimes(startDate, endDate,
+  private static final LazyValue<long[]> ohlcvDates = getDates(startDate, endDate,
       ChronoUnit.DAYS, ohlcvSkipDays);
 
   private static final IDohlcvProvider dohlcvProvider = RandomDohlcvGenerator.get();
 
-  private static final DohlcvSeries dohlcv = dohlcvProvider.getDohlcv(ohlcvDates);
+  private static final LazyValue<DohlcvSeries> dohlcv = LazyValue.of(() -> PipelineMetrics.time(
+      PipelineStage.PROVIDER, "RandomDohlcvGenerator", () -> dohlcvProvider
+          .getDohlcv(ohlcvDates.get())));
 
-  private static final double[] sma20 = Sma.calculate(20, dohlcv.closes());
-  private static final double[] sma50 = Sma.calculate(50, dohlcv.closes());
-  private static final double[] sma200 = Sma.calculate(200, dohlcv.closes());
-  private static final double[] volSma90 = Sma.calculate(90, dohlcv.volumes());
+  // The SMAs of the closes share one pass of prefix sums.
+  private static final LazyValue<IndicatorGraph> indicators = LazyValue.of(() -> IndicatorGraph
+      .get(dohlcv.get()));
+
+  private static final LazyValue<double[]> sma20 = getIndicator(graph -> graph
+      .sma(Column.CLOSE, 20));
+  private static final LazyValue<double[]> sma50 = getIndicator(graph -> graph
+      .sma(Column.CLOSE, 50));
+  private static final LazyValue<double[]> sma200 = getIndicator(graph -> graph
+      .sma(Column.CLOSE, 200));
+  private static final LazyValue<double[]> volSma90 = getIndicator(graph -> graph
+      .sma(Column.VOLUME, 90));
 
   private static final int K = 14;
   private static final int D = 3;
-  private static StochData stoch = StochasticOscillator.calculate(K, D, dohlcv.highs(),
-      dohlcv.lows(), dohlcv.closes());
+  private static final LazyValue<StochData> stoch = getIndicator(graph -> graph
+      .stochastic(K, D));
 
-  private static final int ohlcEndIndex = dohlcv.dates().length - 1;
-  private static final int ohlcStartIndex = (int) Math.max(0.0, ohlcEndIndex * 0.75); // ~25% of the
-                                                                                      // actual data
+  private static final double OHLC_START_FRACTION = 0.75; // ~25% of the actual data
 
   private static final Set<DayOfWeek> NO_SINUSOID_SKIP_DAYS = Collections.emptySet();
 
-  private static final long[] sinusoidDays = timeProvider.getDateTimes(startDate, endDate,
+  private static final LazyValue<long[]> sinusoidDays = getDates(startDate, endDate,
       ChronoUnit.DAYS, NO_SINUSOID_SKIP_DAYS);
 
-  private static final int numSinusoidDayElems = sinusoidDays.length;
-
-  private static final double[] sinDaily1 = Sinusoid.getRandSeries(60.0, numSinusoidDayElems);
-  private static final double[] sinDaily2 = Sinusoid.getRandSeries(60.0, numSinusoidDayElems);
-  private static final double[] sinDaily3 = Sinusoid.getRandSeries(60.0, numSinusoidDayElems);
-  private static final double[] sinDaily4 = Sinusoid.getRandSeries(60.0, numSinusoidDayElems);
+  private static final LazyValue<double[]> sinDaily1 = getSinusoid(60.0, sinusoidDays);
+  private static final LazyValue<double[]> sinDaily2 = getSinusoid(60.0, sinusoidDays);
+  private static final LazyValue<double[]> sinDaily3 = getSinusoid(60.0, sinusoidDays);
+  private static final LazyValue<double[]> sinDaily4 = getSinusoid(60.0, sinusoidDays);
 
-  private static final int sinusoidDailyEndIndex = numSinusoidDayElems - 1;
-  private static final int sinusoidDailyStartIndex = (int) Math.max(0.0,
-      sinusoidDailyEndIndex * 0.2); // 80% of data
+  private static final double SINUSOID_DAILY_START_FRACTION = 0.2; // 80% of data
 
   private static final LocalDateTime endHour = LocalDateTime.now();
   private static final LocalDateTime startHour = endHour.minus(8, ChronoUnit.HOURS);
 
-  private static final long[] sinusoidMinutes = timeProvider.getDateTimes(startHour, endHour,
+  private static final LazyValue<long[]> sinusoidMinutes = getDates(startHour, endHour,
       ChronoUnit.MINUTES, NO_SINUSOID_SKIP_DAYS);
 
-  private static final int numSinusoiMinuteElems = sinusoidMinutes.length;
+  private static final LazyValue<double[]> sinMinute1 = getSinusoid(40.0, sinusoidMinutes);
+  private static final LazyValue<double[]> sinMinute2 = getSinusoid(60.0, sinusoidMinutes);
+  private static final LazyValue<double[]> sinMinute3 = getSinusoid(80.0, sinusoidMinutes);
+  private static final LazyValue<double[]> sinMinute4 = getSinusoid(100.0, sinusoidMinutes);
 
-  private static final double[] sinMinute1 = Sinusoid.getRandSeries(40.0, numSinusoiMinuteElems);
-  private static final double[] sinMinute2 = Sinusoid.getRandSeries(60.0, numSinusoiMinuteElems);
-  private static final double[] sinMinute3 = Sinusoid.getRandSeries(80.0, numSinusoiMinuteElems);
-  private static final double[] sinMinute4 = Sinusoid.getRandSeries(100.0, numSinusoiMinuteElems);
+  private static final LocalDateTime startLongMinutes = endHour.minus(60, ChronoUnit.DAYS);
+
+  private static final LazyValue<long[]> longMinutes = getDates(startLongMinutes, endHour,
+      ChronoUnit.MINUTES, NO_SINUSOID_SKIP_DAYS);
+
+  private static final LazyValue<double[]> sinLongMinute1 = getSinusoid(1440.0, longMinutes);
+  private static final LazyValue<double[]> sinLongMinute2 = getSinusoid(10080.0, longMinutes);
+
+  private static LazyValue<long[]> getDates(LocalDateTime start, LocalDateTime end,
+      ChronoUnit spacing, Set<DayOfWeek> skipDays) {
+    return LazyValue.of(() -> PipelineMetrics.time(PipelineStage.PROVIDER,
+        "AscendingDateTimeGenerator", () -> timeProvider.getDateTimes(start, end, spacing,
+            skipDays)));
+  }
+
+  private static LazyValue<double[]> getSinusoid(double period, LazyValue<long[]> times) {
+    return LazyValue.of(() -> PipelineMetrics.time(PipelineStage.PROVIDER, "Sinusoid",
+        () -> Sinusoid.getRandSeries(period, times.get().length)));
+  }
+
+  private static <T> LazyValue<T> getIndicator(Function<IndicatorGraph, T> indicator) {
+    return LazyValue.of(() -> PipelineMetrics.time(PipelineStage.INDICATOR, "IndicatorGraph",
+        () -> indicator.apply(indicators.get())));
+  }
+
+  /**
+   * Starts computing all demonstration data in parallel on the common fork-join pool, the inputs of
+   * the first chart in the menu first.
+   */
+  static void precomputeDemoData() {
+
+    final Executor executor = ForkJoinPool.commonPool();
+
+    for (LazyValue<?> value : Arrays.asList(sinusoidDays, sinDaily1, sinDaily2, sinDaily3,
+        sinDaily4, sinusoidMinutes, sinMinute1, sinMinute2, sinMinute3, sinMinute4, longMinutes,
+        sinLongMinute1, sinLongMinute2, ohlcvDates, dohlcv, indicators, sma20, sma50, sma200,
+        volSma90, stoch)) {
+      value.precompute(executor);
+    }
+  }
+
+  /**
+   * Builds a chart, recording the build as a {@link PipelineStage#BUILD} stage execution.
+   */
+  private static JFreeChart build(ChartBuilder builder) {
+
+    return PipelineMetrics.time(PipelineStage.BUILD, "ChartBuilder", builder::build);
+  }
 
-  private static final int sinusoidMinuteEndIndex = numSinusoiMinuteElems - 1;
-  private static final int sinusoidMinuteStartIndex = 0; // All data
+  /**
+   * Gets the executor building the demo charts: a pool with the number of threads set by the
+   * {@code jfcbuilder.buildThreads} system property, or the common fork-join pool by default.
+   */
+  private static Executor getBuildExecutor() {
+
+    final Integer numThreads = Integer.getInteger(BUILD_THREADS_PROPERTY);
+
+    if (numThreads == null) {
+      return ForkJoinPool.commonPool();
+    }
+
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("Number of build threads must be greater than zero");
+    }
+
+    return Executors.newFixedThreadPool(numThreads, runnable -> {
+      Thread thread = new Thread(runnable, "chart-builder");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private static int getStartIndex(int endIndex, double fraction) {
+    return (int) Math.max(0.0, endIndex * fraction);
+  }
   
   
-  private static JFreeChart simpleTimeSeriesWithAnnotations() {
+  static JFreeChart simpleTimeSeriesWithAnnotations() {
     
-    long[] timeArray = sinusoidDays;
-    double[] array1 = sinDaily1;
-    int startIndex = sinusoidDailyStartIndex;
-    int endIndex = sinusoidDailyEndIndex;
+    long[] timeArray = sinusoidDays.get();
+    double[] array1 = sinDaily1.get();
+    int endIndex = timeArray.length - 1;
+    int startIndex = getStartIndex(endIndex, SINUSOID_DAILY_START_FRACTION);
     
     final int arrowIndex = (int) (0.75 * timeArray.length);
     final double arrowX = (double) timeArray[arrowIndex];
     final double arrowY = array1[arrowIndex];
     final String arrowTxt = String.format("%.1f", arrowY);
     
-    return ChartBuilder.get()
-      .title("Simple Time Series With Annotations")
+    return build(ChartBuilder.get()
+      .title(SIMPLE_TIME_SERIES_TITLE)
       .timeData(timeArray)
       .indexRange(startIndex, endIndex)
       .xyPlot(XYTimeSeriesPlotBuilder.get().gridLines()
@@ -166,46 +360,44 @@ public class JFreeChartBuilderDemo {
         .annotation(XYArrowBuilder.get().x(arrowX).y(arrowY).angle(180.0).color(Color.RED).text(arrowTxt))
         .annotation(XYArrowBuilder.get().x(arrowX).y(arrowY).angle(0.0).color(Color.RED))
         .annotation(XYTextBuilder.get().x(arrowX).y(arrowY).color(DARK_GREEN)
-           .text("This value!").textPaddingLeft(5).textAlign(TextAnchor.BASELINE_LEFT).angle(90.0)))
-      .build();
+           .text("This value!").textPaddingLeft(5).textAlign(TextAnchor.BASELINE_LEFT).angle(90.0))));
   }
   
   
-  private static JFreeChart multiDailyTimeSeries() {
-
-    long[] timeArray = sinusoidDays;
-    double[] array1 = sinDaily1;
-    double[] array2 = sinDaily2;
-    double[] array3 = sinDaily3;
-    double[] array4 = sinDaily4;
-    int startIndex = sinusoidDailyStartIndex;
-    int endIndex = sinusoidDailyEndIndex;
+  static JFreeChart multiDailyTimeSeries() {
+
+    long[] timeArray = sinusoidDays.get();
+    double[] array1 = sinDaily1.get();
+    double[] array2 = sinDaily2.get();
+    double[] array3 = sinDaily3.get();
+    double[] array4 = sinDaily4.get();
+    int endIndex = timeArray.length - 1;
+    int startIndex = getStartIndex(endIndex, SINUSOID_DAILY_START_FRACTION);
     
-    return ChartBuilder.get()
-      .title("Multi Daily Time Series")
+    return build(ChartBuilder.get()
+      .title(MULTI_DAILY_TITLE)
       .timeData(timeArray)
       .indexRange(startIndex, endIndex)
       .xyPlot(XYTimeSeriesPlotBuilder.get().yAxisName("Values").gridLines()
         .series(XYTimeSeriesBuilder.get().data(array1).color(Color.BLUE).style(SOLID_LINE))
         .series(XYTimeSeriesBuilder.get().data(array2).color(Color.RED).style(SOLID_LINE))
         .series(XYTimeSeriesBuilder.get().data(array3).color(DARK_GREEN).style(SOLID_LINE))
-        .series(XYTimeSeriesBuilder.get().data(array4).color(Color.MAGENTA).style(SOLID_LINE)))
-      .build();
+        .series(XYTimeSeriesBuilder.get().data(array4).color(Color.MAGENTA).style(SOLID_LINE))));
   }
   
   
-  private static JFreeChart multiPlotMinuteTimeSeries() {
+  static JFreeChart multiPlotMinuteTimeSeries() {
     
-    long[] timeArray = sinusoidMinutes;
-    double[] array1 = sinMinute1;
-    double[] array2 = sinMinute2;
-    double[] array3 = sinMinute3;
-    double[] array4 = sinMinute4;
-    int startIndex = sinusoidMinuteStartIndex;
-    int endIndex = sinusoidMinuteEndIndex;
+    long[] timeArray = sinusoidMinutes.get(); // All data
+    double[] array1 = sinMinute1.get();
+    double[] array2 = sinMinute2.get();
+    double[] array3 = sinMinute3.get();
+    double[] array4 = sinMinute4.get();
+    int startIndex = 0;
+    int endIndex = timeArray.length - 1;
     
-    return ChartBuilder.get()
-      .title("Multi Plot Minute Time Series")
+    return build(ChartBuilder.get()
+      .title(MULTI_PLOT_MINUTE_TITLE)
       .timeData(timeArray)
       .indexRange(startIndex, endIndex)
 
@@ -230,32 +422,97 @@ public class JFreeChartBuilderDemo {
 
       .xyPlot(XYTimeSeriesPlotBuilder.get().yAxisName("Series 3")
         .backgroundColor(DARK_BLUE).axisColor(Color.RED).axisFontColor(Color.BLUE).gridLines()
-        .series(XYTimeSeriesBuilder.get().data(array3).color(Color.CYAN).style(SOLID_LINE)))
+        .series(XYTimeSeriesBuilder.get().data(array3).color(Color.CYAN).style(SOLID_LINE))));
+  }
+  
+  
+  static JFreeChart alignedCalendarsTimeSeries() {
+
+    // Weekday bars and every day values merged onto one axis holding the dates of both.
+    AlignedAxis aligned = TimeAxisAligner.get(TimeAxisAligner.Join.UNION).align(ohlcvDates.get(),
+        sinusoidDays.get());
 
-      .build();
+    long[] timeArray = aligned.times();
+    double[] closesWithGaps = aligned.reindex(0, dohlcv.get().closes(), Fill.NAN);
+    double[] closesFilled = aligned.reindex(0, dohlcv.get().closes(), Fill.FORWARD);
+    double[] sinusoid = aligned.reindex(1, sinDaily2.get(), Fill.NAN);
+    int endIndex = timeArray.length - 1;
+    int startIndex = getStartIndex(endIndex, OHLC_START_FRACTION);
+
+    return build(ChartBuilder.get()
+      .title(ALIGNED_CALENDARS_TITLE)
+      .timeData(timeArray)
+      .indexRange(startIndex, endIndex)
+
+      .xyPlot(XYTimeSeriesPlotBuilder.get().yAxisName("Close").gridLines()
+        .series(XYTimeSeriesBuilder.get().name("Forward filled").data(closesFilled).color(Color.LIGHT_GRAY).style(SOLID_LINE))
+        .series(XYTimeSeriesBuilder.get().name("Weekdays").data(closesWithGaps).color(Color.BLUE).style(SOLID_LINE)))
+
+      .xyPlot(XYTimeSeriesPlotBuilder.get().yAxisName("Every day").gridLines()
+        .series(XYTimeSeriesBuilder.get().data(sinusoid).color(DARK_GREEN).style(SOLID_LINE))));
+  }
+
+  /**
+   * Gets the provider of charts of index ranges of two months of minutes, each range reduced to
+   * about one point per pixel column so that zoomed out tiles stay cheap to build.
+   */
+  static IRangeChartProvider longMinuteTimeSeries() {
+
+    return new IRangeChartProvider() {
+
+      @Override
+      public int size() {
+        return longMinutes.get().length;
+      }
+
+      @Override
+      public JFreeChart getChart(int startIndex, int endIndex, int width) {
+
+        SampledSeries sampled = Downsampler.get(Downsampler.Mode.MIN_MAX, width).downsample(
+            longMinutes.get(), startIndex, endIndex, sinLongMinute1.get(), sinLongMinute2.get());
+
+        long[] timeArray = sampled.times();
+
+        return build(ChartBuilder.get()
+          .title(LONG_MINUTE_TITLE)
+          .timeData(timeArray)
+          .indexRange(0, timeArray.length - 1)
+
+          .xyPlot(XYTimeSeriesPlotBuilder.get().yAxisName("Daily").gridLines()
+            .series(XYTimeSeriesBuilder.get().data(sampled.series(0)).color(Color.BLUE).style(SOLID_LINE)))
+
+          .xyPlot(XYTimeSeriesPlotBuilder.get().yAxisName("Weekly").gridLines()
+            .series(XYTimeSeriesBuilder.get().data(sampled.series(1)).color(Color.RED).style(SOLID_LINE))));
+      }
+    };
   }
   
   
-  private static JFreeChart stockChartDailyWithGapsAndAnnotations() {
+  static JFreeChart stockChartDailyWithGapsAndAnnotations() {
 
-    return getDailyStockChartBuilder()
-      .title("Stock Chart Time Series With Weekend Gaps, Lines, and Annotations")
-      .build();
+    return build(getDailyStockChartBuilder()
+      .title(STOCK_CHART_GAPS_TITLE));
   }
   
-  private static JFreeChart stockChartDailyNoGaps() {
+  static JFreeChart stockChartDailyNoGaps() {
     
-    return getDailyStockChartBuilder()
-        .title("Stock Chart Time Series No Gaps for Weekends")
-        .showTimeGaps(false)
-        .build();
+    return build(getDailyStockChartBuilder()
+        .title(STOCK_CHART_NO_GAPS_TITLE)
+        .showTimeGaps(false));
   }
   
-  private static ChartBuilder getDailyStockChartBuilder() {
+  static ChartBuilder getDailyStockChartBuilder() {
     
+    DohlcvSeries dohlcv = JFreeChartBuilderDemo.dohlcv.get();
+    double[] sma20 = JFreeChartBuilderDemo.sma20.get();
+    double[] sma50 = JFreeChartBuilderDemo.sma50.get();
+    double[] sma200 = JFreeChartBuilderDemo.sma200.get();
+    double[] volSma90 = JFreeChartBuilderDemo.volSma90.get();
+    StochData stoch = JFreeChartBuilderDemo.stoch.get();
+
     long[] timeArray = dohlcv.dates();
-    int startIndex = ohlcStartIndex;
-    int endIndex = ohlcEndIndex;
+    int endIndex = timeArray.length - 1;
+    int startIndex = getStartIndex(endIndex, OHLC_START_FRACTION);
     
     final int stockEventIndex = timeArray.length - 10;
     final long stockEventDate = timeArray[stockEventIndex];
@@ -268,72 +525,146 @@ public class JFreeChartBuilderDemo {
     volNumFormat.setGroupingUsed(true);
     volNumFormat.setGroupingSize(3);
         
+    StockChart chart = StockChart.get(dohlcv)
+      .sma(20, sma20)
+      .sma(50, sma50)
+      .sma(200, sma200)
+      .volumeSma(90, volSma90)
+      .stochastic(K, D, stoch.getPctK(), stoch.getPctD());
+
     return ChartBuilder.get()
 
     .timeData(timeArray)
     .indexRange(startIndex, endIndex)
 
-    .xyPlot(OhlcPlotBuilder.get().yAxisName("Price").plotWeight(3).gridLines()
-      .series(OhlcSeriesBuilder.get().ohlcv(dohlcv).upColor(Color.WHITE).downColor(Color.RED))
-      .series(XYTimeSeriesBuilder.get().name("MA(20)").data(sma20).color(Color.MAGENTA).style(SOLID_LINE))
-      .series(XYTimeSeriesBuilder.get().name("MA(50)").data(sma50).color(Color.BLUE).style(SOLID_LINE))
-      .series(XYTimeSeriesBuilder.get().name("MA(200)").data(sma200).color(Color.RED).style(SOLID_LINE))
+    .xyPlot(chart.getPricePlot()
       .annotation(XYArrowBuilder.get().x(stockEventDate).y(stockEventPrice).angle(270.0).color(DARK_GREEN)
         .textAlign(TextAnchor.BOTTOM_CENTER).text(String.format("%.2f", stockEventPrice)))
       .line(LineBuilder.get().horizontal().at(resistanceLevel).color(Color.LIGHT_GRAY).style(SOLID_LINE)))
 
-    .xyPlot(VolumeXYPlotBuilder.get().yAxisName("Volume").yTickFormat(volNumFormat).gridLines()
-      .series(VolumeXYTimeSeriesBuilder.get().ohlcv(dohlcv).upColor(Color.DARK_GRAY).downColor(Color.RED))
-      .series(XYTimeSeriesBuilder.get().name("MA(90)").data(volSma90).color(Color.BLUE).style(SOLID_LINE))
+    .xyPlot(chart.getVolumePlot().yTickFormat(volNumFormat)
       .annotation(XYArrowBuilder.get().x(stockEventDate).y(stockEventVolume).angle(270.0).color(DARK_GREEN)
         .textAlign(TextAnchor.BOTTOM_CENTER).text(String.format("%.0f", stockEventVolume)))
       .line(LineBuilder.get().horizontal().at(volumeLine).color(DARK_GREEN).style(SOLID_LINE)))
 
-    .xyPlot(XYTimeSeriesPlotBuilder.get().yAxisRange(0.0, 100.0).yAxisTickSize(50.0).gridLines()
-      .yAxisName("Stochastics(" + K + ", " + D + ")")
-      .series(XYTimeSeriesBuilder.get().data(stoch.getPctK()).color(Color.RED).style(SOLID_LINE))
-      .series(XYTimeSeriesBuilder.get().data(stoch.getPctD()).color(Color.BLUE).style(SOLID_LINE))
-      .line(LineBuilder.get().horizontal().at(80.0).color(Color.BLACK).style(SOLID_LINE))
-      .line(LineBuilder.get().horizontal().at(50.0).color(Color.BLUE).style(SOLID_LINE))
-      .line(LineBuilder.get().horizontal().at(20.0).color(Color.BLACK).style(SOLID_LINE)));
+    .xyPlot(chart.getStochasticPlot()
+      .line(LineBuilder.get().horizontal().at(50.0).color(Color.BLUE).style(SOLID_LINE)));
   }
   
   /**
-   * Main entry point to this demonstration application.
+   * Gets the demonstration charts in menu order.
+   * 
+   * @return New list of the demonstration charts
+   */
+  static List<DemoChart> getDemoCharts() {
+
+    List<DemoChart> charts = new ArrayList<>();
+
+    charts.add(new DemoChart(SIMPLE_TIME_SERIES_TITLE,
+        JFreeChartBuilderDemo::simpleTimeSeriesWithAnnotations));
+
+    charts.add(new DemoChart(MULTI_DAILY_TITLE, JFreeChartBuilderDemo::multiDailyTimeSeries));
+
+    charts.add(new DemoChart(MULTI_PLOT_MINUTE_TITLE,
+        JFreeChartBuilderDemo::multiPlotMinuteTimeSeries));
+
+    charts.add(new DemoChart(STOCK_CHART_GAPS_TITLE,
+        JFreeChartBuilderDemo::stockChartDailyWithGapsAndAnnotations));
+
+    charts.add(new DemoChart(STOCK_CHART_NO_GAPS_TITLE,
+        JFreeChartBuilderDemo::stockChartDailyNoGaps));
+
+    charts.add(new DemoChart(ALIGNED_CALENDARS_TITLE,
+        JFreeChartBuilderDemo::alignedCalendarsTimeSeries));
+
+    charts.add(new DemoChart(LONG_MINUTE_TITLE, longMinuteTimeSeries()));
+
+    return charts;
+  }
+
+  /**
+   * Main entry point to this demonstration application. With a first argument of "render" the
+   * charts are rendered headlessly to files instead, see {@link BatchChartRenderer#main(String[])}
+   * for the remaining arguments. With a first argument of "live" a chart fed with new bars is
+   * shown instead, see {@link LiveChartDemo#main(String[])}. With a first argument of "serve" the
+   * charts are served over HTTP instead, see {@link ChartService#main(String[])}, and with a first
+   * argument of "loadtest" such a service is load tested, see
+   * {@link ChartServiceLoadTest#main(String[])}. With a first argument of "soak" the data path is
+   * run at large scale instead, see {@link SoakHarness#main(String[])}.
    * 
    * @param args The command line arguments
+   * @throws IOException If the charts cannot be written in render mode, or the port cannot be bound
+   *         in serve mode
+   * @throws InterruptedException If interrupted while rendering in render mode
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException, InterruptedException {
+
+    if (args.length > 0 && RENDER_COMMAND.equals(args[0])) {
+      BatchChartRenderer.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+
+    if (args.length > 0 && LIVE_COMMAND.equals(args[0])) {
+      LiveChartDemo.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
 
-    List<JFreeChart> charts = new ArrayList<>();
+    if (args.length > 0 && SERVE_COMMAND.equals(args[0])) {
+      ChartService.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
 
-    charts.add(simpleTimeSeriesWithAnnotations());
+    if (args.length > 0 && LOAD_TEST_COMMAND.equals(args[0])) {
+      ChartServiceLoadTest.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
 
-    charts.add(multiDailyTimeSeries());
+    if (args.length > 0 && SOAK_COMMAND.equals(args[0])) {
+      SoakHarness.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
 
-    charts.add(multiPlotMinuteTimeSeries());
+    precomputeDemoData();
 
-    charts.add(stockChartDailyWithGapsAndAnnotations());
-    
-    charts.add(stockChartDailyNoGaps());
+    final List<DemoChart> charts = getDemoCharts();
+    final Executor executor = getBuildExecutor();
 
-    launchChartDemoWindow(charts);
+    SwingUtilities.invokeLater(() -> launchChartDemoWindow(charts, executor));
   }
 
 
   /**
-   * Helper method to build a GUI for showcasing the demo charts.
+   * Helper method to build a GUI for showcasing the demo charts. The menu lists the charts in the
+   * given order right away. Each chart is built on the executor the first time its menu item is
+   * picked, and the first {@value #MAX_CACHED_CHARTS} charts are prefetched as a parallel fan-out
+   * while the window opens; their build times are printed once all are done. Built charts are kept
+   * in a {@link ChartCache} of {@value #MAX_CACHED_CHARTS} charts, and a chart dropped from the
+   * cache is rebuilt the next time its menu item is picked. A chart that fails to build shows the
+   * error instead. Charts with a range provider are shown in a {@link TiledChartPanel} instead,
+   * which pans and zooms by drawing pre-rendered tiles. Must be called on the Swing event dispatch
+   * thread, which owns the cache and the set of charts being built.
    * 
    * @param charts Container of charts to be demonstrated
+   * @param executor The executor building the charts
    * @throws HeadlessException If a problem occurs
    */
-  protected static void launchChartDemoWindow(List<JFreeChart> charts)
+  protected static void launchChartDemoWindow(List<DemoChart> charts, Executor executor)
       throws HeadlessException {
-    ChartPanel panel = new ChartPanel(null);
+    DemoViews views = new DemoViews();
+    ChartCache cache = new ChartCache(MAX_CACHED_CHARTS);
+    Map<String, JRadioButtonMenuItem> items = new HashMap<>();
+    Set<String> pendingTitles = new HashSet<>();
+    ParallelChartBuilder builder = ParallelChartBuilder.get(executor);
+
+    for (DemoChart chart : charts) {
+      items.put(chart.getTitle(), new JRadioButtonMenuItem(chart.getTitle()));
+    }
+
+    prefetchCharts(charts, views, cache, builder, items, pendingTitles);
 
     JFrame frame = new JFrame(ChartBuilder.class.getSimpleName());
-    frame.add(panel);
-    frame.setSize(new Dimension(800, 600));
+    frame.add(views.getComponent());
+    frame.setSize(new Dimension(CHART_WIDTH, CHART_HEIGHT));
     frame.setLocationRelativeTo(null);
     frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
@@ -345,26 +676,192 @@ public class JFreeChartBuilderDemo {
     ButtonGroup group = new ButtonGroup();
     JRadioButtonMenuItem item;
 
-    for (JFreeChart chart : charts) {
-      item = new JRadioButtonMenuItem(chart.getTitle().getText());
+    for (DemoChart chart : charts) {
+      item = items.get(chart.getTitle());
       item.addActionListener(new ActionListener() {
         @Override
         public void actionPerformed(ActionEvent e) {
           if (e.getSource() instanceof JRadioButtonMenuItem) {
             JRadioButtonMenuItem context = (JRadioButtonMenuItem) e.getSource();
             context.setSelected(true);
-            panel.setChart(chart);
+            if (chart.getRangeProvider() != null) {
+              views.showTiles(chart.getRangeProvider());
+            } else {
+              showChart(chart, views, cache, builder, items, pendingTitles);
+            }
           }
         }
       });
       group.add(item);
       demoMenu.add(item);
 
-      if (panel.getChart() == null) {
+      if (group.getSelection() == null) {
         item.doClick();
       }
     }
 
     frame.setVisible(true);
   }
+
+  /**
+   * Starts building the first charts that fit the cache as a parallel fan-out, and prints their
+   * build times and errors once all are done. Tiled charts are left out since they render their own
+   * tiles.
+   */
+  private static void prefetchCharts(List<DemoChart> charts, DemoViews views, ChartCache cache,
+      ParallelChartBuilder builder, Map<String, JRadioButtonMenuItem> items,
+      Set<String> pendingTitles) {
+
+    List<DemoChart> prefetched = new ArrayList<>(MAX_CACHED_CHARTS);
+
+    for (DemoChart chart : charts) {
+      if (chart.getRangeProvider() == null && prefetched.size() < MAX_CACHED_CHARTS) {
+        prefetched.add(chart);
+      }
+    }
+
+    final long start = System.nanoTime();
+
+    List<CompletableFuture<BuiltChart>> futures = builder.buildAll(prefetched);
+
+    for (int n = 0; n < prefetched.size(); n++) {
+      pendingTitles.add(prefetched.get(n).getTitle());
+      whenBuilt(futures.get(n), prefetched.get(n).getTitle(), views, cache, items, pendingTitles);
+    }
+
+    // Reports once every build is done, whether or not some of them failed.
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((v, e) -> {
+      List<BuiltChart> built = new ArrayList<>(futures.size());
+      Map<String, Throwable> failures = new LinkedHashMap<>();
+      for (int n = 0; n < futures.size(); n++) {
+        try {
+          built.add(futures.get(n).join());
+        } catch (CompletionException | CancellationException error) {
+          failures.put(prefetched.get(n).getTitle(), getCause(error));
+        }
+      }
+      ParallelChartBuilder.printReport(built, failures, System.nanoTime() - start);
+    });
+  }
+
+  /**
+   * Shows a chart from the cache, or builds it in the background and shows it once built if its
+   * menu item is still selected by then. Called on the Swing event dispatch thread.
+   */
+  private static void showChart(DemoChart chart, DemoViews views, ChartCache cache,
+      ParallelChartBuilder builder, Map<String, JRadioButtonMenuItem> items,
+      Set<String> pendingTitles) {
+
+    final String title = chart.getTitle();
+
+    JFreeChart cached = cache.get(title);
+
+    views.showChart(cached);
+
+    if (cached != null || !pendingTitles.add(title)) {
+      // Cached or already being built
+      return;
+    }
+
+    whenBuilt(builder.build(chart), title, views, cache, items, pendingTitles);
+  }
+
+  /**
+   * Caches a chart once built and shows it if its menu item is selected, on the Swing event
+   * dispatch thread. A failed build is logged and its error shown instead, and the chart is built
+   * again the next time its menu item is picked.
+   */
+  private static void whenBuilt(CompletableFuture<BuiltChart> future, String title,
+      DemoViews views, ChartCache cache, Map<String, JRadioButtonMenuItem> items,
+      Set<String> pendingTitles) {
+
+    future.whenComplete((built, error) -> SwingUtilities.invokeLater(() -> {
+
+      pendingTitles.remove(title);
+
+      final boolean selected = items.get(title).isSelected();
+
+      if (error != null) {
+
+        final Throwable cause = getCause(error);
+
+        LOGGER.log(Level.SEVERE, "Failed to build chart: " + title, cause);
+
+        if (selected) {
+          views.showMessage("Failed to build chart: " + cause);
+        }
+
+        return;
+      }
+
+      cache.put(title, built.getChart());
+
+      if (selected) {
+        views.showChart(built.getChart());
+      }
+    }));
+  }
+
+  /**
+   * Gets the error a build failed with, unwrapped from the CompletionException of its future.
+   */
+  private static Throwable getCause(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null ? error.getCause()
+        : error;
+  }
+
+  /**
+   * The views of the demo window, one shown at a time: a chart panel, a tiled chart panel and a
+   * message label. Only used on the Swing event dispatch thread.
+   */
+  private static class DemoViews {
+
+    private static final String CHART_CARD = "chart";
+    private static final String TILES_CARD = "tiles";
+    private static final String MESSAGE_CARD = "message";
+
+    private final CardLayout cards = new CardLayout();
+    private final JPanel viewers = new JPanel(cards);
+    private final ChartPanel panel = new TimedChartPanel(null);
+    private final TiledChartPanel tiledPanel =
+        new TiledChartPanel(TiledChartPanel.DEFAULT_BUDGET_BYTES);
+    private final JLabel message = new JLabel("", SwingConstants.CENTER);
+
+    /**
+     * Constructor
+     */
+    DemoViews() {
+      viewers.add(panel, CHART_CARD);
+      viewers.add(tiledPanel, TILES_CARD);
+      viewers.add(message, MESSAGE_CARD);
+    }
+
+    JComponent getComponent() {
+      return viewers;
+    }
+
+    /**
+     * Shows a chart in the chart panel, or an empty panel while it is being built.
+     * 
+     * @param chart The chart, may be null
+     */
+    void showChart(JFreeChart chart) {
+      tiledPanel.setChart(null);
+      panel.setChart(chart);
+      cards.show(viewers, CHART_CARD);
+    }
+
+    void showTiles(IRangeChartProvider provider) {
+      panel.setChart(null);
+      tiledPanel.setChart(provider);
+      cards.show(viewers, TILES_CARD);
+    }
+
+    void showMessage(String text) {
+      panel.setChart(null);
+      tiledPanel.setChart(null);
+      message.setText(text);
+      cards.show(viewers, MESSAGE_CARD);
+    }
+  }
 }
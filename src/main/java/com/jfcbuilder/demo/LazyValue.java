@@ -0,0 +1,95 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Holder of a value that is computed once, on first use or ahead of time on an executor. Threads
+ * asking for the value while it is being computed wait for that computation rather than starting
+ * another one.
+ * 
+ * @param <T> The type of value held
+ */
+class LazyValue<T> {
+
+  private final Supplier<T> supplier;
+
+  private volatile T value;
+
+  /**
+   * Hidden constructor
+   */
+  private LazyValue(Supplier<T> supplier) {
+    this.supplier = supplier;
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param <T> The type of value held
+   * @param supplier Computes the value. Called at most once.
+   * @return New instance of this class
+   * @throws NullPointerException If supplier is null.
+   */
+  static <T> LazyValue<T> of(Supplier<T> supplier) {
+
+    Objects.requireNonNull(supplier, "Supplier cannot be null");
+
+    return new LazyValue<>(supplier);
+  }
+
+  /**
+   * Gets the value, computing it on the calling thread if no other thread has started to.
+   * 
+   * @return The value
+   */
+  T get() {
+
+    T result = value;
+
+    if (result == null) {
+      synchronized (this) {
+        result = value;
+        if (result == null) {
+          result = Objects.requireNonNull(supplier.get(), "Supplied value cannot be null");
+          value = result;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Starts computing the value on an executor, unless it is already computed.
+   * 
+   * @param executor The executor to compute on
+   */
+  void precompute(Executor executor) {
+    if (value == null) {
+      executor.execute(this::get);
+    }
+  }
+
+}
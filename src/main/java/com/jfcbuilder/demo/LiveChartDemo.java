@@ -0,0 +1,126 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.awt.Dimension;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import com.jfcbuilder.demo.data.providers.DohlcvBlock;
+import com.jfcbuilder.demo.data.providers.IDohlcvCursor;
+import com.jfcbuilder.demo.data.providers.RandomDohlcvGenerator;
+import com.jfcbuilder.demo.live.LiveDohlcvChart;
+
+/**
+ * Demonstrates a {@link LiveDohlcvChart} fed with random one-minute bars by a producer thread at a
+ * fixed rate. The chart subtitle shows how many bars were accepted, how many repaints they took and
+ * how many were merged or dropped.
+ */
+public class LiveChartDemo {
+
+  private static final String TITLE = "Live Stock Chart";
+
+  private static final int DEFAULT_UPDATES_PER_SECOND = 10_000;
+  private static final int DEFAULT_MAX_BARS = 500;
+  private static final int FRAME_INTERVAL_MILLIS = 33;
+
+  private static final long BAR_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final int FEED_BLOCK_SIZE = 256;
+  private static final long FEED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  /**
+   * Hidden constructor
+   */
+  private LiveChartDemo() {
+  }
+
+  /**
+   * Appends bars to a live chart at a fixed rate until interrupted.
+   */
+  private static void feed(LiveDohlcvChart chart, int updatesPerSecond) {
+
+    PrimitiveIterator.OfLong dates = LongStream
+        .iterate(System.currentTimeMillis(), date -> date + BAR_MILLIS).iterator();
+
+    IDohlcvCursor cursor = RandomDohlcvGenerator.get().getCursor(dates);
+    DohlcvBlock block = new DohlcvBlock(FEED_BLOCK_SIZE);
+
+    final long start = System.nanoTime();
+    long numSent = 0;
+    int next = 0;
+
+    while (!Thread.currentThread().isInterrupted()) {
+
+      final long due = (System.nanoTime() - start) * updatesPerSecond / TimeUnit.SECONDS.toNanos(1);
+
+      for (; numSent < due; numSent++) {
+
+        if (next == block.size()) {
+          cursor.next(block);
+          next = 0;
+        }
+
+        chart.append(block.dates()[next], block.opens()[next], block.highs()[next],
+            block.lows()[next], block.closes()[next], block.volumes()[next]);
+        next++;
+      }
+
+      LockSupport.parkNanos(FEED_PARK_NANOS);
+    }
+  }
+
+  /**
+   * Opens a window showing a live chart and starts feeding it.
+   * 
+   * @param args Optional number of bars per second (default 10000) and number of bars shown
+   *        (default 500)
+   */
+  public static void main(String[] args) {
+
+    final int updatesPerSecond = args.length > 0 ? Integer.parseInt(args[0])
+        : DEFAULT_UPDATES_PER_SECOND;
+    final int maxBars = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_BARS;
+
+    LiveDohlcvChart chart = LiveDohlcvChart.get(TITLE, maxBars, FRAME_INTERVAL_MILLIS);
+
+    SwingUtilities.invokeLater(() -> {
+
+      JFrame frame = new JFrame(TITLE);
+      frame.add(new TimedChartPanel(chart.getChart()));
+      frame.setSize(new Dimension(800, 600));
+      frame.setLocationRelativeTo(null);
+      frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+      frame.setVisible(true);
+
+      chart.start();
+    });
+
+    Thread feeder = new Thread(() -> feed(chart, updatesPerSecond), "live-feed");
+    feeder.setDaemon(true);
+    feeder.start();
+  }
+
+}
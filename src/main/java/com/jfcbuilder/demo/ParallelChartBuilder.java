@@ -0,0 +1,159 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.jfree.chart.JFreeChart;
+
+import com.jfcbuilder.demo.JFreeChartBuilderDemo.DemoChart;
+
+/**
+ * Builds charts as a parallel fan-out on an executor, so that a set of charts takes about as long
+ * as its slowest chart instead of the sum of all of them. Each chart is built by its own task and
+ * its build time is measured on the thread building it.
+ */
+public class ParallelChartBuilder {
+
+  /**
+   * A built chart together with how long it took to build.
+   */
+  public static class BuiltChart {
+
+    private final String title;
+    private final JFreeChart chart;
+    private final long buildNanos;
+
+    private BuiltChart(String title, JFreeChart chart, long buildNanos) {
+      this.title = title;
+      this.chart = chart;
+      this.buildNanos = buildNanos;
+    }
+
+    public String getTitle() {
+      return title;
+    }
+
+    public JFreeChart getChart() {
+      return chart;
+    }
+
+    public long getBuildNanos() {
+      return buildNanos;
+    }
+  }
+
+  private final Executor executor;
+
+  /**
+   * Hidden constructor
+   */
+  private ParallelChartBuilder(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param executor The executor running the chart builds
+   * @return New instance of this class
+   * @throws NullPointerException If executor is null.
+   */
+  public static ParallelChartBuilder get(Executor executor) {
+
+    Objects.requireNonNull(executor, "Executor cannot be null");
+
+    return new ParallelChartBuilder(executor);
+  }
+
+  /**
+   * Starts building a chart.
+   * 
+   * @param chart The chart to build
+   * @return Future completed with the built chart, or exceptionally if the build failed
+   * @throws NullPointerException If chart is null.
+   */
+  public CompletableFuture<BuiltChart> build(DemoChart chart) {
+
+    Objects.requireNonNull(chart, "Chart cannot be null");
+
+    return CompletableFuture.supplyAsync(() -> {
+      final long start = System.nanoTime();
+      JFreeChart built = chart.getSupplier().get();
+      return new BuiltChart(chart.getTitle(), built, System.nanoTime() - start);
+    }, executor);
+  }
+
+  /**
+   * Starts building all charts at once.
+   * 
+   * @param charts The charts to build
+   * @return The futures of the built charts, in the same order as the charts no matter in which
+   *         order they complete
+   * @throws NullPointerException If charts is null.
+   */
+  public List<CompletableFuture<BuiltChart>> buildAll(List<DemoChart> charts) {
+
+    Objects.requireNonNull(charts, "Charts cannot be null");
+
+    List<CompletableFuture<BuiltChart>> futures = new ArrayList<>(charts.size());
+
+    for (DemoChart chart : charts) {
+      futures.add(build(chart));
+    }
+
+    return futures;
+  }
+
+  /**
+   * Prints the per-chart build times, in chart order, the charts that failed to build and the
+   * wall-clock time of the whole set.
+   * 
+   * @param charts The built charts
+   * @param failures The error of each chart that failed to build, by title
+   * @param elapsedNanos The wall-clock time from starting the first build until the last one was
+   *        done
+   */
+  public static void printReport(List<BuiltChart> charts, Map<String, Throwable> failures,
+      long elapsedNanos) {
+
+    long totalBuildNanos = 0;
+
+    for (BuiltChart chart : charts) {
+      totalBuildNanos += chart.getBuildNanos();
+      System.out.println(String.format("%-70s build %8.2f ms", chart.getTitle(),
+          chart.getBuildNanos() / 1e6));
+    }
+
+    for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+      System.out.println(String.format("%-70s failed: %s", failure.getKey(), failure.getValue()));
+    }
+
+    System.out.println(String.format(
+        "%d charts built in %.2f ms (%.2f ms of build time), %d failed", charts.size(),
+        elapsedNanos / 1e6, totalBuildNanos / 1e6, failures.size()));
+  }
+}
@@ -0,0 +1,567 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.jfree.chart.JFreeChart;
+
+import com.jfcbuilder.builders.ChartBuilder;
+import com.jfcbuilder.demo.data.providers.AscendingDateTimeGenerator;
+import com.jfcbuilder.demo.data.providers.RandomDohlcvGenerator;
+import com.jfcbuilder.demo.data.providers.numeric.IndicatorGraph;
+import com.jfcbuilder.demo.data.providers.numeric.IndicatorGraph.Column;
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator.StochData;
+import com.jfcbuilder.demo.data.sampling.Downsampler;
+import com.jfcbuilder.demo.data.sampling.Downsampler.SampledDohlcv;
+import com.jfcbuilder.demo.metrics.PipelineMetrics;
+import com.jfcbuilder.demo.metrics.PipelineStage;
+import com.jfcbuilder.types.DohlcvSeries;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Headless soak test of the whole data path at large scale. Each iteration generates a series of
+ * one-minute bars, calculates the indicators of the stock chart, aggregates the series to the
+ * chart width, and builds and renders the stock chart. The stage times of each iteration are
+ * printed as it finishes, followed by the throughput, peak heap, GC pauses and allocation rate of
+ * the run.
+ * <p>
+ * Run with {@code -Djava.awt.headless=true} (which {@link #main(String[])} also sets) and a heap
+ * large enough for the series, e.g. {@code -Xmx4g} for 10 million bars. A run that runs out of
+ * memory is reported up to the failing iteration.
+ */
+public class SoakHarness {
+
+  private static final int DEFAULT_NUM_BARS = 1_000_000;
+  private static final int DEFAULT_ITERATIONS = 10;
+  private static final int WIDTH = 800;
+  private static final int HEIGHT = 600;
+
+  private static final int[] SMA_PERIODS = { 20, 50, 200 };
+  private static final int VOLUME_SMA_PERIOD = 90;
+  private static final int K = 14;
+  private static final int D = 3;
+
+  /**
+   * Stage times and allocations of one iteration.
+   */
+  public static class Iteration {
+
+    private final long generateNanos;
+    private final long indicatorNanos;
+    private final long buildNanos;
+    private final long renderNanos;
+    private final long allocatedBytes;
+
+    private Iteration(long generateNanos, long indicatorNanos, long buildNanos, long renderNanos,
+        long allocatedBytes) {
+      this.generateNanos = generateNanos;
+      this.indicatorNanos = indicatorNanos;
+      this.buildNanos = buildNanos;
+      this.renderNanos = renderNanos;
+      this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Gets the time taken generating the dates and bars.
+     * 
+     * @return The time in nanoseconds
+     */
+    public long getGenerateNanos() {
+      return generateNanos;
+    }
+
+    /**
+     * Gets the time taken calculating the indicators.
+     * 
+     * @return The time in nanoseconds
+     */
+    public long getIndicatorNanos() {
+      return indicatorNanos;
+    }
+
+    /**
+     * Gets the time taken aggregating the series and building the chart.
+     * 
+     * @return The time in nanoseconds
+     */
+    public long getBuildNanos() {
+      return buildNanos;
+    }
+
+    /**
+     * Gets the time taken rendering the chart.
+     * 
+     * @return The time in nanoseconds
+     */
+    public long getRenderNanos() {
+      return renderNanos;
+    }
+
+    public long getTotalNanos() {
+      return generateNanos + indicatorNanos + buildNanos + renderNanos;
+    }
+
+    /**
+     * Gets the bytes allocated by the soak thread.
+     * 
+     * @return The allocated bytes, or -1 if the JVM doesn't measure allocations.
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+  }
+
+  /**
+   * Outcome of a soak run.
+   */
+  public static class Report {
+
+    private final int numBars;
+    private final List<Iteration> iterations;
+    private final long elapsedNanos;
+    private final long peakHeapBytes;
+    private final int numGcPauses;
+    private final long gcPauseMillis;
+    private final long maxGcPauseMillis;
+    private final Throwable failure;
+
+    private Report(int numBars, List<Iteration> iterations, long elapsedNanos, long peakHeapBytes,
+        int numGcPauses, long gcPauseMillis, long maxGcPauseMillis, Throwable failure) {
+      this.numBars = numBars;
+      this.iterations = iterations;
+      this.elapsedNanos = elapsedNanos;
+      this.peakHeapBytes = peakHeapBytes;
+      this.numGcPauses = numGcPauses;
+      this.gcPauseMillis = gcPauseMillis;
+      this.maxGcPauseMillis = maxGcPauseMillis;
+      this.failure = failure;
+    }
+
+    public int getNumBars() {
+      return numBars;
+    }
+
+    /**
+     * Gets the completed iterations.
+     * 
+     * @return Unmodifiable list of the iterations in run order
+     */
+    public List<Iteration> getIterations() {
+      return iterations;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Gets the peak heap usage, the highest of the heap usage right before each GC and after each
+     * stage.
+     * 
+     * @return The peak heap usage in bytes
+     */
+    public long getPeakHeapBytes() {
+      return peakHeapBytes;
+    }
+
+    public int getNumGcPauses() {
+      return numGcPauses;
+    }
+
+    public long getGcPauseMillis() {
+      return gcPauseMillis;
+    }
+
+    public long getMaxGcPauseMillis() {
+      return maxGcPauseMillis;
+    }
+
+    /**
+     * Gets what ended the run early.
+     * 
+     * @return The error of the failing iteration, or null if all iterations completed.
+     */
+    public Throwable getFailure() {
+      return failure;
+    }
+
+    /**
+     * Gets the throughput.
+     * 
+     * @return The number of bars taken through the whole data path per second of elapsed time
+     */
+    public double getBarsPerSecond() {
+      return elapsedNanos == 0 ? 0.0 : (double) numBars * iterations.size() / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Gets the allocation rate of the soak thread.
+     * 
+     * @return The allocated bytes per second of elapsed time, or -1 if the JVM doesn't measure
+     *         allocations.
+     */
+    public double getAllocatedBytesPerSecond() {
+
+      long allocatedBytes = 0;
+
+      for (Iteration iteration : iterations) {
+        if (iteration.getAllocatedBytes() < 0) {
+          return -1.0;
+        }
+        allocatedBytes += iteration.getAllocatedBytes();
+      }
+
+      return elapsedNanos == 0 ? 0.0 : allocatedBytes / (elapsedNanos / 1e9);
+    }
+  }
+
+  /**
+   * Records the GC pauses and the heap usage before each GC from the notifications of the garbage
+   * collectors.
+   */
+  private static class GcRecorder implements NotificationListener {
+
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final Set<String> heapPools = new HashSet<>();
+
+    private int numPauses;
+    private long pauseMillis;
+    private long maxPauseMillis;
+    private long peakHeapBytes;
+
+    private void start() {
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP) {
+          heapPools.add(pool.getName());
+        }
+      }
+      for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+        if (bean instanceof NotificationEmitter) {
+          ((NotificationEmitter) bean).addNotificationListener(this, null, null);
+          emitters.add((NotificationEmitter) bean);
+        }
+      }
+    }
+
+    private void stop() {
+      for (NotificationEmitter emitter : emitters) {
+        try {
+          emitter.removeNotificationListener(this);
+        } catch (ListenerNotFoundException e) {
+          // Already removed
+        }
+      }
+    }
+
+    @Override
+    public synchronized void handleNotification(Notification notification, Object handback) {
+
+      if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+          .equals(notification.getType())) {
+        return;
+      }
+
+      GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+          .from((CompositeData) notification.getUserData());
+
+      long usedBytes = 0;
+
+      for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageBeforeGc()
+          .entrySet()) {
+        if (heapPools.contains(pool.getKey())) {
+          usedBytes += pool.getValue().getUsed();
+        }
+      }
+
+      updatePeakHeap(usedBytes);
+
+      // Concurrent collectors also report their cycles, which mostly run alongside the application.
+      final String name = info.getGcName();
+
+      if (name.contains("Concurrent") || name.contains("Cycles")) {
+        return;
+      }
+
+      final long duration = info.getGcInfo().getDuration();
+
+      numPauses++;
+      pauseMillis += duration;
+      maxPauseMillis = Math.max(maxPauseMillis, duration);
+    }
+
+    private synchronized void updatePeakHeap(long usedBytes) {
+      peakHeapBytes = Math.max(peakHeapBytes, usedBytes);
+    }
+  }
+
+  private final int numBars;
+
+  /**
+   * Hidden constructor
+   */
+  private SoakHarness(int numBars) {
+    this.numBars = numBars;
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param numBars The number of bars generated by each iteration
+   * @return New instance of this class
+   * @throws IllegalArgumentException If numBars is smaller than the longest indicator period.
+   */
+  public static SoakHarness get(int numBars) throws IllegalArgumentException {
+
+    if (numBars < SMA_PERIODS[SMA_PERIODS.length - 1]) {
+      throw new IllegalArgumentException(
+          "Number of bars must be at least " + SMA_PERIODS[SMA_PERIODS.length - 1]);
+    }
+
+    return new SoakHarness(numBars);
+  }
+
+  /**
+   * Runs the iterations, printing the stage times of each one as it finishes. Stops early if an
+   * iteration runs out of memory.
+   * 
+   * @param numIterations The number of iterations
+   * @return The report of the run
+   * @throws IllegalArgumentException If numIterations is smaller than one (1).
+   */
+  public Report run(int numIterations) throws IllegalArgumentException {
+
+    if (numIterations < 1) {
+      throw new IllegalArgumentException("Number of iterations must be greater than zero");
+    }
+
+    List<Iteration> iterations = new ArrayList<>(numIterations);
+    Throwable failure = null;
+
+    GcRecorder gc = new GcRecorder();
+    gc.start();
+
+    final long start = System.nanoTime();
+
+    try {
+
+      for (int n = 0; n < numIterations; n++) {
+
+        final Iteration iteration;
+
+        try {
+          iteration = runIteration(n, gc);
+        } catch (OutOfMemoryError e) {
+          failure = e;
+          System.out.println(String.format("iteration %3d: %s", n + 1, e));
+          break;
+        }
+
+        iterations.add(iteration);
+
+        System.out.println(String.format(
+            "iteration %3d: generate %8.1f ms  indicators %8.1f ms  build %8.1f ms  "
+                + "render %8.1f ms  %10.0f bars/s  heap %6.0f MB",
+            n + 1, iteration.getGenerateNanos() / 1e6, iteration.getIndicatorNanos() / 1e6,
+            iteration.getBuildNanos() / 1e6, iteration.getRenderNanos() / 1e6,
+            numBars / (iteration.getTotalNanos() / 1e9), getUsedHeapBytes() / 1e6));
+      }
+
+    } finally {
+      gc.stop();
+    }
+
+    final long elapsedNanos = System.nanoTime() - start;
+
+    synchronized (gc) {
+      return new Report(numBars, Collections.unmodifiableList(iterations), elapsedNanos,
+          gc.peakHeapBytes, gc.numPauses, gc.pauseMillis, gc.maxPauseMillis, failure);
+    }
+  }
+
+  private Iteration runIteration(int n, GcRecorder gc) {
+
+    final long startBytes = PipelineMetrics.getAllocatedBytes();
+    final long generateStart = System.nanoTime();
+
+    final LocalDateTime endDate = LocalDateTime.of(2020, 1, 1, 0, 0);
+    final long[] dates = PipelineMetrics.time(PipelineStage.PROVIDER, "AscendingDateTimeGenerator",
+        () -> AscendingDateTimeGenerator.get().getDateTimes(endDate.minusMinutes(numBars), endDate,
+            ChronoUnit.MINUTES, Collections.emptySet()));
+    final DohlcvSeries dohlcv = PipelineMetrics.time(PipelineStage.PROVIDER,
+        "RandomDohlcvGenerator", () -> RandomDohlcvGenerator.get().getDohlcv(dates,
+            new SplittableRandom(n)));
+
+    gc.updatePeakHeap(getUsedHeapBytes());
+
+    final long indicatorStart = System.nanoTime();
+
+    final double[][] overlays = PipelineMetrics.time(PipelineStage.INDICATOR, "IndicatorGraph",
+        () -> getOverlays(dohlcv));
+
+    gc.updatePeakHeap(getUsedHeapBytes());
+
+    final long buildStart = System.nanoTime();
+
+    final SampledDohlcv sampled = Downsampler.get(Downsampler.Mode.MIN_MAX, WIDTH)
+        .aggregate(dohlcv, 0, dates.length - 1, overlays);
+    final JFreeChart chart = PipelineMetrics.time(PipelineStage.BUILD, "SoakHarness",
+        () -> getChartBuilder(sampled).build());
+
+    final long renderStart = System.nanoTime();
+
+    final BufferedImage image = PipelineMetrics.time(PipelineStage.RENDER, "SoakHarness",
+        () -> chart.createBufferedImage(WIDTH, HEIGHT));
+
+    final long renderEnd = System.nanoTime();
+
+    gc.updatePeakHeap(getUsedHeapBytes());
+
+    if (image.getWidth() != WIDTH) {
+      throw new IllegalStateException("Unexpected image width: " + image.getWidth());
+    }
+
+    final long endBytes = PipelineMetrics.getAllocatedBytes();
+
+    return new Iteration(indicatorStart - generateStart, buildStart - indicatorStart,
+        renderStart - buildStart, renderEnd - renderStart,
+        startBytes < 0 ? -1 : endBytes - startBytes);
+  }
+
+  /**
+   * Calculates the overlays of a series: the SMAs of the closes, the SMA of the volumes, then %K
+   * and %D.
+   */
+  private static double[][] getOverlays(DohlcvSeries dohlcv) {
+
+    final IndicatorGraph indicators = IndicatorGraph.get(dohlcv);
+    final double[][] overlays = new double[SMA_PERIODS.length + 3][];
+
+    for (int m = 0; m < SMA_PERIODS.length; m++) {
+      overlays[m] = indicators.sma(Column.CLOSE, SMA_PERIODS[m]);
+    }
+
+    final StochData stoch = indicators.stochastic(K, D);
+
+    overlays[SMA_PERIODS.length] = indicators.sma(Column.VOLUME, VOLUME_SMA_PERIOD);
+    overlays[SMA_PERIODS.length + 1] = stoch.getPctK();
+    overlays[SMA_PERIODS.length + 2] = stoch.getPctD();
+
+    return overlays;
+  }
+
+  private static ChartBuilder getChartBuilder(SampledDohlcv sampled) {
+
+    final StockChart chart = StockChart.get(sampled.dohlcv());
+
+    for (int n = 0; n < SMA_PERIODS.length; n++) {
+      chart.sma(SMA_PERIODS[n], sampled.overlay(n));
+    }
+
+    return chart.volumeSma(VOLUME_SMA_PERIOD, sampled.overlay(SMA_PERIODS.length))
+        .stochastic(K, D, sampled.overlay(SMA_PERIODS.length + 1),
+            sampled.overlay(SMA_PERIODS.length + 2))
+        .getChartBuilder()
+        .title("Soak " + sampled.dohlcv().dates().length + " candles");
+  }
+
+  private static long getUsedHeapBytes() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  /**
+   * Prints the summary of a soak run, followed by the recorded pipeline stage metrics.
+   * 
+   * @param report The report of a run
+   */
+  public static void printReport(Report report) {
+
+    final int numIterations = report.getIterations().size();
+    final double elapsedSeconds = report.getElapsedNanos() / 1e9;
+    final double allocationRate = report.getAllocatedBytesPerSecond();
+
+    System.out.println(String.format(
+        "%d iterations of %d bars in %.3f s: %.0f bars/s, %.2f iterations/s", numIterations,
+        report.getNumBars(), elapsedSeconds, report.getBarsPerSecond(),
+        elapsedSeconds == 0.0 ? 0.0 : numIterations / elapsedSeconds));
+
+    System.out.println(String.format("peak heap %.0f MB of %.0f MB max", report.getPeakHeapBytes()
+        / 1e6, Runtime.getRuntime().maxMemory() / 1e6));
+
+    System.out.println(String.format("GC pauses: %d totaling %d ms (%.1f%% of run), max %d ms",
+        report.getNumGcPauses(), report.getGcPauseMillis(),
+        elapsedSeconds == 0.0 ? 0.0 : report.getGcPauseMillis() / 10.0 / elapsedSeconds,
+        report.getMaxGcPauseMillis()));
+
+    System.out.println(allocationRate < 0.0 ? "allocation rate: not measured by this JVM"
+        : String.format("allocation rate: %.1f MB/s", allocationRate / 1e6));
+
+    if (report.getFailure() != null) {
+      System.out.println("Stopped early: " + report.getFailure());
+    }
+
+    if (PipelineMetrics.isEnabled()) {
+      for (PipelineStage stage : PipelineStage.values()) {
+        System.out.println(stage + ": " + PipelineMetrics.getStageMetrics(stage));
+      }
+    }
+  }
+
+  /**
+   * Runs the soak test and prints its report.
+   * 
+   * @param args Optional: number of bars per iteration (default 1000000) and number of iterations
+   *        (default 10).
+   */
+  public static void main(String[] args) {
+
+    System.setProperty("java.awt.headless", "true");
+
+    final int numBars = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_BARS;
+    final int numIterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+
+    System.out.println(String.format("Soaking %d iterations of %d one-minute bars, %.0f MB max heap",
+        numIterations, numBars, Runtime.getRuntime().maxMemory() / 1e6));
+
+    printReport(SoakHarness.get(numBars).run(numIterations));
+  }
+
+}
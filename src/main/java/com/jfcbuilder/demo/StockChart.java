@@ -0,0 +1,243 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.awt.Color;
+import java.awt.Stroke;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.jfcbuilder.builders.BuilderConstants;
+import com.jfcbuilder.builders.ChartBuilder;
+import com.jfcbuilder.builders.LineBuilder;
+import com.jfcbuilder.builders.OhlcPlotBuilder;
+import com.jfcbuilder.builders.OhlcSeriesBuilder;
+import com.jfcbuilder.builders.VolumeXYPlotBuilder;
+import com.jfcbuilder.builders.VolumeXYTimeSeriesBuilder;
+import com.jfcbuilder.builders.XYTimeSeriesBuilder;
+import com.jfcbuilder.builders.XYTimeSeriesPlotBuilder;
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * The stock chart shared by the demo, the chart service and the soak harness: candles with SMAs of
+ * the closes, the volumes with an optional SMA, and an optional stochastic oscillator.
+ * <p>
+ * The indicator values are passed in rather than calculated here, so each caller can calculate,
+ * time or downsample them its own way. Each plot getter returns a new plot builder, to which a
+ * caller can add annotations and lines before adding it to a chart.
+ */
+public class StockChart {
+
+  private static final Stroke SOLID_LINE = BuilderConstants.SOLID_LINE;
+
+  private static final Color[] SMA_COLORS = { Color.MAGENTA, Color.BLUE, Color.RED,
+      Color.ORANGE, Color.CYAN, Color.GREEN, Color.PINK, Color.GRAY };
+
+  private final DohlcvSeries dohlcv;
+  private final List<Integer> smaPeriods = new ArrayList<>();
+  private final List<double[]> smas = new ArrayList<>();
+
+  private int volumeSmaPeriod;
+  private double[] volumeSma;
+
+  private int K;
+  private int D;
+  private double[] pctK;
+  private double[] pctD;
+
+  /**
+   * Hidden constructor
+   */
+  private StockChart(DohlcvSeries dohlcv) {
+    this.dohlcv = dohlcv;
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param dohlcv The candles and volumes
+   * @return New instance of this class without indicators
+   * @throws NullPointerException If dohlcv is null.
+   */
+  public static StockChart get(DohlcvSeries dohlcv) {
+
+    Objects.requireNonNull(dohlcv, "DOHLCV cannot be null");
+
+    return new StockChart(dohlcv);
+  }
+
+  /**
+   * Adds an SMA of the closes to the price plot, colored by the order the SMAs are added in.
+   * 
+   * @param period The SMA period, shown in the series name
+   * @param values The SMA values, parallel to the DOHLCV dates
+   * @return This instance for method chaining
+   * @throws NullPointerException If values is null.
+   */
+  public StockChart sma(int period, double[] values) {
+
+    Objects.requireNonNull(values, "SMA values cannot be null");
+
+    smaPeriods.add(period);
+    smas.add(values);
+
+    return this;
+  }
+
+  /**
+   * Sets the SMA of the volumes shown in the volume plot.
+   * 
+   * @param period The SMA period, shown in the series name
+   * @param values The SMA values, parallel to the DOHLCV dates
+   * @return This instance for method chaining
+   * @throws NullPointerException If values is null.
+   */
+  public StockChart volumeSma(int period, double[] values) {
+
+    Objects.requireNonNull(values, "Volume SMA values cannot be null");
+
+    volumeSmaPeriod = period;
+    volumeSma = values;
+
+    return this;
+  }
+
+  /**
+   * Sets the stochastic oscillator shown in a plot below the volumes.
+   * 
+   * @param K The period of the un-smoothed %K values, shown in the axis name
+   * @param D The period of the %D values, shown in the axis name
+   * @param pctK The %K values, parallel to the DOHLCV dates
+   * @param pctD The %D values, parallel to the DOHLCV dates
+   * @return This instance for method chaining
+   * @throws NullPointerException If pctK or pctD is null.
+   */
+  public StockChart stochastic(int K, int D, double[] pctK, double[] pctD) {
+
+    Objects.requireNonNull(pctK, "%K cannot be null");
+    Objects.requireNonNull(pctD, "%D cannot be null");
+
+    this.K = K;
+    this.D = D;
+    this.pctK = pctK;
+    this.pctD = pctD;
+
+    return this;
+  }
+
+  /**
+   * Gets the series of the SMAs of the closes, e.g. to show them in a line plot.
+   * 
+   * @return New series builders in the order the SMAs were added
+   */
+  public List<XYTimeSeriesBuilder> getSmaSeries() {
+
+    List<XYTimeSeriesBuilder> series = new ArrayList<>(smas.size());
+
+    for (int n = 0; n < smas.size(); n++) {
+      series.add(XYTimeSeriesBuilder.get().name("MA(" + smaPeriods.get(n) + ")").data(smas.get(n))
+          .color(SMA_COLORS[n % SMA_COLORS.length]).style(SOLID_LINE));
+    }
+
+    return series;
+  }
+
+  /**
+   * Gets the price plot: the candles and the SMAs of the closes.
+   * 
+   * @return New plot builder
+   */
+  public OhlcPlotBuilder getPricePlot() {
+
+    OhlcPlotBuilder plot = OhlcPlotBuilder.get().yAxisName("Price").plotWeight(3).gridLines()
+        .series(OhlcSeriesBuilder.get().ohlcv(dohlcv).upColor(Color.WHITE).downColor(Color.RED));
+
+    for (XYTimeSeriesBuilder series : getSmaSeries()) {
+      plot.series(series);
+    }
+
+    return plot;
+  }
+
+  /**
+   * Gets the volume plot: the volumes and their SMA, if set.
+   * 
+   * @return New plot builder
+   */
+  public VolumeXYPlotBuilder getVolumePlot() {
+
+    VolumeXYPlotBuilder plot = VolumeXYPlotBuilder.get().yAxisName("Volume").gridLines()
+        .series(VolumeXYTimeSeriesBuilder.get().ohlcv(dohlcv).upColor(Color.DARK_GRAY)
+            .downColor(Color.RED));
+
+    if (volumeSma != null) {
+      plot.series(XYTimeSeriesBuilder.get().name("MA(" + volumeSmaPeriod + ")").data(volumeSma)
+          .color(Color.BLUE).style(SOLID_LINE));
+    }
+
+    return plot;
+  }
+
+  /**
+   * Gets the stochastic oscillator plot, with lines at the 80 and 20 levels.
+   * 
+   * @return New plot builder, or null if no stochastic oscillator is set.
+   */
+  public XYTimeSeriesPlotBuilder getStochasticPlot() {
+
+    if (pctK == null) {
+      return null;
+    }
+
+    return XYTimeSeriesPlotBuilder.get().yAxisRange(0.0, 100.0).yAxisTickSize(50.0).gridLines()
+        .yAxisName("Stochastics(" + K + ", " + D + ")")
+        .series(XYTimeSeriesBuilder.get().data(pctK).color(Color.RED).style(SOLID_LINE))
+        .series(XYTimeSeriesBuilder.get().data(pctD).color(Color.BLUE).style(SOLID_LINE))
+        .line(LineBuilder.get().horizontal().at(80.0).color(Color.BLACK).style(SOLID_LINE))
+        .line(LineBuilder.get().horizontal().at(20.0).color(Color.BLACK).style(SOLID_LINE));
+  }
+
+  /**
+   * Gets a chart builder of the whole series with the price, volume and stochastic oscillator
+   * plots.
+   * 
+   * @return New chart builder, without title
+   */
+  public ChartBuilder getChartBuilder() {
+
+    final long[] dates = dohlcv.dates();
+
+    ChartBuilder builder = ChartBuilder.get()
+        .timeData(dates)
+        .indexRange(0, dates.length - 1)
+        .xyPlot(getPricePlot())
+        .xyPlot(getVolumePlot());
+
+    final XYTimeSeriesPlotBuilder stochasticPlot = getStochasticPlot();
+
+    if (stochasticPlot != null) {
+      builder.xyPlot(stochasticPlot);
+    }
+
+    return builder;
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo;
+
+import java.awt.Graphics;
+
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+
+import com.jfcbuilder.demo.metrics.PipelineMetrics;
+import com.jfcbuilder.demo.metrics.PipelineStage;
+
+/**
+ * Chart panel recording each repaint as a {@link PipelineStage#RENDER} stage execution.
+ */
+class TimedChartPanel extends ChartPanel {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructor
+   * 
+   * @param chart The chart to show, may be null
+   */
+  TimedChartPanel(JFreeChart chart) {
+    super(chart);
+  }
+
+  @Override
+  public void paintComponent(Graphics g) {
+
+    PipelineMetrics.run(PipelineStage.RENDER, "ChartPanel", () -> super.paintComponent(g));
+  }
+}
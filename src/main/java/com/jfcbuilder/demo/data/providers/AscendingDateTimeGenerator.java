@@ -21,21 +21,34 @@
 package com.jfcbuilder.demo.data.providers;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
 /**
  * Implementation for generating arrays of date-time values in ascending chronological order.
- *
+ * <p>
+ * Spacings with a fixed length of whole milliseconds (milliseconds up to weeks) take a fast path
+ * that sizes the result up front and fills it with plain millisecond arithmetic on the local
+ * time-line. Day-of-week is only evaluated once per local day and the zone rules are only consulted
+ * when a daylight saving (or other offset) transition is crossed. Other spacings step through
+ * {@link LocalDateTime} one value at a time. Both paths give the same values.
  */
 public class AscendingDateTimeGenerator implements IDateTimeSeriesProvider {
 
+  private static final long MILLIS_PER_SECOND = 1000L;
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+  private static final int INITIAL_CAPACITY = 1024;
+
+  // 1970-01-01 (epoch day 0) was a Thursday.
+  private static final int EPOCH_DAY_OF_WEEK_INDEX = DayOfWeek.THURSDAY.getValue() - 1;
+
   /**
    * Hidden constructor
    */
@@ -62,19 +75,143 @@ public class AscendingDateTimeGenerator implements IDateTimeSeriesProvider {
 
     final Set<DayOfWeek> skipDaysOfWeek = skipDays == null ? Collections.emptySet() : skipDays;
 
-    List<Long> dates = new ArrayList<>();
+    final ZoneId zone = ZoneId.systemDefault();
 
-    for (LocalDateTime nextDate = startDate.plus(1, spacing); !nextDate.isAfter(endDate); nextDate = nextDate
-        .plus(1, spacing)) {
+    final long stepMillis = getFixedStepMillis(spacing);
+
+    if (stepMillis > 0) {
+      return getDateTimesFixedStep(startDate, endDate, stepMillis, skipDaysOfWeek, zone);
+    }
+
+    long[] dates = new long[INITIAL_CAPACITY];
+    int numDates = 0;
+
+    for (LocalDateTime nextDate = startDate.plus(1, spacing); !nextDate.isAfter(endDate);
+        nextDate = nextDate.plus(1, spacing)) {
 
       if (skipDaysOfWeek.contains(nextDate.getDayOfWeek())) {
         continue;
       }
 
-      dates.add(nextDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+      if (numDates == dates.length) {
+        dates = Arrays.copyOf(dates, 2 * numDates);
+      }
+
+      dates[numDates++] = nextDate.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    return Arrays.copyOf(dates, numDates);
+  }
+
+  /**
+   * Gets the length of a spacing unit if it is a fixed number of whole milliseconds on the local
+   * time-line.
+   * 
+   * @param spacing The temporal spacing
+   * @return The spacing length in milliseconds, or zero if the unit has no such fixed length.
+   */
+  private static long getFixedStepMillis(ChronoUnit spacing) {
+
+    switch (spacing) {
+      case MILLIS:
+      case SECONDS:
+      case MINUTES:
+      case HOURS:
+      case HALF_DAYS:
+      case DAYS:
+      case WEEKS:
+        return spacing.getDuration().toMillis();
+      default:
+        return 0L;
+    }
+  }
+
+  private static long[] getDateTimesFixedStep(LocalDateTime startDate, LocalDateTime endDate,
+      long stepMillis, Set<DayOfWeek> skipDays, ZoneId zone) {
+
+    final Duration window = Duration.between(startDate, endDate);
+
+    if (window.isNegative()) {
+      return new long[0];
+    }
+
+    // Values are startDate + k * step for k in [1, numSteps]. Since the step is a whole number of
+    // milliseconds the sub-millisecond part of startDate never changes the truncated result.
+    final long numSteps = window.toMillis() / stepMillis;
+    final long localStart = startDate.toEpochSecond(ZoneOffset.UTC) * MILLIS_PER_SECOND
+        + startDate.getNano() / 1_000_000;
+
+    final boolean[] skipped = new boolean[7];
+    for (DayOfWeek day : skipDays) {
+      skipped[day.getValue() - 1] = true;
+    }
+
+    final long numDates = countDates(localStart, stepMillis, numSteps, skipped);
+
+    if (numDates > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Too many date-time values to fit in an array");
+    }
+
+    final long[] dates = new long[(int) numDates];
+
+    final LocalMillisConverter converter = new LocalMillisConverter(zone);
+
+    int n = 0;
+    long k = 1;
+
+    while (k <= numSteps) {
+
+      final long local = localStart + k * stepMillis;
+      final long day = Math.floorDiv(local, MILLIS_PER_DAY);
+      final long lastInDay = Math.min(numSteps,
+          ceilDiv((day + 1) * MILLIS_PER_DAY - localStart, stepMillis) - 1);
+
+      if (!skipped[getDayOfWeekIndex(day)]) {
+
+        final long lastLocal = localStart + lastInDay * stepMillis;
+
+        for (long t = local; t <= lastLocal; t += stepMillis) {
+          dates[n++] = converter.toEpochMilli(t);
+        }
+      }
+
+      k = lastInDay + 1;
     }
 
-    return dates.stream().mapToLong(Long::longValue).toArray();
+    return dates;
+  }
+
+  /**
+   * Counts the values that don't land on a skipped day, one local day at a time.
+   */
+  private static long countDates(long localStart, long stepMillis, long numSteps,
+      boolean[] skipped) {
+
+    long count = 0;
+    long k = 1;
+
+    while (k <= numSteps) {
+
+      final long day = Math.floorDiv(localStart + k * stepMillis, MILLIS_PER_DAY);
+      final long lastInDay = Math.min(numSteps,
+          ceilDiv((day + 1) * MILLIS_PER_DAY - localStart, stepMillis) - 1);
+
+      if (!skipped[getDayOfWeekIndex(day)]) {
+        count += lastInDay - k + 1;
+      }
+
+      k = lastInDay + 1;
+    }
+
+    return count;
+  }
+
+  private static int getDayOfWeekIndex(long epochDay) {
+    return (int) Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK_INDEX, 7L);
+  }
+
+  private static long ceilDiv(long x, long y) {
+    return -Math.floorDiv(-x, y);
   }
 
 }
@@ -0,0 +1,183 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.util.Arrays;
+
+/**
+ * Compact date-time column: each date is stored as an int offset from a base date, in units of the
+ * greatest common divisor of all offsets. Minute bars are stored in minutes, daily bars with
+ * daylight saving time shifts in hours, and so on, so even decades of bars fit the int range.
+ * <p>
+ * Instances are immutable once encoded and may be shared by series with the same dates.
+ */
+class CompactDates {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final long baseDate;
+  private final long unitMillis;
+  private final int[] offsets;
+
+  private CompactDates(long baseDate, long unitMillis, int[] offsets) {
+    this.baseDate = baseDate;
+    this.unitMillis = unitMillis;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Encodes date-time values.
+   * 
+   * @param dates The date-time values in milliseconds since the epoch start
+   * @return New instance holding the encoded dates
+   * @throws IllegalArgumentException If the dates span too wide a range for their unit.
+   */
+  static CompactDates encode(long[] dates) throws IllegalArgumentException {
+
+    Encoder encoder = new Encoder(dates.length);
+
+    for (long date : dates) {
+      encoder.add(date);
+    }
+
+    return encoder.toDates();
+  }
+
+  int size() {
+    return offsets.length;
+  }
+
+  long get(int index) {
+    return baseDate + offsets[index] * unitMillis;
+  }
+
+  long getBaseDate() {
+    return baseDate;
+  }
+
+  long getUnitMillis() {
+    return unitMillis;
+  }
+
+  /**
+   * Decodes a range of the dates.
+   * 
+   * @param startIndex The first index of the range
+   * @param endIndex The index after the last one of the range
+   * @return New array of the date-time values in milliseconds since the epoch start
+   */
+  long[] decode(int startIndex, int endIndex) {
+
+    long[] dates = new long[endIndex - startIndex];
+
+    for (int n = startIndex; n < endIndex; n++) {
+      dates[n - startIndex] = baseDate + offsets[n] * unitMillis;
+    }
+
+    return dates;
+  }
+
+  /**
+   * Encodes dates one at a time. Whenever a date isn't a whole number of units away from the base
+   * the unit shrinks to the common divisor and the offsets encoded so far are scaled up, which
+   * happens at most a few dozen times per series.
+   */
+  static class Encoder {
+
+    private long baseDate;
+    private long unitMillis;
+    private int[] offsets;
+    private int size;
+
+    Encoder(int capacity) {
+      offsets = new int[Math.max(1, capacity)];
+    }
+
+    Encoder() {
+      this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Adds the next date.
+     * 
+     * @param date The date-time value in milliseconds since the epoch start
+     * @throws IllegalArgumentException If the date is too far from the base date for the unit.
+     */
+    void add(long date) throws IllegalArgumentException {
+
+      if (size == 0) {
+        baseDate = date;
+      }
+
+      final long delta = date - baseDate;
+
+      if (delta != 0L && (unitMillis == 0L || delta % unitMillis != 0L)) {
+        rescale(unitMillis == 0L ? Math.abs(delta) : gcd(unitMillis, Math.abs(delta)));
+      }
+
+      if (size == offsets.length) {
+        offsets = Arrays.copyOf(offsets, 2 * size);
+      }
+
+      offsets[size++] = toOffset(unitMillis == 0L ? 0L : delta / unitMillis);
+    }
+
+    CompactDates toDates() {
+      return new CompactDates(baseDate, Math.max(1L, unitMillis),
+          size == offsets.length ? offsets : Arrays.copyOf(offsets, size));
+    }
+
+    private void rescale(long newUnitMillis) {
+
+      if (unitMillis != 0L) {
+
+        final long factor = unitMillis / newUnitMillis;
+
+        for (int n = 0; n < size; n++) {
+          // Beyond the int range the product is rejected anyway, so only guard the long overflow.
+          offsets[n] = toOffset(offsets[n] * Math.min(factor, 1L << Integer.SIZE));
+        }
+      }
+
+      unitMillis = newUnitMillis;
+    }
+
+    private static int toOffset(long units) throws IllegalArgumentException {
+
+      if (units < Integer.MIN_VALUE || units > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Dates span too wide a range for compact storage");
+      }
+
+      return (int) units;
+    }
+
+    private static long gcd(long a, long b) {
+
+      while (b != 0L) {
+        final long remainder = a % b;
+        a = b;
+        b = remainder;
+      }
+
+      return a;
+    }
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Compact in-memory Date Open High Low Close Volume (DOHLCV) series for keeping many symbols
+ * loaded. Prices and volumes are stored as float and dates as int offsets from a base date, so a
+ * bar takes 24 bytes (a 4 byte date and five 4 byte values) instead of the 48 bytes of a
+ * {@link DohlcvSeries}. Series with the same dates may share one copy of the dates, in which case
+ * the values take 20 bytes per bar instead of 40, see
+ * {@link RandomDohlcvUniverseGenerator#getCompactUniverse(long[], int)}.
+ * <p>
+ * A float has a precision of 24 bits, i.e. about 7 significant digits. This is far more than
+ * charting needs, but values are only rounded to the nearest float and not exact. Volumes above
+ * 2^24 (16777216) are rounded to a multiple of a power of two. Dates are stored exactly, in units
+ * of their greatest common divisor, see {@link #getDateUnitMillis()}.
+ * <p>
+ * The columns are read directly by the float overloads of the indicator calculations, e.g.
+ * {@link com.jfcbuilder.demo.data.providers.numeric.Sma#calculate(int, float[])}. As a provider
+ * the series expands the bars of the requested dates to a regular {@link DohlcvSeries} for the
+ * chart builders, and {@link #toSeries(int, int)} expands just the visible index range.
+ * <p>
+ * Instances are immutable as long as the arrays returned by the column accessors aren't modified.
+ */
+public class CompactDohlcvSeries implements IDohlcvProvider {
+
+  private final CompactDates dates;
+  private final float[] opens;
+  private final float[] highs;
+  private final float[] lows;
+  private final float[] closes;
+  private final float[] volumes;
+
+  /**
+   * Constructor
+   */
+  CompactDohlcvSeries(CompactDates dates, float[] opens, float[] highs, float[] lows,
+      float[] closes, float[] volumes) {
+    this.dates = dates;
+    this.opens = opens;
+    this.highs = highs;
+    this.lows = lows;
+    this.closes = closes;
+    this.volumes = volumes;
+  }
+
+  /**
+   * Factory method for create new instances of this class from a regular series.
+   * 
+   * @param series The series to compact
+   * @return New instance of this class holding the series values rounded to float
+   * @throws NullPointerException If series is null.
+   * @throws IllegalArgumentException If the series columns differ in length or the dates span too
+   *         wide a range, i.e. more than 2^31 units of their greatest common divisor.
+   */
+  public static CompactDohlcvSeries of(DohlcvSeries series) throws IllegalArgumentException {
+
+    Objects.requireNonNull(series, "Series cannot be null");
+
+    final int numElems = series.dates().length;
+
+    if (series.opens().length != numElems || series.highs().length != numElems
+        || series.lows().length != numElems || series.closes().length != numElems
+        || series.volumes().length != numElems) {
+      throw new IllegalArgumentException("Source series have length mismatch");
+    }
+
+    return new CompactDohlcvSeries(CompactDates.encode(series.dates()),
+        toFloats(series.opens(), numElems), toFloats(series.highs(), numElems),
+        toFloats(series.lows(), numElems), toFloats(series.closes(), numElems),
+        toFloats(series.volumes(), numElems));
+  }
+
+  /**
+   * Factory method for create new instances of this class from a cursor, without ever holding more
+   * than one block of double values.
+   * 
+   * @param cursor The cursor to read until it ends
+   * @param blockSize The number of bars read at a time
+   * @return New instance of this class holding the cursor values rounded to float
+   * @throws NullPointerException If cursor is null.
+   * @throws IllegalArgumentException If blockSize is smaller than one (1) or the dates span too
+   *         wide a range, i.e. more than 2^31 units of their greatest common divisor.
+   */
+  public static CompactDohlcvSeries of(IDohlcvCursor cursor, int blockSize)
+      throws IllegalArgumentException {
+
+    Objects.requireNonNull(cursor, "Cursor cannot be null");
+
+    final DohlcvBlock block = new DohlcvBlock(blockSize);
+    final CompactDates.Encoder encoder = new CompactDates.Encoder();
+
+    float[][] columns = new float[5][blockSize];
+    int size = 0;
+    int numRead;
+
+    while ((numRead = cursor.next(block)) > 0) {
+
+      if (size + numRead > columns[0].length) {
+        for (int c = 0; c < columns.length; c++) {
+          columns[c] = Arrays.copyOf(columns[c], Math.max(size + numRead, 2 * size));
+        }
+      }
+
+      for (int n = 0; n < numRead; n++) {
+        encoder.add(block.dates()[n]);
+      }
+
+      toFloats(block.opens(), numRead, columns[0], size);
+      toFloats(block.highs(), numRead, columns[1], size);
+      toFloats(block.lows(), numRead, columns[2], size);
+      toFloats(block.closes(), numRead, columns[3], size);
+      toFloats(block.volumes(), numRead, columns[4], size);
+
+      size += numRead;
+    }
+
+    for (int c = 0; c < columns.length; c++) {
+      columns[c] = Arrays.copyOf(columns[c], size);
+    }
+
+    return new CompactDohlcvSeries(encoder.toDates(), columns[0], columns[1], columns[2],
+        columns[3], columns[4]);
+  }
+
+  public int size() {
+    return opens.length;
+  }
+
+  /**
+   * Gets the date-time value of a bar.
+   * 
+   * @param index The index of the bar
+   * @return The date-time value in milliseconds since the epoch start
+   * @throws ArrayIndexOutOfBoundsException If index is out of bounds.
+   */
+  public long getDate(int index) {
+    return dates.get(index);
+  }
+
+  /**
+   * Gets the unit in which the dates are stored, the greatest common divisor of their distances to
+   * the first date.
+   * 
+   * @return The date unit in milliseconds
+   */
+  public long getDateUnitMillis() {
+    return dates.getUnitMillis();
+  }
+
+  /**
+   * Gets all date-time values.
+   * 
+   * @return New array of the date-time values in milliseconds since the epoch start
+   */
+  public long[] dates() {
+    return dates.decode(0, size());
+  }
+
+  /**
+   * Gets the open values. The array is not copied and must not be modified.
+   * 
+   * @return The open values
+   */
+  public float[] opens() {
+    return opens;
+  }
+
+  /**
+   * Gets the high values. The array is not copied and must not be modified.
+   * 
+   * @return The high values
+   */
+  public float[] highs() {
+    return highs;
+  }
+
+  /**
+   * Gets the low values. The array is not copied and must not be modified.
+   * 
+   * @return The low values
+   */
+  public float[] lows() {
+    return lows;
+  }
+
+  /**
+   * Gets the close values. The array is not copied and must not be modified.
+   * 
+   * @return The close values
+   */
+  public float[] closes() {
+    return closes;
+  }
+
+  /**
+   * Gets the volume values. The array is not copied and must not be modified.
+   * 
+   * @return The volume values
+   */
+  public float[] volumes() {
+    return volumes;
+  }
+
+  /**
+   * Expands all bars to a regular series.
+   * 
+   * @return New DohlcvSeries instance holding all bars
+   */
+  public DohlcvSeries toSeries() {
+    return toSeries(0, size() - 1);
+  }
+
+  /**
+   * Expands an index range of the bars to a regular series, for example the range shown by a chart.
+   * 
+   * @param startIndex The first index of the range
+   * @param endIndex The last index of the range, inclusive
+   * @return New DohlcvSeries instance holding the bars of the range
+   * @throws IllegalArgumentException If the range is out of bounds.
+   */
+  public DohlcvSeries toSeries(int startIndex, int endIndex) throws IllegalArgumentException {
+
+    if (startIndex < 0 || endIndex >= size() || startIndex > endIndex + 1) {
+      throw new IllegalArgumentException("Index range is out of bounds");
+    }
+
+    final int end = endIndex + 1;
+
+    return new DohlcvSeries(dates.decode(startIndex, end), toDoubles(opens, startIndex, end),
+        toDoubles(highs, startIndex, end), toDoubles(lows, startIndex, end),
+        toDoubles(closes, startIndex, end), toDoubles(volumes, startIndex, end));
+  }
+
+  /**
+   * Gets the stored bars for specific date-time values, assuming the stored dates are ascending.
+   * Dates not stored get NaN values.
+   */
+  @Override
+  public DohlcvSeries getDohlcv(long[] dateTimes) {
+
+    Objects.requireNonNull(dateTimes, "Date-times cannot be null");
+
+    final int[] bars = DohlcvDateSelector.match(dateTimes, dates::get, size());
+    final int numElems = dateTimes.length;
+
+    double[] selOpens = new double[numElems];
+    double[] selHighs = new double[numElems];
+    double[] selLows = new double[numElems];
+    double[] selCloses = new double[numElems];
+    double[] selVolumes = new double[numElems];
+
+    for (int n = 0; n < numElems; n++) {
+
+      final int bar = bars[n];
+      final boolean found = bar >= 0;
+
+      selOpens[n] = found ? opens[bar] : Double.NaN;
+      selHighs[n] = found ? highs[bar] : Double.NaN;
+      selLows[n] = found ? lows[bar] : Double.NaN;
+      selCloses[n] = found ? closes[bar] : Double.NaN;
+      selVolumes[n] = found ? volumes[bar] : Double.NaN;
+    }
+
+    return new DohlcvSeries(dateTimes, selOpens, selHighs, selLows, selCloses, selVolumes);
+  }
+
+  static float[] toFloats(double[] values, int length) {
+
+    float[] floats = new float[length];
+    toFloats(values, length, floats, 0);
+
+    return floats;
+  }
+
+  static void toFloats(double[] values, int length, float[] floats, int offset) {
+    for (int n = 0; n < length; n++) {
+      floats[offset + n] = (float) values[n];
+    }
+  }
+
+  private static double[] toDoubles(float[] values, int startIndex, int endIndex) {
+
+    double[] doubles = new double[endIndex - startIndex];
+
+    for (int n = startIndex; n < endIndex; n++) {
+      doubles[n - startIndex] = values[n];
+    }
+
+    return doubles;
+  }
+}
@@ -0,0 +1,571 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Provides Date Open High Low Close Volume (DOHLCV) data loaded from a delimited text file (CSV,
+ * TSV, ...) with one bar per line in date, open, high, low, close, volume column order. An optional
+ * header line is skipped. Dates may be epoch milliseconds or ISO-8601 local date-times
+ * ({@code yyyy-MM-dd}, optionally followed by {@code T} or a space and {@code HH:mm[:ss[.SSS]]})
+ * interpreted in a given zone. Quoted fields are not supported.
+ * <p>
+ * The file is memory-mapped and parsed straight from the mapped bytes: no String is created per
+ * line or per field, numbers are accumulated digit by digit and values are appended to growable
+ * primitive columns. Only numbers that can't be converted exactly by the fast path (more than 15
+ * significant digits, large exponents, NaN, ...) fall back to {@link Double#parseDouble(String)}.
+ * Large files are split at line boundaries into chunks that are parsed in parallel and joined in
+ * file order. Dates must ascend strictly, both within a chunk and across the seams between chunks.
+ */
+public class CsvDohlcvProvider implements IDohlcvProvider {
+
+  private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+  // Powers of ten that are exactly representable as doubles.
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+      1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+  private static final int MAX_FAST_PATH_DIGITS = 15;
+  private static final int MAX_MANTISSA_DIGITS = 18;
+
+  private static final long MILLIS_PER_SECOND = 1000L;
+  private static final long MILLIS_PER_MINUTE = 60_000L;
+  private static final long MILLIS_PER_HOUR = 3_600_000L;
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private final DohlcvSeries dohlcv;
+
+  /**
+   * Hidden constructor
+   */
+  private CsvDohlcvProvider(DohlcvSeries dohlcv) {
+    this.dohlcv = dohlcv;
+  }
+
+  /**
+   * Loads a delimited text file using 64 MiB parallel chunks.
+   * 
+   * @param file The file to load
+   * @param delimiter The field delimiter, for example ',' or '\t'
+   * @param zone The zone of ISO-8601 local date-times. Unused for epoch millisecond dates.
+   * @return New instance of this class holding the file's bars
+   * @throws IOException If the file cannot be read, holds a malformed line or its dates don't
+   *         ascend.
+   */
+  public static CsvDohlcvProvider load(Path file, char delimiter, ZoneId zone) throws IOException {
+    return load(file, delimiter, zone, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Loads a delimited text file.
+   * 
+   * @param file The file to load
+   * @param delimiter The field delimiter, for example ',' or '\t'. Must be an ASCII character.
+   * @param zone The zone of ISO-8601 local date-times. Unused for epoch millisecond dates.
+   * @param chunkSize The approximate number of bytes parsed by each parallel task
+   * @return New instance of this class holding the file's bars
+   * @throws IOException If the file cannot be read, holds a malformed line or its dates don't
+   *         ascend.
+   * @throws IllegalArgumentException If the delimiter isn't ASCII or chunkSize is smaller than one.
+   */
+  public static CsvDohlcvProvider load(Path file, char delimiter, ZoneId zone, int chunkSize)
+      throws IOException {
+
+    Objects.requireNonNull(file, "File cannot be null");
+    Objects.requireNonNull(zone, "Zone cannot be null");
+
+    if (delimiter > 0x7f) {
+      throw new IllegalArgumentException("Delimiter must be an ASCII character");
+    }
+
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be greater than zero");
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      final long[] boundaries = getChunkBoundaries(channel, chunkSize);
+      final int numChunks = boundaries.length - 1;
+
+      ChunkParser[] parsers;
+
+      try {
+        parsers = IntStream.range(0, numChunks).parallel().mapToObj(n -> {
+          try {
+            ByteBuffer bytes = channel.map(MapMode.READ_ONLY, boundaries[n],
+                boundaries[n + 1] - boundaries[n]);
+            ChunkParser parser = new ChunkParser(bytes, boundaries[n], (byte) delimiter, zone);
+            parser.parse(n == 0);
+            return parser;
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }).toArray(ChunkParser[]::new);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+
+      checkDatesAscend(parsers);
+
+      DohlcvColumns[] chunks = new DohlcvColumns[numChunks];
+
+      for (int n = 0; n < numChunks; n++) {
+        chunks[n] = parsers[n].columns;
+      }
+
+      return new CsvDohlcvProvider(DohlcvColumns.join(chunks));
+    }
+  }
+
+  /**
+   * Gets all bars of the file.
+   * 
+   * @return The DohlcvSeries instance holding all bars
+   */
+  public DohlcvSeries getDohlcv() {
+    return dohlcv;
+  }
+
+  /**
+   * Gets the loaded bars for specific date-time values. Dates not found in the file get NaN values.
+   */
+  @Override
+  public DohlcvSeries getDohlcv(long[] dateTimes) {
+
+    Objects.requireNonNull(dateTimes, "Date-times cannot be null");
+
+    return DohlcvDateSelector.select(dateTimes, LongBuffer.wrap(dohlcv.dates()),
+        DoubleBuffer.wrap(dohlcv.opens()), DoubleBuffer.wrap(dohlcv.highs()),
+        DoubleBuffer.wrap(dohlcv.lows()), DoubleBuffer.wrap(dohlcv.closes()),
+        DoubleBuffer.wrap(dohlcv.volumes()));
+  }
+
+  /**
+   * Checks that dates ascend within each chunk and from the last bar of one chunk to the first bar
+   * of the next. Chunks only know their own line count, so file line numbers are found here by
+   * adding up the line counts of the chunks before.
+   */
+  private static void checkDatesAscend(ChunkParser[] parsers) throws IOException {
+
+    long lineBase = 0;
+    long lastDate = 0;
+    boolean anyBars = false;
+
+    for (ChunkParser parser : parsers) {
+
+      if (parser.unorderedLine >= 0) {
+        throw unordered(lineBase + parser.unorderedLine);
+      }
+
+      if (parser.columns.size() > 0) {
+
+        if (anyBars && parser.firstDate <= lastDate) {
+          throw unordered(lineBase + parser.firstBarLine);
+        }
+
+        lastDate = parser.lastDate;
+        anyBars = true;
+      }
+
+      lineBase += parser.line;
+    }
+  }
+
+  private static IOException unordered(long lineIndex) {
+    return new IOException("Date doesn't ascend at line " + (lineIndex + 1));
+  }
+
+  /**
+   * Splits a file into chunks of about chunkSize bytes that each start at the beginning of a line.
+   */
+  private static long[] getChunkBoundaries(FileChannel channel, int chunkSize) throws IOException {
+
+    final long fileSize = channel.size();
+
+    List<Long> boundaries = new ArrayList<>();
+    boundaries.add(0L);
+
+    ByteBuffer probe = ByteBuffer.allocate(4096);
+    long position = chunkSize;
+
+    while (position < fileSize) {
+
+      long lineStart = -1;
+
+      // Move forward to just after the next line feed.
+      for (long scan = position; lineStart < 0 && scan < fileSize; scan += probe.limit()) {
+
+        probe.clear();
+        channel.read(probe, scan);
+        probe.flip();
+
+        for (int i = 0; i < probe.limit(); i++) {
+          if (probe.get(i) == '\n') {
+            lineStart = scan + i + 1;
+            break;
+          }
+        }
+      }
+
+      if (lineStart < 0 || lineStart >= fileSize) {
+        break;
+      }
+
+      boundaries.add(lineStart);
+      position = lineStart + chunkSize;
+    }
+
+    boundaries.add(fileSize);
+
+    return boundaries.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * Parses the lines of one chunk of mapped bytes. Line indexes are counted from the start of the
+   * chunk.
+   */
+  private static class ChunkParser {
+
+    private final ByteBuffer bytes;
+    private final long fileOffset;
+    private final byte delimiter;
+    private final LocalMillisConverter converter;
+    private final int limit;
+
+    private int pos;
+
+    // Results of parse()
+    private final DohlcvColumns columns = new DohlcvColumns();
+    private int line;
+    private int firstBarLine = -1;
+    private int unorderedLine = -1;
+    private long firstDate;
+    private long lastDate;
+
+    ChunkParser(ByteBuffer bytes, long fileOffset, byte delimiter, ZoneId zone) {
+      this.bytes = bytes;
+      this.fileOffset = fileOffset;
+      this.delimiter = delimiter;
+      this.converter = new LocalMillisConverter(zone);
+      this.limit = bytes.limit();
+    }
+
+    void parse(boolean firstChunk) throws IOException {
+
+      if (firstChunk && limit > 0 && !isDigit(bytes.get(0)) && bytes.get(0) != '-') {
+        skipLine(); // Header
+      }
+
+      while (pos < limit) {
+
+        if (isLineEnd(bytes.get(pos))) {
+          line += bytes.get(pos) == '\n' ? 1 : 0;
+          pos++; // Blank line
+          continue;
+        }
+
+        final long lineOffset = fileOffset + pos;
+
+        final long date = parseDate();
+        expectDelimiter(lineOffset);
+        final double open = parseDouble(lineOffset);
+        expectDelimiter(lineOffset);
+        final double high = parseDouble(lineOffset);
+        expectDelimiter(lineOffset);
+        final double low = parseDouble(lineOffset);
+        expectDelimiter(lineOffset);
+        final double close = parseDouble(lineOffset);
+        expectDelimiter(lineOffset);
+        final double volume = parseDouble(lineOffset);
+
+        if (pos < limit && bytes.get(pos) != '\r' && bytes.get(pos) != '\n') {
+          throw malformed(lineOffset);
+        }
+
+        if (columns.size() == 0) {
+          firstBarLine = line;
+          firstDate = date;
+        } else if (date <= lastDate && unorderedLine < 0) {
+          unorderedLine = line;
+        }
+
+        lastDate = date;
+        skipLine();
+
+        columns.add(date, open, high, low, close, volume);
+      }
+    }
+
+    private long parseDate() throws IOException {
+
+      final long lineOffset = fileOffset + pos;
+
+      // ISO dates have a dash after the year, epoch milliseconds don't.
+      if (pos + 4 < limit && bytes.get(pos + 4) == '-') {
+        return converter.toEpochMilli(parseIsoLocalMillis(lineOffset));
+      }
+
+      boolean negative = false;
+
+      if (pos < limit && bytes.get(pos) == '-') {
+        negative = true;
+        pos++;
+      }
+
+      final int start = pos;
+      long value = 0;
+
+      while (pos < limit && isDigit(bytes.get(pos))) {
+        value = 10 * value + (bytes.get(pos++) - '0');
+      }
+
+      if (pos == start || pos - start > MAX_MANTISSA_DIGITS) {
+        throw malformed(lineOffset);
+      }
+
+      return negative ? -value : value;
+    }
+
+    private long parseIsoLocalMillis(long lineOffset) throws IOException {
+
+      final int year = parseFixedDigits(4, lineOffset);
+      expect('-', lineOffset);
+      final int month = parseFixedDigits(2, lineOffset);
+      expect('-', lineOffset);
+      final int day = parseFixedDigits(2, lineOffset);
+
+      if (month < 1 || month > 12 || day < 1 || day > 31) {
+        throw malformed(lineOffset);
+      }
+
+      long millis = toEpochDay(year, month, day) * MILLIS_PER_DAY;
+
+      if (pos < limit && (bytes.get(pos) == 'T' || bytes.get(pos) == ' ')) {
+
+        pos++;
+        millis += parseFixedDigits(2, lineOffset) * MILLIS_PER_HOUR;
+        expect(':', lineOffset);
+        millis += parseFixedDigits(2, lineOffset) * MILLIS_PER_MINUTE;
+
+        if (pos < limit && bytes.get(pos) == ':') {
+
+          pos++;
+          millis += parseFixedDigits(2, lineOffset) * MILLIS_PER_SECOND;
+
+          if (pos < limit && bytes.get(pos) == '.') {
+
+            pos++;
+            int scale = 100;
+
+            while (pos < limit && isDigit(bytes.get(pos))) {
+              millis += scale * (bytes.get(pos++) - '0');
+              scale /= 10;
+            }
+          }
+        }
+      }
+
+      return millis;
+    }
+
+    /**
+     * Parses a decimal number. Up to 15 significant digits with a decimal exponent of at most 22
+     * convert exactly, since both the mantissa and the power of ten are exact doubles and the one
+     * multiplication or division rounds correctly. Everything else is handed to Double.
+     */
+    private double parseDouble(long lineOffset) throws IOException {
+
+      final int start = pos;
+
+      boolean negative = false;
+
+      if (pos < limit && (bytes.get(pos) == '-' || bytes.get(pos) == '+')) {
+        negative = bytes.get(pos) == '-';
+        pos++;
+      }
+
+      long mantissa = 0;
+      int numDigits = 0;
+      int exponent = 0;
+      boolean anyDigits = false;
+      byte b;
+
+      while (pos < limit && isDigit(b = bytes.get(pos))) {
+        if (numDigits < MAX_MANTISSA_DIGITS) {
+          mantissa = 10 * mantissa + (b - '0');
+          numDigits += mantissa == 0 ? 0 : 1;
+        } else {
+          exponent++;
+        }
+        anyDigits = true;
+        pos++;
+      }
+
+      if (pos < limit && bytes.get(pos) == '.') {
+        pos++;
+        while (pos < limit && isDigit(b = bytes.get(pos))) {
+          if (numDigits < MAX_MANTISSA_DIGITS) {
+            mantissa = 10 * mantissa + (b - '0');
+            numDigits += mantissa == 0 ? 0 : 1;
+            exponent--;
+          }
+          anyDigits = true;
+          pos++;
+        }
+      }
+
+      if (anyDigits && pos < limit && (bytes.get(pos) == 'e' || bytes.get(pos) == 'E')) {
+
+        pos++;
+        boolean negativeExponent = false;
+
+        if (pos < limit && (bytes.get(pos) == '-' || bytes.get(pos) == '+')) {
+          negativeExponent = bytes.get(pos) == '-';
+          pos++;
+        }
+
+        final int exponentStart = pos;
+        int explicitExponent = 0;
+
+        while (pos < limit && isDigit(b = bytes.get(pos))) {
+          explicitExponent = Math.min(10 * explicitExponent + (b - '0'), 100_000);
+          pos++;
+        }
+
+        if (pos == exponentStart) {
+          throw malformed(lineOffset); // Exponent without digits such as 1e or 1e+
+        }
+
+        exponent += negativeExponent ? -explicitExponent : explicitExponent;
+      }
+
+      if (anyDigits && numDigits <= MAX_FAST_PATH_DIGITS
+          && exponent >= -(POWERS_OF_TEN.length - 1) && exponent <= POWERS_OF_TEN.length - 1) {
+
+        final double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent]
+            : mantissa / POWERS_OF_TEN[-exponent];
+
+        return negative ? -value : value;
+      }
+
+      // Slow path for long mantissas, big exponents and special values such as NaN.
+      while (pos < limit && bytes.get(pos) != delimiter && !isLineEnd(bytes.get(pos))) {
+        pos++;
+      }
+
+      byte[] text = new byte[pos - start];
+
+      for (int i = 0; i < text.length; i++) {
+        text[i] = bytes.get(start + i);
+      }
+
+      try {
+        return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+      } catch (NumberFormatException e) {
+        throw malformed(lineOffset);
+      }
+    }
+
+    private int parseFixedDigits(int numDigits, long lineOffset) throws IOException {
+
+      int value = 0;
+
+      for (int i = 0; i < numDigits; i++) {
+        if (pos >= limit || !isDigit(bytes.get(pos))) {
+          throw malformed(lineOffset);
+        }
+        value = 10 * value + (bytes.get(pos++) - '0');
+      }
+
+      return value;
+    }
+
+    private void expectDelimiter(long lineOffset) throws IOException {
+      expect(delimiter, lineOffset);
+    }
+
+    private void expect(int expected, long lineOffset) throws IOException {
+
+      if (pos >= limit || bytes.get(pos) != expected) {
+        throw malformed(lineOffset);
+      }
+
+      pos++;
+    }
+
+    private void skipLine() {
+
+      while (pos < limit && bytes.get(pos) != '\n') {
+        pos++;
+      }
+
+      if (pos < limit) {
+        line++;
+      }
+
+      pos++;
+    }
+
+    private static boolean isDigit(byte b) {
+      return b >= '0' && b <= '9';
+    }
+
+    private static boolean isLineEnd(byte b) {
+      return b == '\n' || b == '\r';
+    }
+
+    private static IOException malformed(long lineOffset) {
+      return new IOException("Malformed line at byte offset " + lineOffset);
+    }
+
+    /**
+     * Gets the days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    private static long toEpochDay(int year, int month, int day) {
+
+      final int y = month <= 2 ? year - 1 : year;
+      final long era = Math.floorDiv(y, 400);
+      final long yearOfEra = y - era * 400;
+      final long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+      final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+      return era * 146_097 + dayOfEra - 719_468;
+    }
+  }
+
+}
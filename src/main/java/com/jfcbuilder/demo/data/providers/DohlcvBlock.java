@@ -0,0 +1,121 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.util.Arrays;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Fixed-capacity block of Date Open High Low Close Volume (DOHLCV) columns, filled by an
+ * {@link IDohlcvCursor} and reused from one chunk to the next. Only the first {@link #size()}
+ * values of each column are valid.
+ */
+public class DohlcvBlock {
+
+  private final long[] dates;
+  private final double[] opens;
+  private final double[] highs;
+  private final double[] lows;
+  private final double[] closes;
+  private final double[] volumes;
+
+  private int size;
+
+  /**
+   * Constructor
+   * 
+   * @param capacity The number of values each column can hold
+   * @throws IllegalArgumentException If capacity is smaller than one (1).
+   */
+  public DohlcvBlock(int capacity) throws IllegalArgumentException {
+
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be greater than zero");
+    }
+
+    dates = new long[capacity];
+    opens = new double[capacity];
+    highs = new double[capacity];
+    lows = new double[capacity];
+    closes = new double[capacity];
+    volumes = new double[capacity];
+  }
+
+  public int capacity() {
+    return dates.length;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Sets the number of valid values in each column. Called by cursors after filling the columns.
+   * 
+   * @param size The number of valid values
+   * @throws IllegalArgumentException If size is negative or larger than the capacity.
+   */
+  public void setSize(int size) throws IllegalArgumentException {
+
+    if (size < 0 || size > dates.length) {
+      throw new IllegalArgumentException("Size must be between zero and the capacity");
+    }
+
+    this.size = size;
+  }
+
+  public long[] dates() {
+    return dates;
+  }
+
+  public double[] opens() {
+    return opens;
+  }
+
+  public double[] highs() {
+    return highs;
+  }
+
+  public double[] lows() {
+    return lows;
+  }
+
+  public double[] closes() {
+    return closes;
+  }
+
+  public double[] volumes() {
+    return volumes;
+  }
+
+  /**
+   * Copies the valid values into a new DohlcvSeries, for example to chart the latest block.
+   * 
+   * @return New DohlcvSeries instance holding a copy of the valid values
+   */
+  public DohlcvSeries toSeries() {
+    return new DohlcvSeries(Arrays.copyOf(dates, size), Arrays.copyOf(opens, size),
+        Arrays.copyOf(highs, size), Arrays.copyOf(lows, size), Arrays.copyOf(closes, size),
+        Arrays.copyOf(volumes, size));
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.util.Arrays;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Growable primitive Date Open High Low Close Volume (DOHLCV) columns, filled one bar at a time by
+ * a parallel task and joined with those of the other tasks in order afterwards.
+ */
+class DohlcvColumns {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private long[] dates = new long[INITIAL_CAPACITY];
+  private double[] opens = new double[INITIAL_CAPACITY];
+  private double[] highs = new double[INITIAL_CAPACITY];
+  private double[] lows = new double[INITIAL_CAPACITY];
+  private double[] closes = new double[INITIAL_CAPACITY];
+  private double[] volumes = new double[INITIAL_CAPACITY];
+  private int size;
+
+  void add(long date, double open, double high, double low, double close, double volume) {
+
+    if (size == dates.length) {
+      final int capacity = 2 * size;
+      dates = Arrays.copyOf(dates, capacity);
+      opens = Arrays.copyOf(opens, capacity);
+      highs = Arrays.copyOf(highs, capacity);
+      lows = Arrays.copyOf(lows, capacity);
+      closes = Arrays.copyOf(closes, capacity);
+      volumes = Arrays.copyOf(volumes, capacity);
+    }
+
+    dates[size] = date;
+    opens[size] = open;
+    highs[size] = high;
+    lows[size] = low;
+    closes[size] = close;
+    volumes[size] = volume;
+    size++;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Concatenates the columns of consecutive parts into exactly sized arrays.
+   * 
+   * @param parts The columns to join, in order
+   * @return New DohlcvSeries holding all bars of the parts
+   */
+  static DohlcvSeries join(DohlcvColumns[] parts) {
+
+    int total = 0;
+    for (DohlcvColumns part : parts) {
+      total += part.size;
+    }
+
+    long[] dates = new long[total];
+    double[] opens = new double[total];
+    double[] highs = new double[total];
+    double[] lows = new double[total];
+    double[] closes = new double[total];
+    double[] volumes = new double[total];
+
+    int offset = 0;
+
+    for (DohlcvColumns part : parts) {
+      System.arraycopy(part.dates, 0, dates, offset, part.size);
+      System.arraycopy(part.opens, 0, opens, offset, part.size);
+      System.arraycopy(part.highs, 0, highs, offset, part.size);
+      System.arraycopy(part.lows, 0, lows, offset, part.size);
+      System.arraycopy(part.closes, 0, closes, offset, part.size);
+      System.arraycopy(part.volumes, 0, volumes, offset, part.size);
+      offset += part.size;
+    }
+
+    return new DohlcvSeries(dates, opens, highs, lows, closes, volumes);
+  }
+
+}
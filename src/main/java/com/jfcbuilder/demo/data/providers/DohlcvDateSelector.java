@@ -0,0 +1,134 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.function.IntToLongFunction;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Selects the stored bars of specific date-time values from ascending DOHLCV columns, for providers
+ * that hold a whole history and are asked for the bars of some dates.
+ */
+class DohlcvDateSelector {
+
+  /**
+   * Hidden constructor
+   */
+  private DohlcvDateSelector() {
+    // Explicitly do nothing
+  }
+
+  /**
+   * Gets the stored bars for specific date-time values. Dates not stored get NaN values, see
+   * {@link #match(long[], IntToLongFunction, int)}.
+   * 
+   * @param dateTimes The ascending date-time values to select
+   * @param dates The stored ascending dates
+   * @param opens The stored opens
+   * @param highs The stored highs
+   * @param lows The stored lows
+   * @param closes The stored closes
+   * @param volumes The stored volumes
+   * @return New DohlcvSeries instance that uses the supplied date-time values
+   */
+  static DohlcvSeries select(long[] dateTimes, LongBuffer dates, DoubleBuffer opens,
+      DoubleBuffer highs, DoubleBuffer lows, DoubleBuffer closes, DoubleBuffer volumes) {
+
+    final int[] bars = match(dateTimes, dates::get, dates.limit());
+    final int numElems = dateTimes.length;
+
+    double[] selOpens = new double[numElems];
+    double[] selHighs = new double[numElems];
+    double[] selLows = new double[numElems];
+    double[] selCloses = new double[numElems];
+    double[] selVolumes = new double[numElems];
+
+    for (int n = 0; n < numElems; n++) {
+
+      final int bar = bars[n];
+      final boolean found = bar >= 0;
+
+      selOpens[n] = found ? opens.get(bar) : Double.NaN;
+      selHighs[n] = found ? highs.get(bar) : Double.NaN;
+      selLows[n] = found ? lows.get(bar) : Double.NaN;
+      selCloses[n] = found ? closes.get(bar) : Double.NaN;
+      selVolumes[n] = found ? volumes.get(bar) : Double.NaN;
+    }
+
+    return new DohlcvSeries(dateTimes, selOpens, selHighs, selLows, selCloses, selVolumes);
+  }
+
+  /**
+   * Finds the stored bars of specific date-time values. The lookup walks both ascending date
+   * sequences together after one binary search, so it costs O(log n + m) for m requested dates
+   * within the stored range.
+   * 
+   * @param dateTimes The ascending date-time values to find
+   * @param dates Gets the stored date of a bar index, ascending with the index
+   * @param numBars The number of stored bars
+   * @return New array holding the bar index of each date-time value, or -1 where not stored
+   */
+  static int[] match(long[] dateTimes, IntToLongFunction dates, int numBars) {
+
+    final int numElems = dateTimes.length;
+
+    int[] bars = new int[numElems];
+
+    int bar = numElems == 0 ? 0 : lowerBound(dates, numBars, dateTimes[0]);
+
+    for (int n = 0; n < numElems; n++) {
+
+      final long date = dateTimes[n];
+
+      while (bar < numBars && dates.applyAsLong(bar) < date) {
+        bar++;
+      }
+
+      bars[n] = bar < numBars && dates.applyAsLong(bar) == date ? bar : -1;
+    }
+
+    return bars;
+  }
+
+  /**
+   * Gets the index of the first stored date not before a date.
+   */
+  private static int lowerBound(IntToLongFunction dates, int numBars, long date) {
+
+    int low = 0;
+    int high = numBars;
+
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (dates.applyAsLong(middle) < date) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+}
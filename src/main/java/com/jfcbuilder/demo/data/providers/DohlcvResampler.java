@@ -0,0 +1,332 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Aggregates a fine-grained Date Open High Low Close Volume (DOHLCV) series into coarser bars, for
+ * example one-minute bars into 5-minute, hourly, daily or weekly bars.
+ * <p>
+ * Bars are grouped by the period of the local calendar they fall in: periods of minutes, hours and
+ * days are aligned to local midnight, 1970-01-01, and weeks start on Mondays. Each coarse bar is
+ * dated at the start of its period and takes the first open, highest high, lowest low, last close
+ * and total volume of its bars. When clocks go back the repeated local times are periods of their
+ * own, e.g. the hour repeated at the end of daylight saving time gives two hourly bars, dated an
+ * hour apart, so the coarse bars stay in ascending date order. Bars on skipped days of the week and bars without a finite close
+ * are left out, the same way {@link AscendingDateTimeGenerator} leaves out skipped days.
+ * <p>
+ * The series is aggregated in a single pass. Long series are cut into partitions at period
+ * boundaries and the partitions are aggregated in parallel.
+ */
+public class DohlcvResampler {
+
+  private static final long MILLIS_PER_SECOND = 1000L;
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  // 1970-01-01 (epoch day 0) was a Thursday.
+  private static final int EPOCH_DAY_OF_WEEK_INDEX = DayOfWeek.THURSDAY.getValue() - 1;
+
+  private static final int MIN_PARTITION_BARS = 1 << 16;
+
+  private final long periodMillis;
+  private final boolean weekly;
+  private final ZoneId zone;
+  private final boolean[] skipped = new boolean[7];
+
+  /**
+   * Hidden constructor
+   */
+  private DohlcvResampler(long periodMillis, boolean weekly, ZoneId zone, Set<DayOfWeek> skipDays) {
+
+    this.periodMillis = periodMillis;
+    this.weekly = weekly;
+    this.zone = zone;
+
+    for (DayOfWeek day : skipDays) {
+      skipped[day.getValue() - 1] = true;
+    }
+  }
+
+  /**
+   * Factory method for create new instances of this class, for the system default zone.
+   * 
+   * @param amount The number of units in each coarse bar, for example 5 for 5-minute bars
+   * @param unit The unit: MINUTES, HOURS, DAYS or WEEKS
+   * @param skipDays Days of the week to leave out. May be null for none.
+   * @return New instance of this class
+   * @throws NullPointerException If unit is null.
+   * @throws IllegalArgumentException If amount is smaller than one (1) or unit isn't supported.
+   */
+  public static DohlcvResampler get(int amount, ChronoUnit unit, Set<DayOfWeek> skipDays)
+      throws IllegalArgumentException {
+    return get(amount, unit, ZoneId.systemDefault(), skipDays);
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param amount The number of units in each coarse bar, for example 5 for 5-minute bars
+   * @param unit The unit: MINUTES, HOURS, DAYS or WEEKS
+   * @param zone The zone of the local calendar
+   * @param skipDays Days of the week to leave out. May be null for none.
+   * @return New instance of this class
+   * @throws NullPointerException If unit or zone is null.
+   * @throws IllegalArgumentException If amount is smaller than one (1) or unit isn't supported.
+   */
+  public static DohlcvResampler get(int amount, ChronoUnit unit, ZoneId zone,
+      Set<DayOfWeek> skipDays) throws IllegalArgumentException {
+
+    Objects.requireNonNull(unit, "Unit cannot be null");
+    Objects.requireNonNull(zone, "Zone cannot be null");
+
+    if (amount < 1) {
+      throw new IllegalArgumentException("Amount must be greater than zero");
+    }
+
+    switch (unit) {
+      case MINUTES:
+      case HOURS:
+      case DAYS:
+      case WEEKS:
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported unit: " + unit);
+    }
+
+    return new DohlcvResampler(amount * unit.getDuration().toMillis(), unit == ChronoUnit.WEEKS,
+        zone, skipDays == null ? Collections.emptySet() : skipDays);
+  }
+
+  /**
+   * Aggregates a series into coarser bars.
+   * 
+   * @param source The series to aggregate, in ascending date order
+   * @return New DohlcvSeries instance holding the coarse bars
+   * @throws NullPointerException If source is null.
+   */
+  public DohlcvSeries resample(DohlcvSeries source) {
+
+    Objects.requireNonNull(source, "Source cannot be null");
+
+    final long[] dates = source.dates();
+    final EpochMillisConverter toLocal = new EpochMillisConverter(zone.getRules());
+    final LocalMillisConverter toEpoch = new LocalMillisConverter(zone);
+
+    final int numPartitions = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+        dates.length / MIN_PARTITION_BARS));
+
+    final int[] boundaries = new int[numPartitions + 1];
+    boundaries[numPartitions] = dates.length;
+
+    for (int p = 1; p < numPartitions; p++) {
+
+      int boundary = Math.max(boundaries[p - 1],
+          (int) ((long) dates.length * p / numPartitions));
+
+      // Move forward to the first bar of a period so that no period spans two partitions.
+      while (boundary > 0 && boundary < dates.length
+          && getPeriod(dates[boundary - 1], toLocal, toEpoch) == getPeriod(dates[boundary],
+              toLocal, toEpoch)) {
+        boundary++;
+      }
+
+      boundaries[p] = boundary;
+    }
+
+    DohlcvColumns[] parts = IntStream.range(0, numPartitions).parallel()
+        .mapToObj(p -> aggregate(source, boundaries[p], boundaries[p + 1]))
+        .toArray(DohlcvColumns[]::new);
+
+    return DohlcvColumns.join(parts);
+  }
+
+  private DohlcvColumns aggregate(DohlcvSeries source, int start, int end) {
+
+    final long[] dates = source.dates();
+    final double[] opens = source.opens();
+    final double[] highs = source.highs();
+    final double[] lows = source.lows();
+    final double[] closes = source.closes();
+    final double[] volumes = source.volumes();
+
+    final EpochMillisConverter toLocal = new EpochMillisConverter(zone.getRules());
+    final LocalMillisConverter toEpoch = new LocalMillisConverter(zone);
+
+    DohlcvColumns bars = new DohlcvColumns();
+
+    long period = Long.MIN_VALUE;
+    long localPeriod = Long.MIN_VALUE;
+    long offset = Long.MIN_VALUE;
+    long barPeriod = Long.MIN_VALUE;
+    double open = Double.NaN;
+    double high = Double.NaN;
+    double low = Double.NaN;
+    double close = Double.NaN;
+    double volume = 0.0;
+
+    for (int n = start; n < end; n++) {
+
+      if (!Double.isFinite(closes[n])) {
+        continue;
+      }
+
+      final long local = toLocal.toLocalMillis(dates[n]);
+
+      if (skipped[getDayOfWeekIndex(Math.floorDiv(local, MILLIS_PER_DAY))]) {
+        continue;
+      }
+
+      final long barLocalPeriod = getPeriodStart(local);
+      final long barOffset = local - dates[n];
+
+      // Resolves the period start only when the local period or the offset changes.
+      if (barLocalPeriod != localPeriod || barOffset != offset) {
+        localPeriod = barLocalPeriod;
+        offset = barOffset;
+        barPeriod = toEpochPeriod(localPeriod, offset, toLocal, toEpoch);
+      }
+
+      if (barPeriod != period) {
+
+        if (period != Long.MIN_VALUE) {
+          bars.add(period, open, high, low, close, volume);
+        }
+
+        period = barPeriod;
+        open = opens[n];
+        high = highs[n];
+        low = lows[n];
+        volume = 0.0;
+      } else {
+        high = Math.max(high, highs[n]);
+        low = Math.min(low, lows[n]);
+      }
+
+      close = closes[n];
+      volume += volumes[n];
+    }
+
+    if (period != Long.MIN_VALUE) {
+      bars.add(period, open, high, low, close, volume);
+    }
+
+    return bars;
+  }
+
+  /**
+   * Gets the start of the period that a local time falls in, on the local time-line.
+   */
+  private long getPeriodStart(long localMillis) {
+
+    if (weekly) {
+      // Count whole weeks from the Monday before the epoch.
+      final long mondayOffset = EPOCH_DAY_OF_WEEK_INDEX * MILLIS_PER_DAY;
+      return Math.floorDiv(localMillis + mondayOffset, periodMillis) * periodMillis - mondayOffset;
+    }
+
+    return Math.floorDiv(localMillis, periodMillis) * periodMillis;
+  }
+
+  /**
+   * Gets the start of the period that a bar falls in, on the epoch time-line.
+   */
+  private long getPeriod(long epochMillis, EpochMillisConverter toLocal,
+      LocalMillisConverter toEpoch) {
+
+    final long local = toLocal.toLocalMillis(epochMillis);
+
+    return toEpochPeriod(getPeriodStart(local), local - epochMillis, toLocal, toEpoch);
+  }
+
+  /**
+   * Converts the local start of a period to the epoch time-line. The start is resolved with the
+   * offset of the bar in the period if that offset is in force at the start, which tells the two
+   * occurrences of a repeated local time apart, and otherwise the same way as
+   * {@link java.time.LocalDateTime#atZone(ZoneId)}.
+   */
+  private static long toEpochPeriod(long localPeriod, long offsetMillis,
+      EpochMillisConverter toLocal, LocalMillisConverter toEpoch) {
+
+    final long start = localPeriod - offsetMillis;
+
+    return toLocal.hasOffset(start, offsetMillis) ? start : toEpoch.toEpochMilli(localPeriod);
+  }
+
+  private static int getDayOfWeekIndex(long epochDay) {
+    return (int) Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK_INDEX, 7L);
+  }
+
+  /**
+   * Converts ascending milliseconds since the epoch to the local time-line, only consulting the
+   * zone rules when an offset transition is crossed.
+   */
+  private static class EpochMillisConverter {
+
+    private final ZoneRules rules;
+
+    // The offset applies to epoch times in [segmentStart, segmentEnd).
+    private long offsetMillis;
+    private long segmentStart = Long.MAX_VALUE;
+    private long segmentEnd = Long.MIN_VALUE;
+
+    EpochMillisConverter(ZoneRules rules) {
+      this.rules = rules;
+    }
+
+    long toLocalMillis(long epochMillis) {
+
+      if (epochMillis < segmentStart || epochMillis >= segmentEnd) {
+
+        final Instant instant = Instant.ofEpochMilli(epochMillis);
+        final ZoneOffsetTransition next = rules.nextTransition(instant);
+
+        offsetMillis = rules.getOffset(instant).getTotalSeconds() * MILLIS_PER_SECOND;
+        segmentStart = epochMillis;
+        segmentEnd = next == null ? Long.MAX_VALUE : next.toEpochSecond() * MILLIS_PER_SECOND;
+      }
+
+      return epochMillis + offsetMillis;
+    }
+
+    boolean hasOffset(long epochMillis, long offsetMillis) {
+
+      if (epochMillis >= segmentStart && epochMillis < segmentEnd) {
+        return offsetMillis == this.offsetMillis;
+      }
+
+      return offsetMillis == rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds()
+          * MILLIS_PER_SECOND;
+    }
+  }
+
+}
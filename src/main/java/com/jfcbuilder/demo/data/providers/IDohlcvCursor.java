@@ -0,0 +1,40 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+/**
+ * Interface for cursors that hand out consecutive Date Open High Low Close Volume (DOHLCV) values
+ * in fixed-size column blocks, so that a series of any length can be processed with constant
+ * memory.
+ */
+public interface IDohlcvCursor {
+
+  /**
+   * Fills a block with the next values of the series, starting at index zero of each column. Values
+   * are only valid until the block is filled again.
+   * 
+   * @param block The block to fill. Its previous contents are overwritten.
+   * @return The number of values written, which is also the new size of the block. Smaller than the
+   *         block capacity only when the series ends, and zero once it has ended.
+   */
+  int next(DohlcvBlock block);
+
+}
@@ -0,0 +1,42 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.util.PrimitiveIterator;
+
+/**
+ * Interface for stock market Date Open High Low Close Volume (DOHLCV) data providers that stream
+ * their values in blocks rather than building a whole series up front.
+ */
+public interface IDohlcvStreamProvider {
+
+  /**
+   * Gets a cursor over DOHLCV values corresponding to a stream of date-time values. The date-time
+   * values are only pulled as blocks are requested, so they may be endless, for example
+   * {@code LongStream.iterate(start, t -> t + spacing).iterator()}.
+   * 
+   * @param dateTimes Iterator of ascending date-time values representing milliseconds since the
+   *        epoch start.
+   * @return New cursor that ends when the date-time values end.
+   */
+  IDohlcvCursor getCursor(PrimitiveIterator.OfLong dateTimes);
+
+}
@@ -0,0 +1,111 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Objects;
+
+/**
+ * Converts local date-times, expressed as milliseconds since 1970-01-01T00:00 on the local
+ * time-line, to milliseconds since the epoch in a zone. Gives the same results as
+ * {@link LocalDateTime#atZone(ZoneId)} but only consults the zone rules when a daylight saving (or
+ * other offset) transition is crossed, so converting ascending values is plain subtraction.
+ * <p>
+ * Not thread-safe, use one instance per thread.
+ */
+class LocalMillisConverter {
+
+  private static final long MILLIS_PER_SECOND = 1000L;
+  private static final long MAX_OFFSET_MILLIS = 18L * 3_600_000L;
+
+  private final ZoneRules rules;
+
+  // The offset applies to local times in [segmentStart, segmentEnd).
+  private long offsetMillis;
+  private long segmentStart = Long.MAX_VALUE;
+  private long segmentEnd = Long.MIN_VALUE;
+  private ZoneOffsetTransition transition;
+
+  /**
+   * Constructor
+   * 
+   * @param zone The zone of the local date-times
+   */
+  LocalMillisConverter(ZoneId zone) {
+    Objects.requireNonNull(zone, "Zone cannot be null");
+    this.rules = zone.getRules();
+  }
+
+  /**
+   * Converts a local date-time.
+   * 
+   * @param localMillis Milliseconds since 1970-01-01T00:00 on the local time-line
+   * @return Milliseconds since the epoch
+   */
+  long toEpochMilli(long localMillis) {
+
+    if (localMillis < segmentStart) {
+      seek(localMillis);
+    }
+
+    while (localMillis >= segmentEnd) {
+      offsetMillis = transition.getOffsetAfter().getTotalSeconds() * MILLIS_PER_SECOND;
+      transition = rules.nextTransition(transition.getInstant());
+      segmentEnd = getSegmentEnd(transition);
+    }
+
+    return localMillis - offsetMillis;
+  }
+
+  private void seek(long localMillis) {
+
+    // Start the offset walk well before the value so no relevant transition is missed. Transitions
+    // before the probe all resolve before the value so the probe's offset already accounts for them.
+    final Instant probe = Instant.ofEpochMilli(localMillis - 2 * MAX_OFFSET_MILLIS);
+
+    offsetMillis = rules.getOffset(probe).getTotalSeconds() * MILLIS_PER_SECOND;
+    transition = rules.nextTransition(probe);
+    segmentEnd = getSegmentEnd(transition);
+    segmentStart = localMillis;
+  }
+
+  /**
+   * Gets the first local time (in milliseconds) at which the offset after a transition applies.
+   * Local times in a gap or overlap resolve with the offset before the transition, the same as
+   * {@link LocalDateTime#atZone(ZoneId)} does.
+   */
+  private static long getSegmentEnd(ZoneOffsetTransition transition) {
+
+    if (transition == null) {
+      return Long.MAX_VALUE;
+    }
+
+    final int maxOffset = Math.max(transition.getOffsetBefore().getTotalSeconds(),
+        transition.getOffsetAfter().getTotalSeconds());
+
+    return (transition.getInstant().getEpochSecond() + maxOffset) * MILLIS_PER_SECOND;
+  }
+
+}
@@ -0,0 +1,301 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Provides Date Open High Low Close Volume (DOHLCV) data from a binary columnar file that is
+ * memory-mapped rather than parsed.
+ * <p>
+ * The file holds a 64 byte header followed by the date, open, high, low, close and volume columns,
+ * each stored contiguously as 8 byte little-endian values so every column is 8 byte aligned:
+ * 
+ * <pre>
+ * offset  size  content
+ *      0     8  magic "DOHLCV" + format version as a little-endian long
+ *      8     8  number of bars
+ *     16    48  reserved, zero
+ *     64  8*n   dates (epoch milliseconds)
+ *  64+8n  8*n   opens, then highs, lows, closes and volumes
+ * </pre>
+ * 
+ * Opening a file maps each column read-only, which takes constant time regardless of its length,
+ * and the pages are shared through the OS page cache by every process mapping the same file. The
+ * column views ({@link #dates()}, {@link #opens()}, ...) read the mapping directly. Since a
+ * DohlcvSeries needs heap arrays, the getDohlcv methods bulk-copy only the requested bars.
+ */
+public class MappedDohlcvFile implements IDohlcvProvider {
+
+  private static final long MAGIC = 0x0001_5643_4c48_4f44L; // "DOHLCV" 0x01 0x00 little-endian
+  private static final int HEADER_SIZE = 64;
+  private static final int NUM_COLUMNS = 6;
+  private static final int VALUE_SIZE = 8;
+
+  // A single mapping cannot exceed Integer.MAX_VALUE bytes, and each column is mapped on its own.
+  private static final int MAX_BARS = Integer.MAX_VALUE / VALUE_SIZE;
+
+  private final int numBars;
+  private final LongBuffer dates;
+  private final DoubleBuffer opens;
+  private final DoubleBuffer highs;
+  private final DoubleBuffer lows;
+  private final DoubleBuffer closes;
+  private final DoubleBuffer volumes;
+
+  /**
+   * Hidden constructor
+   */
+  private MappedDohlcvFile(FileChannel channel, int numBars) throws IOException {
+    this.numBars = numBars;
+    this.dates = mapColumn(channel, 0, numBars).asLongBuffer();
+    this.opens = mapColumn(channel, 1, numBars).asDoubleBuffer();
+    this.highs = mapColumn(channel, 2, numBars).asDoubleBuffer();
+    this.lows = mapColumn(channel, 3, numBars).asDoubleBuffer();
+    this.closes = mapColumn(channel, 4, numBars).asDoubleBuffer();
+    this.volumes = mapColumn(channel, 5, numBars).asDoubleBuffer();
+  }
+
+  /**
+   * Opens and maps an existing file. The file must not be truncated while mapped.
+   * 
+   * @param file The file to open
+   * @return New instance of this class backed by the file
+   * @throws IOException If the file cannot be read or is not a valid DOHLCV file.
+   */
+  public static MappedDohlcvFile open(Path file) throws IOException {
+
+    Objects.requireNonNull(file, "File cannot be null");
+
+    // Mappings stay valid after the channel is closed.
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0) {
+          throw new IOException("Truncated DOHLCV file header: " + file);
+        }
+      }
+
+      if (header.getLong(0) != MAGIC) {
+        throw new IOException("Not a DOHLCV file: " + file);
+      }
+
+      final long numBars = header.getLong(8);
+
+      if (numBars < 0 || numBars > MAX_BARS
+          || channel.size() < HEADER_SIZE + NUM_COLUMNS * VALUE_SIZE * numBars) {
+        throw new IOException("Corrupt DOHLCV file size: " + file);
+      }
+
+      return new MappedDohlcvFile(channel, (int) numBars);
+    }
+  }
+
+  /**
+   * Writes a series to a file in the format read by {@link #open(Path)}, replacing any existing
+   * file.
+   * 
+   * @param file The file to write
+   * @param dohlcv The series to write
+   * @throws IOException If the file cannot be written
+   * @throws IllegalArgumentException If the series columns differ in length or hold too many bars.
+   */
+  public static void write(Path file, DohlcvSeries dohlcv) throws IOException {
+
+    Objects.requireNonNull(file, "File cannot be null");
+    Objects.requireNonNull(dohlcv, "DOHLCV cannot be null");
+
+    final int numBars = dohlcv.dates().length;
+
+    for (double[] column : Arrays.asList(dohlcv.opens(), dohlcv.highs(), dohlcv.lows(),
+        dohlcv.closes(), dohlcv.volumes())) {
+      if (column.length != numBars) {
+        throw new IllegalArgumentException("DOHLCV columns have length mismatch");
+      }
+    }
+
+    if (numBars > MAX_BARS) {
+      throw new IllegalArgumentException("Too many bars for a DOHLCV file");
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.putLong(0, MAGIC);
+      header.putLong(8, numBars);
+
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+
+      mapColumn(channel, MapMode.READ_WRITE, 0, numBars).asLongBuffer().put(dohlcv.dates());
+      mapColumn(channel, MapMode.READ_WRITE, 1, numBars).asDoubleBuffer().put(dohlcv.opens());
+      mapColumn(channel, MapMode.READ_WRITE, 2, numBars).asDoubleBuffer().put(dohlcv.highs());
+      mapColumn(channel, MapMode.READ_WRITE, 3, numBars).asDoubleBuffer().put(dohlcv.lows());
+      mapColumn(channel, MapMode.READ_WRITE, 4, numBars).asDoubleBuffer().put(dohlcv.closes());
+      mapColumn(channel, MapMode.READ_WRITE, 5, numBars).asDoubleBuffer().put(dohlcv.volumes());
+    }
+  }
+
+  private static ByteBuffer mapColumn(FileChannel channel, int column, int numBars)
+      throws IOException {
+    return mapColumn(channel, MapMode.READ_ONLY, column, numBars);
+  }
+
+  private static ByteBuffer mapColumn(FileChannel channel, MapMode mode, int column, int numBars)
+      throws IOException {
+
+    final long offset = HEADER_SIZE + (long) column * numBars * VALUE_SIZE;
+
+    MappedByteBuffer buffer = channel.map(mode, offset, (long) numBars * VALUE_SIZE);
+
+    return buffer.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  public int size() {
+    return numBars;
+  }
+
+  /**
+   * Gets a read-only view of the mapped dates column. Each call returns an independent view.
+   * 
+   * @return View of the dates column
+   */
+  public LongBuffer dates() {
+    return dates.duplicate();
+  }
+
+  /**
+   * Gets a read-only view of the mapped opens column. Each call returns an independent view.
+   * 
+   * @return View of the opens column
+   */
+  public DoubleBuffer opens() {
+    return opens.duplicate();
+  }
+
+  /**
+   * Gets a read-only view of the mapped highs column. Each call returns an independent view.
+   * 
+   * @return View of the highs column
+   */
+  public DoubleBuffer highs() {
+    return highs.duplicate();
+  }
+
+  /**
+   * Gets a read-only view of the mapped lows column. Each call returns an independent view.
+   * 
+   * @return View of the lows column
+   */
+  public DoubleBuffer lows() {
+    return lows.duplicate();
+  }
+
+  /**
+   * Gets a read-only view of the mapped closes column. Each call returns an independent view.
+   * 
+   * @return View of the closes column
+   */
+  public DoubleBuffer closes() {
+    return closes.duplicate();
+  }
+
+  /**
+   * Gets a read-only view of the mapped volumes column. Each call returns an independent view.
+   * 
+   * @return View of the volumes column
+   */
+  public DoubleBuffer volumes() {
+    return volumes.duplicate();
+  }
+
+  /**
+   * Copies all bars of the file into a new DohlcvSeries.
+   * 
+   * @return New DohlcvSeries instance holding all bars
+   */
+  public DohlcvSeries getDohlcv() {
+    return getDohlcv(0, numBars);
+  }
+
+  /**
+   * Copies a range of bars of the file into a new DohlcvSeries.
+   * 
+   * @param startIndex The first bar index, inclusive
+   * @param endIndex The last bar index, exclusive
+   * @return New DohlcvSeries instance holding the bars of the range
+   * @throws IndexOutOfBoundsException If the range is invalid.
+   */
+  public DohlcvSeries getDohlcv(int startIndex, int endIndex) {
+
+    if (startIndex < 0 || endIndex > numBars || startIndex > endIndex) {
+      throw new IndexOutOfBoundsException("Invalid bar range");
+    }
+
+    final int length = endIndex - startIndex;
+
+    long[] rangeDates = new long[length];
+    LongBuffer dateRange = dates.duplicate();
+    dateRange.position(startIndex);
+    dateRange.get(rangeDates);
+
+    return new DohlcvSeries(rangeDates, copy(opens, startIndex, length),
+        copy(highs, startIndex, length), copy(lows, startIndex, length),
+        copy(closes, startIndex, length), copy(volumes, startIndex, length));
+  }
+
+  /**
+   * Gets the stored bars for specific date-time values. Dates not found in the file get NaN values.
+   */
+  @Override
+  public DohlcvSeries getDohlcv(long[] dateTimes) {
+
+    Objects.requireNonNull(dateTimes, "Date-times cannot be null");
+
+    return DohlcvDateSelector.select(dateTimes, dates, opens, highs, lows, closes, volumes);
+  }
+
+  private static double[] copy(DoubleBuffer column, int startIndex, int length) {
+    double[] values = new double[length];
+    DoubleBuffer range = column.duplicate();
+    range.position(startIndex);
+    range.get(values);
+    return values;
+  }
+
+}
@@ -20,9 +20,9 @@
 
 package com.jfcbuilder.demo.data.providers;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
 
 import com.jfcbuilder.demo.data.providers.numeric.Sinusoid;
@@ -33,9 +33,15 @@ import com.jfcbuilder.types.DohlcvSeries;
  * Provides randomized Date Open High Low Close Volume (DOHLCV) data sets that follow a sinusoidal
  * summation trend line.
  */
-public class RandomDohlcvGenerator implements IDohlcvProvider {
+public class RandomDohlcvGenerator implements IDohlcvProvider, IDohlcvStreamProvider {
 
   private static final double MAX_TRENDLINE_AMPLITUDE = 2.0;
+  private static final double LF_PERIOD_BARS = 120.0;
+  private static final double HF_PERIOD_BARS = 40.0;
+
+  // Whole number of trend line cycles after which a cursor's bar index is wound back so it never
+  // overflows. Chosen so values still match getDohlcv() for the first billion bars.
+  private static final int TRENDLINE_WRAP_BARS = 120 * 10_000_000;
   private static final double MAX_CANDLE_RANGE_PERCENT_CHANGE = 0.10;
   private static final double MAX_VOLUME = 100_000_000.0;
 
@@ -55,66 +61,159 @@ public class RandomDohlcvGenerator implements IDohlcvProvider {
     return new RandomDohlcvGenerator();
   }
 
-  private static double randDouble() {
-    return ThreadLocalRandom.current().nextDouble();
-  }
-
   @Override
   public DohlcvSeries getDohlcv(long[] dateTimes) {
+    return getDohlcv(dateTimes, new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+  }
+
+  /**
+   * Gets a DohlcvSeries series instance corresponding to specific date-time values, drawing all of
+   * its random values from the supplied generator. The same generator state and date-time values
+   * always produce the same series.
+   * 
+   * @param dateTimes Array of ascending date-time values representing milliseconds since the epoch
+   *        start.
+   * @param random The source of random values. Must not be shared with other threads while in use.
+   * @return Instance of a DohlcvSeries that uses the supplied date-time values.
+   */
+  public DohlcvSeries getDohlcv(long[] dateTimes, SplittableRandom random) {
 
     Objects.requireNonNull(dateTimes, "Date-times cannot be null");
+    Objects.requireNonNull(random, "Random generator cannot be null");
 
     final int numElems = dateTimes.length;
 
-    List<Double> opens = new ArrayList<>(numElems);
-    List<Double> highs = new ArrayList<>(numElems);
-    List<Double> lows = new ArrayList<>(numElems);
-    List<Double> closes = new ArrayList<>(numElems);
-    List<Double> volumes = new ArrayList<>(numElems);
+    // Columns are filled in place and handed to the series as-is, without boxing or copying.
+    double[] opens = new double[numElems];
+    double[] highs = new double[numElems];
+    double[] lows = new double[numElems];
+    double[] closes = new double[numElems];
+    double[] volumes = new double[numElems];
+
+    new BarGenerator(random).fill(0, opens, highs, lows, closes, volumes, 0, numElems);
+
+    return new DohlcvSeries(dateTimes, opens, highs, lows, closes, volumes);
+  }
+
+  @Override
+  public IDohlcvCursor getCursor(PrimitiveIterator.OfLong dateTimes) {
+    return getCursor(dateTimes, new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+  }
+
+  /**
+   * Gets a cursor over DOHLCV values corresponding to a stream of date-time values, drawing all of
+   * its random values from the supplied generator. The same generator state and date-time values
+   * produce the same values as {@link #getDohlcv(long[], SplittableRandom)}. The cursor holds no
+   * more than a few fields of state so it can run endlessly.
+   * 
+   * @param dateTimes Iterator of ascending date-time values representing milliseconds since the
+   *        epoch start. May be endless.
+   * @param random The source of random values. Must not be shared with other threads while in use.
+   * @return New cursor that ends when the date-time values end.
+   */
+  public IDohlcvCursor getCursor(PrimitiveIterator.OfLong dateTimes, SplittableRandom random) {
+
+    Objects.requireNonNull(dateTimes, "Date-times cannot be null");
+    Objects.requireNonNull(random, "Random generator cannot be null");
+
+    final BarGenerator generator = new BarGenerator(random);
 
-    // Low frequency (LF) sinusoid setup
-    final double lfAmplitude = randDouble() * MAX_TRENDLINE_AMPLITUDE;
-    final double lfYOffset = 2.0 * lfAmplitude;
-    final SinusoidParams lfParams = new SinusoidParams(lfAmplitude, 1.0 / 120.0, lfYOffset);
+    return new IDohlcvCursor() {
 
-    // High frequency(HF) sinusoid setup
-    final double hfAmplitude = lfAmplitude * 0.70; // 70% attenuation of LF amplitude
-    final double hfYOffset = 2.0 * hfAmplitude;
-    final SinusoidParams hfParams = new SinusoidParams(hfAmplitude, 1.0 / 40.0, hfYOffset);
+      private int bar = 0;
 
-    boolean closeUp;
-    double trendline, range, open, high, low, close, highShadow, lowShadow;
+      @Override
+      public int next(DohlcvBlock block) {
 
-    for (int n = 0; n < numElems; n++) {
+        final long[] dates = block.dates();
+        final int capacity = block.capacity();
 
-      trendline = Sinusoid.getCosineValue(lfParams, n) + Sinusoid.getSineValue(hfParams, n);
+        int numElems = 0;
 
-      range = MAX_CANDLE_RANGE_PERCENT_CHANGE * randDouble() * trendline;
+        while (numElems < capacity && dateTimes.hasNext()) {
+          dates[numElems++] = dateTimes.nextLong();
+        }
 
-      closeUp = randDouble() > 0.5;
+        generator.fill(bar, block.opens(), block.highs(), block.lows(), block.closes(),
+            block.volumes(), 0, numElems);
 
-      high = trendline + (range / 2.0);
-      low = Math.max(trendline - (range / 2.0), 0.0);
-      highShadow = high - (high * 0.05 * randDouble());
-      lowShadow = low + (low * 0.05 * randDouble());
-      close = closeUp ? highShadow : lowShadow;
-      open = !closeUp ? highShadow : lowShadow;
+        bar += numElems;
 
-      opens.add(open);
-      highs.add(high);
-      lows.add(low);
-      closes.add(close);
+        if (bar >= TRENDLINE_WRAP_BARS) {
+          bar -= TRENDLINE_WRAP_BARS;
+        }
 
-      // volumes.add(MIN_VOLUME + ((MAX_VOLUME - MIN_VOLUME) * randDouble()));
-      volumes.add(MAX_VOLUME * trendline / MAX_TRENDLINE_AMPLITUDE * randDouble());
+        block.setSize(numElems);
+
+        return numElems;
+      }
+    };
+  }
+
+  /**
+   * Generates bar values along the trend line of one series.
+   */
+  private static class BarGenerator {
+
+    private final SplittableRandom random;
+    private final SinusoidParams[] lfComponents;
+    private final SinusoidParams[] hfComponents;
+
+    BarGenerator(SplittableRandom random) {
+
+      this.random = random;
+
+      // Low frequency (LF) sinusoid setup
+      final double lfAmplitude = random.nextDouble() * MAX_TRENDLINE_AMPLITUDE;
+      final double lfYOffset = 2.0 * lfAmplitude;
+      final SinusoidParams lfParams = new SinusoidParams(lfAmplitude, 1.0 / LF_PERIOD_BARS,
+          lfYOffset);
+
+      // High frequency(HF) sinusoid setup
+      final double hfAmplitude = lfAmplitude * 0.70; // 70% attenuation of LF amplitude
+      final double hfYOffset = 2.0 * hfAmplitude;
+      final SinusoidParams hfParams = new SinusoidParams(hfAmplitude, 1.0 / HF_PERIOD_BARS,
+          hfYOffset);
+
+      lfComponents = new SinusoidParams[] { lfParams };
+      hfComponents = new SinusoidParams[] { hfParams };
     }
 
-    double[] open_arr = opens.stream().mapToDouble(Double::doubleValue).toArray();
-    double[] high_arr = highs.stream().mapToDouble(Double::doubleValue).toArray();
-    double[] low_arr = lows.stream().mapToDouble(Double::doubleValue).toArray();
-    double[] close_arr = closes.stream().mapToDouble(Double::doubleValue).toArray();
-    double[] volume_arr = volumes.stream().mapToDouble(Double::doubleValue).toArray();
+    /**
+     * Fills a range of the columns with the values of consecutive bars.
+     */
+    void fill(int firstBar, double[] opens, double[] highs, double[] lows, double[] closes,
+        double[] volumes, int offset, int length) {
+
+      boolean closeUp;
+      double trendline, range, open, high, low, close, highShadow, lowShadow;
+
+      // The opens block doubles as scratch space for the trendline until each open is written.
+      Sinusoid.fillSum(lfComponents, hfComponents, firstBar, opens, offset, length);
+
+      for (int i = offset; i < offset + length; i++) {
+
+        trendline = opens[i];
 
-    return new DohlcvSeries(dateTimes, open_arr, high_arr, low_arr, close_arr, volume_arr);
+        range = MAX_CANDLE_RANGE_PERCENT_CHANGE * random.nextDouble() * trendline;
+
+        closeUp = random.nextDouble() > 0.5;
+
+        high = trendline + (range / 2.0);
+        low = Math.max(trendline - (range / 2.0), 0.0);
+        highShadow = high - (high * 0.05 * random.nextDouble());
+        lowShadow = low + (low * 0.05 * random.nextDouble());
+        close = closeUp ? highShadow : lowShadow;
+        open = !closeUp ? highShadow : lowShadow;
+
+        opens[i] = open;
+        highs[i] = high;
+        lows[i] = low;
+        closes[i] = close;
+
+        // volumes[i] = MIN_VOLUME + ((MAX_VOLUME - MIN_VOLUME) * random.nextDouble());
+        volumes[i] = MAX_VOLUME * trendline / MAX_TRENDLINE_AMPLITUDE * random.nextDouble();
+      }
+    }
   }
 }
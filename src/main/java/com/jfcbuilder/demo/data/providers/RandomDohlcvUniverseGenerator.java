@@ -0,0 +1,249 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Generates a universe of randomized Date Open High Low Close Volume (DOHLCV) series, one per
+ * symbol, that all share the same date-time values. Symbols are generated in parallel on a
+ * {@link ForkJoinPool}.
+ * <p>
+ * Each symbol draws from its own {@link SplittableRandom} split off a master generator in symbol
+ * order before any work is distributed. A given master seed therefore always produces bit-identical
+ * series no matter how many threads do the work or in which order they run.
+ */
+public class RandomDohlcvUniverseGenerator {
+
+  // Number of symbols below which a task generates its symbols instead of forking.
+  private static final int SYMBOLS_PER_TASK = 4;
+
+  // Number of bars generated at a time for compact symbols.
+  private static final int BLOCK_SIZE = 4096;
+
+  private final long seed;
+  private final RandomDohlcvGenerator generator;
+
+  /**
+   * Hidden constructor
+   */
+  private RandomDohlcvUniverseGenerator(long seed) {
+    this.seed = seed;
+    this.generator = RandomDohlcvGenerator.get();
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param seed The master seed from which every symbol's random values are derived
+   * @return New instance of this class
+   */
+  public static RandomDohlcvUniverseGenerator get(long seed) {
+    return new RandomDohlcvUniverseGenerator(seed);
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Gets the series of a universe of symbols using the common fork-join pool.
+   * 
+   * @param dateTimes Array of ascending date-time values representing milliseconds since the epoch
+   *        start. Referenced by every returned series.
+   * @param numSymbols The number of symbols in the universe
+   * @return Unmodifiable list of the series of each symbol, in symbol order
+   * @throws IllegalArgumentException If the number of symbols is negative.
+   */
+  public List<DohlcvSeries> getUniverse(long[] dateTimes, int numSymbols)
+      throws IllegalArgumentException {
+    return getUniverse(dateTimes, numSymbols, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Gets the series of a universe of symbols.
+   * 
+   * @param dateTimes Array of ascending date-time values representing milliseconds since the epoch
+   *        start. Referenced by every returned series.
+   * @param numSymbols The number of symbols in the universe
+   * @param pool The pool on which to generate the symbols
+   * @return Unmodifiable list of the series of each symbol, in symbol order
+   * @throws IllegalArgumentException If the number of symbols is negative.
+   */
+  public List<DohlcvSeries> getUniverse(long[] dateTimes, int numSymbols, ForkJoinPool pool)
+      throws IllegalArgumentException {
+
+    Objects.requireNonNull(dateTimes, "Date-times cannot be null");
+    Objects.requireNonNull(pool, "Pool cannot be null");
+
+    if (numSymbols < 0) {
+      throw new IllegalArgumentException("Number of symbols cannot be negative");
+    }
+
+    final SplittableRandom[] randoms = getSymbolRandoms(numSymbols);
+    final DohlcvSeries[] universe = new DohlcvSeries[numSymbols];
+
+    pool.invoke(new GenerateTask(n -> universe[n] = generator.getDohlcv(dateTimes, randoms[n]), 0,
+        numSymbols));
+
+    return Collections.unmodifiableList(Arrays.asList(universe));
+  }
+
+  /**
+   * Gets the series of a universe of symbols in compact form, using the common fork-join pool.
+   * 
+   * @param dateTimes Array of ascending date-time values representing milliseconds since the epoch
+   *        start
+   * @param numSymbols The number of symbols in the universe
+   * @return Unmodifiable list of the series of each symbol, in symbol order
+   * @throws IllegalArgumentException If the number of symbols is negative or the dates span too
+   *         wide a range for compact storage.
+   */
+  public List<CompactDohlcvSeries> getCompactUniverse(long[] dateTimes, int numSymbols)
+      throws IllegalArgumentException {
+    return getCompactUniverse(dateTimes, numSymbols, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Gets the series of a universe of symbols in compact form. The values are those of
+   * {@link #getUniverse(long[], int, ForkJoinPool)} rounded to float. Each symbol is generated in
+   * blocks so that no full-length double columns are ever allocated, and all symbols share a single
+   * copy of the compact dates, as those of the regular universe share the date-time array. Not
+   * counting the shared dates, a bar of a symbol therefore takes 20 bytes instead of 40, or 24
+   * instead of 48 with a date per bar, see {@link CompactDohlcvSeries}.
+   * 
+   * @param dateTimes Array of ascending date-time values representing milliseconds since the epoch
+   *        start
+   * @param numSymbols The number of symbols in the universe
+   * @param pool The pool on which to generate the symbols
+   * @return Unmodifiable list of the series of each symbol, in symbol order
+   * @throws IllegalArgumentException If the number of symbols is negative or the dates span too
+   *         wide a range for compact storage.
+   */
+  public List<CompactDohlcvSeries> getCompactUniverse(long[] dateTimes, int numSymbols,
+      ForkJoinPool pool) throws IllegalArgumentException {
+
+    Objects.requireNonNull(dateTimes, "Date-times cannot be null");
+    Objects.requireNonNull(pool, "Pool cannot be null");
+
+    if (numSymbols < 0) {
+      throw new IllegalArgumentException("Number of symbols cannot be negative");
+    }
+
+    final CompactDates dates = CompactDates.encode(dateTimes);
+    final SplittableRandom[] randoms = getSymbolRandoms(numSymbols);
+    final CompactDohlcvSeries[] universe = new CompactDohlcvSeries[numSymbols];
+
+    pool.invoke(new GenerateTask(n -> universe[n] = getCompactSymbol(dateTimes, dates,
+        randoms[n]), 0, numSymbols));
+
+    return Collections.unmodifiableList(Arrays.asList(universe));
+  }
+
+  private CompactDohlcvSeries getCompactSymbol(long[] dateTimes, CompactDates dates,
+      SplittableRandom random) {
+
+    final int numElems = dateTimes.length;
+
+    final IDohlcvCursor cursor = generator.getCursor(Arrays.stream(dateTimes).iterator(), random);
+    final DohlcvBlock block = new DohlcvBlock(Math.max(1, Math.min(numElems, BLOCK_SIZE)));
+
+    float[] opens = new float[numElems];
+    float[] highs = new float[numElems];
+    float[] lows = new float[numElems];
+    float[] closes = new float[numElems];
+    float[] volumes = new float[numElems];
+
+    int size = 0;
+    int numRead;
+
+    while ((numRead = cursor.next(block)) > 0) {
+      CompactDohlcvSeries.toFloats(block.opens(), numRead, opens, size);
+      CompactDohlcvSeries.toFloats(block.highs(), numRead, highs, size);
+      CompactDohlcvSeries.toFloats(block.lows(), numRead, lows, size);
+      CompactDohlcvSeries.toFloats(block.closes(), numRead, closes, size);
+      CompactDohlcvSeries.toFloats(block.volumes(), numRead, volumes, size);
+      size += numRead;
+    }
+
+    return new CompactDohlcvSeries(dates, opens, highs, lows, closes, volumes);
+  }
+
+  /**
+   * Splits one generator per symbol off the master generator, sequentially so that symbol i always
+   * gets the same generator.
+   */
+  private SplittableRandom[] getSymbolRandoms(int numSymbols) {
+
+    final SplittableRandom master = new SplittableRandom(seed);
+    final SplittableRandom[] randoms = new SplittableRandom[numSymbols];
+
+    for (int n = 0; n < numSymbols; n++) {
+      randoms[n] = master.split();
+    }
+
+    return randoms;
+  }
+
+  /**
+   * Generates the symbols of an index range, halving the range across forked tasks.
+   */
+  private static class GenerateTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final IntConsumer generateSymbol;
+    private final int startIndex;
+    private final int endIndex;
+
+    GenerateTask(IntConsumer generateSymbol, int startIndex, int endIndex) {
+      this.generateSymbol = generateSymbol;
+      this.startIndex = startIndex;
+      this.endIndex = endIndex;
+    }
+
+    @Override
+    protected void compute() {
+
+      if (endIndex - startIndex <= SYMBOLS_PER_TASK) {
+        for (int n = startIndex; n < endIndex; n++) {
+          generateSymbol.accept(n);
+        }
+        return;
+      }
+
+      final int middleIndex = (startIndex + endIndex) >>> 1;
+
+      invokeAll(new GenerateTask(generateSymbol, startIndex, middleIndex),
+          new GenerateTask(generateSymbol, middleIndex, endIndex));
+    }
+  }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import java.util.Objects;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Index built once next to a DOHLCV series that answers statistics over any index range in
+ * constant time, for example to autoscale axes or report range statistics while zooming and
+ * panning, whatever the width of the range.
+ * <p>
+ * Volumes, closes and typical price (high + low + close) / 3 times volume are held as compensated
+ * prefix sums, giving range sums, averages and the volume weighted average price (VWAP) with one
+ * subtraction each. Highs and lows are held in block sparse tables giving the range high and low.
+ * Non-finite values (e.g. NaN) are left out of every statistic.
+ * <p>
+ * The index references the series arrays, which must not be modified afterwards. Instances are
+ * immutable and can be queried from any thread.
+ */
+public class DohlcvRangeIndex {
+
+  private final int size;
+  private final RangeExtremumTable highs;
+  private final RangeExtremumTable lows;
+  private final PrefixSums closes;
+  private final PrefixSums volumes;
+  private final PrefixSums priceVolumes;
+  private final PrefixSums vwapVolumes;
+
+  /**
+   * Hidden constructor
+   */
+  private DohlcvRangeIndex(DohlcvSeries series) {
+
+    final double[] seriesHighs = series.highs();
+    final double[] seriesLows = series.lows();
+    final double[] seriesCloses = series.closes();
+    final double[] seriesVolumes = series.volumes();
+
+    size = seriesCloses.length;
+
+    highs = new RangeExtremumTable(RollingExtremum.Type.MAX, seriesHighs);
+    lows = new RangeExtremumTable(RollingExtremum.Type.MIN, seriesLows);
+    closes = new PrefixSums(seriesCloses);
+    volumes = new PrefixSums(seriesVolumes);
+
+    double[] pv = new double[size];
+    boolean allFinite = true;
+
+    for (int n = 0; n < size; n++) {
+      pv[n] = (seriesHighs[n] + seriesLows[n] + seriesCloses[n]) / 3.0 * seriesVolumes[n];
+      allFinite &= Double.isFinite(pv[n]);
+    }
+
+    priceVolumes = new PrefixSums(pv);
+
+    if (allFinite) {
+      vwapVolumes = volumes;
+    } else {
+
+      // Bars left out of the price volume sums are left out of the VWAP volume sums too.
+      for (int n = 0; n < size; n++) {
+        pv[n] = Double.isFinite(pv[n]) ? seriesVolumes[n] : Double.NaN;
+      }
+
+      vwapVolumes = new PrefixSums(pv);
+    }
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param series The series to index
+   * @return New instance of this class
+   * @throws NullPointerException If series is null.
+   * @throws IllegalArgumentException If the series columns don't all have the same length.
+   */
+  public static DohlcvRangeIndex get(DohlcvSeries series) throws IllegalArgumentException {
+
+    Objects.requireNonNull(series, "Series cannot be null");
+
+    final int numElems = series.closes().length;
+
+    if (series.highs().length != numElems || series.lows().length != numElems
+        || series.volumes().length != numElems) {
+      throw new IllegalArgumentException("Source series have length mismatch");
+    }
+
+    return new DohlcvRangeIndex(series);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the highest high of an index range.
+   * 
+   * @param startIndex The first index of the range
+   * @param endIndex The last index of the range, inclusive
+   * @return The highest high, or NaN if no high in the range is finite.
+   * @throws IllegalArgumentException If the range is empty or out of bounds.
+   */
+  public double getHigh(int startIndex, int endIndex) throws IllegalArgumentException {
+    checkRange(startIndex, endIndex);
+    return highs.get(startIndex, endIndex);
+  }
+
+  /**
+   * Gets the lowest low of an index range.
+   * 
+   * @param startIndex The first index of the range
+   * @param endIndex The last index of the range, inclusive
+   * @return The lowest low, or NaN if no low in the range is finite.
+   * @throws IllegalArgumentException If the range is empty or out of bounds.
+   */
+  public double getLow(int startIndex, int endIndex) throws IllegalArgumentException {
+    checkRange(startIndex, endIndex);
+    return lows.get(startIndex, endIndex);
+  }
+
+  /**
+   * Gets the total volume of an index range.
+   * 
+   * @param startIndex The first index of the range
+   * @param endIndex The last index of the range, inclusive
+   * @return The sum of the finite volumes in the range
+   * @throws IllegalArgumentException If the range is empty or out of bounds.
+   */
+  public double getVolume(int startIndex, int endIndex) throws IllegalArgumentException {
+    checkRange(startIndex, endIndex);
+    return volumes.sum(startIndex, endIndex + 1);
+  }
+
+  /**
+   * Gets the average volume of an index range.
+   * 
+   * @param startIndex The first index of the range
+   * @param endIndex The last index of the range, inclusive
+   * @return The average of the finite volumes in the range, or NaN if there are none.
+   * @throws IllegalArgumentException If the range is empty or out of bounds.
+   */
+  public double getAverageVolume(int startIndex, int endIndex) throws IllegalArgumentException {
+    checkRange(startIndex, endIndex);
+    return average(volumes, startIndex, endIndex + 1);
+  }
+
+  /**
+   * Gets the average close of an index range.
+   * 
+   * @param startIndex The first index of the range
+   * @param endIndex The last index of the range, inclusive
+   * @return The average of the finite closes in the range, or NaN if there are none.
+   * @throws IllegalArgumentException If the range is empty or out of bounds.
+   */
+  public double getAverageClose(int startIndex, int endIndex) throws IllegalArgumentException {
+    checkRange(startIndex, endIndex);
+    return average(closes, startIndex, endIndex + 1);
+  }
+
+  /**
+   * Gets the volume weighted average typical price (VWAP) of an index range.
+   * 
+   * @param startIndex The first index of the range
+   * @param endIndex The last index of the range, inclusive
+   * @return The sum of typical price times volume divided by the sum of volume over the bars with
+   *         finite values, or NaN if that volume is zero.
+   * @throws IllegalArgumentException If the range is empty or out of bounds.
+   */
+  public double getVwap(int startIndex, int endIndex) throws IllegalArgumentException {
+
+    checkRange(startIndex, endIndex);
+
+    final double volume = vwapVolumes.sum(startIndex, endIndex + 1);
+
+    return volume != 0.0 ? priceVolumes.sum(startIndex, endIndex + 1) / volume : Double.NaN;
+  }
+
+  private void checkRange(int startIndex, int endIndex) throws IllegalArgumentException {
+    if (startIndex < 0 || endIndex < startIndex || endIndex >= size) {
+      throw new IllegalArgumentException("Index range " + startIndex + " to " + endIndex
+          + " is empty or out of bounds");
+    }
+  }
+
+  private static double average(PrefixSums sums, int start, int endExclusive) {
+
+    final int numFinite = endExclusive - start - sums.nonFiniteCount(start, endExclusive);
+
+    return numFinite > 0 ? sums.sum(start, endExclusive) / numFinite : Double.NaN;
+  }
+
+}
@@ -0,0 +1,405 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator.StochData;
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Computes indicators of one DOHLCV series as a graph of nodes that declare their inputs, so that
+ * intermediates shared by several indicators are computed only once.
+ * <p>
+ * Each {@link Node} has a key made of its indicator name, parameters and the keys of its inputs.
+ * Evaluating a node first evaluates its inputs, and every result is cached by key for the lifetime
+ * of the graph. Since a graph is bound to a single series, a result is effectively cached by series
+ * identity, indicator and parameters. For example all SMAs of the closes share one pass of
+ * compensated prefix sums and each then costs a single subtraction per value, and stochastics with
+ * the same K share their rolling highs and lows. A dashboard of twenty close overlays therefore
+ * reads the closes once instead of twenty times.
+ * <p>
+ * Cached arrays are returned as they are and must not be modified. Evaluation is synchronized so a
+ * graph can be shared by threads building charts of the same series.
+ */
+public class IndicatorGraph {
+
+  /**
+   * The columns of a DOHLCV series usable as indicator inputs.
+   */
+  public enum Column {
+    OPEN, HIGH, LOW, CLOSE, VOLUME
+  }
+
+  /**
+   * A node of the graph: a value computed from the graph series and the values of other nodes.
+   * 
+   * @param <T> The type of value computed
+   */
+  public abstract static class Node<T> {
+
+    private final String key;
+    private final List<Node<?>> inputs;
+
+    /**
+     * Constructor
+     * 
+     * @param key The key identifying the value computed, including the node parameters and the keys
+     *        of its inputs. Nodes with equal keys must compute equal values.
+     * @param inputs The nodes whose values this node reads
+     * @throws NullPointerException If key or any input is null.
+     */
+    protected Node(String key, Node<?>... inputs) {
+
+      Objects.requireNonNull(key, "Key cannot be null");
+
+      for (Node<?> input : inputs) {
+        Objects.requireNonNull(input, "Input cannot be null");
+      }
+
+      this.key = key;
+      this.inputs = Collections.unmodifiableList(Arrays.asList(inputs.clone()));
+    }
+
+    /**
+     * Computes the node value. Input values are obtained with
+     * {@link IndicatorGraph#evaluate(Node)}.
+     * 
+     * @param graph The graph evaluating this node
+     * @return The computed value
+     */
+    protected abstract T compute(IndicatorGraph graph);
+
+    public String getKey() {
+      return key;
+    }
+
+    public List<Node<?>> getInputs() {
+      return inputs;
+    }
+
+    @Override
+    public String toString() {
+      return key;
+    }
+  }
+
+  private final DohlcvSeries series;
+
+  // Node key -> value. Guarded by this.
+  private final Map<String, Object> values = new HashMap<>();
+
+  /**
+   * Hidden constructor
+   */
+  private IndicatorGraph(DohlcvSeries series) {
+    this.series = series;
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param series The series whose indicators the graph computes
+   * @return New instance of this class with an empty cache
+   * @throws NullPointerException If series is null.
+   */
+  public static IndicatorGraph get(DohlcvSeries series) {
+
+    Objects.requireNonNull(series, "Series cannot be null");
+
+    return new IndicatorGraph(series);
+  }
+
+  public DohlcvSeries getSeries() {
+    return series;
+  }
+
+  /**
+   * Gets the value of a node, computing it and the values of any of its inputs not yet cached.
+   * 
+   * @param <T> The type of value computed by the node
+   * @param node The node to evaluate
+   * @return The cached or newly computed value. Must not be modified.
+   * @throws NullPointerException If node is null.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <T> T evaluate(Node<T> node) {
+
+    Objects.requireNonNull(node, "Node cannot be null");
+
+    Object value = values.get(node.getKey());
+
+    if (value == null) {
+      value = node.compute(this);
+      values.put(node.getKey(), value);
+    }
+
+    return (T) value;
+  }
+
+  /**
+   * Gets the number of node values computed and cached so far.
+   * 
+   * @return The number of cached values
+   */
+  public synchronized int getCachedCount() {
+    return values.size();
+  }
+
+  /**
+   * Gets the SMA of a series column, see {@link #sma(Node, int)}.
+   * 
+   * @param column The source column
+   * @param period The SMA period
+   * @return The cached or newly computed SMA values. Must not be modified.
+   * @throws NullPointerException If column is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public double[] sma(Column column, int period) throws IllegalArgumentException {
+    return evaluate(sma(column(column), period));
+  }
+
+  /**
+   * Gets the fast stochastic oscillator of the series, see {@link #stochasticPctK(int)} and
+   * {@link #stochasticPctD(int, int)}.
+   * 
+   * @param K The period over which to calculate the un-smoothed %K values
+   * @param D The period over which to calculate the SMA of the un-smoothed %K values
+   * @return New instance of a StochData referencing the cached or newly computed %K and %D series
+   * @throws IllegalArgumentException If K or D are smaller than one (1).
+   */
+  public StochData stochastic(int K, int D) throws IllegalArgumentException {
+    return new StochData(evaluate(stochasticPctK(K)), evaluate(stochasticPctD(K, D)));
+  }
+
+  /**
+   * Gets a node reading a column of the graph series.
+   * 
+   * @param column The column
+   * @return New node
+   * @throws NullPointerException If column is null.
+   */
+  public static Node<double[]> column(Column column) {
+
+    Objects.requireNonNull(column, "Column cannot be null");
+
+    return new Node<double[]>(column.name()) {
+      @Override
+      protected double[] compute(IndicatorGraph graph) {
+        return getColumn(graph.series, column);
+      }
+    };
+  }
+
+  /**
+   * Gets a node calculating the N-period SMA of another node. The SMA of each value is derived from
+   * the compensated prefix sums of the source, shared by all SMAs of the same source. The values
+   * agree with {@link Sma#calculate(int, double[])} to within the rounding of the prefix sums,
+   * including NaN for the first period - 1 values and wherever a non-finite value is in the window.
+   * 
+   * @param source The source node
+   * @param period The SMA period
+   * @return New node
+   * @throws NullPointerException If source is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public static Node<double[]> sma(Node<double[]> source, int period)
+      throws IllegalArgumentException {
+
+    if (period < 1) {
+      throw new IllegalArgumentException("Period must be greater than zero");
+    }
+
+    final Node<PrefixSums> prefixSums = prefixSums(source);
+
+    return new Node<double[]>("SMA(" + period + ")[" + source.getKey() + "]", prefixSums) {
+      @Override
+      protected double[] compute(IndicatorGraph graph) {
+        return calculateSma(graph.evaluate(prefixSums), period);
+      }
+    };
+  }
+
+  /**
+   * Gets a node calculating the N-period rolling minimum of another node, see
+   * {@link RollingExtremum#calculateMin(int, double[])}.
+   * 
+   * @param source The source node
+   * @param period The number of values over which to find the minimum
+   * @return New node
+   * @throws NullPointerException If source is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public static Node<double[]> rollingMin(Node<double[]> source, int period)
+      throws IllegalArgumentException {
+
+    if (period < 1) {
+      throw new IllegalArgumentException("Period must be greater than zero");
+    }
+
+    return new Node<double[]>("MIN(" + period + ")[" + source.getKey() + "]", source) {
+      @Override
+      protected double[] compute(IndicatorGraph graph) {
+        return RollingExtremum.calculateMin(period, graph.evaluate(source));
+      }
+    };
+  }
+
+  /**
+   * Gets a node calculating the N-period rolling maximum of another node, see
+   * {@link RollingExtremum#calculateMax(int, double[])}.
+   * 
+   * @param source The source node
+   * @param period The number of values over which to find the maximum
+   * @return New node
+   * @throws NullPointerException If source is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public static Node<double[]> rollingMax(Node<double[]> source, int period)
+      throws IllegalArgumentException {
+
+    if (period < 1) {
+      throw new IllegalArgumentException("Period must be greater than zero");
+    }
+
+    return new Node<double[]>("MAX(" + period + ")[" + source.getKey() + "]", source) {
+      @Override
+      protected double[] compute(IndicatorGraph graph) {
+        return RollingExtremum.calculateMax(period, graph.evaluate(source));
+      }
+    };
+  }
+
+  /**
+   * Gets a node calculating the un-smoothed stochastic %K values of the graph series from the
+   * rolling high and low nodes, with the same values as
+   * {@link StochasticOscillator#calculate(int, int, double[], double[], double[])}.
+   * 
+   * @param K The period over which to calculate the un-smoothed %K values
+   * @return New node
+   * @throws IllegalArgumentException If K is smaller than one (1).
+   */
+  public static Node<double[]> stochasticPctK(int K) throws IllegalArgumentException {
+
+    if (K < 1) {
+      throw new IllegalArgumentException("K must be greater than zero");
+    }
+
+    final Node<double[]> highest = rollingMax(column(Column.HIGH), K);
+    final Node<double[]> lowest = rollingMin(column(Column.LOW), K);
+    final Node<double[]> closes = column(Column.CLOSE);
+
+    return new Node<double[]>("%K(" + K + ")", highest, lowest, closes) {
+      @Override
+      protected double[] compute(IndicatorGraph graph) {
+        return calculatePctK(graph.evaluate(highest), graph.evaluate(lowest),
+            graph.evaluate(closes));
+      }
+    };
+  }
+
+  /**
+   * Gets a node calculating the stochastic %D values of the graph series as the SMA of the %K
+   * node.
+   * 
+   * @param K The period over which to calculate the un-smoothed %K values
+   * @param D The period over which to calculate the SMA of the un-smoothed %K values
+   * @return New node
+   * @throws IllegalArgumentException If K or D are smaller than one (1).
+   */
+  public static Node<double[]> stochasticPctD(int K, int D) throws IllegalArgumentException {
+    return sma(stochasticPctK(K), D);
+  }
+
+  private static Node<PrefixSums> prefixSums(Node<double[]> source) {
+
+    Objects.requireNonNull(source, "Source cannot be null");
+
+    return new Node<PrefixSums>("PREFIX_SUMS[" + source.getKey() + "]", source) {
+      @Override
+      protected PrefixSums compute(IndicatorGraph graph) {
+        return new PrefixSums(graph.evaluate(source));
+      }
+    };
+  }
+
+  private static double[] calculateSma(PrefixSums prefixSums, int period) {
+
+    final int numElems = prefixSums.size();
+    final boolean allFinite = prefixSums.nonFiniteCount(0, numElems) == 0;
+
+    double[] result = new double[numElems];
+
+    Arrays.fill(result, 0, Math.min(period - 1, numElems), Double.NaN);
+
+    for (int end = period; end <= numElems; end++) {
+
+      final int start = end - period;
+
+      if (allFinite || prefixSums.nonFiniteCount(start, end) == 0) {
+        result[end - 1] = prefixSums.sum(start, end) / (double) period;
+      } else {
+        result[end - 1] = Double.NaN;
+      }
+    }
+
+    return result;
+  }
+
+  private static double[] calculatePctK(double[] highest, double[] lowest, double[] closes) {
+
+    final int numElems = closes.length;
+
+    double[] pctK = new double[numElems];
+
+    for (int n = 0; n < numElems; n++) {
+      pctK[n] = highest[n] > lowest[n]
+          ? 100.0 * (closes[n] - lowest[n]) / (highest[n] - lowest[n])
+          : Double.NaN;
+    }
+
+    return pctK;
+  }
+
+  private static double[] getColumn(DohlcvSeries series, Column column) {
+
+    switch (column) {
+      case OPEN:
+        return series.opens();
+      case HIGH:
+        return series.highs();
+      case LOW:
+        return series.lows();
+      case CLOSE:
+        return series.closes();
+      case VOLUME:
+        return series.volumes();
+      default:
+        throw new IllegalArgumentException("Unsupported column: " + column);
+    }
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+/**
+ * Running compensated sums of a series and running counts of its non-finite values, from which the
+ * sum over any index range is obtained with one subtraction. Non-finite values (e.g. NaN) are left
+ * out of the sums and only counted.
+ * <p>
+ * The sums use Neumaier compensated summation like {@link Sma}, and range sums subtract the sums
+ * and their compensations separately, so that a range sum stays accurate however far into a long
+ * series the range starts.
+ */
+class PrefixSums {
+
+  // Element i covers the first i values, so every array has one more element than the series.
+  private final double[] sums;
+  private final double[] compensations;
+  private final int[] nonFiniteCounts;
+
+  /**
+   * Constructor
+   * 
+   * @param source The series to sum
+   */
+  PrefixSums(double[] source) {
+
+    final int numElems = source.length;
+
+    sums = new double[numElems + 1];
+    compensations = new double[numElems + 1];
+    nonFiniteCounts = new int[numElems + 1];
+
+    double sum = 0.0;
+    double compensation = 0.0;
+    int nonFiniteCount = 0;
+
+    for (int n = 0; n < numElems; n++) {
+
+      final double value = source[n];
+
+      if (Double.isFinite(value)) {
+
+        final double total = sum + value;
+
+        if (Math.abs(sum) >= Math.abs(value)) {
+          compensation += (sum - total) + value;
+        } else {
+          compensation += (value - total) + sum;
+        }
+
+        sum = total;
+
+      } else {
+        nonFiniteCount++;
+      }
+
+      sums[n + 1] = sum;
+      compensations[n + 1] = compensation;
+      nonFiniteCounts[n + 1] = nonFiniteCount;
+    }
+  }
+
+  /**
+   * Gets the length of the summed series.
+   * 
+   * @return The number of values summed
+   */
+  int size() {
+    return sums.length - 1;
+  }
+
+  /**
+   * Gets the sum of the finite values in an index range.
+   * 
+   * @param start The first index of the range
+   * @param endExclusive The index following the last index of the range
+   * @return The sum, zero for an empty range
+   */
+  double sum(int start, int endExclusive) {
+    return (sums[endExclusive] - sums[start])
+        + (compensations[endExclusive] - compensations[start]);
+  }
+
+  /**
+   * Gets the number of non-finite values in an index range.
+   * 
+   * @param start The first index of the range
+   * @param endExclusive The index following the last index of the range
+   * @return The number of values left out of the sum
+   */
+  int nonFiniteCount(int start, int endExclusive) {
+    return nonFiniteCounts[endExclusive] - nonFiniteCounts[start];
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+/**
+ * Answers minimum or maximum queries over any index range of a series in constant time.
+ * <p>
+ * A plain sparse table takes n * log2(n) values, several gigabytes for ten million bars, so the
+ * series is cut into blocks of {@value #BLOCK_SIZE} values instead. For each value the table keeps
+ * the extremum from the start of its block up to it and from it to the end of its block, and a
+ * sparse table covers the block extremums only. A range spanning several blocks is then answered
+ * from one suffix, one prefix and two overlapping sparse table entries, and a range within a single
+ * block by scanning at most {@value #BLOCK_SIZE} values. Non-finite values (e.g. NaN) are never
+ * candidates.
+ */
+class RangeExtremumTable {
+
+  private static final int BLOCK_SHIFT = 5;
+  private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+  private final RollingExtremum.Type type;
+  private final double identity;
+  private final double[] values;
+  private final double[] blockPrefixes;
+  private final double[] blockSuffixes;
+
+  // levels[k][b] is the extremum of blocks b to b + 2^k - 1
+  private final double[][] levels;
+
+  /**
+   * Constructor
+   * 
+   * @param type The kind of extremum to answer
+   * @param values The series. Referenced, not copied.
+   */
+  RangeExtremumTable(RollingExtremum.Type type, double[] values) {
+
+    this.type = type;
+    this.identity = type == RollingExtremum.Type.MAX ? Double.NEGATIVE_INFINITY
+        : Double.POSITIVE_INFINITY;
+    this.values = values;
+
+    final int numElems = values.length;
+    final int numBlocks = (numElems + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+
+    blockPrefixes = new double[numElems];
+    blockSuffixes = new double[numElems];
+
+    double[] blockExtremums = new double[numBlocks];
+
+    for (int block = 0; block < numBlocks; block++) {
+
+      final int start = block << BLOCK_SHIFT;
+      final int end = Math.min(start + BLOCK_SIZE, numElems);
+
+      double extremum = identity;
+
+      for (int n = start; n < end; n++) {
+        extremum = combine(extremum, candidate(values[n]));
+        blockPrefixes[n] = extremum;
+      }
+
+      blockExtremums[block] = extremum;
+
+      extremum = identity;
+
+      for (int n = end - 1; n >= start; n--) {
+        extremum = combine(extremum, candidate(values[n]));
+        blockSuffixes[n] = extremum;
+      }
+    }
+
+    final int numLevels = numBlocks > 0 ? floorLog2(numBlocks) + 1 : 0;
+
+    levels = new double[numLevels][];
+
+    if (numLevels > 0) {
+      levels[0] = blockExtremums;
+    }
+
+    for (int k = 1; k < numLevels; k++) {
+
+      final double[] previous = levels[k - 1];
+      final int span = 1 << (k - 1);
+      final double[] level = new double[numBlocks - (1 << k) + 1];
+
+      for (int b = 0; b < level.length; b++) {
+        level[b] = combine(previous[b], previous[b + span]);
+      }
+
+      levels[k] = level;
+    }
+  }
+
+  /**
+   * Gets the extremum of an index range.
+   * 
+   * @param start The first index of the range
+   * @param endInclusive The last index of the range
+   * @return The extremum of the finite values in the range, or NaN if there are none.
+   */
+  double get(int start, int endInclusive) {
+
+    final int startBlock = start >> BLOCK_SHIFT;
+    final int endBlock = endInclusive >> BLOCK_SHIFT;
+
+    double extremum;
+
+    if (startBlock == endBlock) {
+
+      extremum = identity;
+
+      for (int n = start; n <= endInclusive; n++) {
+        extremum = combine(extremum, candidate(values[n]));
+      }
+
+    } else {
+
+      extremum = combine(blockSuffixes[start], blockPrefixes[endInclusive]);
+
+      if (endBlock - startBlock > 1) {
+
+        final int first = startBlock + 1;
+        final int last = endBlock - 1;
+        final int k = floorLog2(last - first + 1);
+
+        extremum = combine(extremum,
+            combine(levels[k][first], levels[k][last - (1 << k) + 1]));
+      }
+    }
+
+    return Double.isInfinite(extremum) ? Double.NaN : extremum;
+  }
+
+  private double candidate(double value) {
+    return Double.isFinite(value) ? value : identity;
+  }
+
+  private double combine(double a, double b) {
+    return type == RollingExtremum.Type.MAX ? Math.max(a, b) : Math.min(a, b);
+  }
+
+  private static int floorLog2(int value) {
+    return 31 - Integer.numberOfLeadingZeros(value);
+  }
+
+}
@@ -0,0 +1,272 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import java.util.Objects;
+
+/**
+ * Calculates the N-period rolling minimum or maximum of a source series.
+ * <p>
+ * Candidate values are kept in a monotonic deque: each new value evicts every older candidate it
+ * dominates, and the front is dropped once it falls out of the window. Every value enters and
+ * leaves the deque at most once so each update costs amortized O(1) regardless of the period.
+ * Non-finite values (e.g. NaN) are never candidates, so the result is the extremum of the finite
+ * values in the window, or NaN if there are none.
+ * <p>
+ * Instances compute the extremum incrementally one value at a time. The static
+ * {@link #calculateMin(int, double[])} and {@link #calculateMax(int, double[])} methods run the
+ * same kernel over a whole array.
+ */
+public class RollingExtremum {
+
+  /**
+   * The kind of extremum tracked.
+   */
+  public enum Type {
+    MIN, MAX
+  }
+
+  private final Type type;
+  private final int period;
+
+  // Circular deque of candidate values and the sequence number at which each was supplied.
+  private final double[] values;
+  private final long[] sequences;
+
+  private int head;
+  private int size;
+  private long sequence;
+
+  /**
+   * Constructor
+   * 
+   * @param type The kind of extremum to track
+   * @param period The number of most recent values over which to track the extremum
+   * @throws NullPointerException If type is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public RollingExtremum(Type type, int period) throws IllegalArgumentException {
+
+    Objects.requireNonNull(type, "Type cannot be null");
+
+    if (period < 1) {
+      throw new IllegalArgumentException("Period must be greater than zero");
+    }
+
+    this.type = type;
+    this.period = period;
+    this.values = new double[period];
+    this.sequences = new long[period];
+  }
+
+  /**
+   * Calculates the rolling minimum of a source series.
+   * 
+   * @param period The number of values over which to find the minimum
+   * @param source The source values
+   * @return New array containing the rolling minimums. The first period - 1 elements in the array
+   *         are set to NaN until an initial first period is reached.
+   * @throws NullPointerException If source is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public static double[] calculateMin(int period, double[] source) throws IllegalArgumentException {
+    return calculate(new RollingExtremum(Type.MIN, period), source);
+  }
+
+  /**
+   * Calculates the rolling maximum of a source series.
+   * 
+   * @param period The number of values over which to find the maximum
+   * @param source The source values
+   * @return New array containing the rolling maximums. The first period - 1 elements in the array
+   *         are set to NaN until an initial first period is reached.
+   * @throws NullPointerException If source is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public static double[] calculateMax(int period, double[] source) throws IllegalArgumentException {
+    return calculate(new RollingExtremum(Type.MAX, period), source);
+  }
+
+  /**
+   * Calculates the rolling minimum of float values, for example the lows of a compact series.
+   * 
+   * @param period The number of values over which to find the minimum
+   * @param source The source values
+   * @return New array containing the rolling minimums. The first period - 1 elements in the array
+   *         are set to NaN until an initial first period is reached.
+   * @throws NullPointerException If source is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public static double[] calculateMin(int period, float[] source) throws IllegalArgumentException {
+    return calculate(new RollingExtremum(Type.MIN, period), source);
+  }
+
+  /**
+   * Calculates the rolling maximum of float values, for example the highs of a compact series.
+   * 
+   * @param period The number of values over which to find the maximum
+   * @param source The source values
+   * @return New array containing the rolling maximums. The first period - 1 elements in the array
+   *         are set to NaN until an initial first period is reached.
+   * @throws NullPointerException If source is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public static double[] calculateMax(int period, float[] source) throws IllegalArgumentException {
+    return calculate(new RollingExtremum(Type.MAX, period), source);
+  }
+
+  private static double[] calculate(RollingExtremum extremum, double[] source) {
+
+    Objects.requireNonNull(source);
+
+    final int numElems = source.length;
+
+    double[] result = new double[numElems];
+
+    for (int n = 0; n < numElems; n++) {
+      result[n] = extremum.update(source[n]);
+    }
+
+    return result;
+  }
+
+  private static double[] calculate(RollingExtremum extremum, float[] source) {
+
+    Objects.requireNonNull(source);
+
+    final int numElems = source.length;
+
+    double[] result = new double[numElems];
+
+    for (int n = 0; n < numElems; n++) {
+      result[n] = extremum.update(source[n]);
+    }
+
+    return result;
+  }
+
+  /**
+   * Adds the next value to the window, expiring the oldest one once the window is full.
+   * 
+   * @param value The next source value
+   * @return The extremum of the latest period values, or NaN if fewer than period values were
+   *         supplied so far or if none of the values in the window are finite.
+   */
+  public double update(double value) {
+
+    sequence++;
+
+    // Expire the front candidate if it slid out of the window.
+    if (size > 0 && sequences[head] <= sequence - period) {
+      head = (head + 1 == period) ? 0 : head + 1;
+      size--;
+    }
+
+    if (Double.isFinite(value)) {
+
+      // Drop candidates from the back that can never be the extremum again.
+      while (size > 0 && dominates(value, values[backIndex()])) {
+        size--;
+      }
+
+      int tail = head + size;
+      if (tail >= period) {
+        tail -= period;
+      }
+
+      values[tail] = value;
+      sequences[tail] = sequence;
+      size++;
+    }
+
+    return getValue();
+  }
+
+  /**
+   * Adds a block of values, for example one chunk of a streamed series.
+   * 
+   * @param values The next source values
+   * @param length The number of values to add from the start of the values array
+   * @param results Array receiving the extremum after each added value, from index zero
+   * @throws NullPointerException If values or results is null.
+   * @throws ArrayIndexOutOfBoundsException If length exceeds either array length.
+   */
+  public void update(double[] values, int length, double[] results) {
+
+    Objects.requireNonNull(values);
+    Objects.requireNonNull(results);
+
+    for (int n = 0; n < length; n++) {
+      results[n] = update(values[n]);
+    }
+  }
+
+  /**
+   * Gets the current extremum.
+   * 
+   * @return The extremum of the latest period values, or NaN if fewer than period values were
+   *         supplied so far or if none of the values in the window are finite.
+   */
+  public double getValue() {
+
+    if (sequence < period || size == 0) {
+      return Double.NaN;
+    }
+
+    return values[head];
+  }
+
+  /**
+   * Tells whether a full period of values has been supplied.
+   * 
+   * @return True if at least period values were supplied since construction or the last reset.
+   */
+  public boolean isReady() {
+    return sequence >= period;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public int getPeriod() {
+    return period;
+  }
+
+  /**
+   * Clears all state so that the instance can be reused for a new series.
+   */
+  public void reset() {
+    head = 0;
+    size = 0;
+    sequence = 0;
+  }
+
+  private int backIndex() {
+    final int back = head + size - 1;
+    return back >= period ? back - period : back;
+  }
+
+  private boolean dominates(double value, double candidate) {
+    return type == Type.MAX ? value >= candidate : value <= candidate;
+  }
+
+}
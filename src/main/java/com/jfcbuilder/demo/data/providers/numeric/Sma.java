@@ -24,55 +24,209 @@ import java.util.Objects;
 
 /**
  * Calculates an N-period simple moving average (SMA) from a source series.
+ * <p>
+ * The average is maintained as a sliding window sum so each new value costs O(1) regardless of the
+ * period. The sum uses Neumaier compensated summation so that long runs don't accumulate rounding
+ * drift. Non-finite values (e.g. NaN) are excluded from the sum and cause the SMA to be NaN for as
+ * long as they remain inside the window.
+ * <p>
+ * Instances of this class compute the SMA incrementally one value at a time, for example for live
+ * bars. The static {@link #calculate(int, double[])} method runs the very same kernel over a whole
+ * array so both forms produce identical results. It has an overload for float arrays.
  */
 public class Sma {
 
+  private final int period;
+  private final double[] window;
+
+  private int next;
+  private int count;
+  private int nonFiniteCount;
+  private double sum;
+  private double compensation;
+
+  /**
+   * Constructor
+   * 
+   * @param period The period (eg: 10, 20, 50, 200) over which to calculate the SMA values
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public Sma(int period) throws IllegalArgumentException {
+
+    if (period < 1) {
+      throw new IllegalArgumentException("Period must be greater than zero");
+    }
+
+    this.period = period;
+    this.window = new double[period];
+  }
+
   /**
    * Executes the calculation.
    * 
    * @param period The period (eg: 10, 20, 50, 200) over which to calculate the SMA values
    * @param source The source values from which to calculate the SMA
-   * @return New array containing the SMA values. The first elements in the array are set to NaN
-   *         until an initial first period is reached.
+   * @return New array containing the SMA values. The first period - 1 elements in the array are set
+   *         to NaN until an initial first period is reached.
    * @throws NullPointerException If source is null.
    * @throws IllegalArgumentException If period is smaller than one (1).
    */
   public static double[] calculate(int period, double[] source) throws IllegalArgumentException {
-    
+
     Objects.requireNonNull(source);
-    
-    if(period < 1) {
-      throw new IllegalArgumentException("Period must be greater than zero");
-    }
-    
+
+    final Sma sma = new Sma(period);
+
     final int numElems = source.length;
-    
-    double[] result = new double[source.length];
-    
-    int n = 0;
-    
-    for( ; n < period && n < numElems; n++) {
-      result[n] = Double.NaN;
+
+    double[] result = new double[numElems];
+
+    for (int n = 0; n < numElems; n++) {
+      result[n] = sma.update(source[n]);
     }
-    
-    for( ; n < numElems; n++) {
-      result[n] = calcAverage(n - period, n, source);
+
+    return result;
+  }
+
+  /**
+   * Executes the calculation on float values, for example the columns of a compact series.
+   * 
+   * @param period The period (eg: 10, 20, 50, 200) over which to calculate the SMA values
+   * @param source The source values from which to calculate the SMA
+   * @return New array containing the SMA values. The first period - 1 elements in the array are set
+   *         to NaN until an initial first period is reached.
+   * @throws NullPointerException If source is null.
+   * @throws IllegalArgumentException If period is smaller than one (1).
+   */
+  public static double[] calculate(int period, float[] source) throws IllegalArgumentException {
+
+    Objects.requireNonNull(source);
+
+    final Sma sma = new Sma(period);
+
+    final int numElems = source.length;
+
+    double[] result = new double[numElems];
+
+    for (int n = 0; n < numElems; n++) {
+      result[n] = sma.update(source[n]);
     }
-    
+
     return result;
   }
 
-  private static double calcAverage(int startIndex, int endIndex, double[] source) {
-    
-    double sum = 0.0;
-    
-    for(int n = startIndex; n <= endIndex; n++) {
-      sum += source[n];
+  /**
+   * Adds the next value to the window, evicting the oldest one once the window is full.
+   * 
+   * @param value The next source value
+   * @return The SMA of the latest period values, or NaN if fewer than period values were supplied
+   *         so far or if a non-finite value is inside the window.
+   */
+  public double update(double value) {
+
+    if (count == period) {
+      remove(window[next]);
+    } else {
+      count++;
     }
-    
-    final int numElems = endIndex - startIndex + 1;
-    
-    return sum / (double) numElems; 
+
+    window[next] = value;
+    next = (next + 1 == period) ? 0 : next + 1;
+
+    add(value);
+
+    return getValue();
+  }
+
+  /**
+   * Adds a block of values, for example one chunk of a streamed series.
+   * 
+   * @param values The next source values
+   * @param length The number of values to add from the start of the values array
+   * @param results Array receiving the SMA after each added value, from index zero
+   * @throws NullPointerException If values or results is null.
+   * @throws ArrayIndexOutOfBoundsException If length exceeds either array length.
+   */
+  public void update(double[] values, int length, double[] results) {
+
+    Objects.requireNonNull(values);
+    Objects.requireNonNull(results);
+
+    for (int n = 0; n < length; n++) {
+      results[n] = update(values[n]);
+    }
+  }
+
+  /**
+   * Gets the current SMA value.
+   * 
+   * @return The SMA of the latest period values, or NaN if fewer than period values were supplied
+   *         so far or if a non-finite value is inside the window.
+   */
+  public double getValue() {
+
+    if (count < period || nonFiniteCount > 0) {
+      return Double.NaN;
+    }
+
+    return (sum + compensation) / (double) period;
+  }
+
+  /**
+   * Tells whether a full period of values has been supplied.
+   * 
+   * @return True if at least period values were supplied since construction or the last reset.
+   */
+  public boolean isReady() {
+    return count == period;
+  }
+
+  public int getPeriod() {
+    return period;
+  }
+
+  /**
+   * Clears all state so that the instance can be reused for a new series.
+   */
+  public void reset() {
+    next = 0;
+    count = 0;
+    nonFiniteCount = 0;
+    sum = 0.0;
+    compensation = 0.0;
+  }
+
+  private void add(double value) {
+
+    if (!Double.isFinite(value)) {
+      nonFiniteCount++;
+      return;
+    }
+
+    accumulate(value);
+  }
+
+  private void remove(double value) {
+
+    if (!Double.isFinite(value)) {
+      nonFiniteCount--;
+      return;
+    }
+
+    accumulate(-value);
+  }
+
+  private void accumulate(double value) {
+
+    final double total = sum + value;
+
+    if (Math.abs(sum) >= Math.abs(value)) {
+      compensation += (sum - total) + value;
+    } else {
+      compensation += (value - total) + sum;
+    }
+
+    sum = total;
   }
 
 }
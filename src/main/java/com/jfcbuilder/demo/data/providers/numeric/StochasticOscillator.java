@@ -24,9 +24,20 @@ import java.util.Objects;
 
 /**
  * Calculates a fast stochastic oscillator data series from a source series.
+ * <p>
+ * Instances compute %K and %D incrementally one bar at a time, for example for live bars or
+ * streamed blocks. The static {@link #calculate(int, int, double[], double[], double[])} method
+ * runs the same kernel over whole arrays.
  */
 public class StochasticOscillator {
 
+  private final RollingExtremum periodLow;
+  private final RollingExtremum periodHigh;
+  private final Sma pctDSma;
+
+  private double pctK = Double.NaN;
+  private double pctD = Double.NaN;
+
   public static class StochData {
 
     private static final double[] EMPTY_DATA = {};
@@ -39,7 +50,7 @@ public class StochasticOscillator {
       pctD = EMPTY_DATA;
     }
 
-    private StochData(double[] pctK, double[] pctD) {
+    StochData(double[] pctK, double[] pctD) {
 
       Objects.requireNonNull(pctK, "%K cannot be null");
       Objects.requireNonNull(pctD, "%D cannot be null");
@@ -61,10 +72,33 @@ public class StochasticOscillator {
     }
   }
 
+  /**
+   * Constructor
+   * 
+   * @param K The period over which to calculate the un-smoothed %K values
+   * @param D The period over which to calculate the SMA of the un-smoothed %K values
+   * @throws IllegalArgumentException If K or D are smaller than one (1).
+   */
+  public StochasticOscillator(int K, int D) throws IllegalArgumentException {
+
+    if (K < 1 || D < 1) {
+      throw new IllegalArgumentException("K and D must be greater than zero");
+    }
+
+    periodLow = new RollingExtremum(RollingExtremum.Type.MIN, K);
+    periodHigh = new RollingExtremum(RollingExtremum.Type.MAX, K);
+    pctDSma = new Sma(D);
+  }
+
   /**
    * Calculates a fast stochastic series for K-period and D-period smoothed version of K based on
    * supplied source data. The first values are set to NaN until a first number of values in the
    * specified periods are encountered.
+   * <p>
+   * Each %K value compares the current close to the lowest low and highest high of the K most
+   * recent bars, including the current one. The period extremes are tracked with
+   * {@link RollingExtremum} so the calculation runs in O(n) regardless of K. A %K value is NaN when
+   * the period high equals the period low.
    * 
    * @param K The period over which to calculate the un-smoothed %K values
    * @param D The period over which to calculate the SMA of the un-smoothed %K values
@@ -86,7 +120,7 @@ public class StochasticOscillator {
       throw new IllegalArgumentException("Highs, lows, and closes cannot be null");
     }
 
-    if (highs.length != lows.length && highs.length != closes.length) {
+    if (highs.length != lows.length || highs.length != closes.length) {
       throw new IllegalArgumentException("Source series have length mismatch");
     }
 
@@ -99,35 +133,128 @@ public class StochasticOscillator {
     // If here there is at least one element.
 
     double[] pctK = new double[numElems];
+    double[] pctD = new double[numElems];
+
+    new StochasticOscillator(K, D).update(highs, lows, closes, numElems, pctK, pctD);
 
-    double periodLow = lows[0];
-    double periodHigh = highs[0];
-
-    for (int nSource = 0; nSource < numElems; nSource++) {
-
-      if (nSource < K) {
-        // Not enough values yet to look back over the entire first K period.
-        pctK[nSource] = Double.NaN;
-        continue;
-      }
-
-      // Iterate the K period starting at the first element back from the current source element
-      // going to the current source element.
-      for (int nK = nSource - K + 1; (nK <= nSource) && (nK < numElems); nK++) {
-        if (nK < nSource) {
-          // Haven't reached the source element at nSource so still inside the current K period
-          periodLow = Math.min(periodLow, lows[nK]);
-          periodHigh = Math.max(periodHigh, highs[nK]);
-        } else {
-          // The current K period has been completed.
-          pctK[nSource] = 100.0 * (closes[nSource] - periodLow) / (periodHigh - periodLow);
-        }
-      }
-    }
-    
-    // Now calculate %D from the %K series we just created.
-    final double[] pctD = Sma.calculate(D, pctK);
-    
     return new StochData(pctK, pctD);
   }
-}
+
+  /**
+   * Calculates a fast stochastic series from float values, for example the columns of a compact
+   * series, see {@link #calculate(int, int, double[], double[], double[])}.
+   * 
+   * @param K The period over which to calculate the un-smoothed %K values
+   * @param D The period over which to calculate the SMA of the un-smoothed %K values
+   * @param highs The source high values from which to calculate the stochastic oscillator values
+   * @param lows The source low values from which to calculate the stochastic oscillator values
+   * @param closes The source close values from which to calculate the stochastic oscillator values
+   * @return New instance of a StochData referencing the calculated %K and %D series
+   * @throws IllegalArgumentException If K or D are smaller than one (1), if any source array is
+   *         null, or if the source arrays don't all have the same length.
+   */
+  public static StochData calculate(int K, int D, float[] highs, float[] lows, float[] closes)
+      throws IllegalArgumentException {
+
+    if (K < 1 || D < 1) {
+      throw new IllegalArgumentException("K and D must be greater than zero");
+    }
+
+    if (highs == null || lows == null || closes == null) {
+      throw new IllegalArgumentException("Highs, lows, and closes cannot be null");
+    }
+
+    if (highs.length != lows.length || highs.length != closes.length) {
+      throw new IllegalArgumentException("Source series have length mismatch");
+    }
+
+    final int numElems = highs.length;
+
+    double[] pctK = new double[numElems];
+    double[] pctD = new double[numElems];
+
+    final StochasticOscillator stochastic = new StochasticOscillator(K, D);
+
+    for (int n = 0; n < numElems; n++) {
+      stochastic.update(highs[n], lows[n], closes[n]);
+      pctK[n] = stochastic.pctK;
+      pctD[n] = stochastic.pctD;
+    }
+
+    return numElems == 0 ? new StochData() : new StochData(pctK, pctD);
+  }
+
+  /**
+   * Adds the next bar.
+   * 
+   * @param high The high value of the bar
+   * @param low The low value of the bar
+   * @param close The close value of the bar
+   */
+  public void update(double high, double low, double close) {
+
+    // Both are NaN until the first K period has been completed.
+    final double lowest = periodLow.update(low);
+    final double highest = periodHigh.update(high);
+
+    pctK = highest > lowest ? 100.0 * (close - lowest) / (highest - lowest) : Double.NaN;
+    pctD = pctDSma.update(pctK);
+  }
+
+  /**
+   * Adds a block of bars, for example one chunk of a streamed series.
+   * 
+   * @param highs The high values of the bars
+   * @param lows The low values of the bars
+   * @param closes The close values of the bars
+   * @param length The number of bars to add from the start of the source arrays
+   * @param pctK Array receiving the %K value after each added bar, from index zero
+   * @param pctD Array receiving the %D value after each added bar, from index zero
+   * @throws NullPointerException If any array is null.
+   * @throws ArrayIndexOutOfBoundsException If length exceeds any array length.
+   */
+  public void update(double[] highs, double[] lows, double[] closes, int length, double[] pctK,
+      double[] pctD) {
+
+    Objects.requireNonNull(highs);
+    Objects.requireNonNull(lows);
+    Objects.requireNonNull(closes);
+    Objects.requireNonNull(pctK);
+    Objects.requireNonNull(pctD);
+
+    for (int n = 0; n < length; n++) {
+      update(highs[n], lows[n], closes[n]);
+      pctK[n] = this.pctK;
+      pctD[n] = this.pctD;
+    }
+  }
+
+  /**
+   * Gets the latest %K value.
+   * 
+   * @return The %K value of the latest bar, or NaN if not yet available.
+   */
+  public double getPctK() {
+    return pctK;
+  }
+
+  /**
+   * Gets the latest %D value.
+   * 
+   * @return The %D value of the latest bar, or NaN if not yet available.
+   */
+  public double getPctD() {
+    return pctD;
+  }
+
+  /**
+   * Clears all state so that the instance can be reused for a new series.
+   */
+  public void reset() {
+    periodLow.reset();
+    periodHigh.reset();
+    pctDSma.reset();
+    pctK = Double.NaN;
+    pctD = Double.NaN;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,459 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.sampling;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Reduces time series to about as many points as a plot can show before they are handed to the
+ * series builders. All series of a chart share one time axis, so every series is reduced onto the
+ * same set of output times.
+ * <p>
+ * Two modes are offered for line series:
+ * <ul>
+ * <li>{@link Mode#LTTB}: Largest-Triangle-Three-Buckets picks, per bucket, the sample forming the
+ * largest triangle with its neighbours in the first (reference) series. Other series are sampled at
+ * the same indices.</li>
+ * <li>{@link Mode#MIN_MAX}: one bucket per pixel column, emitting each series' minimum and maximum in
+ * the order they occur, at the bucket's first and last times. Keeps every spike visible.</li>
+ * </ul>
+ * OHLCV series are aggregated into one candle per bucket instead, see
+ * {@link #aggregate(DohlcvSeries, int, int, double[]...)}.
+ * <p>
+ * Series with no more points than the target are returned unchanged (as copies of the range).
+ */
+public class Downsampler {
+
+  // Below this width in pixels a candle body can no longer be told apart from its wicks.
+  private static final int MIN_CANDLE_WIDTH_PIXELS = 3;
+
+  /**
+   * The downsampling algorithm for line series.
+   */
+  public enum Mode {
+    LTTB, MIN_MAX
+  }
+
+  /**
+   * Downsampled line series sharing one time axis.
+   */
+  public static class SampledSeries {
+
+    private final long[] times;
+    private final double[][] series;
+
+    private SampledSeries(long[] times, double[][] series) {
+      this.times = times;
+      this.series = series;
+    }
+
+    public long[] times() {
+      return times;
+    }
+
+    /**
+     * Gets one downsampled series.
+     * 
+     * @param index The position of the series in the downsample call
+     * @return The downsampled values, parallel to {@link #times()}
+     */
+    public double[] series(int index) {
+      return series[index];
+    }
+  }
+
+  /**
+   * Aggregated OHLCV candles together with overlay series aligned to them.
+   */
+  public static class SampledDohlcv {
+
+    private final DohlcvSeries dohlcv;
+    private final double[][] overlays;
+
+    private SampledDohlcv(DohlcvSeries dohlcv, double[][] overlays) {
+      this.dohlcv = dohlcv;
+      this.overlays = overlays;
+    }
+
+    public DohlcvSeries dohlcv() {
+      return dohlcv;
+    }
+
+    /**
+     * Gets one aligned overlay series.
+     * 
+     * @param index The position of the overlay in the aggregate call
+     * @return The overlay values, parallel to the dates of {@link #dohlcv()}
+     */
+    public double[] overlay(int index) {
+      return overlays[index];
+    }
+  }
+
+  private final Mode mode;
+  private final int plotWidth;
+
+  /**
+   * Hidden constructor
+   */
+  private Downsampler(Mode mode, int plotWidth) {
+    this.mode = mode;
+    this.plotWidth = plotWidth;
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param mode The downsampling algorithm for line series
+   * @param plotWidth The width of the plot area in pixels, from which the target number of points is
+   *        derived
+   * @return New instance of this class
+   * @throws IllegalArgumentException If plotWidth is smaller than one (1).
+   */
+  public static Downsampler get(Mode mode, int plotWidth) throws IllegalArgumentException {
+
+    Objects.requireNonNull(mode, "Mode cannot be null");
+
+    if (plotWidth < 1) {
+      throw new IllegalArgumentException("Plot width must be greater than zero");
+    }
+
+    return new Downsampler(mode, plotWidth);
+  }
+
+  /**
+   * Gets the number of buckets line series are reduced to, one per pixel column.
+   * 
+   * @return The number of buckets
+   */
+  public int getNumBuckets() {
+    return plotWidth;
+  }
+
+  /**
+   * Gets the number of candles OHLCV series are aggregated to.
+   * 
+   * @return The number of candles
+   */
+  public int getNumCandles() {
+    return Math.max(1, plotWidth / MIN_CANDLE_WIDTH_PIXELS);
+  }
+
+  /**
+   * Downsamples an index range of line series that share a time axis.
+   * 
+   * @param times The shared time values
+   * @param startIndex The first index of the range, inclusive
+   * @param endIndex The last index of the range, inclusive
+   * @param series The series values, each parallel to the time values. The first one is the
+   *        reference series in {@link Mode#LTTB} mode.
+   * @return The downsampled series covering only the range
+   * @throws IllegalArgumentException If the range is invalid or a series is shorter than the times.
+   */
+  public SampledSeries downsample(long[] times, int startIndex, int endIndex, double[]... series)
+      throws IllegalArgumentException {
+
+    Objects.requireNonNull(times, "Times cannot be null");
+    Objects.requireNonNull(series, "Series cannot be null");
+    checkRange(times.length, startIndex, endIndex);
+
+    for (double[] values : series) {
+      Objects.requireNonNull(values, "Series values cannot be null");
+      if (values.length < times.length) {
+        throw new IllegalArgumentException("Series is shorter than the time values");
+      }
+    }
+
+    final int numElems = endIndex - startIndex + 1;
+
+    if (numElems <= (mode == Mode.MIN_MAX ? 2 * plotWidth : plotWidth)) {
+      return gather(times, series, identityIndices(startIndex, numElems));
+    }
+
+    if (mode == Mode.LTTB) {
+      final double[] reference = series.length > 0 ? series[0] : new double[times.length];
+      return gather(times, series, lttbIndices(times, reference, startIndex, numElems, plotWidth));
+    }
+
+    return minMax(times, series, startIndex, numElems, plotWidth);
+  }
+
+  /**
+   * Aggregates an index range of an OHLCV series into at most {@link #getNumCandles()} candles of
+   * consecutive bars. Each candle takes the first open, the highest high, the lowest low, the last
+   * close and the summed volume of its bars, and is dated at its last bar. NaN values, e.g. of
+   * missing bars, are skipped the same way the line modes skip them, and a candle of only missing
+   * bars is NaN. Overlay series (e.g. moving averages) are sampled at each candle's last bar so they
+   * stay aligned with the closes.
+   * 
+   * @param dohlcv The source series
+   * @param startIndex The first index of the range, inclusive
+   * @param endIndex The last index of the range, inclusive
+   * @param overlays Series parallel to the source dates to align with the candles
+   * @return The aggregated candles and overlays covering only the range
+   * @throws IllegalArgumentException If the range is invalid or an overlay is shorter than the
+   *         source series.
+   */
+  public SampledDohlcv aggregate(DohlcvSeries dohlcv, int startIndex, int endIndex,
+      double[]... overlays) throws IllegalArgumentException {
+
+    Objects.requireNonNull(dohlcv, "DOHLCV cannot be null");
+    Objects.requireNonNull(overlays, "Overlays cannot be null");
+
+    final long[] dates = dohlcv.dates();
+    checkRange(dates.length, startIndex, endIndex);
+
+    for (double[] values : overlays) {
+      Objects.requireNonNull(values, "Overlay values cannot be null");
+      if (values.length < dates.length) {
+        throw new IllegalArgumentException("Overlay is shorter than the DOHLCV series");
+      }
+    }
+
+    final double[] opens = dohlcv.opens();
+    final double[] highs = dohlcv.highs();
+    final double[] lows = dohlcv.lows();
+    final double[] closes = dohlcv.closes();
+    final double[] volumes = dohlcv.volumes();
+
+    final int numElems = endIndex - startIndex + 1;
+    final int numOut = Math.min(numElems, getNumCandles());
+
+    long[] outDates = new long[numOut];
+    double[] outOpens = new double[numOut];
+    double[] outHighs = new double[numOut];
+    double[] outLows = new double[numOut];
+    double[] outCloses = new double[numOut];
+    double[] outVolumes = new double[numOut];
+    double[][] outOverlays = new double[overlays.length][numOut];
+
+    for (int bucket = 0; bucket < numOut; bucket++) {
+
+      final int first = startIndex + bucketStart(bucket, numElems, numOut);
+      final int last = startIndex + bucketStart(bucket + 1, numElems, numOut) - 1;
+
+      double open = Double.NaN;
+      double high = Double.NaN;
+      double low = Double.NaN;
+      double close = Double.NaN;
+      double volume = Double.NaN;
+
+      // Math.max and Math.min would turn the whole candle NaN on a single missing bar.
+      for (int n = first; n <= last; n++) {
+        if (Double.isNaN(open)) {
+          open = opens[n];
+        }
+        if (Double.isNaN(high) || highs[n] > high) {
+          high = highs[n];
+        }
+        if (Double.isNaN(low) || lows[n] < low) {
+          low = lows[n];
+        }
+        if (!Double.isNaN(closes[n])) {
+          close = closes[n];
+        }
+        if (!Double.isNaN(volumes[n])) {
+          volume = Double.isNaN(volume) ? volumes[n] : volume + volumes[n];
+        }
+      }
+
+      outDates[bucket] = dates[last];
+      outOpens[bucket] = open;
+      outHighs[bucket] = high;
+      outLows[bucket] = low;
+      outCloses[bucket] = close;
+      outVolumes[bucket] = volume;
+
+      for (int s = 0; s < overlays.length; s++) {
+        outOverlays[s][bucket] = overlays[s][last];
+      }
+    }
+
+    return new SampledDohlcv(
+        new DohlcvSeries(outDates, outOpens, outHighs, outLows, outCloses, outVolumes), outOverlays);
+  }
+
+  /**
+   * Selects the Largest-Triangle-Three-Buckets indices of a reference series. The first and last
+   * points are always kept. NaN points are only selected if a bucket has nothing else.
+   */
+  private static int[] lttbIndices(long[] times, double[] values, int startIndex, int numElems,
+      int numPoints) {
+
+    if (numPoints < 3) {
+      numPoints = 3;
+    }
+
+    int[] indices = new int[numPoints];
+
+    // Middle buckets share the points between the first and the last one.
+    final double bucketSize = (double) (numElems - 2) / (numPoints - 2);
+
+    int selected = startIndex;
+    indices[0] = selected;
+
+    for (int bucket = 0; bucket < numPoints - 2; bucket++) {
+
+      final int first = startIndex + 1 + (int) (bucket * bucketSize);
+      final int end = startIndex + 1 + (int) ((bucket + 1) * bucketSize);
+
+      // Average of the next bucket, or the last point for the final bucket.
+      final int nextFirst = end;
+      final int nextEnd = Math.min(startIndex + 1 + (int) ((bucket + 2) * bucketSize),
+          startIndex + numElems);
+
+      double avgX = 0.0;
+      double avgY = 0.0;
+      int avgCount = 0;
+
+      for (int n = nextFirst; n < nextEnd; n++) {
+        if (!Double.isNaN(values[n])) {
+          avgX += times[n];
+          avgY += values[n];
+          avgCount++;
+        }
+      }
+
+      if (avgCount > 0) {
+        avgX /= avgCount;
+        avgY /= avgCount;
+      } else {
+        avgX = times[nextEnd - 1];
+        avgY = values[nextEnd - 1];
+      }
+
+      final double ax = times[selected];
+      final double ay = values[selected];
+
+      double maxArea = -1.0;
+      int maxIndex = first;
+
+      for (int n = first; n < end; n++) {
+
+        final double area = Math
+            .abs((ax - avgX) * (values[n] - ay) - (ax - times[n]) * (avgY - ay));
+
+        if (area > maxArea) {
+          maxArea = area;
+          maxIndex = n;
+        }
+      }
+
+      selected = maxIndex;
+      indices[bucket + 1] = selected;
+    }
+
+    indices[numPoints - 1] = startIndex + numElems - 1;
+
+    return indices;
+  }
+
+  /**
+   * Emits, per bucket and series, the minimum and maximum in the order they occur, placed at the
+   * bucket's first and last times.
+   */
+  private static SampledSeries minMax(long[] times, double[][] series, int startIndex,
+      int numElems, int numBuckets) {
+
+    final int numOut = 2 * numBuckets;
+
+    long[] outTimes = new long[numOut];
+    double[][] outSeries = new double[series.length][numOut];
+
+    for (int bucket = 0; bucket < numBuckets; bucket++) {
+
+      final int first = startIndex + bucketStart(bucket, numElems, numBuckets);
+      final int last = startIndex + bucketStart(bucket + 1, numElems, numBuckets) - 1;
+      final int out = 2 * bucket;
+
+      outTimes[out] = times[first];
+      outTimes[out + 1] = times[last];
+
+      for (int s = 0; s < series.length; s++) {
+
+        final double[] values = series[s];
+
+        int minIndex = -1;
+        int maxIndex = -1;
+
+        for (int n = first; n <= last; n++) {
+          if (!Double.isNaN(values[n])) {
+            if (minIndex < 0 || values[n] < values[minIndex]) {
+              minIndex = n;
+            }
+            if (maxIndex < 0 || values[n] > values[maxIndex]) {
+              maxIndex = n;
+            }
+          }
+        }
+
+        if (minIndex < 0) {
+          outSeries[s][out] = Double.NaN;
+          outSeries[s][out + 1] = Double.NaN;
+        } else {
+          outSeries[s][out] = values[Math.min(minIndex, maxIndex)];
+          outSeries[s][out + 1] = values[Math.max(minIndex, maxIndex)];
+        }
+      }
+    }
+
+    return new SampledSeries(outTimes, outSeries);
+  }
+
+  private static SampledSeries gather(long[] times, double[][] series, int[] indices) {
+
+    long[] outTimes = new long[indices.length];
+    double[][] outSeries = new double[series.length][indices.length];
+
+    for (int i = 0; i < indices.length; i++) {
+      outTimes[i] = times[indices[i]];
+      for (int s = 0; s < series.length; s++) {
+        outSeries[s][i] = series[s][indices[i]];
+      }
+    }
+
+    return new SampledSeries(outTimes, outSeries);
+  }
+
+  private static int[] identityIndices(int startIndex, int numElems) {
+    int[] indices = new int[numElems];
+    Arrays.setAll(indices, i -> startIndex + i);
+    return indices;
+  }
+
+  /**
+   * Gets the offset of the first element of a bucket when spreading numElems over numBuckets
+   * buckets as evenly as possible.
+   */
+  private static int bucketStart(int bucket, int numElems, int numBuckets) {
+    return (int) ((long) bucket * numElems / numBuckets);
+  }
+
+  private static void checkRange(int length, int startIndex, int endIndex) {
+    if (startIndex < 0 || endIndex >= length || startIndex > endIndex) {
+      throw new IllegalArgumentException("Invalid index range");
+    }
+  }
+
+}
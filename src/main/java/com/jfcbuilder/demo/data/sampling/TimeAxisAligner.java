@@ -0,0 +1,354 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.sampling;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Aligns series with different time axes, e.g. bars that skip weekends and values for every
+ * calendar day, onto one shared time axis so that they can be plotted on the same chart.
+ * <p>
+ * The ascending input axes are merged into their union or intersection by a tree of pairwise
+ * linear merges, without any per-time hashing. For n times in total across k axes this costs
+ * O(n log k) at worst, and O(n) when the axes mostly share their times, as calendars of symbols
+ * do. Each input time keeps the index of its output time, so any number of value columns of an
+ * axis can then be reindexed onto the shared axis in linear time. Times missing from
+ * an axis are filled per column with NaN or with the previous value, see {@link Fill}.
+ */
+public class TimeAxisAligner {
+
+  /**
+   * Which times make up the shared axis.
+   */
+  public enum Join {
+
+    /** Times present in any of the axes */
+    UNION,
+
+    /** Times present in all of the axes */
+    INTERSECTION
+  }
+
+  /**
+   * How values of times missing from an axis are filled in.
+   */
+  public enum Fill {
+
+    /** Missing values are NaN, which plots as a gap */
+    NAN,
+
+    /**
+     * Missing values repeat the latest previous value of the axis. Times before the first value of
+     * the axis are NaN.
+     */
+    FORWARD
+  }
+
+  /**
+   * The shared time axis of several aligned axes, with the means to reindex their value columns.
+   */
+  public static class AlignedAxis {
+
+    private final long[] times;
+
+    // Per input axis the index in times of each input time, or -1 if it was left out.
+    private final int[][] outputIndices;
+
+    private AlignedAxis(long[] times, int[][] outputIndices) {
+      this.times = times;
+      this.outputIndices = outputIndices;
+    }
+
+    /**
+     * Gets the shared time axis.
+     * 
+     * @return The ascending times. Must not be modified.
+     */
+    public long[] times() {
+      return times;
+    }
+
+    public int getNumAxes() {
+      return outputIndices.length;
+    }
+
+    /**
+     * Reindexes a value column of one of the input axes onto the shared axis.
+     * 
+     * @param axis The position of the input axis in the align call
+     * @param values The values, parallel to the input axis
+     * @param fill How to fill the values of times missing from the input axis
+     * @return New array of the values, parallel to {@link #times()}
+     * @throws NullPointerException If values or fill is null.
+     * @throws IllegalArgumentException If axis is out of range or the values don't have the length
+     *         of the input axis.
+     */
+    public double[] reindex(int axis, double[] values, Fill fill)
+        throws IllegalArgumentException {
+
+      Objects.requireNonNull(values, "Values cannot be null");
+      Objects.requireNonNull(fill, "Fill cannot be null");
+
+      if (axis < 0 || axis >= outputIndices.length) {
+        throw new IllegalArgumentException("Axis is out of range");
+      }
+
+      final int[] indices = outputIndices[axis];
+
+      if (values.length != indices.length) {
+        throw new IllegalArgumentException("Values must have the length of the axis");
+      }
+
+      double[] aligned = new double[times.length];
+      Arrays.fill(aligned, Double.NaN);
+
+      if (fill == Fill.NAN) {
+
+        for (int n = 0; n < indices.length; n++) {
+          if (indices[n] >= 0) {
+            aligned[indices[n]] = values[n];
+          }
+        }
+
+        return aligned;
+      }
+
+      // Forward fill: each input value holds until the output index of the next kept input time.
+      int n = 0;
+
+      while (n < indices.length && indices[n] < 0) {
+        n++;
+      }
+
+      while (n < indices.length) {
+
+        int next = n + 1;
+
+        while (next < indices.length && indices[next] < 0) {
+          next++;
+        }
+
+        final int end = next < indices.length ? indices[next] : times.length;
+
+        Arrays.fill(aligned, indices[n], end, values[n]);
+
+        n = next;
+      }
+
+      return aligned;
+    }
+
+    /**
+     * Reindexes an OHLCV series of one of the input axes onto the shared axis.
+     * 
+     * @param axis The position of the input axis in the align call
+     * @param dohlcv The series, with the dates of the input axis
+     * @param fill How to fill the bars of times missing from the input axis
+     * @return New DohlcvSeries instance with the shared times as dates
+     * @throws NullPointerException If dohlcv or fill is null.
+     * @throws IllegalArgumentException If axis is out of range or the columns don't have the length
+     *         of the input axis.
+     */
+    public DohlcvSeries reindex(int axis, DohlcvSeries dohlcv, Fill fill)
+        throws IllegalArgumentException {
+
+      Objects.requireNonNull(dohlcv, "Series cannot be null");
+
+      return new DohlcvSeries(times, reindex(axis, dohlcv.opens(), fill),
+          reindex(axis, dohlcv.highs(), fill), reindex(axis, dohlcv.lows(), fill),
+          reindex(axis, dohlcv.closes(), fill), reindex(axis, dohlcv.volumes(), fill));
+    }
+  }
+
+  private final Join join;
+
+  /**
+   * Hidden constructor
+   */
+  private TimeAxisAligner(Join join) {
+    this.join = join;
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param join Which times make up the shared axis
+   * @return New instance of this class
+   * @throws NullPointerException If join is null.
+   */
+  public static TimeAxisAligner get(Join join) {
+
+    Objects.requireNonNull(join, "Join cannot be null");
+
+    return new TimeAxisAligner(join);
+  }
+
+  public Join getJoin() {
+    return join;
+  }
+
+  /**
+   * Merges time axes into one shared axis.
+   * 
+   * @param axes The time axes, each strictly ascending
+   * @return New instance holding the shared axis
+   * @throws NullPointerException If axes or any axis is null.
+   * @throws IllegalArgumentException If an axis is not strictly ascending.
+   */
+  public AlignedAxis align(long[]... axes) throws IllegalArgumentException {
+
+    Objects.requireNonNull(axes, "Axes cannot be null");
+
+    final int numAxes = axes.length;
+
+    for (int k = 0; k < numAxes; k++) {
+
+      Objects.requireNonNull(axes[k], "Axis cannot be null");
+
+      for (int n = 1; n < axes[k].length; n++) {
+        if (axes[k][n] <= axes[k][n - 1]) {
+          throw new IllegalArgumentException("Axis " + k + " is not strictly ascending");
+        }
+      }
+    }
+
+    // A single axis is copied so that the shared axis never aliases the caller's array.
+    final long[] times = numAxes == 1 ? axes[0].clone() : mergeAll(axes, 0, numAxes);
+
+    int[][] outputIndices = new int[numAxes][];
+
+    for (int k = 0; k < numAxes; k++) {
+      outputIndices[k] = getOutputIndices(axes[k], times);
+    }
+
+    return new AlignedAxis(times, outputIndices);
+  }
+
+  /**
+   * Merges a range of the axes pairwise, so that each time takes part in O(log k) linear merges. When
+   * the axes mostly share their times the merged axes stay about as long as one input axis, and the
+   * merge tree costs O(n) in total.
+   */
+  private long[] mergeAll(long[][] axes, int startIndex, int endIndex) {
+
+    final int numAxes = endIndex - startIndex;
+
+    if (numAxes == 0) {
+      return new long[0];
+    }
+
+    if (numAxes == 1) {
+      return axes[startIndex];
+    }
+
+    final int middleIndex = (startIndex + endIndex) >>> 1;
+
+    return merge(mergeAll(axes, startIndex, middleIndex), mergeAll(axes, middleIndex, endIndex));
+  }
+
+  private long[] merge(long[] a, long[] b) {
+
+    long[] merged = new long[join == Join.UNION ? a.length + b.length : Math.min(a.length,
+        b.length)];
+
+    int i = 0;
+    int j = 0;
+    int n = 0;
+
+    while (i < a.length && j < b.length) {
+
+      final long timeA = a[i];
+      final long timeB = b[j];
+
+      if (timeA == timeB) {
+        merged[n++] = timeA;
+        i++;
+        j++;
+      } else if (timeA < timeB) {
+        if (join == Join.UNION) {
+          merged[n++] = timeA;
+        }
+        i++;
+      } else {
+        if (join == Join.UNION) {
+          merged[n++] = timeB;
+        }
+        j++;
+      }
+    }
+
+    if (join == Join.UNION) {
+      while (i < a.length) {
+        merged[n++] = a[i++];
+      }
+      while (j < b.length) {
+        merged[n++] = b[j++];
+      }
+    }
+
+    return n == merged.length ? merged : Arrays.copyOf(merged, n);
+  }
+
+  /**
+   * Gets the index in the shared times of each time of an axis, or -1 if it isn't shared. Gallops
+   * over the shared times so a short axis costs O(m log(n / m)) instead of O(n).
+   */
+  private static int[] getOutputIndices(long[] axis, long[] times) {
+
+    int[] indices = new int[axis.length];
+
+    int position = 0;
+
+    for (int n = 0; n < axis.length; n++) {
+
+      final long time = axis[n];
+
+      // Find the first shared time not before time, doubling the step until overshooting.
+      int step = 1;
+      int low = position;
+      int high = position;
+
+      while (high < times.length && times[high] < time) {
+        low = high + 1;
+        high = Math.min(times.length, position + step);
+        step <<= 1;
+      }
+
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (times[middle] < time) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+
+      position = low;
+
+      indices[n] = position < times.length && times[position] == time ? position : -1;
+    }
+
+    return indices;
+  }
+}
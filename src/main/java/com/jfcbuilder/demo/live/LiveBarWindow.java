@@ -0,0 +1,117 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.live;
+
+/**
+ * Ring buffer holding the most recent bars of a live chart: one date column and a fixed number of
+ * value columns (prices, volume and indicator values). Once full, each new bar overwrites the
+ * oldest one so memory stays constant however long the feed runs. Not thread-safe; live charts
+ * only touch it on the Swing event dispatch thread.
+ */
+class LiveBarWindow {
+
+  private final long[] dates;
+  private final double[][] columns;
+
+  private int start;
+  private int size;
+
+  /**
+   * Constructor
+   * 
+   * @param capacity The maximum number of bars held
+   * @param numColumns The number of value columns per bar
+   * @throws IllegalArgumentException If capacity or numColumns is smaller than one (1).
+   */
+  LiveBarWindow(int capacity, int numColumns) throws IllegalArgumentException {
+
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be greater than zero");
+    }
+
+    if (numColumns < 1) {
+      throw new IllegalArgumentException("Number of columns must be greater than zero");
+    }
+
+    dates = new long[capacity];
+    columns = new double[numColumns][capacity];
+  }
+
+  /**
+   * Adds a bar after the newest one, evicting the oldest bar if the window is full. The value
+   * columns of the new bar must then be set with {@link #setNewest(int, double)}.
+   * 
+   * @param date The bar date-time in milliseconds since the epoch start
+   */
+  void add(long date) {
+
+    final int capacity = dates.length;
+
+    if (size < capacity) {
+      size++;
+    } else {
+      start = (start + 1 == capacity) ? 0 : start + 1;
+    }
+
+    dates[physicalIndex(size - 1)] = date;
+  }
+
+  /**
+   * Sets a value of the newest bar.
+   * 
+   * @param column The value column
+   * @param value The value
+   */
+  void setNewest(int column, double value) {
+    columns[column][physicalIndex(size - 1)] = value;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets the date of a bar.
+   * 
+   * @param index The bar index, zero being the oldest bar in the window
+   * @return The bar date-time in milliseconds since the epoch start
+   */
+  long getDate(int index) {
+    return dates[physicalIndex(index)];
+  }
+
+  /**
+   * Gets a value of a bar.
+   * 
+   * @param column The value column
+   * @param index The bar index, zero being the oldest bar in the window
+   * @return The value
+   */
+  double getValue(int column, int index) {
+    return columns[column][physicalIndex(index)];
+  }
+
+  private int physicalIndex(int index) {
+    final int physical = start + index;
+    return physical >= dates.length ? physical - dates.length : physical;
+  }
+
+}
@@ -0,0 +1,398 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.live;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Stroke;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.Timer;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.NumberTickUnit;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.ValueMarker;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.CandlestickRenderer;
+import org.jfree.chart.renderer.xy.StandardXYBarPainter;
+import org.jfree.chart.renderer.xy.XYBarRenderer;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.title.TextTitle;
+
+import com.jfcbuilder.demo.data.providers.DohlcvBlock;
+import com.jfcbuilder.demo.data.providers.numeric.Sma;
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator;
+
+/**
+ * Stock chart that keeps taking new bars after it is built, laid out like the demo's daily stock
+ * chart: candles with MA(20) and MA(50), volume with MA(90), and Stochastics(14, 3).
+ * <p>
+ * Any thread may {@link #append(long, double, double, double, double, double) append} bars. They
+ * are only staged in a bounded buffer under a short lock. A Swing timer on the event dispatch
+ * thread (EDT) drains the buffer once per frame interval: every bar staged since the last frame is
+ * added to a fixed-size window of recent bars, the indicators are updated incrementally, and the
+ * chart is notified once so that all of those bars cost a single repaint. The chart is never
+ * rebuilt.
+ * <p>
+ * Bars are counted as accepted, merged into a frame together with earlier bars, or dropped
+ * because the staging buffer was full or their date was not after the previous bar's.
+ */
+public class LiveDohlcvChart {
+
+  // Columns of the bar window
+  private static final int OPEN = 0;
+  private static final int HIGH = 1;
+  private static final int LOW = 2;
+  private static final int CLOSE = 3;
+  private static final int VOLUME = 4;
+  private static final int FAST_SMA = 5;
+  private static final int SLOW_SMA = 6;
+  private static final int VOLUME_SMA = 7;
+  private static final int PCT_K = 8;
+  private static final int PCT_D = 9;
+  private static final int NUM_COLUMNS = 10;
+
+  private static final int[] OHLCV_COLUMNS = { OPEN, HIGH, LOW, CLOSE, VOLUME };
+
+  private static final int FAST_SMA_PERIOD = 20;
+  private static final int SLOW_SMA_PERIOD = 50;
+  private static final int VOLUME_SMA_PERIOD = 90;
+  private static final int K = 14;
+  private static final int D = 3;
+
+  private static final int MAX_PENDING_BARS = 1 << 16;
+
+  private final LiveBarWindow window;
+  private final LiveXYDataset[] datasets;
+  private final JFreeChart chart;
+  private final TextTitle status;
+  private final Timer timer;
+
+  private final Sma fastSma = new Sma(FAST_SMA_PERIOD);
+  private final Sma slowSma = new Sma(SLOW_SMA_PERIOD);
+  private final Sma volumeSma = new Sma(VOLUME_SMA_PERIOD);
+  private final StochasticOscillator stoch = new StochasticOscillator(K, D);
+
+  // Bars staged by producers, swapped with the drained block on each frame. Guarded by lock.
+  private final Object lock = new Object();
+  private DohlcvBlock pending = new DohlcvBlock(MAX_PENDING_BARS);
+  private DohlcvBlock drained = new DohlcvBlock(MAX_PENDING_BARS);
+  private long lastPendingDate = Long.MIN_VALUE;
+
+  private final LongAdder acceptedCount = new LongAdder();
+  private final LongAdder droppedCount = new LongAdder();
+
+  // Only written on the EDT
+  private volatile long mergedCount;
+  private volatile long repaintCount;
+
+  /**
+   * Hidden constructor
+   */
+  private LiveDohlcvChart(String title, int maxBars, int frameIntervalMillis) {
+
+    window = new LiveBarWindow(maxBars, NUM_COLUMNS);
+
+    LiveXYDataset candles = new LiveXYDataset(window, new String[] { "Price" },
+        new int[] { CLOSE }, OHLCV_COLUMNS);
+    LiveXYDataset priceSmas = new LiveXYDataset(window,
+        new String[] { "MA(" + FAST_SMA_PERIOD + ")", "MA(" + SLOW_SMA_PERIOD + ")" },
+        new int[] { FAST_SMA, SLOW_SMA }, OHLCV_COLUMNS);
+    LiveXYDataset volumes = new LiveXYDataset(window, new String[] { "Volume" },
+        new int[] { VOLUME }, OHLCV_COLUMNS);
+    LiveXYDataset volumeSmas = new LiveXYDataset(window,
+        new String[] { "MA(" + VOLUME_SMA_PERIOD + ")" }, new int[] { VOLUME_SMA }, OHLCV_COLUMNS);
+    LiveXYDataset stochs = new LiveXYDataset(window, new String[] { "%K", "%D" },
+        new int[] { PCT_K, PCT_D }, OHLCV_COLUMNS);
+
+    datasets = new LiveXYDataset[] { candles, priceSmas, volumes, volumeSmas, stochs };
+
+    NumberAxis priceAxis = new NumberAxis("Price");
+    priceAxis.setAutoRangeIncludesZero(false);
+    CandlestickRenderer candleRenderer = new CandlestickRenderer();
+    candleRenderer.setDrawVolume(false);
+    XYPlot pricePlot = new XYPlot(candles, null, priceAxis, candleRenderer);
+    pricePlot.setDataset(1, priceSmas);
+    pricePlot.setRenderer(1, getLineRenderer(Color.MAGENTA, Color.BLUE));
+
+    XYBarRenderer volumeRenderer = new XYBarRenderer(0.2);
+    volumeRenderer.setBarPainter(new StandardXYBarPainter());
+    volumeRenderer.setShadowVisible(false);
+    volumeRenderer.setSeriesPaint(0, Color.DARK_GRAY);
+    XYPlot volumePlot = new XYPlot(volumes, null, new NumberAxis("Volume"), volumeRenderer);
+    volumePlot.setDataset(1, volumeSmas);
+    volumePlot.setRenderer(1, getLineRenderer(Color.BLUE));
+
+    NumberAxis stochAxis = new NumberAxis("Stochastics(" + K + ", " + D + ")");
+    stochAxis.setRange(0.0, 100.0);
+    stochAxis.setTickUnit(new NumberTickUnit(50.0));
+    XYPlot stochPlot = new XYPlot(stochs, null, stochAxis, getLineRenderer(Color.RED, Color.BLUE));
+    Stroke markerStroke = new BasicStroke(1.0f);
+    stochPlot.addRangeMarker(new ValueMarker(80.0, Color.BLACK, markerStroke));
+    stochPlot.addRangeMarker(new ValueMarker(50.0, Color.BLUE, markerStroke));
+    stochPlot.addRangeMarker(new ValueMarker(20.0, Color.BLACK, markerStroke));
+
+    CombinedDomainXYPlot combined = new CombinedDomainXYPlot(new DateAxis());
+    combined.setGap(10.0);
+    combined.add(pricePlot, 3);
+    combined.add(volumePlot, 1);
+    combined.add(stochPlot, 1);
+
+    chart = new JFreeChart(title, JFreeChart.DEFAULT_TITLE_FONT, combined, false);
+    status = new TextTitle();
+    chart.addSubtitle(status);
+    updateStatus();
+
+    timer = new Timer(frameIntervalMillis, e -> flush());
+    timer.setCoalesce(true);
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param title The chart title
+   * @param maxBars The number of most recent bars shown. Older bars are discarded.
+   * @param frameIntervalMillis The interval between repaints in milliseconds
+   * @return New instance of this class
+   * @throws NullPointerException If title is null.
+   * @throws IllegalArgumentException If maxBars or frameIntervalMillis is smaller than one (1).
+   */
+  public static LiveDohlcvChart get(String title, int maxBars, int frameIntervalMillis)
+      throws IllegalArgumentException {
+
+    Objects.requireNonNull(title, "Title cannot be null");
+
+    if (maxBars < 1) {
+      throw new IllegalArgumentException("Maximum bars must be greater than zero");
+    }
+
+    if (frameIntervalMillis < 1) {
+      throw new IllegalArgumentException("Frame interval must be greater than zero");
+    }
+
+    return new LiveDohlcvChart(title, maxBars, frameIntervalMillis);
+  }
+
+  /**
+   * Gets the chart, to be shown in a ChartPanel for example. Its datasets are only modified on the
+   * EDT.
+   * 
+   * @return The chart
+   */
+  public JFreeChart getChart() {
+    return chart;
+  }
+
+  /**
+   * Starts repainting staged bars once per frame interval.
+   */
+  public void start() {
+    timer.start();
+  }
+
+  /**
+   * Stops repainting. Bars appended afterwards stay staged, or are dropped once the staging buffer
+   * is full, until the chart is started again.
+   */
+  public void stop() {
+    timer.stop();
+  }
+
+  /**
+   * Stages a new bar to be shown on the next frame. May be called from any thread.
+   * 
+   * @param date The bar date-time in milliseconds since the epoch start. Must be after the date of
+   *        the previously appended bar.
+   * @param open The open price
+   * @param high The high price
+   * @param low The low price
+   * @param close The close price
+   * @param volume The volume
+   * @return True if the bar was staged, false if it was dropped.
+   */
+  public boolean append(long date, double open, double high, double low, double close,
+      double volume) {
+
+    synchronized (lock) {
+
+      final int size = pending.size();
+
+      if (size == pending.capacity() || date <= lastPendingDate) {
+        droppedCount.increment();
+        return false;
+      }
+
+      pending.dates()[size] = date;
+      pending.opens()[size] = open;
+      pending.highs()[size] = high;
+      pending.lows()[size] = low;
+      pending.closes()[size] = close;
+      pending.volumes()[size] = volume;
+      pending.setSize(size + 1);
+
+      lastPendingDate = date;
+    }
+
+    acceptedCount.increment();
+
+    return true;
+  }
+
+  /**
+   * Stages all bars of a block, for example one filled by a cursor. May be called from any thread.
+   * 
+   * @param block The bars to append. Each bar is appended as by
+   *        {@link #append(long, double, double, double, double, double)}.
+   * @return The number of bars staged. The others were dropped.
+   * @throws NullPointerException If block is null.
+   */
+  public int append(DohlcvBlock block) {
+
+    Objects.requireNonNull(block, "Block cannot be null");
+
+    int numStaged = 0;
+
+    for (int n = 0; n < block.size(); n++) {
+      if (append(block.dates()[n], block.opens()[n], block.highs()[n], block.lows()[n],
+          block.closes()[n], block.volumes()[n])) {
+        numStaged++;
+      }
+    }
+
+    return numStaged;
+  }
+
+  /**
+   * Gets the number of bars staged so far.
+   * 
+   * @return The number of appended bars that were not dropped
+   */
+  public long getAcceptedCount() {
+    return acceptedCount.sum();
+  }
+
+  /**
+   * Gets the number of bars dropped so far, because the staging buffer was full or because their
+   * date was not after the previous bar's date.
+   * 
+   * @return The number of dropped bars
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  /**
+   * Gets the number of bars that were shown by the same repaint as an earlier bar.
+   * 
+   * @return The number of bars whose repaint was merged into another one
+   */
+  public long getMergedCount() {
+    return mergedCount;
+  }
+
+  /**
+   * Gets the number of frames in which new bars were shown.
+   * 
+   * @return The number of chart repaints requested
+   */
+  public long getRepaintCount() {
+    return repaintCount;
+  }
+
+  /**
+   * Moves the bars staged since the previous frame into the window and notifies the chart once.
+   * Called by the timer on the EDT.
+   */
+  private void flush() {
+
+    synchronized (lock) {
+      DohlcvBlock swap = drained;
+      drained = pending;
+      pending = swap;
+      pending.setSize(0);
+    }
+
+    final int numBars = drained.size();
+
+    if (numBars == 0) {
+      return;
+    }
+
+    final long[] dates = drained.dates();
+    final double[] opens = drained.opens();
+    final double[] highs = drained.highs();
+    final double[] lows = drained.lows();
+    final double[] closes = drained.closes();
+    final double[] volumes = drained.volumes();
+
+    for (int n = 0; n < numBars; n++) {
+
+      stoch.update(highs[n], lows[n], closes[n]);
+
+      window.add(dates[n]);
+      window.setNewest(OPEN, opens[n]);
+      window.setNewest(HIGH, highs[n]);
+      window.setNewest(LOW, lows[n]);
+      window.setNewest(CLOSE, closes[n]);
+      window.setNewest(VOLUME, volumes[n]);
+      window.setNewest(FAST_SMA, fastSma.update(closes[n]));
+      window.setNewest(SLOW_SMA, slowSma.update(closes[n]));
+      window.setNewest(VOLUME_SMA, volumeSma.update(volumes[n]));
+      window.setNewest(PCT_K, stoch.getPctK());
+      window.setNewest(PCT_D, stoch.getPctD());
+    }
+
+    mergedCount += numBars - 1;
+    repaintCount++;
+
+    // Let the plots update their axes for each dataset but repaint the chart only once.
+    chart.setNotify(false);
+
+    for (LiveXYDataset dataset : datasets) {
+      dataset.changed();
+    }
+
+    updateStatus();
+
+    chart.setNotify(true);
+  }
+
+  private void updateStatus() {
+    status.setText(String.format("Bars: %d   Repaints: %d   Merged: %d   Dropped: %d",
+        getAcceptedCount(), getRepaintCount(), getMergedCount(), getDroppedCount()));
+  }
+
+  private static XYLineAndShapeRenderer getLineRenderer(Color... colors) {
+
+    XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(true, false);
+
+    for (int n = 0; n < colors.length; n++) {
+      renderer.setSeriesPaint(n, colors[n]);
+    }
+
+    return renderer;
+  }
+
+}
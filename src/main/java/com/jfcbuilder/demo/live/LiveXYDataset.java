@@ -0,0 +1,211 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.live;
+
+import org.jfree.data.DomainOrder;
+import org.jfree.data.xy.AbstractXYDataset;
+import org.jfree.data.xy.IntervalXYDataset;
+import org.jfree.data.xy.OHLCDataset;
+
+/**
+ * XY dataset view over columns of a {@link LiveBarWindow}. Each series plots one value column
+ * against the bar dates. The OHLC accessors read the window's price and volume columns so the
+ * same class also backs candlestick and volume renderers. Each bar spans half the distance to its
+ * neighbours on either side, for bar renderers. The dataset holds no copy of the data: appending
+ * to the window and calling {@link #changed()} is all it takes to update a plot.
+ */
+class LiveXYDataset extends AbstractXYDataset implements OHLCDataset, IntervalXYDataset {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient LiveBarWindow window;
+  private final String[] seriesKeys;
+  private final int[] seriesColumns;
+  private final int[] ohlcvColumns;
+
+  /**
+   * Constructor
+   * 
+   * @param window The window of bars to view
+   * @param seriesKeys The series names
+   * @param seriesColumns The window value column plotted by each series
+   * @param ohlcvColumns The window columns of the open, high, low, close and volume values
+   */
+  LiveXYDataset(LiveBarWindow window, String[] seriesKeys, int[] seriesColumns,
+      int[] ohlcvColumns) {
+    this.window = window;
+    this.seriesKeys = seriesKeys.clone();
+    this.seriesColumns = seriesColumns.clone();
+    this.ohlcvColumns = ohlcvColumns.clone();
+  }
+
+  /**
+   * Notifies listeners, such as the plot showing this dataset, that the window contents changed.
+   */
+  void changed() {
+    fireDatasetChanged();
+  }
+
+  @Override
+  public int getSeriesCount() {
+    return seriesKeys.length;
+  }
+
+  @Override
+  public Comparable<?> getSeriesKey(int series) {
+    return seriesKeys[series];
+  }
+
+  @Override
+  public DomainOrder getDomainOrder() {
+    return DomainOrder.ASCENDING;
+  }
+
+  @Override
+  public int getItemCount(int series) {
+    return window.size();
+  }
+
+  @Override
+  public Number getX(int series, int item) {
+    return window.getDate(item);
+  }
+
+  @Override
+  public double getXValue(int series, int item) {
+    return window.getDate(item);
+  }
+
+  @Override
+  public Number getY(int series, int item) {
+    return getYValue(series, item);
+  }
+
+  @Override
+  public double getYValue(int series, int item) {
+    return window.getValue(seriesColumns[series], item);
+  }
+
+  @Override
+  public Number getStartX(int series, int item) {
+    return getStartXValue(series, item);
+  }
+
+  @Override
+  public double getStartXValue(int series, int item) {
+    return window.getDate(item) - getHalfSpacing(item);
+  }
+
+  @Override
+  public Number getEndX(int series, int item) {
+    return getEndXValue(series, item);
+  }
+
+  @Override
+  public double getEndXValue(int series, int item) {
+    return window.getDate(item) + getHalfSpacing(item);
+  }
+
+  @Override
+  public Number getStartY(int series, int item) {
+    return getYValue(series, item);
+  }
+
+  @Override
+  public double getStartYValue(int series, int item) {
+    return getYValue(series, item);
+  }
+
+  @Override
+  public Number getEndY(int series, int item) {
+    return getYValue(series, item);
+  }
+
+  @Override
+  public double getEndYValue(int series, int item) {
+    return getYValue(series, item);
+  }
+
+  @Override
+  public Number getOpen(int series, int item) {
+    return getOpenValue(series, item);
+  }
+
+  @Override
+  public double getOpenValue(int series, int item) {
+    return window.getValue(ohlcvColumns[0], item);
+  }
+
+  @Override
+  public Number getHigh(int series, int item) {
+    return getHighValue(series, item);
+  }
+
+  @Override
+  public double getHighValue(int series, int item) {
+    return window.getValue(ohlcvColumns[1], item);
+  }
+
+  @Override
+  public Number getLow(int series, int item) {
+    return getLowValue(series, item);
+  }
+
+  @Override
+  public double getLowValue(int series, int item) {
+    return window.getValue(ohlcvColumns[2], item);
+  }
+
+  @Override
+  public Number getClose(int series, int item) {
+    return getCloseValue(series, item);
+  }
+
+  @Override
+  public double getCloseValue(int series, int item) {
+    return window.getValue(ohlcvColumns[3], item);
+  }
+
+  @Override
+  public Number getVolume(int series, int item) {
+    return getVolumeValue(series, item);
+  }
+
+  @Override
+  public double getVolumeValue(int series, int item) {
+    return window.getValue(ohlcvColumns[4], item);
+  }
+
+  private double getHalfSpacing(int item) {
+
+    final int size = window.size();
+
+    if (size < 2) {
+      return 0.0;
+    }
+
+    final int left = item > 0 ? item - 1 : item;
+    final int right = item > 0 ? item : item + 1;
+
+    return (window.getDate(right) - window.getDate(left)) / 2.0;
+  }
+
+}
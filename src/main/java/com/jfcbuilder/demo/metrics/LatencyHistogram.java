@@ -0,0 +1,110 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative long values with eight logarithmically sized buckets per
+ * power of two. Recording a value is a couple of shifts and one atomic increment, with a relative
+ * bucket width of at most 12.5%.
+ */
+class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+
+  /**
+   * Records a value.
+   * 
+   * @param value The value, negative values are counted as zero
+   */
+  void record(long value) {
+    counts.incrementAndGet(bucketIndex(Math.max(0L, value)));
+  }
+
+  /**
+   * Gets an approximated percentile of the recorded values.
+   * 
+   * @param percentile The percentile in the range 0 to 100
+   * @return The upper bound of the bucket holding the percentile, or zero if nothing was recorded.
+   */
+  long getPercentile(double percentile) {
+
+    long total = 0L;
+
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      total += counts.get(i);
+    }
+
+    if (total == 0L) {
+      return 0L;
+    }
+
+    final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+
+    long seen = 0L;
+
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+
+      seen += counts.get(i);
+
+      if (seen >= rank) {
+        return bucketUpperBound(i);
+      }
+    }
+
+    return bucketUpperBound(NUM_BUCKETS - 1);
+  }
+
+  void reset() {
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counts.set(i, 0L);
+    }
+  }
+
+  private static int bucketIndex(long value) {
+
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    final int msb = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final int shift = msb - SUB_BUCKET_BITS;
+
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  private static long bucketUpperBound(int index) {
+
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    final int shift = index / SUB_BUCKETS - 1;
+    final long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+
+    return lowerBound + (1L << shift) - 1L;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.metrics;
+
+/**
+ * The stages of the chart pipeline whose timings are recorded by {@link PipelineMetrics}.
+ */
+public enum PipelineStage {
+
+  /** Generating, loading or resampling time series data */
+  PROVIDER,
+
+  /** Calculating indicators from time series data */
+  INDICATOR,
+
+  /** Building charts with the chart builders */
+  BUILD,
+
+  /** Drawing charts on screen or into images */
+  RENDER
+}
@@ -0,0 +1,86 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one pipeline stage execution. Only referenced through
+ * {@link PipelineMetrics} once it has checked that the JVM has Flight Recorder support. Events are
+ * only created while a recording has them enabled.
+ */
+@Name("com.jfcbuilder.demo.PipelineStage")
+@Label("Pipeline Stage")
+@Category("JFreeChart Builder Demo")
+@Description("Execution of one stage of the chart pipeline")
+@StackTrace(false)
+class PipelineStageEvent extends Event {
+
+  private static final EventType TYPE = EventType.getEventType(PipelineStageEvent.class);
+
+  @Label("Stage")
+  String stage;
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Allocated")
+  @Description("Bytes allocated by the executing thread, or -1 if unknown")
+  @DataAmount
+  long allocatedBytes;
+
+  /**
+   * Begins an event if a recording has the event enabled.
+   * 
+   * @return The begun event, or null if not recorded
+   */
+  static Object start() {
+
+    if (!TYPE.isEnabled()) {
+      return null;
+    }
+
+    PipelineStageEvent event = new PipelineStageEvent();
+    event.begin();
+
+    return event;
+  }
+
+  static void finish(Object begun, PipelineStage stage, String operation, long allocatedBytes) {
+
+    PipelineStageEvent event = (PipelineStageEvent) begun;
+    event.end();
+
+    if (event.shouldCommit()) {
+      event.stage = stage.name();
+      event.operation = operation;
+      event.allocatedBytes = allocatedBytes;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.metrics;
+
+/**
+ * Management interface of the recorded timings of one {@link PipelineStage}, registered with the
+ * platform MBean server as {@code com.jfcbuilder.demo:type=PipelineStage,name=<stage>}.
+ * <p>
+ * Percentiles are approximated from a histogram with eight buckets per power of two, so they are
+ * at most 12.5% above the actual value.
+ */
+public interface PipelineStageMXBean {
+
+  /**
+   * Gets the number of recorded stage executions.
+   * 
+   * @return The number of executions since start or the last reset
+   */
+  long getCount();
+
+  double getTotalMillis();
+
+  double getMeanMillis();
+
+  double getMaxMillis();
+
+  double getP50Millis();
+
+  double getP90Millis();
+
+  double getP99Millis();
+
+  /**
+   * Gets the number of bytes allocated by the executing threads during the stage executions.
+   * 
+   * @return The allocated bytes, or -1 if the JVM doesn't support measuring allocations.
+   */
+  long getAllocatedBytes();
+
+  /**
+   * Gets the mean number of bytes allocated by the executing thread per stage execution.
+   * 
+   * @return The mean allocated bytes, or -1 if the JVM doesn't support measuring allocations.
+   */
+  double getMeanAllocatedBytes();
+
+  /**
+   * Clears all recorded values.
+   */
+  void reset();
+}
@@ -0,0 +1,143 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The recorded timings and allocations of one {@link PipelineStage}. Thread-safe, recording never
+ * blocks.
+ */
+public class StageMetrics implements PipelineStageMXBean {
+
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1L);
+
+  private final PipelineStage stage;
+  private final LatencyHistogram histogram = new LatencyHistogram();
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final LongAdder allocationCount = new LongAdder();
+
+  StageMetrics(PipelineStage stage) {
+    this.stage = stage;
+  }
+
+  /**
+   * Records one stage execution.
+   * 
+   * @param nanos The duration in nanoseconds
+   * @param bytes The bytes allocated by the executing thread, or a negative value if unknown
+   */
+  void record(long nanos, long bytes) {
+
+    histogram.record(nanos);
+    count.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+
+    if (bytes >= 0L) {
+      allocatedBytes.add(bytes);
+      allocationCount.increment();
+    }
+  }
+
+  public PipelineStage getStage() {
+    return stage;
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+
+  @Override
+  public double getTotalMillis() {
+    return totalNanos.sum() / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public double getMeanMillis() {
+    final long n = count.sum();
+    return n == 0L ? 0.0 : totalNanos.sum() / NANOS_PER_MILLI / n;
+  }
+
+  @Override
+  public double getMaxMillis() {
+    return maxNanos.get() / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public double getP50Millis() {
+    return getPercentileMillis(50.0);
+  }
+
+  @Override
+  public double getP90Millis() {
+    return getPercentileMillis(90.0);
+  }
+
+  @Override
+  public double getP99Millis() {
+    return getPercentileMillis(99.0);
+  }
+
+  /**
+   * Gets an approximated percentile of the recorded durations.
+   * 
+   * @param percentile The percentile in the range 0 to 100
+   * @return The percentile in milliseconds, never more than the maximum recorded duration.
+   */
+  public double getPercentileMillis(double percentile) {
+    return Math.min(histogram.getPercentile(percentile), maxNanos.get()) / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    return allocationCount.sum() == 0L && count.sum() > 0L ? -1L : allocatedBytes.sum();
+  }
+
+  @Override
+  public double getMeanAllocatedBytes() {
+    final long n = allocationCount.sum();
+    return n == 0L ? (count.sum() > 0L ? -1.0 : 0.0) : (double) allocatedBytes.sum() / n;
+  }
+
+  @Override
+  public void reset() {
+    histogram.reset();
+    count.reset();
+    totalNanos.reset();
+    maxNanos.reset();
+    allocatedBytes.reset();
+    allocationCount.reset();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%-9s count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms alloc=%.0fB",
+        stage, getCount(), getMeanMillis(), getP50Millis(), getP99Millis(), getMaxMillis(),
+        getMeanAllocatedBytes());
+  }
+}
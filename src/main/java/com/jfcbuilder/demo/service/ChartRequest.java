@@ -0,0 +1,319 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.service;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The parameters of one chart request, parsed from the query string and normalized so that equal
+ * charts get equal {@link #getKey() keys} no matter how the query was written.
+ * <p>
+ * Query parameters, all optional:
+ * <ul>
+ * <li>{@code type}: {@code stock} (candles, volume and stochastics, the default) or {@code line}
+ * (closes)</li>
+ * <li>{@code from}, {@code to}: ISO dates of the range, by default the last 6 months</li>
+ * <li>{@code sma}: comma separated SMA periods of the closes, by default {@code 20,50}. Empty for
+ * none.</li>
+ * <li>{@code k}, {@code d}: stochastic periods of stock charts, by default 14 and 3. A k of 0 omits
+ * the stochastics.</li>
+ * <li>{@code seed}: seed of the random bars, by default 0</li>
+ * <li>{@code width}, {@code height}: image size in pixels, by default 800 by 600</li>
+ * </ul>
+ */
+class ChartRequest {
+
+  /**
+   * The kind of chart.
+   */
+  enum Type {
+    STOCK, LINE
+  }
+
+  private static final int DEFAULT_MONTHS = 6;
+  private static final int MAX_YEARS = 50;
+  private static final int MAX_SMAS = 8;
+  private static final int MAX_PERIOD = 1000;
+  private static final int MAX_PIXELS = 4000;
+  private static final int[] DEFAULT_SMA_PERIODS = { 20, 50 };
+
+  private final Type type;
+  private final LocalDate from;
+  private final LocalDate to;
+  private final int[] smaPeriods;
+  private final int k;
+  private final int d;
+  private final long seed;
+  private final int width;
+  private final int height;
+  private final String key;
+
+  private ChartRequest(Type type, LocalDate from, LocalDate to, int[] smaPeriods, int k, int d,
+      long seed, int width, int height) {
+    this.type = type;
+    this.from = from;
+    this.to = to;
+    this.smaPeriods = smaPeriods;
+    this.k = k;
+    this.d = d;
+    this.seed = seed;
+    this.width = width;
+    this.height = height;
+    this.key = String.format("type=%s&from=%s&to=%s&sma=%s&k=%d&d=%d&seed=%d&width=%d&height=%d",
+        type, from, to, Arrays.toString(smaPeriods), k, d, seed, width, height);
+  }
+
+  /**
+   * Parses a request.
+   * 
+   * @param query The raw query string of the request URI, may be null
+   * @param today The date the default range ends at
+   * @return New instance of this class
+   * @throws IllegalArgumentException If a parameter is unknown, malformed or out of range.
+   */
+  static ChartRequest parse(String query, LocalDate today) throws IllegalArgumentException {
+
+    Objects.requireNonNull(today, "Today cannot be null");
+
+    Map<String, String> params = getParams(query);
+
+    final Type type = parseType(params.remove("type"));
+    final LocalDate to = parseDate(params.remove("to"), today, "to");
+    final LocalDate from = parseDate(params.remove("from"), to.minusMonths(DEFAULT_MONTHS), "from");
+
+    if (!from.isBefore(to)) {
+      throw new IllegalArgumentException("from must be before to");
+    }
+
+    if (ChronoUnit.YEARS.between(from, to) >= MAX_YEARS) {
+      throw new IllegalArgumentException("Date range must be shorter than " + MAX_YEARS + " years");
+    }
+
+    if (!hasTwoWeekdays(from, to)) {
+      throw new IllegalArgumentException("Date range must span at least two weekdays");
+    }
+
+    final int[] smaPeriods = parsePeriods(params.remove("sma"));
+    final int k = parseInt(params.remove("k"), 14, 0, MAX_PERIOD, "k");
+    final int d = parseInt(params.remove("d"), 3, 1, MAX_PERIOD, "d");
+    final long seed = parseLong(params.remove("seed"), 0L, "seed");
+    final int width = parseInt(params.remove("width"), 800, 1, MAX_PIXELS, "width");
+    final int height = parseInt(params.remove("height"), 600, 1, MAX_PIXELS, "height");
+
+    if (!params.isEmpty()) {
+      throw new IllegalArgumentException("Unknown parameters: " + params.keySet());
+    }
+
+    // Stochastics only appear on stock charts, so don't let them split the cache of line charts.
+    return type == Type.STOCK ? new ChartRequest(type, from, to, smaPeriods, k, d, seed, width,
+        height) : new ChartRequest(type, from, to, smaPeriods, 0, 1, seed, width, height);
+  }
+
+  /**
+   * Tells whether a range has the two weekdays a chart needs. Bars start the day after from and
+   * skip weekends, so any four days have enough.
+   */
+  private static boolean hasTwoWeekdays(LocalDate from, LocalDate to) {
+
+    int numWeekdays = 0;
+
+    for (LocalDate day = from.plusDays(1); !day.isAfter(to) && numWeekdays < 2;
+        day = day.plusDays(1)) {
+      if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+        numWeekdays++;
+      }
+    }
+
+    return numWeekdays == 2;
+  }
+
+  Type getType() {
+    return type;
+  }
+
+  LocalDate getFrom() {
+    return from;
+  }
+
+  LocalDate getTo() {
+    return to;
+  }
+
+  int[] getSmaPeriods() {
+    return smaPeriods.clone();
+  }
+
+  int getK() {
+    return k;
+  }
+
+  int getD() {
+    return d;
+  }
+
+  long getSeed() {
+    return seed;
+  }
+
+  int getWidth() {
+    return width;
+  }
+
+  int getHeight() {
+    return height;
+  }
+
+  /**
+   * Gets the canonical form of the request, equal for requests of the same chart.
+   * 
+   * @return The content key
+   */
+  String getKey() {
+    return key;
+  }
+
+  private static Map<String, String> getParams(String query) throws IllegalArgumentException {
+
+    Map<String, String> params = new HashMap<>();
+
+    if (query == null || query.isEmpty()) {
+      return params;
+    }
+
+    for (String pair : query.split("&")) {
+
+      if (pair.isEmpty()) {
+        continue;
+      }
+
+      final int equals = pair.indexOf('=');
+      final String name = decode(equals < 0 ? pair : pair.substring(0, equals));
+      final String value = equals < 0 ? "" : decode(pair.substring(equals + 1));
+
+      if (params.put(name, value) != null) {
+        throw new IllegalArgumentException("Duplicate parameter: " + name);
+      }
+    }
+
+    return params;
+  }
+
+  private static String decode(String text) throws IllegalArgumentException {
+    try {
+      return URLDecoder.decode(text, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Type parseType(String value) throws IllegalArgumentException {
+
+    if (value == null) {
+      return Type.STOCK;
+    }
+
+    try {
+      return Type.valueOf(value.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("type must be stock or line");
+    }
+  }
+
+  private static LocalDate parseDate(String value, LocalDate defaultDate, String name)
+      throws IllegalArgumentException {
+
+    if (value == null) {
+      return defaultDate;
+    }
+
+    try {
+      return LocalDate.parse(value);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException(name + " must be an ISO date, e.g. 2020-01-31");
+    }
+  }
+
+  private static int[] parsePeriods(String value) throws IllegalArgumentException {
+
+    if (value == null) {
+      return DEFAULT_SMA_PERIODS.clone();
+    }
+
+    if (value.isEmpty()) {
+      return new int[0];
+    }
+
+    final String[] parts = value.split(",");
+
+    if (parts.length > MAX_SMAS) {
+      throw new IllegalArgumentException("At most " + MAX_SMAS + " SMA periods are allowed");
+    }
+
+    // Sorted without duplicates, as the order of the overlays doesn't change the chart.
+    return Arrays.stream(parts).mapToInt(part -> parseInt(part.trim(), 0, 1, MAX_PERIOD, "sma"))
+        .sorted().distinct().toArray();
+  }
+
+  private static int parseInt(String value, int defaultValue, int min, int max, String name)
+      throws IllegalArgumentException {
+
+    if (value == null) {
+      return defaultValue;
+    }
+
+    try {
+
+      final int parsed = Integer.parseInt(value);
+
+      if (parsed >= min && parsed <= max) {
+        return parsed;
+      }
+
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+
+    throw new IllegalArgumentException(name + " must be an integer from " + min + " to " + max);
+  }
+
+  private static long parseLong(String value, long defaultValue, String name)
+      throws IllegalArgumentException {
+
+    if (value == null) {
+      return defaultValue;
+    }
+
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(name + " must be an integer");
+    }
+  }
+}
@@ -0,0 +1,372 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.service;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+
+import com.jfcbuilder.builders.BuilderConstants;
+import com.jfcbuilder.builders.ChartBuilder;
+import com.jfcbuilder.builders.XYTimeSeriesBuilder;
+import com.jfcbuilder.builders.XYTimeSeriesPlotBuilder;
+import com.jfcbuilder.demo.StockChart;
+import com.jfcbuilder.demo.data.providers.AscendingDateTimeGenerator;
+import com.jfcbuilder.demo.data.providers.RandomDohlcvGenerator;
+import com.jfcbuilder.demo.data.providers.numeric.IndicatorGraph;
+import com.jfcbuilder.demo.data.providers.numeric.IndicatorGraph.Column;
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator.StochData;
+import com.jfcbuilder.demo.metrics.PipelineMetrics;
+import com.jfcbuilder.demo.metrics.PipelineStage;
+import com.jfcbuilder.demo.service.ChartRequest.Type;
+import com.jfcbuilder.demo.service.ResponseCache.Lookup;
+import com.jfcbuilder.types.DohlcvSeries;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP service rendering charts of random daily bars as PNG images, built on the HTTP server
+ * of the JDK. It only listens on the loopback address and needs no network access.
+ * <p>
+ * Charts are requested with {@code GET /chart?...}, see {@link ChartRequest} for the query
+ * parameters. For example {@code /chart?type=stock&from=2020-01-01&to=2020-06-30&sma=10,30&k=5&d=3}
+ * renders a stock chart with two SMAs and a 5, 3 stochastic oscillator. The same parameters and
+ * seed always render the same chart.
+ * <p>
+ * Every request is handled on its own virtual thread when the JDK has them (JDK 21 and up), else on
+ * a pooled platform thread. Rendered images are kept in a size bounded cache under the normalized
+ * request, and the {@code X-Cache} response header tells whether an image was served from the cache
+ * ({@code HIT}), rendered ({@code MISS}) or shared with a concurrent identical request
+ * ({@code COALESCED}).
+ * <p>
+ * A render holds an image of up to 64 MB at the largest size, so at most one chart per processor
+ * is rendered at a time and further cache misses wait for their turn. Malformed or out of range
+ * parameters are answered with status 400, failed renders with status 500.
+ */
+public class ChartService {
+
+  /** Default port of the service */
+  public static final int DEFAULT_PORT = 8080;
+
+  /** Default maximum total size of the cached images */
+  public static final long DEFAULT_CACHE_BYTES = 64L * 1024 * 1024;
+
+  private static final String CHART_PATH = "/chart";
+
+  // Without it small responses stall on delayed ACKs, read once when the server classes load.
+  private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+  private static final int STOP_DELAY_SECONDS = 1;
+
+  private static final Set<DayOfWeek> SKIP_DAYS = Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ResponseCache cache;
+  private final Semaphore renderPermits;
+
+  /**
+   * Hidden constructor
+   */
+  private ChartService(HttpServer server, ExecutorService executor, ResponseCache cache) {
+    this.server = server;
+    this.executor = executor;
+    this.cache = cache;
+    this.renderPermits = new Semaphore(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Factory method for create new instances of this class. The service is bound to the port right
+   * away but only serves requests once started.
+   * 
+   * @param port The port on the loopback address, zero for any free port
+   * @param cacheBytes The maximum total size of the cached images, zero to cache nothing
+   * @return New instance of this class
+   * @throws IOException If the port cannot be bound.
+   * @throws IllegalArgumentException If port is out of range or cacheBytes is negative.
+   */
+  public static ChartService get(int port, long cacheBytes)
+      throws IOException, IllegalArgumentException {
+
+    if (port < 0 || port > 0xFFFF) {
+      throw new IllegalArgumentException("Port must be from 0 to 65535");
+    }
+
+    if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+      System.setProperty(NO_DELAY_PROPERTY, "true");
+    }
+
+    final ResponseCache cache = new ResponseCache(cacheBytes);
+    final HttpServer server = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    final ExecutorService executor = newRequestExecutor();
+
+    ChartService service = new ChartService(server, executor, cache);
+
+    server.createContext(CHART_PATH, service::handle);
+    server.setExecutor(executor);
+
+    return service;
+  }
+
+  /**
+   * Starts serving requests.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Stops serving requests, giving the ones in progress a moment to finish.
+   */
+  public void stop() {
+    server.stop(STOP_DELAY_SECONDS);
+    executor.shutdown();
+  }
+
+  /**
+   * Gets the bound port, for example the one picked when created with port zero.
+   * 
+   * @return The port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Gets the URL of the chart endpoint.
+   * 
+   * @return The URL without query
+   */
+  public String getChartUrl() {
+    return "http://" + server.getAddress().getHostString() + ":" + getPort() + CHART_PATH;
+  }
+
+  /**
+   * Gets a summary of the cache, e.g. its size and hit count.
+   * 
+   * @return The summary
+   */
+  public String getCacheSummary() {
+    return cache.toString();
+  }
+
+  /**
+   * Creates the executor running the request handlers: one new virtual thread per request when the
+   * JDK has them, else a pool of platform threads. Looked up reflectively as the sources target
+   * older JDKs.
+   */
+  private static ExecutorService newRequestExecutor() {
+
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "chart-service");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+
+    try {
+
+      if (!CHART_PATH.equals(exchange.getRequestURI().getPath())) {
+        sendText(exchange, 404, "Not found, charts are served at " + CHART_PATH);
+        return;
+      }
+
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", "GET");
+        sendText(exchange, 405, "Only GET is supported");
+        return;
+      }
+
+      final ChartRequest request;
+
+      try {
+        request = ChartRequest.parse(exchange.getRequestURI().getRawQuery(), LocalDate.now());
+      } catch (IllegalArgumentException e) {
+        sendText(exchange, 400, e.getMessage());
+        return;
+      }
+
+      final Lookup lookup;
+
+      try {
+        lookup = cache.get(request.getKey(), () -> render(request));
+      } catch (RuntimeException e) {
+        sendText(exchange, 500, "Chart rendering failed: " + e);
+        return;
+      }
+
+      final byte[] body = lookup.getBody();
+
+      exchange.getResponseHeaders().set("Content-Type", "image/png");
+      exchange.getResponseHeaders().set("X-Cache", lookup.getOutcome().name());
+      exchange.sendResponseHeaders(200, body.length);
+
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+
+    final byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, body.length);
+
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Builds and renders the chart of a request as PNG, once a render permit is free.
+   */
+  private byte[] render(ChartRequest request) {
+
+    renderPermits.acquireUninterruptibly();
+
+    try {
+
+      final JFreeChart chart = PipelineMetrics.time(PipelineStage.BUILD, "ChartService",
+          () -> getChartBuilder(request).build());
+
+      return PipelineMetrics.time(PipelineStage.RENDER, "ChartService", () -> {
+
+        BufferedImage image = chart.createBufferedImage(request.getWidth(), request.getHeight());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChartUtils.writeBufferedImageAsPNG(out, image);
+
+        return out.toByteArray();
+      });
+
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      renderPermits.release();
+    }
+  }
+
+  private static ChartBuilder getChartBuilder(ChartRequest request) {
+
+    final long[] dates = PipelineMetrics.time(PipelineStage.PROVIDER, "AscendingDateTimeGenerator",
+        () -> AscendingDateTimeGenerator.get().getDateTimes(request.getFrom().atStartOfDay(),
+            request.getTo().atStartOfDay(), ChronoUnit.DAYS, SKIP_DAYS));
+
+    if (dates.length < 2) {
+      throw new IllegalStateException("Expected at least two weekdays from " + request.getFrom()
+          + " to " + request.getTo());
+    }
+
+    final DohlcvSeries dohlcv = PipelineMetrics.time(PipelineStage.PROVIDER,
+        "RandomDohlcvGenerator", () -> RandomDohlcvGenerator.get().getDohlcv(dates,
+            new SplittableRandom(request.getSeed())));
+    final IndicatorGraph indicators = IndicatorGraph.get(dohlcv);
+    final StockChart chart = StockChart.get(dohlcv);
+
+    for (int period : request.getSmaPeriods()) {
+      chart.sma(period, PipelineMetrics.time(PipelineStage.INDICATOR, "IndicatorGraph",
+          () -> indicators.sma(Column.CLOSE, period)));
+    }
+
+    if (request.getType() == Type.LINE) {
+
+      XYTimeSeriesPlotBuilder plot = XYTimeSeriesPlotBuilder.get().yAxisName("Price").gridLines()
+          .series(XYTimeSeriesBuilder.get().name("Close").data(dohlcv.closes())
+              .color(Color.BLACK).style(BuilderConstants.SOLID_LINE));
+
+      for (XYTimeSeriesBuilder series : chart.getSmaSeries()) {
+        plot.series(series);
+      }
+
+      return ChartBuilder.get()
+          .title("Closes")
+          .timeData(dates)
+          .indexRange(0, dates.length - 1)
+          .xyPlot(plot);
+    }
+
+    if (request.getK() > 0) {
+
+      final StochData stoch = PipelineMetrics.time(PipelineStage.INDICATOR, "IndicatorGraph",
+          () -> indicators.stochastic(request.getK(), request.getD()));
+
+      chart.stochastic(request.getK(), request.getD(), stoch.getPctK(), stoch.getPctD());
+    }
+
+    return chart.getChartBuilder().title("Stock Chart");
+  }
+
+  /**
+   * Runs the service until the process is stopped.
+   * 
+   * @param args Optional: port (default 8080) and maximum cache size in MB (default 64).
+   * @throws IOException If the port cannot be bound
+   */
+  public static void main(String[] args) throws IOException {
+
+    System.setProperty("java.awt.headless", "true");
+
+    final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    final long cacheBytes = args.length > 1 ? Long.parseLong(args[1]) * 1024 * 1024
+        : DEFAULT_CACHE_BYTES;
+
+    ChartService service = ChartService.get(port, cacheBytes);
+
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      service.stop();
+      System.out.println("Cache: " + service.getCacheSummary());
+    }));
+
+    service.start();
+
+    System.out.println("Serving charts at " + service.getChartUrl()
+        + "?type=stock&from=2020-01-01&to=2020-12-31&sma=20,50&k=14&d=3");
+  }
+}
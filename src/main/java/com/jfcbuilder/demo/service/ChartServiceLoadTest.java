@@ -0,0 +1,316 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test client of a {@link ChartService}. A number of client threads send chart requests as
+ * fast as they can, cycling through a number of distinct charts, and the latency percentiles,
+ * throughput and the shares of cache hits and coalesced responses are reported once all requests
+ * are done.
+ */
+public class ChartServiceLoadTest {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Outcome of a load test.
+   */
+  public static class Report {
+
+    private final long[] latencyNanos;
+    private final long elapsedNanos;
+    private final int numHits;
+    private final int numCoalesced;
+    private final int numErrors;
+
+    private Report(long[] latencyNanos, long elapsedNanos, int numHits, int numCoalesced,
+        int numErrors) {
+      this.latencyNanos = latencyNanos;
+      this.elapsedNanos = elapsedNanos;
+      this.numHits = numHits;
+      this.numCoalesced = numCoalesced;
+      this.numErrors = numErrors;
+    }
+
+    public int getNumRequests() {
+      return latencyNanos.length;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Gets the number of responses found in the service cache.
+     * 
+     * @return The number of cache hits
+     */
+    public int getNumHits() {
+      return numHits;
+    }
+
+    /**
+     * Gets the number of responses rendered for a concurrent identical request, which are neither
+     * cache hits nor renders of their own.
+     * 
+     * @return The number of coalesced responses
+     */
+    public int getNumCoalesced() {
+      return numCoalesced;
+    }
+
+    public int getNumErrors() {
+      return numErrors;
+    }
+
+    /**
+     * Gets the throughput.
+     * 
+     * @return The number of requests per second of elapsed time
+     */
+    public double getRequestsPerSecond() {
+      return elapsedNanos == 0 ? 0.0 : latencyNanos.length / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Gets a latency percentile by the nearest rank method.
+     * 
+     * @param percentile The percentile, from 0 to 100
+     * @return The latency in milliseconds, zero if there were no requests
+     * @throws IllegalArgumentException If percentile is out of range.
+     */
+    public double getPercentileMillis(double percentile) throws IllegalArgumentException {
+
+      if (!(percentile >= 0.0 && percentile <= 100.0)) {
+        throw new IllegalArgumentException("Percentile must be from 0 to 100");
+      }
+
+      if (latencyNanos.length == 0) {
+        return 0.0;
+      }
+
+      final int rank = (int) Math.ceil(percentile / 100.0 * latencyNanos.length);
+
+      return latencyNanos[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d requests in %.3f s: %.1f req/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms, "
+              + "cache hits %.1f%%, coalesced %.1f%%, errors %d",
+          getNumRequests(), elapsedNanos / 1e9, getRequestsPerSecond(), getPercentileMillis(50.0),
+          getPercentileMillis(99.0), getPercentileMillis(100.0), getPercent(numHits),
+          getPercent(numCoalesced), numErrors);
+    }
+
+    private double getPercent(int count) {
+      return getNumRequests() == 0 ? 0.0 : 100.0 * count / getNumRequests();
+    }
+  }
+
+  private final String chartUrl;
+  private final int concurrency;
+
+  /**
+   * Hidden constructor
+   */
+  private ChartServiceLoadTest(String chartUrl, int concurrency) {
+    this.chartUrl = chartUrl;
+    this.concurrency = concurrency;
+  }
+
+  /**
+   * Factory method for create new instances of this class.
+   * 
+   * @param chartUrl The URL of the chart endpoint, without query
+   * @param concurrency The number of client threads
+   * @return New instance of this class
+   * @throws IllegalArgumentException If concurrency is smaller than one (1).
+   */
+  public static ChartServiceLoadTest get(String chartUrl, int concurrency)
+      throws IllegalArgumentException {
+
+    Objects.requireNonNull(chartUrl, "Chart URL cannot be null");
+
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("Concurrency must be greater than zero");
+    }
+
+    return new ChartServiceLoadTest(chartUrl, concurrency);
+  }
+
+  /**
+   * Sends requests and waits for all responses. Request n asks for chart variant n modulo the
+   * number of variants, which differ by their seed, so all but the first request of each variant
+   * can be served from the cache.
+   * 
+   * @param numRequests The total number of requests
+   * @param numVariants The number of distinct charts requested
+   * @param query Query parameters added to every request, without the seed. May be empty.
+   * @return The report of the test
+   * @throws InterruptedException If interrupted while waiting for the client threads.
+   * @throws IllegalArgumentException If numRequests is negative or numVariants is smaller than one.
+   */
+  public Report run(int numRequests, int numVariants, String query)
+      throws InterruptedException, IllegalArgumentException {
+
+    Objects.requireNonNull(query, "Query cannot be null");
+
+    if (numRequests < 0) {
+      throw new IllegalArgumentException("Number of requests cannot be negative");
+    }
+
+    if (numVariants < 1) {
+      throw new IllegalArgumentException("Number of variants must be greater than zero");
+    }
+
+    final long[] latencyNanos = new long[numRequests];
+    final AtomicInteger nextRequest = new AtomicInteger();
+    final AtomicInteger numHits = new AtomicInteger();
+    final AtomicInteger numCoalesced = new AtomicInteger();
+    final AtomicInteger numErrors = new AtomicInteger();
+    final String prefix = chartUrl + "?" + (query.isEmpty() ? "" : query + "&") + "seed=";
+
+    List<Callable<Void>> clients = new ArrayList<>(concurrency);
+
+    for (int n = 0; n < concurrency; n++) {
+      clients.add(() -> {
+        for (int request = nextRequest.getAndIncrement(); request < numRequests;
+            request = nextRequest.getAndIncrement()) {
+          final long start = System.nanoTime();
+          final String outcome = send(prefix + (request % numVariants));
+          latencyNanos[request] = System.nanoTime() - start;
+          if (outcome == null) {
+            numErrors.incrementAndGet();
+          } else if ("HIT".equals(outcome)) {
+            numHits.incrementAndGet();
+          } else if ("COALESCED".equals(outcome)) {
+            numCoalesced.incrementAndGet();
+          }
+        }
+        return null;
+      });
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+    try {
+
+      final long start = System.nanoTime();
+
+      for (Future<Void> future : executor.invokeAll(clients)) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("Load test client failed", e.getCause());
+        }
+      }
+
+      final long elapsedNanos = System.nanoTime() - start;
+
+      Arrays.sort(latencyNanos);
+
+      return new Report(latencyNanos, elapsedNanos, numHits.get(), numCoalesced.get(),
+          numErrors.get());
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Sends one request and reads the whole response.
+   * 
+   * @return How the service obtained the response, from its X-Cache header (HIT, MISS or
+   *         COALESCED), or null if the request failed.
+   */
+  private static String send(String url) {
+
+    HttpURLConnection connection = null;
+
+    try {
+
+      connection = (HttpURLConnection) new URL(url).openConnection();
+
+      final int status = connection.getResponseCode();
+
+      try (InputStream in = status == 200 ? connection.getInputStream()
+          : connection.getErrorStream()) {
+        if (in != null) {
+          final byte[] buffer = new byte[BUFFER_SIZE];
+          while (in.read(buffer) >= 0) {
+            // Drain so the connection can be reused
+          }
+        }
+      }
+
+      return status == 200 ? String.valueOf(connection.getHeaderField("X-Cache")) : null;
+
+    } catch (IOException e) {
+      if (connection != null) {
+        connection.disconnect();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Runs a load test against a running service and prints its report.
+   * 
+   * @param args Optional: chart URL (default the service default on localhost), concurrency
+   *        (default 8), number of requests (default 1000), number of distinct charts (default 20)
+   *        and further query parameters (default none).
+   * @throws InterruptedException If interrupted while waiting for the client threads
+   */
+  public static void main(String[] args) throws InterruptedException {
+
+    final String chartUrl = args.length > 0 ? args[0]
+        : "http://localhost:" + ChartService.DEFAULT_PORT + "/chart";
+    final int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    final int numRequests = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+    final int numVariants = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+    final String query = args.length > 4 ? args[4] : "";
+
+    System.out.println(String.format("Sending %d requests for %d charts from %d clients to %s",
+        numRequests, numVariants, concurrency, chartUrl));
+
+    Report report = ChartServiceLoadTest.get(chartUrl, concurrency).run(numRequests, numVariants,
+        query);
+
+    System.out.println(report);
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache of response bodies under their content keys, bounded by the total size of the bodies.
+ * <p>
+ * The least recently used bodies are evicted once the bound is exceeded. Concurrent misses of the
+ * same key are coalesced: the first caller loads the body and the others wait for it, so a burst
+ * of identical requests renders its chart only once.
+ */
+class ResponseCache {
+
+  // Rough per entry cost of the map node, the key string and the array header.
+  private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+  /**
+   * How a body was obtained.
+   */
+  enum Outcome {
+    /** Found in the cache */
+    HIT,
+    /** Loaded by the caller */
+    MISS,
+    /** Loaded by a concurrent caller of the same key */
+    COALESCED
+  }
+
+  /**
+   * A body together with how it was obtained.
+   */
+  static class Lookup {
+
+    private final byte[] body;
+    private final Outcome outcome;
+
+    private Lookup(byte[] body, Outcome outcome) {
+      this.body = body;
+      this.outcome = outcome;
+    }
+
+    /**
+     * Gets the body.
+     * 
+     * @return The cached body. Must not be modified.
+     */
+    byte[] getBody() {
+      return body;
+    }
+
+    Outcome getOutcome() {
+      return outcome;
+    }
+  }
+
+  private final long maxBytes;
+
+  // Access ordered so that iteration starts at the least recently used entry.
+  private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, CompletableFuture<byte[]>> loading = new HashMap<>();
+
+  private long sizeBytes;
+  private long hits;
+  private long misses;
+  private long coalesced;
+  private long evictions;
+
+  /**
+   * Constructor
+   * 
+   * @param maxBytes The maximum total size of the cached entries, zero to cache nothing
+   * @throws IllegalArgumentException If maxBytes is negative.
+   */
+  ResponseCache(long maxBytes) throws IllegalArgumentException {
+
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Maximum cache size cannot be negative");
+    }
+
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Gets the body of a key, loading and caching it on a miss.
+   * 
+   * @param key The content key
+   * @param loader Loads the body on a miss. Called on the calling thread.
+   * @return The body and how it was obtained
+   * @throws NullPointerException If key or loader is null.
+   * @throws RuntimeException Whatever the loader of the body threw, also to coalesced callers.
+   */
+  Lookup get(String key, Supplier<byte[]> loader) {
+
+    Objects.requireNonNull(key, "Key cannot be null");
+    Objects.requireNonNull(loader, "Loader cannot be null");
+
+    CompletableFuture<byte[]> future;
+    CompletableFuture<byte[]> pending;
+
+    synchronized (this) {
+
+      final byte[] body = entries.get(key);
+
+      if (body != null) {
+        hits++;
+        return new Lookup(body, Outcome.HIT);
+      }
+
+      pending = loading.get(key);
+
+      if (pending == null) {
+        misses++;
+        future = new CompletableFuture<>();
+        loading.put(key, future);
+      } else {
+        coalesced++;
+        future = pending;
+      }
+    }
+
+    // Wait outside of the lock so that the loading caller can store its body.
+    if (pending != null) {
+      return new Lookup(join(pending), Outcome.COALESCED);
+    }
+
+    return new Lookup(load(key, loader, future), Outcome.MISS);
+  }
+
+  private byte[] load(String key, Supplier<byte[]> loader, CompletableFuture<byte[]> future) {
+
+    final byte[] body;
+
+    try {
+      body = Objects.requireNonNull(loader.get(), "Loaded body cannot be null");
+    } catch (RuntimeException | Error e) {
+      synchronized (this) {
+        loading.remove(key);
+      }
+      future.completeExceptionally(e);
+      throw e;
+    }
+
+    synchronized (this) {
+      loading.remove(key);
+      put(key, body);
+    }
+
+    future.complete(body);
+
+    return body;
+  }
+
+  private static byte[] join(CompletableFuture<byte[]> future) {
+
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private void put(String key, byte[] body) {
+
+    final long entryBytes = getEntryBytes(key, body);
+
+    if (entryBytes > maxBytes) {
+      return;
+    }
+
+    final byte[] previous = entries.put(key, body);
+
+    if (previous != null) {
+      sizeBytes -= getEntryBytes(key, previous);
+    }
+
+    sizeBytes += entryBytes;
+
+    Iterator<Map.Entry<String, byte[]>> iterator = entries.entrySet().iterator();
+
+    while (sizeBytes > maxBytes) {
+      Map.Entry<String, byte[]> eldest = iterator.next();
+      sizeBytes -= getEntryBytes(eldest.getKey(), eldest.getValue());
+      iterator.remove();
+      evictions++;
+    }
+  }
+
+  private static long getEntryBytes(String key, byte[] body) {
+    return ENTRY_OVERHEAD_BYTES + 2L * key.length() + body.length;
+  }
+
+  long getMaxBytes() {
+    return maxBytes;
+  }
+
+  synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  synchronized int getCount() {
+    return entries.size();
+  }
+
+  synchronized long getHits() {
+    return hits;
+  }
+
+  synchronized long getMisses() {
+    return misses;
+  }
+
+  synchronized long getCoalesced() {
+    return coalesced;
+  }
+
+  synchronized long getEvictions() {
+    return evictions;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("%d entries, %.1f of %.1f MB, %d hits, %d misses, %d coalesced, %d evictions",
+        entries.size(), sizeBytes / 1e6, maxBytes / 1e6, hits, misses, coalesced, evictions);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.tiles;
+
+import org.jfree.chart.JFreeChart;
+
+/**
+ * Interface for providers of charts over index ranges of a series, from which a
+ * {@link TiledChartPanel} renders its tiles.
+ */
+public interface IRangeChartProvider {
+
+  /**
+   * Gets the number of bars of the series. Called on the Swing event dispatch thread, so it should
+   * not compute the series.
+   * 
+   * @return The number of bars
+   */
+  int size();
+
+  /**
+   * Builds a chart of an index range of the series. Called on a background thread.
+   * 
+   * @param startIndex The first index of the range, inclusive
+   * @param endIndex The last index of the range, inclusive
+   * @param width The width in pixels the chart is rendered at, e.g. to downsample the range to
+   * @return New chart of the range
+   */
+  JFreeChart getChart(int startIndex, int endIndex, int width);
+
+}
@@ -0,0 +1,149 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.tiles;
+
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ * Least-recently-used cache of tile images bounded by the total size of their pixels.
+ * <p>
+ * Thread-safe: tiles are added by the renderer thread and read on the Swing event dispatch thread.
+ */
+class TileCache {
+
+  private final long budgetBytes;
+
+  // Access order makes the eldest entry the least recently shown tile.
+  private final LinkedHashMap<TileKey, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long sizeBytes;
+  private long evictions;
+
+  /**
+   * Constructor
+   * 
+   * @param budgetBytes The maximum total size of the tile images
+   * @throws IllegalArgumentException If budgetBytes is negative.
+   */
+  TileCache(long budgetBytes) throws IllegalArgumentException {
+
+    if (budgetBytes < 0) {
+      throw new IllegalArgumentException("Budget cannot be negative");
+    }
+
+    this.budgetBytes = budgetBytes;
+  }
+
+  /**
+   * Gets a tile and marks it as the most recently shown one.
+   * 
+   * @param key The tile key
+   * @return The tile image, or null if it isn't cached.
+   */
+  synchronized BufferedImage get(TileKey key) {
+    return tiles.get(key);
+  }
+
+  /**
+   * Tells whether a tile is cached, without marking it as shown.
+   * 
+   * @param key The tile key
+   * @return True if the tile is cached.
+   */
+  synchronized boolean contains(TileKey key) {
+    return tiles.containsKey(key);
+  }
+
+  /**
+   * Adds a tile, evicting the least recently shown tiles until the cache fits its budget. Pinned
+   * tiles are only evicted if the other tiles don't free enough room. Tiles larger than the whole
+   * budget are not cached.
+   * 
+   * @param key The tile key
+   * @param image The tile image
+   * @param pinned The tiles to keep if possible, e.g. the ones the view wants
+   */
+  synchronized void put(TileKey key, BufferedImage image, Set<TileKey> pinned) {
+
+    final long imageBytes = key.getImageBytes();
+
+    if (imageBytes > budgetBytes) {
+      return;
+    }
+
+    if (tiles.put(key, image) == null) {
+      sizeBytes += imageBytes;
+    }
+
+    evict(pinned);
+    evict(Collections.emptySet());
+  }
+
+  private void evict(Set<TileKey> pinned) {
+
+    Iterator<TileKey> iterator = tiles.keySet().iterator();
+
+    while (sizeBytes > budgetBytes && iterator.hasNext()) {
+
+      final TileKey eldest = iterator.next();
+
+      if (!pinned.contains(eldest)) {
+        sizeBytes -= eldest.getImageBytes();
+        iterator.remove();
+        evictions++;
+      }
+    }
+  }
+
+  /**
+   * Removes all tiles.
+   */
+  synchronized void clear() {
+    tiles.clear();
+    sizeBytes = 0;
+  }
+
+  long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  synchronized int getCount() {
+    return tiles.size();
+  }
+
+  synchronized long getEvictions() {
+    return evictions;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("%d tiles, %.1f of %.1f MB, %d evictions", tiles.size(), sizeBytes / 1e6,
+        budgetBytes / 1e6, evictions);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.tiles;
+
+/**
+ * Layout of the tiles of a series with a given number of bars.
+ * <p>
+ * Zoom level 0 shows all bars and each further level halves the number of visible bars, down to
+ * {@link #MIN_VISIBLE_BARS}. The tiles of a level show that many bars each and start a fixed step
+ * of {@code 1 / }{@link #STEPS_PER_VIEW} of a view apart, so panning by a step moves to the next
+ * tile.
+ */
+final class TileGrid {
+
+  /** The number of tiles per view width at every level */
+  static final int STEPS_PER_VIEW = 32;
+
+  /** The smallest number of bars shown, bounding the deepest zoom level */
+  static final int MIN_VISIBLE_BARS = 32;
+
+  private final int numBars;
+  private final int maxLevel;
+
+  /**
+   * Constructor
+   * 
+   * @param numBars The number of bars of the series
+   * @throws IllegalArgumentException If numBars is smaller than one (1).
+   */
+  TileGrid(int numBars) throws IllegalArgumentException {
+
+    if (numBars < 1) {
+      throw new IllegalArgumentException("Number of bars must be greater than zero");
+    }
+
+    int level = 0;
+
+    while ((numBars >> (level + 1)) >= MIN_VISIBLE_BARS) {
+      level++;
+    }
+
+    this.numBars = numBars;
+    this.maxLevel = level;
+  }
+
+  int getNumBars() {
+    return numBars;
+  }
+
+  int getMaxLevel() {
+    return maxLevel;
+  }
+
+  /**
+   * Gets the number of bars shown at a zoom level.
+   * 
+   * @param level The zoom level, from 0 to {@link #getMaxLevel()}
+   * @return The number of bars of each tile of the level
+   */
+  int getVisibleBars(int level) {
+    return numBars >> level;
+  }
+
+  /**
+   * Gets the number of bars between the starts of neighboring tiles.
+   * 
+   * @param level The zoom level, from 0 to {@link #getMaxLevel()}
+   * @return The step in bars
+   */
+  int getStep(int level) {
+    return Math.max(1, getVisibleBars(level) / STEPS_PER_VIEW);
+  }
+
+  /**
+   * Gets the index of the last tile of a level, the one ending at the last bar.
+   * 
+   * @param level The zoom level, from 0 to {@link #getMaxLevel()}
+   * @return The last tile index
+   */
+  int getMaxIndex(int level) {
+    final int step = getStep(level);
+    return (numBars - getVisibleBars(level) + step - 1) / step;
+  }
+
+  /**
+   * Gets the first bar of a tile.
+   * 
+   * @param level The zoom level, from 0 to {@link #getMaxLevel()}
+   * @param index The tile index, from 0 to {@link #getMaxIndex(int)}
+   * @return The index of the first bar, inclusive
+   */
+  int getStartIndex(int level, int index) {
+    return Math.min(index * getStep(level), numBars - getVisibleBars(level));
+  }
+
+  /**
+   * Gets the last bar of a tile.
+   * 
+   * @param level The zoom level, from 0 to {@link #getMaxLevel()}
+   * @param index The tile index, from 0 to {@link #getMaxIndex(int)}
+   * @return The index of the last bar, inclusive
+   */
+  int getEndIndex(int level, int index) {
+    return getStartIndex(level, index) + getVisibleBars(level) - 1;
+  }
+
+  /**
+   * Gets the tile whose first bar is nearest to a bar position.
+   * 
+   * @param level The zoom level, from 0 to {@link #getMaxLevel()}
+   * @param startBar The position of the first visible bar, may be fractional or out of range
+   * @return The tile index
+   */
+  int getIndexAt(int level, double startBar) {
+    final long index = Math.round(startBar / getStep(level));
+    return (int) Math.max(0, Math.min(getMaxIndex(level), index));
+  }
+
+  /**
+   * Clamps the position of the first visible bar so that a whole view fits the series.
+   * 
+   * @param level The zoom level, from 0 to {@link #getMaxLevel()}
+   * @param startBar The position of the first visible bar
+   * @return The clamped position
+   */
+  double clampStartBar(int level, double startBar) {
+    return Math.max(0.0, Math.min(numBars - getVisibleBars(level), startBar));
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.tiles;
+
+/**
+ * Identifies a tile: the chart it belongs to, its zoom level and index in the {@link TileGrid} of
+ * that level, and the image size it is rendered at.
+ */
+final class TileKey {
+
+  private final int generation;
+  private final int level;
+  private final int index;
+  private final int width;
+  private final int height;
+
+  /**
+   * Constructor
+   * 
+   * @param generation The number of the chart the tile belongs to, changing with each new chart
+   * @param level The zoom level
+   * @param index The tile index within the level
+   * @param width The image width in pixels
+   * @param height The image height in pixels
+   */
+  TileKey(int generation, int level, int index, int width, int height) {
+    this.generation = generation;
+    this.level = level;
+    this.index = index;
+    this.width = width;
+    this.height = height;
+  }
+
+  int getGeneration() {
+    return generation;
+  }
+
+  int getLevel() {
+    return level;
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  int getWidth() {
+    return width;
+  }
+
+  int getHeight() {
+    return height;
+  }
+
+  /**
+   * Gets the size of the tile image.
+   * 
+   * @return The number of bytes of the ARGB pixels
+   */
+  long getImageBytes() {
+    return 4L * width * height;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+
+    if (this == obj) {
+      return true;
+    }
+
+    if (!(obj instanceof TileKey)) {
+      return false;
+    }
+
+    TileKey other = (TileKey) obj;
+
+    return generation == other.generation && level == other.level && index == other.index
+        && width == other.width && height == other.height;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = generation;
+    hash = 31 * hash + level;
+    hash = 31 * hash + index;
+    hash = 31 * hash + width;
+    return 31 * hash + height;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Tile[generation %d, level %d, index %d, %dx%d]", generation, level, index,
+        width, height);
+  }
+}
@@ -0,0 +1,457 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.tiles;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+import org.jfree.chart.JFreeChart;
+
+import com.jfcbuilder.demo.metrics.PipelineMetrics;
+import com.jfcbuilder.demo.metrics.PipelineStage;
+
+/**
+ * Chart viewer for long series that pans and zooms by drawing pre-rendered image tiles instead of
+ * replotting every point.
+ * <p>
+ * A tile is the chart of one index range of the series at one zoom level, see {@link TileGrid},
+ * rendered at the panel size from an {@link IRangeChartProvider} on a background thread. Besides
+ * the visible tile, the neighboring tiles of the same level and the tiles one level in and out are
+ * rendered ahead of time, as many of them as the memory budget holds, and tiles are kept in a
+ * least-recently-used cache within that budget that keeps the wanted tiles over the others. While
+ * the visible tile is still being rendered the last shown tile stays on screen. A tile that
+ * fails to render is not tried again until the chart changes and its error is shown instead.
+ * <p>
+ * The renderer thread runs while the panel is displayable, i.e. it is started by
+ * {@link #addNotify()} and stopped by {@link #removeNotify()}.
+ * <p>
+ * Drag with the mouse to pan, turn the mouse wheel to zoom around the pointer and double-click to
+ * show the whole series again. A tile is a whole chart including its axes, so the view shows the
+ * tile nearest to the panned position and moves in steps of 1/32 of a view instead of following
+ * the pointer exactly.
+ */
+public class TiledChartPanel extends JPanel {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Logger LOGGER = Logger.getLogger(TiledChartPanel.class.getName());
+
+  /** Default maximum total size of the cached tile images */
+  public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+  // Tiles rendered ahead on each side of the visible one, a quarter view of panning.
+  private static final int PREFETCH_TILES = TileGrid.STEPS_PER_VIEW / 4;
+
+  /**
+   * The chart shown, replaced as a whole so the renderer thread sees a consistent state.
+   */
+  private static class Source {
+
+    private final IRangeChartProvider provider;
+    private final TileGrid grid;
+    private final int generation;
+
+    private Source(IRangeChartProvider provider, TileGrid grid, int generation) {
+      this.provider = provider;
+      this.grid = grid;
+      this.generation = generation;
+    }
+  }
+
+  private final transient TileCache cache;
+  private final transient BlockingDeque<TileKey> renderQueue = new LinkedBlockingDeque<>();
+  private final transient Set<TileKey> queued = ConcurrentHashMap.newKeySet();
+  private final transient Map<TileKey, String> failed = new ConcurrentHashMap<>();
+
+  // Written on the event dispatch thread, read by the renderer thread.
+  private transient volatile Thread renderer;
+  private transient volatile Source source;
+  private transient volatile Set<TileKey> wanted = Collections.emptySet();
+
+  // View state, confined to the event dispatch thread.
+  private int generation;
+  private int level;
+  private double startBar;
+  private int dragX;
+  private transient TileKey visibleKey;
+  private transient BufferedImage shownTile;
+
+  /**
+   * Constructor.
+   * 
+   * @param budgetBytes The maximum total size of the cached tile images, see
+   *        {@link #DEFAULT_BUDGET_BYTES}
+   * @throws IllegalArgumentException If budgetBytes is negative.
+   */
+  public TiledChartPanel(long budgetBytes) throws IllegalArgumentException {
+
+    this.cache = new TileCache(budgetBytes);
+
+    MouseAdapter mouseHandler = new MouseAdapter() {
+
+      @Override
+      public void mousePressed(MouseEvent e) {
+        dragX = e.getX();
+      }
+
+      @Override
+      public void mouseDragged(MouseEvent e) {
+        pan(dragX - e.getX());
+        dragX = e.getX();
+      }
+
+      @Override
+      public void mouseClicked(MouseEvent e) {
+        if (e.getClickCount() == 2) {
+          zoom(-level, 0);
+        }
+      }
+
+      @Override
+      public void mouseWheelMoved(MouseWheelEvent e) {
+        zoom(-e.getWheelRotation(), e.getX());
+      }
+    };
+
+    addMouseListener(mouseHandler);
+    addMouseMotionListener(mouseHandler);
+    addMouseWheelListener(mouseHandler);
+
+    addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentResized(ComponentEvent e) {
+        updateView();
+      }
+    });
+  }
+
+  /**
+   * Shows a new chart, zoomed out to the whole series. Drops the tiles of the previous chart.
+   * 
+   * @param provider Provides the chart of each tile, null to show nothing
+   */
+  public void setChart(IRangeChartProvider provider) {
+
+    generation++;
+    level = 0;
+    startBar = 0.0;
+    shownTile = null;
+    cache.clear();
+    failed.clear();
+
+    final int numBars = provider == null ? 0 : provider.size();
+
+    source = numBars < 1 ? null : new Source(provider, new TileGrid(numBars), generation);
+
+    updateView();
+  }
+
+  /**
+   * Starts the daemon thread rendering the tiles of the panel.
+   */
+  @Override
+  public void addNotify() {
+
+    super.addNotify();
+
+    if (renderer == null) {
+      renderer = new Thread(this::renderTiles, "chart-tiles");
+      renderer.setDaemon(true);
+      renderer.start();
+      updateView();
+    }
+  }
+
+  /**
+   * Stops the thread rendering the tiles of the panel and drops the queued tiles.
+   */
+  @Override
+  public void removeNotify() {
+
+    final Thread renderer = this.renderer;
+
+    if (renderer != null) {
+      this.renderer = null;
+      renderer.interrupt();
+      renderQueue.clear();
+      queued.clear();
+    }
+
+    super.removeNotify();
+  }
+
+  /**
+   * Gets the zoom level, 0 showing the whole series and each further level half as many bars.
+   * 
+   * @return The zoom level
+   */
+  public int getZoomLevel() {
+    return level;
+  }
+
+  /**
+   * Gets the range of bars shown.
+   * 
+   * @return The first and last index of the shown range, or null if no chart is shown.
+   */
+  public int[] getIndexRange() {
+
+    final Source source = this.source;
+
+    if (source == null || visibleKey == null) {
+      return null;
+    }
+
+    return new int[] { source.grid.getStartIndex(level, visibleKey.getIndex()),
+        source.grid.getEndIndex(level, visibleKey.getIndex()) };
+  }
+
+  /**
+   * Gets a summary of the tile cache, e.g. its size and eviction count.
+   * 
+   * @return The summary
+   */
+  public String getCacheSummary() {
+    return cache.toString();
+  }
+
+  /**
+   * Pans the view.
+   * 
+   * @param dx The distance in pixels, positive to move to later bars
+   */
+  void pan(int dx) {
+
+    final Source source = this.source;
+
+    if (source == null || getWidth() < 1) {
+      return;
+    }
+
+    startBar = source.grid.clampStartBar(level,
+        startBar + (double) dx * source.grid.getVisibleBars(level) / getWidth());
+
+    updateView();
+  }
+
+  /**
+   * Zooms the view, keeping the bar at an x position in place.
+   * 
+   * @param levels The number of levels to zoom in, negative to zoom out
+   * @param x The x position in pixels
+   */
+  void zoom(int levels, int x) {
+
+    final Source source = this.source;
+
+    if (source == null || getWidth() < 1) {
+      return;
+    }
+
+    final int newLevel = Math.max(0, Math.min(source.grid.getMaxLevel(), level + levels));
+    final double fraction = Math.max(0.0, Math.min(1.0, (double) x / getWidth()));
+    final double anchorBar = startBar + fraction * source.grid.getVisibleBars(level);
+
+    startBar = source.grid.clampStartBar(newLevel,
+        anchorBar - fraction * source.grid.getVisibleBars(newLevel));
+    level = newLevel;
+
+    updateView();
+  }
+
+  /**
+   * Works out the visible tile and the ones to render ahead of time after a view change, queues the
+   * missing ones for rendering and repaints.
+   */
+  private void updateView() {
+
+    final Source source = this.source;
+    final int width = getWidth();
+    final int height = getHeight();
+
+    if (source == null || width < 1 || height < 1) {
+      visibleKey = null;
+      wanted = Collections.emptySet();
+      repaint();
+      return;
+    }
+
+    final TileGrid grid = source.grid;
+    final int index = grid.getIndexAt(level, startBar);
+
+    List<TileKey> keys = new ArrayList<>();
+
+    visibleKey = new TileKey(generation, level, index, width, height);
+    keys.add(visibleKey);
+
+    for (int n = 1; n <= PREFETCH_TILES; n++) {
+      if (index + n <= grid.getMaxIndex(level)) {
+        keys.add(new TileKey(generation, level, index + n, width, height));
+      }
+      if (index - n >= 0) {
+        keys.add(new TileKey(generation, level, index - n, width, height));
+      }
+    }
+
+    // The tiles a zoom step in or out around the center of the view would show.
+    final double centerBar = startBar + grid.getVisibleBars(level) / 2.0;
+
+    for (int otherLevel : new int[] { level + 1, level - 1 }) {
+      if (otherLevel >= 0 && otherLevel <= grid.getMaxLevel()) {
+        final double otherStart = centerBar - grid.getVisibleBars(otherLevel) / 2.0;
+        keys.add(new TileKey(generation, otherLevel, grid.getIndexAt(otherLevel, otherStart),
+            width, height));
+      }
+    }
+
+    // Only prefetch what the budget holds, or prefetched tiles would evict each other.
+    final long maxTiles = Math.max(1, cache.getBudgetBytes() / visibleKey.getImageBytes());
+
+    if (keys.size() > maxTiles) {
+      keys = keys.subList(0, (int) maxTiles);
+    }
+
+    wanted = new HashSet<>(keys);
+
+    // The visible tile goes ahead of everything queued, the others behind nearest first.
+    for (int n = 0; n < keys.size(); n++) {
+      final TileKey key = keys.get(n);
+      if (!cache.contains(key) && !failed.containsKey(key) && queued.add(key)) {
+        if (n == 0) {
+          renderQueue.addFirst(key);
+        } else {
+          renderQueue.addLast(key);
+        }
+      } else if (n == 0 && renderQueue.remove(key)) {
+        renderQueue.addFirst(key);
+      }
+    }
+
+    repaint();
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+
+    super.paintComponent(g);
+
+    if (visibleKey == null) {
+      return;
+    }
+
+    PipelineMetrics.run(PipelineStage.RENDER, "TiledChartPanel", () -> {
+
+      final BufferedImage tile = cache.get(visibleKey);
+
+      if (tile != null) {
+        shownTile = tile;
+      }
+
+      final String error = tile == null ? failed.get(visibleKey) : null;
+
+      if (error != null) {
+        g.setColor(Color.RED);
+        g.drawString("Failed to render tile: " + error, 10, 10 + g.getFontMetrics().getAscent());
+      } else if (shownTile != null) {
+        g.drawImage(shownTile, 0, 0, getWidth(), getHeight(), null);
+      }
+    });
+  }
+
+  /**
+   * Renders queued tiles until the panel stops its renderer thread. Runs on the renderer thread.
+   */
+  private void renderTiles() {
+
+    while (renderer == Thread.currentThread()) {
+
+      final TileKey key;
+
+      try {
+        key = renderQueue.takeFirst();
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      try {
+        renderTile(key);
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Failed to render " + key, e);
+        failed.put(key, e.toString());
+        repaintIfVisible(key);
+      } finally {
+        queued.remove(key);
+      }
+    }
+  }
+
+  private void renderTile(TileKey key) {
+
+    final Source source = this.source;
+
+    // Skip tiles the view has moved away from since they were queued.
+    if (source == null || source.generation != key.getGeneration() || !wanted.contains(key)
+        || cache.contains(key)) {
+      return;
+    }
+
+    final int startIndex = source.grid.getStartIndex(key.getLevel(), key.getIndex());
+    final int endIndex = source.grid.getEndIndex(key.getLevel(), key.getIndex());
+
+    final JFreeChart chart = PipelineMetrics.time(PipelineStage.BUILD, "TiledChartPanel",
+        () -> source.provider.getChart(startIndex, endIndex, key.getWidth()));
+
+    final BufferedImage image = PipelineMetrics.time(PipelineStage.RENDER, "TileRenderer",
+        () -> chart.createBufferedImage(key.getWidth(), key.getHeight()));
+
+    cache.put(key, image, wanted);
+
+    repaintIfVisible(key);
+  }
+
+  private void repaintIfVisible(TileKey key) {
+    SwingUtilities.invokeLater(() -> {
+      if (key.equals(visibleKey)) {
+        repaint();
+      }
+    });
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link AscendingDateTimeGenerator} and {@link LocalMillisConverter}. The fixed-step fast
+ * path is compared element by element with stepping through {@link LocalDateTime} and converting
+ * each value with {@link LocalDateTime#atZone(ZoneId)}.
+ */
+public class AscendingDateTimeGeneratorTest {
+
+  // Zones with spring-forward gaps and fall-back overlaps, including a half-hour shift.
+  private static final List<String> ZONES = Arrays.asList("America/New_York", "Europe/London",
+      "Australia/Lord_Howe", "UTC");
+
+  private static final List<Set<DayOfWeek>> SKIP_DAYS = Arrays.asList(
+      Collections.<DayOfWeek>emptySet(), EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY),
+      EnumSet.of(DayOfWeek.SUNDAY));
+
+  // Windows around the 2021 spring-forward and fall-back transitions of the zones above.
+  private static final List<LocalDateTime> TRANSITIONS = Arrays.asList(
+      LocalDateTime.of(2021, 3, 14, 2, 0), LocalDateTime.of(2021, 11, 7, 1, 0),
+      LocalDateTime.of(2021, 3, 28, 1, 0), LocalDateTime.of(2021, 10, 31, 1, 0),
+      LocalDateTime.of(2021, 4, 4, 1, 30), LocalDateTime.of(2021, 10, 3, 2, 0));
+
+  @Test
+  public void fixedStepsMatchLocalDateTimeAcrossTransitions() {
+
+    for (ChronoUnit unit : new ChronoUnit[] { ChronoUnit.MILLIS, ChronoUnit.SECONDS,
+        ChronoUnit.MINUTES, ChronoUnit.HOURS, ChronoUnit.HALF_DAYS, ChronoUnit.DAYS,
+        ChronoUnit.WEEKS }) {
+
+      // About 2000 to 5000 values per window.
+      final long halfWindow = unit == ChronoUnit.WEEKS ? 1000 : 2000;
+
+      for (LocalDateTime transition : TRANSITIONS) {
+
+        // An odd sub-second start checks that only whole milliseconds are kept.
+        final LocalDateTime start = transition.minus(halfWindow, unit).plusNanos(123_456_789);
+        final LocalDateTime end = transition.plus(halfWindow, unit).plusSeconds(7);
+
+        assertSameAsLocalDateTime(start, end, unit);
+      }
+    }
+  }
+
+  @Test
+  public void emptyOrReversedRangesGiveNoValues() {
+    inZone("America/New_York", () -> {
+      final LocalDateTime date = LocalDateTime.of(2021, 3, 14, 2, 0);
+      assertEquals(0, AscendingDateTimeGenerator.get()
+          .getDateTimes(date, date, ChronoUnit.MINUTES, null).length);
+      assertEquals(0, AscendingDateTimeGenerator.get()
+          .getDateTimes(date, date.minusDays(1), ChronoUnit.MINUTES, null).length);
+    });
+  }
+
+  @Test
+  public void converterMatchesAtZoneAroundTransitions() {
+
+    for (String zoneName : ZONES) {
+
+      final ZoneId zone = ZoneId.of(zoneName);
+      final LocalMillisConverter converter = new LocalMillisConverter(zone);
+
+      // Ascending quarter-hours over the whole year, which crosses every transition of 2021.
+      LocalDateTime date = LocalDateTime.of(2020, 12, 31, 23, 59, 59, 999_000_000);
+
+      while (date.getYear() < 2022) {
+        assertEquals(zoneName + " " + date, date.atZone(zone).toInstant().toEpochMilli(),
+            converter.toEpochMilli(toLocalMillis(date)));
+        date = date.plusMinutes(15);
+      }
+    }
+  }
+
+  private static void assertSameAsLocalDateTime(LocalDateTime start, LocalDateTime end,
+      ChronoUnit unit) {
+
+    for (String zoneName : ZONES) {
+      inZone(zoneName, () -> {
+        for (Set<DayOfWeek> skipDays : SKIP_DAYS) {
+          assertArrayEquals(zoneName + " " + unit + " from " + start + " skipping " + skipDays,
+              stepThroughLocalDateTime(start, end, unit, skipDays, ZoneId.of(zoneName)),
+              AscendingDateTimeGenerator.get().getDateTimes(start, end, unit, skipDays));
+        }
+      });
+    }
+  }
+
+  /**
+   * The original generator loop.
+   */
+  private static long[] stepThroughLocalDateTime(LocalDateTime start, LocalDateTime end,
+      ChronoUnit unit, Set<DayOfWeek> skipDays, ZoneId zone) {
+
+    long[] dates = new long[1024];
+    int numDates = 0;
+
+    for (LocalDateTime date = start.plus(1, unit); !date.isAfter(end); date = date.plus(1, unit)) {
+
+      if (skipDays.contains(date.getDayOfWeek())) {
+        continue;
+      }
+
+      if (numDates == dates.length) {
+        dates = Arrays.copyOf(dates, 2 * numDates);
+      }
+
+      dates[numDates++] = date.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    return Arrays.copyOf(dates, numDates);
+  }
+
+  private static long toLocalMillis(LocalDateTime date) {
+    return date.toEpochSecond(ZoneOffset.UTC) * 1000L + date.getNano() / 1_000_000;
+  }
+
+  /**
+   * Runs with the default time zone set, as the generator uses the system default zone.
+   */
+  private static void inZone(String zoneName, Runnable runnable) {
+
+    final TimeZone defaultZone = TimeZone.getDefault();
+
+    try {
+      TimeZone.setDefault(TimeZone.getTimeZone(zoneName));
+      runnable.run();
+    } finally {
+      TimeZone.setDefault(defaultZone);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of {@link CompactDohlcvSeries} selecting bars by date.
+ */
+public class CompactDohlcvSeriesTest {
+
+  private static final long HOUR = 3_600_000L;
+
+  @Test
+  public void selectsStoredDatesAndNaNOtherwise() {
+
+    final long[] dates = { 10 * HOUR, 11 * HOUR, 13 * HOUR, 14 * HOUR };
+    final double[] closes = { 1.5, 2.5, 3.5, 4.5 };
+    final CompactDohlcvSeries compact = CompactDohlcvSeries.of(new DohlcvSeries(dates, closes,
+        closes, closes, closes, new double[] { 100, 200, 300, 400 }));
+
+    final long[] selected = { 9 * HOUR, 11 * HOUR, 12 * HOUR, 13 * HOUR, 14 * HOUR, 15 * HOUR };
+    final DohlcvSeries series = compact.getDohlcv(selected);
+
+    assertArrayEquals(selected, series.dates());
+    assertArrayEquals(new double[] { Double.NaN, 2.5, Double.NaN, 3.5, 4.5, Double.NaN },
+        series.closes(), 0.0);
+    assertArrayEquals(new double[] { Double.NaN, 200, Double.NaN, 300, 400, Double.NaN },
+        series.volumes(), 0.0);
+  }
+
+  @Test
+  public void selectsNothingFromEmptySeries() {
+
+    final CompactDohlcvSeries compact = CompactDohlcvSeries.of(new DohlcvSeries(new long[0],
+        new double[0], new double[0], new double[0], new double[0], new double[0]));
+
+    assertEquals(0, compact.getDohlcv(new long[0]).closes().length);
+    assertArrayEquals(new double[] { Double.NaN }, compact.getDohlcv(new long[] { HOUR })
+        .opens(), 0.0);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of {@link CsvDohlcvProvider} number parsing and date order checks, in one chunk and across
+ * chunk seams.
+ */
+public class CsvDohlcvProviderTest {
+
+  private static final String HEADER = "date,open,high,low,close,volume\n";
+
+  @Test
+  public void parsesIsoAndEpochDates() throws IOException {
+
+    DohlcvSeries dohlcv = load(HEADER
+        + "1970-01-02,1,2,0.5,1.5,100\n"
+        + "1970-01-02T00:01,1.5,2.5,1,2,200\n"
+        + "172800000,2,3,1.5,2.5,300\n", 1 << 20);
+
+    assertArrayEquals(new long[] { 86_400_000L, 86_460_000L, 172_800_000L }, dohlcv.dates());
+    assertArrayEquals(new double[] { 1.5, 2, 2.5 }, dohlcv.closes(), 0.0);
+    assertArrayEquals(new double[] { 100, 200, 300 }, dohlcv.volumes(), 0.0);
+  }
+
+  @Test
+  public void parsesExponents() throws IOException {
+
+    DohlcvSeries dohlcv = load("1,1e2,1.5E-3,-2e+1,12345678901234567e-5,1E0\n", 1 << 20);
+
+    assertEquals(100.0, dohlcv.opens()[0], 0.0);
+    assertEquals(1.5e-3, dohlcv.highs()[0], 0.0);
+    assertEquals(-20.0, dohlcv.lows()[0], 0.0);
+    assertEquals(123456789012.34567, dohlcv.closes()[0], 0.0);
+    assertEquals(1.0, dohlcv.volumes()[0], 0.0);
+  }
+
+  @Test
+  public void rejectsExponentWithoutDigits() {
+
+    for (String number : new String[] { "1e", "1e+", "1.5E-", "12345678901234567e" }) {
+      assertThrows(number, IOException.class, () -> load("1,1,1,1," + number + ",1\n", 1 << 20));
+      assertThrows(number, IOException.class, () -> load("1,1,1,1,1," + number + "\n", 1 << 20));
+    }
+  }
+
+  @Test
+  public void chunksJoinInFileOrder() throws IOException {
+
+    StringBuilder text = new StringBuilder(HEADER);
+
+    for (int n = 0; n < 1000; n++) {
+      text.append(60_000L * n).append(',').append(n).append(".25,").append(n + 1).append(',')
+          .append(n - 1).append(',').append(n).append(".5,").append(10 * n).append('\n');
+    }
+
+    DohlcvSeries whole = load(text.toString(), 1 << 20);
+    DohlcvSeries chunked = load(text.toString(), 100);
+
+    assertEquals(1000, whole.dates().length);
+    assertArrayEquals(whole.dates(), chunked.dates());
+    assertArrayEquals(whole.opens(), chunked.opens(), 0.0);
+    assertArrayEquals(whole.closes(), chunked.closes(), 0.0);
+    assertArrayEquals(whole.volumes(), chunked.volumes(), 0.0);
+  }
+
+  @Test
+  public void rejectsDescendingDatesWithLineNumber() {
+
+    final String text = HEADER
+        + "1000,1,1,1,1,1\n"
+        + "\n"
+        + "2000,1,1,1,1,1\n"
+        + "1500,1,1,1,1,1\n"
+        + "3000,1,1,1,1,1\n";
+
+    // One chunk, and one chunk per line so that the bad date is at a seam.
+    for (int chunkSize : new int[] { 1 << 20, 1 }) {
+      IOException e = assertThrows(IOException.class, () -> load(text, chunkSize));
+      assertEquals("Date doesn't ascend at line 5", e.getMessage());
+    }
+  }
+
+  @Test
+  public void rejectsRepeatedDatesWithLineNumber() {
+
+    final String text = "1000,1,1,1,1,1\n"
+        + "2000,1,1,1,1,1\n"
+        + "2000,1,1,1,1,1\n";
+
+    for (int chunkSize : new int[] { 1 << 20, 1 }) {
+      IOException e = assertThrows(IOException.class, () -> load(text, chunkSize));
+      assertEquals("Date doesn't ascend at line 3", e.getMessage());
+    }
+  }
+
+  private static DohlcvSeries load(String text, int chunkSize) throws IOException {
+
+    Path file = Files.createTempFile("dohlcv", ".csv");
+
+    try {
+      Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+      return CsvDohlcvProvider.load(file, ',', ZoneOffset.UTC, chunkSize).getDohlcv();
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
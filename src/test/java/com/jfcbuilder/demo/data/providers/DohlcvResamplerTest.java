@@ -0,0 +1,181 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of {@link DohlcvResampler} against a reference built with {@link ZonedDateTime}, over the
+ * days that daylight saving time starts and ends.
+ */
+public class DohlcvResamplerTest {
+
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+  private static final LocalDate SPRING_FORWARD = LocalDate.of(2023, 3, 12);
+  private static final LocalDate FALL_BACK = LocalDate.of(2023, 11, 5);
+  private static final long MINUTE = 60_000L;
+
+  @Test
+  public void matchesReferenceOnTransitionDays() {
+
+    for (LocalDate day : new LocalDate[] { SPRING_FORWARD, FALL_BACK }) {
+
+      final DohlcvSeries minutes = getMinutes(day);
+
+      for (int periodMinutes : new int[] { 1, 5, 60, 120, 1440 }) {
+
+        final DohlcvSeries expected = resample(minutes, periodMinutes);
+        final DohlcvSeries actual = periodMinutes == 1440
+            ? DohlcvResampler.get(1, ChronoUnit.DAYS, NEW_YORK, null).resample(minutes)
+            : DohlcvResampler.get(periodMinutes, ChronoUnit.MINUTES, NEW_YORK, null)
+                .resample(minutes);
+
+        final String message = day + " " + periodMinutes + " minutes";
+
+        assertArrayEquals(message, expected.dates(), actual.dates());
+        assertArrayEquals(message, expected.opens(), actual.opens(), 0.0);
+        assertArrayEquals(message, expected.highs(), actual.highs(), 0.0);
+        assertArrayEquals(message, expected.lows(), actual.lows(), 0.0);
+        assertArrayEquals(message, expected.closes(), actual.closes(), 0.0);
+        assertArrayEquals(message, expected.volumes(), actual.volumes(), 0.0);
+
+        for (int n = 1; n < actual.dates().length; n++) {
+          assertTrue(message + " bar " + n, actual.dates()[n - 1] < actual.dates()[n]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void splitsRepeatedHourWhenClocksGoBack() {
+
+    final DohlcvSeries hours = DohlcvResampler.get(1, ChronoUnit.HOURS, NEW_YORK, null)
+        .resample(getMinutes(FALL_BACK));
+
+    assertEquals(25, hours.dates().length);
+    assertEquals(Instant.parse("2023-11-05T05:00:00Z").toEpochMilli(), hours.dates()[1]);
+    assertEquals(Instant.parse("2023-11-05T06:00:00Z").toEpochMilli(), hours.dates()[2]);
+  }
+
+  @Test
+  public void keepsOneBarPerDay() {
+
+    for (LocalDate day : new LocalDate[] { SPRING_FORWARD, FALL_BACK }) {
+
+      final DohlcvSeries days = DohlcvResampler.get(1, ChronoUnit.DAYS, NEW_YORK, null)
+          .resample(getMinutes(day));
+
+      assertArrayEquals(new long[] { day.atStartOfDay(NEW_YORK).toInstant().toEpochMilli() },
+          days.dates());
+    }
+  }
+
+  /**
+   * Gets one-minute bars over a whole local day.
+   */
+  private static DohlcvSeries getMinutes(LocalDate day) {
+
+    final long start = day.atStartOfDay(NEW_YORK).toInstant().toEpochMilli();
+    final long end = day.plusDays(1).atStartOfDay(NEW_YORK).toInstant().toEpochMilli();
+    final int numBars = (int) ((end - start) / MINUTE);
+
+    final SplittableRandom random = new SplittableRandom(day.toEpochDay());
+    final long[] dates = new long[numBars];
+    final double[] opens = new double[numBars];
+    final double[] highs = new double[numBars];
+    final double[] lows = new double[numBars];
+    final double[] closes = new double[numBars];
+    final double[] volumes = new double[numBars];
+
+    for (int n = 0; n < numBars; n++) {
+      dates[n] = start + n * MINUTE;
+      opens[n] = 100.0 + random.nextDouble();
+      closes[n] = 100.0 + random.nextDouble();
+      highs[n] = Math.max(opens[n], closes[n]) + random.nextDouble();
+      lows[n] = Math.min(opens[n], closes[n]) - random.nextDouble();
+      volumes[n] = random.nextInt(1000);
+    }
+
+    return new DohlcvSeries(dates, opens, highs, lows, closes, volumes);
+  }
+
+  /**
+   * Reference aggregation: a bar's period starts at its local date-time truncated to the period,
+   * resolved with the bar's own offset where that is valid.
+   */
+  private static DohlcvSeries resample(DohlcvSeries source, int periodMinutes) {
+
+    final DohlcvColumns bars = new DohlcvColumns();
+    final long[] dates = source.dates();
+
+    long period = Long.MIN_VALUE;
+    double open = Double.NaN;
+    double high = Double.NaN;
+    double low = Double.NaN;
+    double close = Double.NaN;
+    double volume = 0.0;
+
+    for (int n = 0; n < dates.length; n++) {
+
+      final ZonedDateTime time = Instant.ofEpochMilli(dates[n]).atZone(NEW_YORK);
+      final LocalDateTime local = time.toLocalDateTime();
+      final int minuteOfDay = local.getHour() * 60 + local.getMinute();
+      final LocalDateTime localStart = local.toLocalDate().atStartOfDay()
+          .plusMinutes(minuteOfDay / periodMinutes * periodMinutes);
+      final long barPeriod = ZonedDateTime.ofLocal(localStart, NEW_YORK, time.getOffset())
+          .toInstant().toEpochMilli();
+
+      if (barPeriod != period) {
+        if (period != Long.MIN_VALUE) {
+          bars.add(period, open, high, low, close, volume);
+        }
+        period = barPeriod;
+        open = source.opens()[n];
+        high = source.highs()[n];
+        low = source.lows()[n];
+        volume = 0.0;
+      }
+
+      high = Math.max(high, source.highs()[n]);
+      low = Math.min(low, source.lows()[n]);
+      close = source.closes()[n];
+      volume += source.volumes()[n];
+    }
+
+    bars.add(period, open, high, low, close, volume);
+
+    return DohlcvColumns.join(new DohlcvColumns[] { bars });
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of the {@link MappedDohlcvFile} format: writing a series and mapping it back, and rejecting
+ * files with a bad header or missing data.
+ */
+public class MappedDohlcvFileTest {
+
+  private static final int HEADER_SIZE = 64;
+
+  @Test
+  public void roundTripsEveryColumn() throws IOException {
+
+    final DohlcvSeries dohlcv = getSeries(1_000);
+    final Path file = createTempFile();
+
+    MappedDohlcvFile.write(file, dohlcv);
+    final MappedDohlcvFile mapped = MappedDohlcvFile.open(file);
+
+    assertEquals(1_000, mapped.size());
+    assertSeriesEquals(dohlcv, mapped.getDohlcv());
+
+    final DohlcvSeries range = mapped.getDohlcv(100, 250);
+
+    assertArrayEquals(Arrays.copyOfRange(dohlcv.dates(), 100, 250), range.dates());
+    assertArrayEquals(Arrays.copyOfRange(dohlcv.volumes(), 100, 250), range.volumes(), 0.0);
+    assertEquals(dohlcv.closes()[999], mapped.closes().get(999), 0.0);
+    assertEquals(dohlcv.dates()[500], mapped.dates().get(500));
+  }
+
+  @Test
+  public void roundTripsEmptySeries() throws IOException {
+
+    final Path file = createTempFile();
+
+    MappedDohlcvFile.write(file, getSeries(0));
+
+    assertEquals(HEADER_SIZE, Files.size(file));
+    assertEquals(0, MappedDohlcvFile.open(file).getDohlcv().dates().length);
+  }
+
+  @Test
+  public void writesDocumentedLayout() throws IOException {
+
+    final DohlcvSeries dohlcv = getSeries(3);
+    final Path file = createTempFile();
+
+    MappedDohlcvFile.write(file, dohlcv);
+
+    final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file))
+        .order(ByteOrder.LITTLE_ENDIAN);
+
+    assertEquals(HEADER_SIZE + 6 * 8 * 3, bytes.capacity());
+    assertEquals("DOHLCV", new String(bytes.array(), 0, 6, StandardCharsets.US_ASCII));
+    assertEquals(1, bytes.get(6));
+    assertEquals(0, bytes.get(7));
+    assertEquals(3, bytes.getLong(8));
+
+    for (int n = 16; n < HEADER_SIZE; n++) {
+      assertEquals(0, bytes.get(n));
+    }
+
+    // Columns follow each other in date, open, high, low, close, volume order.
+    assertEquals(dohlcv.dates()[0], bytes.getLong(HEADER_SIZE));
+    assertEquals(dohlcv.opens()[1], bytes.getDouble(HEADER_SIZE + 24 + 8), 0.0);
+    assertEquals(dohlcv.highs()[2], bytes.getDouble(HEADER_SIZE + 48 + 16), 0.0);
+    assertEquals(dohlcv.lows()[0], bytes.getDouble(HEADER_SIZE + 72), 0.0);
+    assertEquals(dohlcv.closes()[1], bytes.getDouble(HEADER_SIZE + 96 + 8), 0.0);
+    assertEquals(dohlcv.volumes()[2], bytes.getDouble(HEADER_SIZE + 120 + 16), 0.0);
+  }
+
+  @Test
+  public void rejectsBadFiles() throws IOException {
+
+    final Path file = createTempFile();
+
+    MappedDohlcvFile.write(file, getSeries(10));
+
+    final byte[] valid = Files.readAllBytes(file);
+
+    // Truncated header
+    Files.write(file, Arrays.copyOf(valid, 40));
+    assertThrows(IOException.class, () -> MappedDohlcvFile.open(file));
+
+    // Truncated columns
+    Files.write(file, Arrays.copyOf(valid, valid.length - 1));
+    assertThrows(IOException.class, () -> MappedDohlcvFile.open(file));
+
+    // Bad magic
+    byte[] bytes = valid.clone();
+    bytes[0] = 'X';
+    Files.write(file, bytes);
+    assertThrows(IOException.class, () -> MappedDohlcvFile.open(file));
+
+    // Bad version
+    bytes = valid.clone();
+    bytes[6] = 2;
+    Files.write(file, bytes);
+    assertThrows(IOException.class, () -> MappedDohlcvFile.open(file));
+
+    // Negative and too large bar counts
+    for (long numBars : new long[] { -1L, Integer.MAX_VALUE / 8 + 1L }) {
+      bytes = valid.clone();
+      ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong(8, numBars);
+      Files.write(file, bytes);
+      assertThrows(IOException.class, () -> MappedDohlcvFile.open(file));
+    }
+  }
+
+  @Test
+  public void rejectsColumnLengthMismatch() throws IOException {
+
+    final DohlcvSeries dohlcv = getSeries(5);
+    final DohlcvSeries mismatched = new DohlcvSeries(dohlcv.dates(), dohlcv.opens(),
+        dohlcv.highs(), dohlcv.lows(), Arrays.copyOf(dohlcv.closes(), 4), dohlcv.volumes());
+    final Path file = createTempFile();
+
+    assertThrows(IllegalArgumentException.class, () -> MappedDohlcvFile.write(file, mismatched));
+  }
+
+  private static Path createTempFile() throws IOException {
+
+    final Path file = Files.createTempFile("dohlcv", ".bin");
+
+    // Mapped files can't be deleted on some platforms until they are unmapped.
+    file.toFile().deleteOnExit();
+
+    return file;
+  }
+
+  /**
+   * Gets a random series including NaN and infinite values and extreme dates.
+   */
+  private static DohlcvSeries getSeries(int numBars) {
+
+    final SplittableRandom random = new SplittableRandom(numBars);
+    final long[] dates = new long[numBars];
+    final double[][] columns = new double[5][numBars];
+
+    for (int n = 0; n < numBars; n++) {
+      dates[n] = n == 0 ? Long.MIN_VALUE : n == numBars - 1 ? Long.MAX_VALUE : random.nextLong();
+      for (double[] column : columns) {
+        final int kind = random.nextInt(100);
+        column[n] = kind == 0 ? Double.NaN
+            : kind == 1 ? Double.NEGATIVE_INFINITY : 1e6 * random.nextDouble();
+      }
+    }
+
+    return new DohlcvSeries(dates, columns[0], columns[1], columns[2], columns[3], columns[4]);
+  }
+
+  private static void assertSeriesEquals(DohlcvSeries expected, DohlcvSeries actual) {
+    assertArrayEquals(expected.dates(), actual.dates());
+    assertArrayEquals(expected.opens(), actual.opens(), 0.0);
+    assertArrayEquals(expected.highs(), actual.highs(), 0.0);
+    assertArrayEquals(expected.lows(), actual.lows(), 0.0);
+    assertArrayEquals(expected.closes(), actual.closes(), 0.0);
+    assertArrayEquals(expected.volumes(), actual.volumes(), 0.0);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator;
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator.StochData;
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of {@link RandomDohlcvGenerator}, in particular that its block cursors give the same values
+ * as whole series.
+ */
+public class RandomDohlcvGeneratorTest {
+
+  private static final int NUM_BARS = 20_000;
+  private static final long SEED = 99L;
+
+  @Test
+  public void sameRandomStateGivesSameSeries() {
+
+    final long[] dates = getDates();
+
+    DohlcvSeries first = RandomDohlcvGenerator.get().getDohlcv(dates, new SplittableRandom(SEED));
+    DohlcvSeries second = RandomDohlcvGenerator.get().getDohlcv(dates, new SplittableRandom(SEED));
+
+    assertArrayEquals(first.closes(), second.closes(), 0.0);
+    assertArrayEquals(first.volumes(), second.volumes(), 0.0);
+  }
+
+  @Test
+  public void cursorBlocksMatchWholeSeries() {
+
+    final long[] dates = getDates();
+    final DohlcvSeries whole = RandomDohlcvGenerator.get().getDohlcv(dates,
+        new SplittableRandom(SEED));
+
+    // Block sizes that divide the series evenly, leave a remainder, and exceed it.
+    for (int blockSize : new int[] { 1, 97, 4096, 5000, NUM_BARS + 1 }) {
+
+      DohlcvSeries streamed = readAll(RandomDohlcvGenerator.get().getCursor(
+          Arrays.stream(dates).iterator(), new SplittableRandom(SEED)), blockSize);
+
+      final String message = "block size " + blockSize;
+      assertArrayEquals(message, whole.dates(), streamed.dates());
+      assertArrayEquals(message, whole.opens(), streamed.opens(), 0.0);
+      assertArrayEquals(message, whole.highs(), streamed.highs(), 0.0);
+      assertArrayEquals(message, whole.lows(), streamed.lows(), 0.0);
+      assertArrayEquals(message, whole.closes(), streamed.closes(), 0.0);
+      assertArrayEquals(message, whole.volumes(), streamed.volumes(), 0.0);
+    }
+  }
+
+  @Test
+  public void cursorReturnsZeroOnceEnded() {
+
+    IDohlcvCursor cursor = RandomDohlcvGenerator.get().getCursor(
+        Arrays.stream(new long[] { 1L, 2L, 3L }).iterator(), new SplittableRandom(SEED));
+    DohlcvBlock block = new DohlcvBlock(2);
+
+    assertEquals(2, cursor.next(block));
+    assertEquals(1, cursor.next(block));
+    assertEquals(1, block.size());
+    assertEquals(0, cursor.next(block));
+    assertEquals(0, block.size());
+  }
+
+  @Test
+  public void streamedStochasticsMatchWholeSeries() {
+
+    final long[] dates = getDates();
+    final DohlcvSeries whole = RandomDohlcvGenerator.get().getDohlcv(dates,
+        new SplittableRandom(SEED));
+    final StochData expected = StochasticOscillator.calculate(14, 3, whole.highs(), whole.lows(),
+        whole.closes());
+
+    IDohlcvCursor cursor = RandomDohlcvGenerator.get().getCursor(Arrays.stream(dates).iterator(),
+        new SplittableRandom(SEED));
+    StochasticOscillator stochastic = new StochasticOscillator(14, 3);
+    DohlcvBlock block = new DohlcvBlock(4096);
+    double[] pctK = new double[block.capacity()];
+    double[] pctD = new double[block.capacity()];
+    double[] streamedK = new double[NUM_BARS];
+    double[] streamedD = new double[NUM_BARS];
+    int numBars = 0;
+
+    for (int length = cursor.next(block); length > 0; length = cursor.next(block)) {
+      stochastic.update(block.highs(), block.lows(), block.closes(), length, pctK, pctD);
+      System.arraycopy(pctK, 0, streamedK, numBars, length);
+      System.arraycopy(pctD, 0, streamedD, numBars, length);
+      numBars += length;
+    }
+
+    assertEquals(NUM_BARS, numBars);
+    assertArrayEquals(expected.getPctK(), streamedK, 0.0);
+    assertArrayEquals(expected.getPctD(), streamedD, 0.0);
+  }
+
+  private static long[] getDates() {
+
+    long[] dates = new long[NUM_BARS];
+
+    for (int n = 0; n < NUM_BARS; n++) {
+      dates[n] = 1_600_000_000_000L + 60_000L * n;
+    }
+
+    return dates;
+  }
+
+  private static DohlcvSeries readAll(IDohlcvCursor cursor, int blockSize) {
+
+    DohlcvBlock block = new DohlcvBlock(blockSize);
+    long[] dates = new long[0];
+    double[][] columns = new double[5][0];
+
+    for (int length = cursor.next(block); length > 0; length = cursor.next(block)) {
+
+      final int start = dates.length;
+
+      dates = Arrays.copyOf(dates, start + length);
+      System.arraycopy(block.dates(), 0, dates, start, length);
+
+      final double[][] blockColumns = { block.opens(), block.highs(), block.lows(), block.closes(),
+          block.volumes() };
+
+      for (int c = 0; c < columns.length; c++) {
+        columns[c] = Arrays.copyOf(columns[c], start + length);
+        System.arraycopy(blockColumns[c], 0, columns[c], start, length);
+      }
+    }
+
+    return new DohlcvSeries(dates, columns[0], columns[1], columns[2], columns[3], columns[4]);
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of {@link RandomDohlcvUniverseGenerator}.
+ */
+public class RandomDohlcvUniverseGeneratorTest {
+
+  private static final int NUM_BARS = 10_000;
+  private static final int NUM_SYMBOLS = 16;
+  private static final long SEED = 1234L;
+
+  @Test
+  public void universeIsBitIdenticalAcrossThreadCounts() {
+
+    final long[] dates = getDates();
+
+    final List<DohlcvSeries> single = generate(dates, 1);
+    final List<DohlcvSeries> parallel = generate(dates, 4);
+
+    assertEquals(NUM_SYMBOLS, single.size());
+    assertEquals(NUM_SYMBOLS, parallel.size());
+
+    for (int n = 0; n < NUM_SYMBOLS; n++) {
+      final DohlcvSeries expected = single.get(n);
+      final DohlcvSeries actual = parallel.get(n);
+      final String symbol = "symbol " + n;
+      assertArrayEquals(symbol, expected.dates(), actual.dates());
+      assertColumnEquals(symbol + " opens", expected.opens(), actual.opens());
+      assertColumnEquals(symbol + " highs", expected.highs(), actual.highs());
+      assertColumnEquals(symbol + " lows", expected.lows(), actual.lows());
+      assertColumnEquals(symbol + " closes", expected.closes(), actual.closes());
+      assertColumnEquals(symbol + " volumes", expected.volumes(), actual.volumes());
+    }
+
+    // Symbols must not all be copies of one series.
+    assertFalse(Arrays.equals(single.get(0).closes(), single.get(1).closes()));
+  }
+
+  @Test
+  public void compactUniverseIsBitIdenticalAcrossThreadCounts() {
+
+    final long[] dates = getDates();
+
+    final List<CompactDohlcvSeries> single = generateCompact(dates, 1);
+    final List<CompactDohlcvSeries> parallel = generateCompact(dates, 4);
+
+    for (int n = 0; n < NUM_SYMBOLS; n++) {
+      final CompactDohlcvSeries expected = single.get(n);
+      final CompactDohlcvSeries actual = parallel.get(n);
+      final String symbol = "symbol " + n;
+      assertArrayEquals(symbol, expected.dates(), actual.dates());
+      assertColumnEquals(symbol + " opens", expected.opens(), actual.opens());
+      assertColumnEquals(symbol + " highs", expected.highs(), actual.highs());
+      assertColumnEquals(symbol + " lows", expected.lows(), actual.lows());
+      assertColumnEquals(symbol + " closes", expected.closes(), actual.closes());
+      assertColumnEquals(symbol + " volumes", expected.volumes(), actual.volumes());
+    }
+  }
+
+  private static long[] getDates() {
+
+    long[] dates = new long[NUM_BARS];
+
+    for (int n = 0; n < NUM_BARS; n++) {
+      dates[n] = 1_600_000_000_000L + 60_000L * n;
+    }
+
+    return dates;
+  }
+
+  private static List<DohlcvSeries> generate(long[] dates, int numThreads) {
+
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+
+    try {
+      return RandomDohlcvUniverseGenerator.get(SEED).getUniverse(dates, NUM_SYMBOLS, pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static List<CompactDohlcvSeries> generateCompact(long[] dates, int numThreads) {
+
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+
+    try {
+      return RandomDohlcvUniverseGenerator.get(SEED).getCompactUniverse(dates, NUM_SYMBOLS, pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void assertColumnEquals(String message, double[] expected, double[] actual) {
+    assertTrue(message, Arrays.equals(expected, actual));
+  }
+
+  private static void assertColumnEquals(String message, float[] expected, float[] actual) {
+    assertTrue(message, Arrays.equals(expected, actual));
+  }
+}
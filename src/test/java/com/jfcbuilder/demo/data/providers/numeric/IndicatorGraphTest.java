@@ -0,0 +1,162 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.jfcbuilder.demo.data.providers.numeric.IndicatorGraph.Column;
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator.StochData;
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of {@link IndicatorGraph} and its {@link PrefixSums} SMAs against the plain indicator
+ * calculations.
+ */
+public class IndicatorGraphTest {
+
+  // Tolerance of the prefix-sum SMAs relative to the largest magnitude of the source.
+  private static final double RELATIVE_TOLERANCE = 1e-9;
+
+  @Test
+  public void prefixSumSmaMatchesSma() {
+
+    // A long series far from zero, where a plain running sum would lose digits.
+    final double[] source = SmaTest.getRandomValues(200_000, 21L);
+
+    for (int n = 0; n < source.length; n++) {
+      source[n] += 1e6;
+    }
+
+    final double scale = getMaxMagnitude(source);
+    final IndicatorGraph graph = IndicatorGraph.get(getSeries(source));
+
+    for (int period : new int[] { 1, 2, 20, 200, 5_000 }) {
+
+      final double[] expected = Sma.calculate(period, source);
+      final double[] actual = graph.sma(Column.CLOSE, period);
+
+      assertEquals(expected.length, actual.length);
+
+      for (int n = 0; n < expected.length; n++) {
+        assertEquals("period " + period + " index " + n, expected[n], actual[n],
+            RELATIVE_TOLERANCE * scale);
+      }
+    }
+  }
+
+  @Test
+  public void prefixSumsMatchDirectSums() {
+
+    final double[] source = SmaTest.getRandomValues(10_000, 22L);
+    final PrefixSums sums = new PrefixSums(source);
+
+    assertEquals(source.length, sums.size());
+
+    for (int start = 0; start < source.length; start += 997) {
+      for (int end = start; end <= source.length; end += 1_231) {
+
+        double sum = 0.0;
+        int nonFinite = 0;
+
+        for (int n = start; n < end; n++) {
+          if (Double.isFinite(source[n])) {
+            sum += source[n];
+          } else {
+            nonFinite++;
+          }
+        }
+
+        assertEquals(sum, sums.sum(start, end), RELATIVE_TOLERANCE * getMaxMagnitude(source));
+        assertEquals(nonFinite, sums.nonFiniteCount(start, end));
+      }
+    }
+  }
+
+  @Test
+  public void evaluateReturnsCachedValues() {
+
+    final double[] source = SmaTest.getRandomValues(1_000, 23L);
+    final IndicatorGraph graph = IndicatorGraph.get(getSeries(source));
+
+    final double[] sma20 = graph.sma(Column.CLOSE, 20);
+
+    // The close column, its prefix sums and the SMA.
+    assertEquals(3, graph.getCachedCount());
+    assertSame(sma20, graph.sma(Column.CLOSE, 20));
+    assertSame(sma20, graph.evaluate(IndicatorGraph.sma(IndicatorGraph.column(Column.CLOSE), 20)));
+
+    // A second SMA of the closes reuses their prefix sums.
+    graph.sma(Column.CLOSE, 50);
+    assertEquals(4, graph.getCachedCount());
+
+    // Stochastics with the same K share the rolling highs and lows, %K and its prefix sums.
+    final StochData first = graph.stochastic(14, 3);
+    final int count = graph.getCachedCount();
+    final StochData second = graph.stochastic(14, 5);
+
+    assertSame(first.getPctK(), second.getPctK());
+    assertEquals(count + 1, graph.getCachedCount());
+    assertSame(first.getPctD(), graph.stochastic(14, 3).getPctD());
+  }
+
+  @Test
+  public void stochasticMatchesOscillator() {
+
+    final double[] closes = SmaTest.getRandomValues(5_000, 24L);
+    final double[] highs = new double[closes.length];
+    final double[] lows = new double[closes.length];
+
+    for (int n = 0; n < closes.length; n++) {
+      highs[n] = closes[n] + 0.5;
+      lows[n] = closes[n] - 0.5;
+    }
+
+    final IndicatorGraph graph = IndicatorGraph
+        .get(new DohlcvSeries(new long[closes.length], closes, highs, lows, closes, closes));
+
+    final StochData expected = StochasticOscillator.calculate(14, 3, highs, lows, closes);
+    final StochData actual = graph.stochastic(14, 3);
+
+    assertArrayEquals(expected.getPctK(), actual.getPctK(), 0.0);
+    assertArrayEquals(expected.getPctD(), actual.getPctD(), RELATIVE_TOLERANCE * 100.0);
+  }
+
+  private static DohlcvSeries getSeries(double[] closes) {
+    return new DohlcvSeries(new long[closes.length], closes, closes, closes, closes, closes);
+  }
+
+  private static double getMaxMagnitude(double[] values) {
+
+    double max = 0.0;
+
+    for (double value : values) {
+      if (Double.isFinite(value)) {
+        max = Math.max(max, Math.abs(value));
+      }
+    }
+
+    return max;
+  }
+}
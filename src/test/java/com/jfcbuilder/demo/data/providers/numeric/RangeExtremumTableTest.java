@@ -0,0 +1,150 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of {@link RangeExtremumTable} against a linear scan of each range.
+ */
+public class RangeExtremumTableTest {
+
+  // Not a multiple of the block size, so the last block is partial.
+  private static final int NUM_ELEMS = 5003;
+
+  @Test
+  public void matchesLinearScan() {
+
+    final double[] values = getValues(NUM_ELEMS, 1L);
+
+    for (RollingExtremum.Type type : RollingExtremum.Type.values()) {
+
+      final RangeExtremumTable table = new RangeExtremumTable(type, values);
+
+      // Length 1, within one block, across two blocks, across many blocks and the whole series.
+      final int[][] ranges = { { 0, 0 }, { 4999, 4999 }, { 33, 62 }, { 64, 95 }, { 30, 33 },
+          { 31, 64 }, { 10, 4000 }, { 0, NUM_ELEMS - 1 }, { 200, 299 }, { 190, 310 } };
+
+      for (int[] range : ranges) {
+        assertRange(type, values, table, range[0], range[1]);
+      }
+
+      final SplittableRandom random = new SplittableRandom(2L);
+
+      for (int i = 0; i < 20_000; i++) {
+        final int start = random.nextInt(NUM_ELEMS);
+        final int length = random.nextBoolean() ? 1 + random.nextInt(70)
+            : 1 + random.nextInt(NUM_ELEMS - start);
+        assertRange(type, values, table, start, Math.min(NUM_ELEMS - 1, start + length - 1));
+      }
+    }
+  }
+
+  @Test
+  public void handlesShortSeries() {
+
+    for (int numElems = 1; numElems <= 70; numElems++) {
+
+      final double[] values = getValues(numElems, numElems);
+
+      for (RollingExtremum.Type type : RollingExtremum.Type.values()) {
+
+        final RangeExtremumTable table = new RangeExtremumTable(type, values);
+
+        for (int start = 0; start < numElems; start++) {
+          for (int end = start; end < numElems; end++) {
+            assertRange(type, values, table, start, end);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void indexMatchesLinearScan() {
+
+    final double[] highs = getValues(NUM_ELEMS, 3L);
+    final double[] lows = getValues(NUM_ELEMS, 4L);
+    final double[] closes = new double[NUM_ELEMS];
+
+    final DohlcvRangeIndex index = DohlcvRangeIndex
+        .get(new DohlcvSeries(new long[NUM_ELEMS], closes, highs, lows, closes, closes));
+
+    final SplittableRandom random = new SplittableRandom(5L);
+
+    for (int i = 0; i < 5_000; i++) {
+      final int start = random.nextInt(NUM_ELEMS);
+      final int end = start + random.nextInt(NUM_ELEMS - start);
+      assertEquals(scan(RollingExtremum.Type.MAX, highs, start, end), index.getHigh(start, end),
+          0.0);
+      assertEquals(scan(RollingExtremum.Type.MIN, lows, start, end), index.getLow(start, end),
+          0.0);
+    }
+  }
+
+  private static void assertRange(RollingExtremum.Type type, double[] values,
+      RangeExtremumTable table, int start, int end) {
+    assertEquals(type + " " + start + ".." + end, scan(type, values, start, end),
+        table.get(start, end), 0.0);
+  }
+
+  private static double scan(RollingExtremum.Type type, double[] values, int start, int end) {
+
+    double extremum = Double.NaN;
+
+    for (int n = start; n <= end; n++) {
+      if (Double.isFinite(values[n]) && (Double.isNaN(extremum)
+          || (type == RollingExtremum.Type.MAX ? values[n] > extremum : values[n] < extremum))) {
+        extremum = values[n];
+      }
+    }
+
+    return extremum;
+  }
+
+  /**
+   * Gets random values with scattered NaN and infinite values, and runs of NaN filling a whole
+   * block (64 to 127) and spanning a block boundary (190 to 310).
+   */
+  private static double[] getValues(int numElems, long seed) {
+
+    final SplittableRandom random = new SplittableRandom(seed);
+    final double[] values = new double[numElems];
+
+    for (int n = 0; n < numElems; n++) {
+      final double u = random.nextDouble();
+      values[n] = u < 0.03 ? Double.NaN
+          : u < 0.04 ? (random.nextBoolean() ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY)
+              : 1000.0 * random.nextDouble() - 500.0;
+      if ((n >= 64 && n < 128) || (n >= 190 && n <= 310)) {
+        values[n] = Double.NaN;
+      }
+    }
+
+    return values;
+  }
+}
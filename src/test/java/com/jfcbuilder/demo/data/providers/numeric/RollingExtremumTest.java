@@ -0,0 +1,117 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link RollingExtremum}.
+ */
+public class RollingExtremumTest {
+
+  private static final double NaN = Double.NaN;
+
+  @Test
+  public void matchesBruteForceScan() {
+
+    final double[] source = SmaTest.getRandomValues(5_000, 11L);
+
+    for (int period : new int[] { 1, 2, 5, 64, 1_000 }) {
+      assertArrayEquals("min " + period, scan(source, period, false),
+          RollingExtremum.calculateMin(period, source), 0.0);
+      assertArrayEquals("max " + period, scan(source, period, true),
+          RollingExtremum.calculateMax(period, source), 0.0);
+    }
+  }
+
+  @Test
+  public void handlesMonotonicAndRepeatedValues() {
+
+    final double[] ascending = { 1.0, 2.0, 3.0, 4.0, 5.0, 6.0 };
+    final double[] descending = { 6.0, 5.0, 4.0, 3.0, 2.0, 1.0 };
+    final double[] repeated = { 2.0, 2.0, 1.0, 1.0, 2.0, 2.0 };
+
+    for (double[] source : new double[][] { ascending, descending, repeated }) {
+      assertArrayEquals(scan(source, 3, false), RollingExtremum.calculateMin(3, source), 0.0);
+      assertArrayEquals(scan(source, 3, true), RollingExtremum.calculateMax(3, source), 0.0);
+    }
+  }
+
+  @Test
+  public void isNanWithoutFiniteValuesInWindow() {
+
+    final double[] source = { 1.0, NaN, NaN, NaN, 5.0 };
+
+    assertArrayEquals(new double[] { NaN, 1.0, NaN, NaN, 5.0 },
+        RollingExtremum.calculateMax(2, source), 0.0);
+  }
+
+  @Test
+  public void floatOverloadMatchesWidenedValues() {
+
+    final double[] source = SmaTest.getRandomValues(1_000, 5L);
+    final float[] floats = new float[source.length];
+    final double[] widened = new double[source.length];
+
+    for (int n = 0; n < source.length; n++) {
+      floats[n] = (float) source[n];
+      widened[n] = floats[n];
+    }
+
+    assertArrayEquals(RollingExtremum.calculateMin(14, widened),
+        RollingExtremum.calculateMin(14, floats), 0.0);
+    assertArrayEquals(RollingExtremum.calculateMax(14, widened),
+        RollingExtremum.calculateMax(14, floats), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsPeriodBelowOne() {
+    new RollingExtremum(RollingExtremum.Type.MIN, 0);
+  }
+
+  /**
+   * Extremum of the finite values of each full window, by scanning the window.
+   */
+  static double[] scan(double[] source, int period, boolean max) {
+
+    double[] result = new double[source.length];
+
+    for (int n = 0; n < source.length; n++) {
+
+      double extremum = NaN;
+
+      if (n >= period - 1) {
+        for (int m = n - period + 1; m <= n; m++) {
+          if (Double.isFinite(source[m]) && (Double.isNaN(extremum)
+              || (max ? source[m] > extremum : source[m] < extremum))) {
+            extremum = source[m];
+          }
+        }
+      }
+
+      result[n] = extremum;
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.jfcbuilder.demo.data.providers.numeric.Sinusoid.SinusoidParams;
+
+/**
+ * Tests of {@link Sinusoid#fillSum(SinusoidParams[], SinusoidParams[], long, double[], int, int)}
+ * against direct Math.cos and Math.sin evaluation.
+ */
+public class SinusoidTest {
+
+  private static final SinusoidParams[] NONE = {};
+
+  // Sample numbers far from zero, where the angles are large
+  private static final long[] FIRST_NS = { 0L, 1_000_003L, 123_456_789L, 2_000_000_011L };
+
+  private static final int LENGTH = 5 * Sinusoid.RESEED_INTERVAL + 17;
+
+  // The documented bound of the recurrence error relative to the amplitude
+  private static final double RECURRENCE_BOUND = Sinusoid.RESEED_INTERVAL * Math.ulp(1.0);
+
+  @Test
+  public void recurrenceStaysWithinDocumentedBound() {
+
+    final SplittableRandom random = new SplittableRandom(18L);
+
+    for (int trial = 0; trial < 50; trial++) {
+
+      final SinusoidParams params = getParams(random);
+      final boolean cosine = trial % 2 == 0;
+
+      for (long firstN : FIRST_NS) {
+
+        // Blocks start off the re-seed points to exercise the catch-up rotations.
+        final long start = firstN + 1 + random.nextInt(Sinusoid.RESEED_INTERVAL - 1);
+        final double[] values = new double[LENGTH];
+
+        fill(params, cosine, start, values, 0, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+
+          final long n = start + i;
+          final double expected = getRotated(params, cosine, n);
+          final double error = Math.abs(values[i] - expected);
+          final double tolerance = getTolerance(params, n);
+
+          assertTrue("n = " + n + ": error " + error + " above " + tolerance, error <= tolerance);
+
+          if (n % Sinusoid.RESEED_INTERVAL == 0) {
+            assertEquals(getDirect(params, cosine, n), values[i], 0.0);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void differsFromDirectEvaluationByAngleRoundingAtMost() {
+
+    final SplittableRandom random = new SplittableRandom(1018L);
+
+    for (int trial = 0; trial < 50; trial++) {
+
+      final SinusoidParams params = getParams(random);
+      final boolean cosine = trial % 2 == 0;
+
+      for (long firstN : FIRST_NS) {
+
+        final long start = firstN + 1 + random.nextInt(Sinusoid.RESEED_INTERVAL - 1);
+        final double[] values = new double[LENGTH];
+
+        fill(params, cosine, start, values, 0, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+
+          final long n = start + i;
+          final double angle = 2.0 * Math.PI * params.getFreqScaleFactor() * (double) n;
+
+          // Half an ulp for the rounding of each of the direct and the re-seed angles
+          final double tolerance = getTolerance(params, n)
+              + params.getAmplitude() * Math.ulp(angle);
+
+          assertEquals("n = " + n, getDirect(params, cosine, n), values[i], tolerance);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void matchesPerSampleMethodsAtSmallSampleNumbers() {
+
+    final SinusoidParams cosine = new SinusoidParams(40.0, 1.0 / 40.0, 80.0);
+    final SinusoidParams sine = new SinusoidParams(15.0, 1.0 / 7.0, 30.0);
+    final double[] values = new double[1000];
+
+    Sinusoid.fillSum(new SinusoidParams[] { cosine }, new SinusoidParams[] { sine }, 0L, values, 0,
+        values.length);
+
+    for (int n = 0; n < values.length; n++) {
+      assertEquals(Sinusoid.getCosineValue(cosine, n) + Sinusoid.getSineValue(sine, n), values[n],
+          1e-11);
+    }
+  }
+
+  @Test
+  public void resultsDontDependOnBlockStart() {
+
+    final SplittableRandom random = new SplittableRandom(2018L);
+
+    final SinusoidParams[] cosines = { getParams(random), getParams(random) };
+    final SinusoidParams[] sines = { getParams(random), getParams(random), getParams(random) };
+
+    for (long firstN : FIRST_NS) {
+
+      final long start = firstN + 3;
+      final double[] whole = new double[LENGTH];
+
+      Sinusoid.fillSum(cosines, sines, start, whole, 0, LENGTH);
+
+      for (int trial = 0; trial < 20; trial++) {
+
+        final double[] blocks = new double[LENGTH];
+
+        for (int offset = 0; offset < LENGTH;) {
+          final int length = Math.min(LENGTH - offset, 1 + random.nextInt(300));
+          Sinusoid.fillSum(cosines, sines, start + offset, blocks, offset, length);
+          offset += length;
+        }
+
+        assertArrayEquals(whole, blocks, 0.0);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNegativeFirstN() {
+    Sinusoid.fillSum(NONE, NONE, -1L, new double[1], 0, 1);
+  }
+
+  @Test(expected = ArrayIndexOutOfBoundsException.class)
+  public void rejectsBlockOutOfBounds() {
+    Sinusoid.fillSum(NONE, NONE, 0L, new double[4], 2, 3);
+  }
+
+  /**
+   * Gets random parameters with periods from 20 to 1000 samples.
+   */
+  private static SinusoidParams getParams(SplittableRandom random) {
+    final double amplitude = 1.0 + random.nextDouble() * 99.0;
+    return new SinusoidParams(amplitude, 1.0 / (20.0 + random.nextDouble() * 980.0),
+        2.0 * amplitude);
+  }
+
+  private static void fill(SinusoidParams params, boolean cosine, long firstN, double[] values,
+      int offset, int length) {
+
+    final SinusoidParams[] components = { params };
+
+    Sinusoid.fillSum(cosine ? components : NONE, cosine ? NONE : components, firstN, values,
+        offset, length);
+  }
+
+  /**
+   * Evaluates a sample directly at the angle the per-sample methods compute.
+   */
+  private static double getDirect(SinusoidParams params, boolean cosine, long n) {
+
+    final double angle = 2.0 * Math.PI * params.getFreqScaleFactor() * (double) n;
+
+    return params.getAmplitude() * (cosine ? Math.cos(angle) : Math.sin(angle))
+        + params.getAmplitudeOffset();
+  }
+
+  /**
+   * Evaluates a sample directly at the angle the recurrence follows: the exact angle of the
+   * previous re-seed point plus the steps since, so only the recurrence error remains.
+   */
+  private static double getRotated(SinusoidParams params, boolean cosine, long n) {
+
+    final double omega = 2.0 * Math.PI * params.getFreqScaleFactor();
+    final long seedN = n - n % Sinusoid.RESEED_INTERVAL;
+    final double seedAngle = omega * (double) seedN;
+    final double stepAngle = omega * (double) (n - seedN);
+
+    final double wave = cosine
+        ? Math.cos(seedAngle) * Math.cos(stepAngle) - Math.sin(seedAngle) * Math.sin(stepAngle)
+        : Math.sin(seedAngle) * Math.cos(stepAngle) + Math.cos(seedAngle) * Math.sin(stepAngle);
+
+    return params.getAmplitude() * wave + params.getAmplitudeOffset();
+  }
+
+  /**
+   * Gets the documented recurrence bound plus the rounding of the reference: its step angle,
+   * trigonometric calls and products, and of adding the amplitude offset.
+   */
+  private static double getTolerance(SinusoidParams params, long n) {
+
+    final double omega = 2.0 * Math.PI * params.getFreqScaleFactor();
+    final double stepAngle = omega * (double) (n % Sinusoid.RESEED_INTERVAL);
+
+    return params.getAmplitude() * (RECURRENCE_BOUND + Math.ulp(stepAngle) + 4.0 * Math.ulp(1.0))
+        + 2.0 * Math.ulp(params.getAmplitude() + params.getAmplitudeOffset());
+  }
+}
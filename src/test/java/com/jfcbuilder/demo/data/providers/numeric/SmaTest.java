@@ -0,0 +1,167 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link Sma}.
+ */
+public class SmaTest {
+
+  private static final double NaN = Double.NaN;
+
+  @Test
+  public void windowIsExactlyPeriodLong() {
+
+    assertArrayEquals(new double[] { NaN, NaN, 2.0, 3.0, 4.0, 5.0 },
+        Sma.calculate(3, new double[] { 1.0, 2.0, 3.0, 4.0, 5.0, 6.0 }), 0.0);
+
+    // The first value leaves the window after exactly period further values.
+    assertArrayEquals(new double[] { NaN, NaN, 100.0 / 3.0, 0.0, 0.0 },
+        Sma.calculate(3, new double[] { 100.0, 0.0, 0.0, 0.0, 0.0 }), 1e-12);
+
+    assertArrayEquals(new double[] { 4.0, -1.0, 7.5 },
+        Sma.calculate(1, new double[] { 4.0, -1.0, 7.5 }), 0.0);
+  }
+
+  @Test
+  public void isReadyAfterPeriodValues() {
+
+    Sma sma = new Sma(4);
+
+    for (int n = 0; n < 3; n++) {
+      sma.update(n);
+      assertFalse(sma.isReady());
+    }
+
+    sma.update(3.0);
+    assertTrue(sma.isReady());
+    assertEquals(1.5, sma.getValue(), 0.0);
+  }
+
+  @Test
+  public void nonFiniteValuesMakeSmaNanWhileInsideWindow() {
+
+    for (double nonFinite : new double[] { NaN, Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY }) {
+
+      final double[] sma = Sma.calculate(3,
+          new double[] { 1.0, 2.0, nonFinite, 4.0, 5.0, 6.0, 7.0 });
+
+      assertArrayEquals(new double[] { NaN, NaN, NaN, NaN, NaN, 5.0, 6.0 }, sma, 0.0);
+    }
+  }
+
+  @Test
+  public void batchMatchesIncrementalAndBlockUpdates() {
+
+    final double[] source = getRandomValues(10_000, 42L);
+
+    for (int period : new int[] { 1, 2, 7, 50, 200 }) {
+
+      final double[] batch = Sma.calculate(period, source);
+
+      Sma incremental = new Sma(period);
+      double[] single = new double[source.length];
+
+      for (int n = 0; n < source.length; n++) {
+        single[n] = incremental.update(source[n]);
+      }
+
+      assertArrayEquals("period " + period, batch, single, 0.0);
+      assertArrayEquals("period " + period, batch, updateInBlocks(new Sma(period), source, 97),
+          0.0);
+    }
+  }
+
+  @Test
+  public void floatOverloadMatchesWidenedValues() {
+
+    final double[] source = getRandomValues(1_000, 7L);
+    final float[] floats = new float[source.length];
+    final double[] widened = new double[source.length];
+
+    for (int n = 0; n < source.length; n++) {
+      floats[n] = (float) source[n];
+      widened[n] = floats[n];
+    }
+
+    assertArrayEquals(Sma.calculate(20, widened), Sma.calculate(20, floats), 0.0);
+  }
+
+  @Test
+  public void resetStartsNewSeries() {
+
+    final double[] source = getRandomValues(500, 3L);
+
+    Sma sma = new Sma(10);
+    updateInBlocks(sma, source, 64);
+    sma.reset();
+
+    assertArrayEquals(Sma.calculate(10, source), updateInBlocks(sma, source, 64), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsPeriodBelowOne() {
+    new Sma(0);
+  }
+
+  private static double[] updateInBlocks(Sma sma, double[] source, int blockSize) {
+
+    double[] results = new double[source.length];
+    double[] block = new double[blockSize];
+    double[] blockResults = new double[blockSize];
+
+    for (int start = 0; start < source.length; start += blockSize) {
+      final int length = Math.min(blockSize, source.length - start);
+      System.arraycopy(source, start, block, 0, length);
+      sma.update(block, length, blockResults);
+      System.arraycopy(blockResults, 0, results, start, length);
+    }
+
+    return results;
+  }
+
+  /**
+   * Gets a random walk with an occasional NaN.
+   */
+  static double[] getRandomValues(int length, long seed) {
+
+    SplittableRandom random = new SplittableRandom(seed);
+    double[] values = new double[length];
+    double value = 100.0;
+
+    for (int n = 0; n < length; n++) {
+      value += random.nextDouble(-1.0, 1.0);
+      values[n] = random.nextInt(500) == 0 ? NaN : value;
+    }
+
+    return values;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.providers.numeric;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.jfcbuilder.demo.data.providers.numeric.StochasticOscillator.StochData;
+
+/**
+ * Tests of {@link StochasticOscillator}.
+ */
+public class StochasticOscillatorTest {
+
+  private static final double NaN = Double.NaN;
+
+  @Test
+  public void pctKMatchesDefinition() {
+
+    final int numBars = 2_000;
+    final int K = 14;
+    final int D = 3;
+
+    SplittableRandom random = new SplittableRandom(17L);
+    double[] highs = new double[numBars];
+    double[] lows = new double[numBars];
+    double[] closes = new double[numBars];
+
+    for (int n = 0; n < numBars; n++) {
+      lows[n] = 100.0 + random.nextDouble(-10.0, 10.0);
+      highs[n] = lows[n] + random.nextDouble(0.1, 5.0);
+      closes[n] = random.nextDouble(lows[n], highs[n]);
+    }
+
+    final double[] lowest = RollingExtremumTest.scan(lows, K, false);
+    final double[] highest = RollingExtremumTest.scan(highs, K, true);
+    double[] pctK = new double[numBars];
+
+    for (int n = 0; n < numBars; n++) {
+      pctK[n] = 100.0 * (closes[n] - lowest[n]) / (highest[n] - lowest[n]);
+    }
+
+    StochData stoch = StochasticOscillator.calculate(K, D, highs, lows, closes);
+
+    assertArrayEquals(pctK, stoch.getPctK(), 1e-9);
+    assertArrayEquals(Sma.calculate(D, pctK), stoch.getPctD(), 1e-9);
+  }
+
+  @Test
+  public void pctKIsNanWhenHighEqualsLow() {
+
+    // Flat bars for the first five, then a rising one.
+    final double[] highs = { 5.0, 5.0, 5.0, 5.0, 5.0, 7.0 };
+    final double[] lows = { 5.0, 5.0, 5.0, 5.0, 5.0, 6.0 };
+    final double[] closes = { 5.0, 5.0, 5.0, 5.0, 5.0, 6.5 };
+
+    StochData stoch = StochasticOscillator.calculate(3, 2, highs, lows, closes);
+
+    assertArrayEquals(new double[] { NaN, NaN, NaN, NaN, NaN, 75.0 }, stoch.getPctK(), 0.0);
+
+    // %D stays NaN while a NaN %K is inside its window.
+    for (double pctD : stoch.getPctD()) {
+      assertTrue(Double.isNaN(pctD));
+    }
+  }
+
+  @Test
+  public void floatOverloadMatchesWidenedValues() {
+
+    final float[] highs = { 3.5f, 4.25f, 5.0f, 4.75f, 6.0f, 5.5f };
+    final float[] lows = { 2.5f, 3.0f, 4.0f, 3.5f, 4.5f, 4.0f };
+    final float[] closes = { 3.0f, 4.0f, 4.5f, 4.0f, 5.75f, 4.25f };
+
+    StochData doubles = StochasticOscillator.calculate(3, 2, widen(highs), widen(lows),
+        widen(closes));
+    StochData floats = StochasticOscillator.calculate(3, 2, highs, lows, closes);
+
+    assertArrayEquals(doubles.getPctK(), floats.getPctK(), 0.0);
+    assertArrayEquals(doubles.getPctD(), floats.getPctD(), 0.0);
+  }
+
+  @Test
+  public void emptySourceGivesEmptyData() {
+    StochData stoch = StochasticOscillator.calculate(14, 3, new double[0], new double[0],
+        new double[0]);
+    assertEquals(0, stoch.getPctK().length);
+    assertEquals(0, stoch.getPctD().length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsMismatchedLengths() {
+    StochasticOscillator.calculate(14, 3, new double[2], new double[2], new double[3]);
+  }
+
+  private static double[] widen(float[] values) {
+
+    double[] widened = new double[values.length];
+
+    for (int n = 0; n < values.length; n++) {
+      widened[n] = values[n];
+    }
+
+    return widened;
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.sampling;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.jfcbuilder.demo.data.sampling.Downsampler.Mode;
+import com.jfcbuilder.demo.data.sampling.Downsampler.SampledDohlcv;
+import com.jfcbuilder.demo.data.sampling.Downsampler.SampledSeries;
+import com.jfcbuilder.types.DohlcvSeries;
+
+/**
+ * Tests of {@link Downsampler} against brute-force references, over ranges that don't start at
+ * index 0 and series with missing (NaN) points.
+ */
+public class DownsamplerTest {
+
+  private static final int NUM_POINTS = 1000;
+  private static final int PLOT_WIDTH = 50;
+  private static final long STEP = 60_000L;
+
+  private static final int[][] RANGES = { { 0, NUM_POINTS - 1 }, { 17, 912 }, { 3, 140 } };
+
+  @Test
+  public void minMaxKeepsExtremesOfEachBucket() {
+
+    final long[] times = getTimes();
+    final double[] values = getValues(1L, 0.05);
+    final Downsampler downsampler = Downsampler.get(Mode.MIN_MAX, PLOT_WIDTH);
+
+    for (int[] range : RANGES) {
+
+      final int numElems = range[1] - range[0] + 1;
+      final SampledSeries sampled = downsampler.downsample(times, range[0], range[1], values);
+
+      assertEquals(2 * PLOT_WIDTH, sampled.times().length);
+      assertEquals(times[range[0]], sampled.times()[0]);
+      assertEquals(times[range[1]], sampled.times()[2 * PLOT_WIDTH - 1]);
+
+      int next = range[0];
+
+      for (int bucket = 0; bucket < PLOT_WIDTH; bucket++) {
+
+        // Buckets are consecutive and cover the range.
+        final int first = next;
+        final int last = range[0] + (int) ((long) (bucket + 1) * numElems / PLOT_WIDTH) - 1;
+        next = last + 1;
+
+        int minIndex = -1;
+        int maxIndex = -1;
+
+        for (int n = first; n <= last; n++) {
+          if (!Double.isNaN(values[n]) && (minIndex < 0 || values[n] < values[minIndex])) {
+            minIndex = n;
+          }
+          if (!Double.isNaN(values[n]) && (maxIndex < 0 || values[n] > values[maxIndex])) {
+            maxIndex = n;
+          }
+        }
+
+        final String message = "range " + range[0] + " bucket " + bucket;
+
+        assertEquals(message, times[first], sampled.times()[2 * bucket]);
+        assertEquals(message, times[last], sampled.times()[2 * bucket + 1]);
+        assertEquals(message, minIndex < 0 ? Double.NaN : values[Math.min(minIndex, maxIndex)],
+            sampled.series(0)[2 * bucket], 0.0);
+        assertEquals(message, maxIndex < 0 ? Double.NaN : values[Math.max(minIndex, maxIndex)],
+            sampled.series(0)[2 * bucket + 1], 0.0);
+      }
+
+      assertEquals(range[1] + 1, next);
+    }
+  }
+
+  @Test
+  public void lttbPicksLargestTriangles() {
+
+    final long[] times = getTimes();
+    final double[] reference = getValues(2L, 0.05);
+    final double[] other = getValues(3L, 0.0);
+    final Downsampler downsampler = Downsampler.get(Mode.LTTB, PLOT_WIDTH);
+
+    for (int[] range : RANGES) {
+
+      final SampledSeries sampled = downsampler.downsample(times, range[0], range[1], reference,
+          other);
+      final int[] indices = getIndices(sampled.times());
+
+      assertEquals(PLOT_WIDTH, indices.length);
+      assertEquals(range[0], indices[0]);
+      assertEquals(range[1], indices[PLOT_WIDTH - 1]);
+
+      final int numElems = range[1] - range[0] + 1;
+      final double bucketSize = (double) (numElems - 2) / (PLOT_WIDTH - 2);
+
+      for (int bucket = 0; bucket < PLOT_WIDTH - 2; bucket++) {
+
+        final int first = range[0] + 1 + (int) (bucket * bucketSize);
+        final int end = range[0] + 1 + (int) ((bucket + 1) * bucketSize);
+        final int nextEnd = Math.min(range[0] + 1 + (int) ((bucket + 2) * bucketSize),
+            range[1] + 1);
+
+        double avgX = 0.0;
+        double avgY = 0.0;
+        int count = 0;
+
+        for (int n = end; n < nextEnd; n++) {
+          if (!Double.isNaN(reference[n])) {
+            avgX += times[n];
+            avgY += reference[n];
+            count++;
+          }
+        }
+
+        avgX /= count;
+        avgY /= count;
+
+        final int previous = indices[bucket];
+        final int selected = indices[bucket + 1];
+        final String message = "range " + range[0] + " bucket " + bucket;
+
+        assertTrue(message, selected >= first && selected < end);
+        assertFalse(message, Double.isNaN(reference[selected]));
+
+        final double maxArea = getArea(times, reference, previous, selected, avgX, avgY);
+
+        for (int n = first; n < end; n++) {
+          if (!Double.isNaN(reference[n])) {
+            assertTrue(message, getArea(times, reference, previous, n, avgX, avgY) <= maxArea);
+          }
+        }
+      }
+
+      for (int i = 0; i < indices.length; i++) {
+        assertEquals(other[indices[i]], sampled.series(1)[i], 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void aggregateSkipsMissingBars() {
+
+    final long[] dates = getTimes();
+    final double[] opens = getValues(4L, 0.05);
+    final double[] highs = getValues(5L, 0.05);
+    final double[] lows = getValues(6L, 0.05);
+    final double[] closes = getValues(7L, 0.05);
+    final double[] volumes = getValues(8L, 0.05);
+
+    // A whole bucket of missing bars.
+    for (int n = 40; n < 140; n++) {
+      opens[n] = highs[n] = lows[n] = closes[n] = volumes[n] = Double.NaN;
+    }
+
+    final DohlcvSeries dohlcv = new DohlcvSeries(dates, opens, highs, lows, closes, volumes);
+    final Downsampler downsampler = Downsampler.get(Mode.LTTB, PLOT_WIDTH);
+    final int numCandles = downsampler.getNumCandles();
+
+    boolean foundMissing = false;
+
+    for (int[] range : RANGES) {
+
+      final int numElems = range[1] - range[0] + 1;
+      final SampledDohlcv sampled = downsampler.aggregate(dohlcv, range[0], range[1], closes);
+      final DohlcvSeries candles = sampled.dohlcv();
+
+      assertEquals(numCandles, candles.dates().length);
+      assertEquals(dates[range[1]], candles.dates()[numCandles - 1]);
+
+      for (int candle = 0; candle < numCandles; candle++) {
+
+        final int first = range[0] + (int) ((long) candle * numElems / numCandles);
+        final int last = range[0] + (int) ((long) (candle + 1) * numElems / numCandles) - 1;
+
+        double open = Double.NaN;
+        double high = Double.NaN;
+        double low = Double.NaN;
+        double close = Double.NaN;
+        double volume = Double.NaN;
+
+        for (int n = first; n <= last; n++) {
+          open = Double.isNaN(open) ? opens[n] : open;
+          high = Double.isNaN(highs[n]) ? high : Double.isNaN(high) ? highs[n]
+              : Math.max(high, highs[n]);
+          low = Double.isNaN(lows[n]) ? low : Double.isNaN(low) ? lows[n] : Math.min(low, lows[n]);
+          close = Double.isNaN(closes[n]) ? close : closes[n];
+          volume = Double.isNaN(volumes[n]) ? volume : Double.isNaN(volume) ? volumes[n]
+              : volume + volumes[n];
+        }
+
+        foundMissing |= Double.isNaN(open);
+
+        final String message = "range " + range[0] + " candle " + candle;
+
+        assertEquals(message, dates[last], candles.dates()[candle]);
+        assertEquals(message, open, candles.opens()[candle], 0.0);
+        assertEquals(message, high, candles.highs()[candle], 0.0);
+        assertEquals(message, low, candles.lows()[candle], 0.0);
+        assertEquals(message, close, candles.closes()[candle], 0.0);
+        assertEquals(message, volume, candles.volumes()[candle], 0.0);
+        assertEquals(message, closes[last], sampled.overlay(0)[candle], 0.0);
+      }
+    }
+
+    assertTrue(foundMissing);
+  }
+
+  @Test
+  public void shortRangesAreCopied() {
+
+    final long[] times = getTimes();
+    final double[] values = getValues(9L, 0.1);
+
+    for (Mode mode : Mode.values()) {
+
+      final SampledSeries sampled = Downsampler.get(mode, PLOT_WIDTH).downsample(times, 100, 139,
+          values);
+
+      for (int i = 0; i < 40; i++) {
+        assertEquals(times[100 + i], sampled.times()[i]);
+        assertEquals(values[100 + i], sampled.series(0)[i], 0.0);
+      }
+    }
+  }
+
+  private static long[] getTimes() {
+
+    final long[] times = new long[NUM_POINTS];
+
+    for (int n = 0; n < NUM_POINTS; n++) {
+      times[n] = 1_000_000L + n * STEP;
+    }
+
+    return times;
+  }
+
+  /**
+   * Gets random values, a fraction of them missing. The first and last values are never missing.
+   */
+  private static double[] getValues(long seed, double missingFraction) {
+
+    final SplittableRandom random = new SplittableRandom(seed);
+    final double[] values = new double[NUM_POINTS];
+
+    for (int n = 0; n < NUM_POINTS; n++) {
+      values[n] = n > 0 && n < NUM_POINTS - 1 && random.nextDouble() < missingFraction
+          ? Double.NaN : 100.0 * random.nextDouble();
+    }
+
+    return values;
+  }
+
+  private static int[] getIndices(long[] sampledTimes) {
+
+    final int[] indices = new int[sampledTimes.length];
+
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = (int) ((sampledTimes[i] - 1_000_000L) / STEP);
+    }
+
+    assertArrayEquals(indices, Arrays.stream(indices).sorted().distinct().toArray());
+
+    return indices;
+  }
+
+  private static double getArea(long[] times, double[] values, int a, int b, double avgX,
+      double avgY) {
+    return Math.abs((times[a] - avgX) * (values[b] - values[a])
+        - (times[a] - times[b]) * (avgY - values[a]));
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.data.sampling;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.junit.Test;
+
+import com.jfcbuilder.demo.data.sampling.TimeAxisAligner.AlignedAxis;
+import com.jfcbuilder.demo.data.sampling.TimeAxisAligner.Fill;
+import com.jfcbuilder.demo.data.sampling.TimeAxisAligner.Join;
+
+/**
+ * Tests of {@link TimeAxisAligner}.
+ */
+public class TimeAxisAlignerTest {
+
+  @Test
+  public void singleAxisIsCopied() {
+
+    for (Join join : Join.values()) {
+
+      final long[] axis = { 1L, 2L, 5L };
+      final double[] values = { 10.0, 20.0, 50.0 };
+
+      AlignedAxis aligned = TimeAxisAligner.get(join).align(axis);
+      double[] reindexed = aligned.reindex(0, values, Fill.NAN);
+
+      assertNotSame(axis, aligned.times());
+      assertNotSame(values, reindexed);
+
+      axis[0] = 0L;
+      values[0] = 0.0;
+
+      assertArrayEquals(new long[] { 1L, 2L, 5L }, aligned.times());
+      assertArrayEquals(new double[] { 10.0, 20.0, 50.0 }, reindexed, 0.0);
+    }
+  }
+
+  @Test
+  public void unionFillsMissingTimes() {
+
+    AlignedAxis aligned = TimeAxisAligner.get(Join.UNION).align(new long[] { 1L, 3L, 4L },
+        new long[] { 2L, 3L }, new long[] { 4L, 6L });
+
+    assertArrayEquals(new long[] { 1L, 2L, 3L, 4L, 6L }, aligned.times());
+    assertArrayEquals(new double[] { 1.0, Double.NaN, 3.0, 4.0, Double.NaN },
+        aligned.reindex(0, new double[] { 1.0, 3.0, 4.0 }, Fill.NAN), 0.0);
+    assertArrayEquals(new double[] { Double.NaN, 2.0, 3.0, 3.0, 3.0 },
+        aligned.reindex(1, new double[] { 2.0, 3.0 }, Fill.FORWARD), 0.0);
+  }
+
+  @Test
+  public void intersectionKeepsSharedTimes() {
+
+    AlignedAxis aligned = TimeAxisAligner.get(Join.INTERSECTION).align(new long[] { 1L, 3L, 4L },
+        new long[] { 2L, 3L, 4L });
+
+    assertArrayEquals(new long[] { 3L, 4L }, aligned.times());
+    assertArrayEquals(new double[] { 30.0, 40.0 },
+        aligned.reindex(1, new double[] { 20.0, 30.0, 40.0 }, Fill.NAN), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnorderedAxis() {
+    TimeAxisAligner.get(Join.UNION).align(new long[] { 2L, 1L });
+  }
+}
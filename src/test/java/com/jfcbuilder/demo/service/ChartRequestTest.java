@@ -0,0 +1,69 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link ChartRequest} parsing, which decides what the service answers with status 400.
+ */
+public class ChartRequestTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2021, 6, 30);
+
+  @Test
+  public void equalChartsGetEqualKeys() {
+
+    ChartRequest first = ChartRequest.parse("type=line&sma=20,50&k=5", TODAY);
+    ChartRequest second = ChartRequest.parse("sma=20%2C50&type=line", TODAY);
+
+    assertEquals(first.getKey(), second.getKey());
+  }
+
+  @Test
+  public void rejectsRangesWithoutTwoWeekdays() {
+
+    // Bars start the day after from: Saturday and Sunday, then Saturday to Monday.
+    for (String query : new String[] { "from=2021-01-01&to=2021-01-03",
+        "from=2021-01-01&to=2021-01-04", "from=2021-01-04&to=2021-01-04" }) {
+      assertThrows(query, IllegalArgumentException.class, () -> ChartRequest.parse(query, TODAY));
+    }
+  }
+
+  @Test
+  public void acceptsRangesWithTwoWeekdays() {
+
+    ChartRequest request = ChartRequest.parse("from=2021-01-01&to=2021-01-05", TODAY);
+
+    assertEquals(LocalDate.of(2021, 1, 1), request.getFrom());
+    assertEquals(LocalDate.of(2021, 1, 5), request.getTo());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsOversizedImages() {
+    ChartRequest.parse("width=4001", TODAY);
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * jfreechart-builder-demo: a demonstration app for jfreechart-builder
+ * 
+ * (C) Copyright 2020, by Matt E.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package com.jfcbuilder.demo.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.jfcbuilder.demo.service.ResponseCache.Lookup;
+import com.jfcbuilder.demo.service.ResponseCache.Outcome;
+
+/**
+ * Tests of {@link ResponseCache} eviction by size and coalescing of concurrent misses.
+ */
+public class ResponseCacheTest {
+
+  // The size of an entry with a one-character key and a 100 byte body.
+  private static final int ENTRY_BYTES = 96 + 2 + 100;
+
+  @Test
+  public void missLoadsOnceThenHits() {
+
+    final AtomicInteger loads = new AtomicInteger();
+    final ResponseCache cache = new ResponseCache(10 * ENTRY_BYTES);
+    final Supplier<byte[]> loader = () -> {
+      loads.incrementAndGet();
+      return new byte[100];
+    };
+
+    final Lookup miss = cache.get("a", loader);
+    final Lookup hit = cache.get("a", loader);
+
+    assertEquals(Outcome.MISS, miss.getOutcome());
+    assertEquals(Outcome.HIT, hit.getOutcome());
+    assertSame(miss.getBody(), hit.getBody());
+    assertEquals(1, loads.get());
+    assertEquals(ENTRY_BYTES, cache.getSizeBytes());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedBySize() {
+
+    final ResponseCache cache = new ResponseCache(2 * ENTRY_BYTES);
+
+    cache.get("a", () -> new byte[100]);
+    cache.get("b", () -> new byte[100]);
+
+    // Using a makes b the least recently used entry.
+    assertEquals(Outcome.HIT, cache.get("a", () -> new byte[100]).getOutcome());
+
+    cache.get("c", () -> new byte[100]);
+
+    assertEquals(2, cache.getCount());
+    assertEquals(2 * ENTRY_BYTES, cache.getSizeBytes());
+    assertEquals(1, cache.getEvictions());
+    assertEquals(Outcome.HIT, cache.get("a", () -> new byte[100]).getOutcome());
+    assertEquals(Outcome.HIT, cache.get("c", () -> new byte[100]).getOutcome());
+    assertEquals(Outcome.MISS, cache.get("b", () -> new byte[100]).getOutcome());
+  }
+
+  @Test
+  public void doesNotCacheOversizeEntries() {
+
+    final ResponseCache cache = new ResponseCache(2 * ENTRY_BYTES);
+
+    cache.get("a", () -> new byte[100]);
+
+    final Lookup oversize = cache.get("b", () -> new byte[2 * ENTRY_BYTES]);
+
+    assertEquals(2 * ENTRY_BYTES, oversize.getBody().length);
+    assertEquals(1, cache.getCount());
+    assertEquals(ENTRY_BYTES, cache.getSizeBytes());
+    assertEquals(0, cache.getEvictions());
+    assertEquals(Outcome.MISS, cache.get("b", () -> new byte[2 * ENTRY_BYTES]).getOutcome());
+    assertEquals(Outcome.HIT, cache.get("a", () -> new byte[100]).getOutcome());
+
+    final ResponseCache disabled = new ResponseCache(0);
+
+    disabled.get("a", () -> new byte[1]);
+
+    assertEquals(Outcome.MISS, disabled.get("a", () -> new byte[1]).getOutcome());
+    assertEquals(0, disabled.getCount());
+  }
+
+  @Test
+  public void coalescesConcurrentMisses() throws Exception {
+
+    final ResponseCache cache = new ResponseCache(10 * ENTRY_BYTES);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger loads = new AtomicInteger();
+    final byte[] body = new byte[100];
+
+    final Supplier<byte[]> loader = () -> {
+      loads.incrementAndGet();
+      await(release);
+      return body;
+    };
+
+    final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    try {
+
+      final Future<Lookup> first = executor.submit(() -> cache.get("a", loader));
+      final Future<Lookup> second = executor.submit(() -> cache.get("a", loader));
+      final Future<Lookup> third = executor.submit(() -> cache.get("a", loader));
+
+      waitForCoalesced(cache, 2);
+      release.countDown();
+
+      int numMisses = 0;
+
+      for (Future<Lookup> future : Arrays.asList(first, second, third)) {
+        final Lookup lookup = future.get();
+        assertSame(body, lookup.getBody());
+        numMisses += lookup.getOutcome() == Outcome.MISS ? 1 : 0;
+      }
+
+      assertEquals(1, numMisses);
+      assertEquals(1, loads.get());
+      assertEquals(Outcome.HIT, cache.get("a", loader).getOutcome());
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void coalescedCallersGetLoaderException() throws Exception {
+
+    final ResponseCache cache = new ResponseCache(10 * ENTRY_BYTES);
+    final CountDownLatch release = new CountDownLatch(1);
+    final IllegalStateException failure = new IllegalStateException("Render failed");
+
+    final Supplier<byte[]> loader = () -> {
+      await(release);
+      throw failure;
+    };
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    try {
+
+      final Future<Lookup> first = executor.submit(() -> cache.get("a", loader));
+      final Future<Lookup> second = executor.submit(() -> cache.get("a", loader));
+
+      waitForCoalesced(cache, 1);
+      release.countDown();
+
+      for (Future<Lookup> future : Arrays.asList(first, second)) {
+        final ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertSame(failure, e.getCause());
+      }
+
+      // The failure is not cached, the next caller loads again.
+      final Lookup retry = cache.get("a", () -> new byte[] { 1 });
+
+      assertEquals(Outcome.MISS, retry.getOutcome());
+      assertArrayEquals(new byte[] { 1 }, retry.getBody());
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void waitForCoalesced(ResponseCache cache, int numCoalesced)
+      throws InterruptedException {
+    while (cache.getCoalesced() < numCoalesced) {
+      Thread.sleep(1);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}